@@ -49,6 +49,13 @@ CREATE TABLE IF NOT EXISTS picture
     picScale      DOUBLE       NULL COMMENT '图片宽高比例',
     picFormat     VARCHAR(32)  NULL COMMENT '图片格式',
     picColor      VARCHAR(16)  NULL COMMENT '图片主色调',
+    picColorRgb   INT          NULL COMMENT '图片主色调（0xRRGGBB 整数）',
+    picColorL     DOUBLE       NULL COMMENT '图片主色调 CIELAB L*',
+    picColorA     DOUBLE       NULL COMMENT '图片主色调 CIELAB a*',
+    picColorB     DOUBLE       NULL COMMENT '图片主色调 CIELAB b*',
+    picPalette    VARBINARY(20) NULL COMMENT '图片色板：最多 5 种颜色，每种 4 字节（R、G、B、权重 0~255），空值表示尚未提取，空串表示无法提取',
+    picFeature    VARBINARY(88) NULL COMMENT '以图搜图特征：感知哈希 8 字节 + 颜色直方图 64 字节 + 边缘直方图 16 字节，空值表示尚未提取，空串表示无法提取',
+    fileHash      CHAR(64)     NULL COMMENT '原图内容 SHA-256（关联 picture_file）',
 
     -- 关联与审核字段
     userId        BIGINT       NOT NULL COMMENT '创建用户 id',
@@ -71,9 +78,34 @@ CREATE TABLE IF NOT EXISTS picture
     INDEX idx_tags (tags),
     INDEX idx_userId (userId),
     INDEX idx_reviewStatus (reviewStatus),
-    INDEX idx_spaceId (spaceId)
+    INDEX idx_spaceId_createTime (spaceId, createTime),
+    INDEX idx_fileHash (fileHash),
+    INDEX idx_spaceId_colorLab (spaceId, picColorL, picColorA, picColorB),
+    FULLTEXT INDEX ft_name_introduction_category (name, introduction, category) WITH PARSER ngram
 ) COMMENT '图片' COLLATE = utf8mb4_unicode_ci;
 
+-- 图片文件表（按内容哈希去重的存储对象，维护引用计数）
+CREATE TABLE IF NOT EXISTS picture_file
+(
+    id           bigint auto_increment comment 'id' primary key,
+    fileHash     char(64)                           not null comment '原图内容 SHA-256（十六进制）',
+    originKey    varchar(255)                       not null comment '原图COS相对路径',
+    compressKey  varchar(255)                       null comment '压缩图COS相对路径',
+    thumbnailKey varchar(255)                       null comment '缩略图COS相对路径',
+    picSize      bigint                             null comment '图片体积',
+    picWidth     int                                null comment '图片宽度',
+    picHeight    int                                null comment '图片高度',
+    picScale     double                             null comment '图片宽高比例',
+    picFormat    varchar(32)                        null comment '图片格式',
+    picColor     varchar(16)                        null comment '图片主色调',
+    refCount     int      default 0                 not null comment '引用该文件的图片记录数',
+    createTime   datetime default CURRENT_TIMESTAMP not null comment '创建时间',
+    updateTime   datetime default CURRENT_TIMESTAMP not null on update CURRENT_TIMESTAMP comment '更新时间',
+
+    UNIQUE KEY uk_fileHash (fileHash),
+    INDEX idx_originKey (originKey)
+) COMMENT '图片文件（内容去重）' COLLATE = utf8mb4_unicode_ci;
+
 -- 空间表
 CREATE TABLE IF NOT EXISTS space
 (
@@ -91,7 +123,7 @@ CREATE TABLE IF NOT EXISTS space
     updateTime datetime default CURRENT_TIMESTAMP not null on update CURRENT_TIMESTAMP comment '更新时间',
     isDelete   tinyint  default 0                 not null comment '是否删除',
 
-    INDEX idx_userId (userId),
+    INDEX idx_userId_createTime (userId, createTime),
     INDEX idx_spaceName (spaceName),
     INDEX idx_spaceLevel (spaceLevel),
     INDEX idx_spaceType (spaceType)
@@ -126,6 +158,45 @@ CREATE TABLE IF NOT EXISTS picture_tag
     INDEX idx_sortOrder (sortOrder)
 ) COMMENT '图片标签' COLLATE = utf8mb4_unicode_ci;
 
+-- 标签字典表（标签名称与整型 id 一一对应，标签关联表只存 id）
+CREATE TABLE IF NOT EXISTS picture_tag_dict
+(
+    id         int auto_increment comment 'id' primary key,
+    tagName    varchar(64)                        not null comment '标签名称',
+    createTime datetime default CURRENT_TIMESTAMP not null comment '创建时间',
+
+    UNIQUE KEY uk_tagName (tagName)
+) COMMENT '标签字典' COLLATE = utf8mb4_unicode_ci;
+
+-- 图片标签关联表（与 picture.tags 同步维护，用于标签筛选与统计）
+CREATE TABLE IF NOT EXISTS picture_tag_rel
+(
+    id         bigint auto_increment comment 'id' primary key,
+    pictureId  bigint                             not null comment '图片 id',
+    tagId      int                                not null comment '标签 id（关联 picture_tag_dict）',
+    spaceId    bigint                             null comment '图片所在空间 id（为空表示公共图库）',
+    createTime datetime default CURRENT_TIMESTAMP not null comment '创建时间',
+
+    UNIQUE KEY uk_pictureId_tagId (pictureId, tagId),
+    INDEX idx_tagId_pictureId (tagId, pictureId),
+    INDEX idx_spaceId_tagId (spaceId, tagId)
+) COMMENT '图片标签关联' COLLATE = utf8mb4_unicode_ci;
+
+-- 图片色板颜色表（色板中的每种颜色一行，预先计算 CIELAB 分量，用于按色板搜图）
+CREATE TABLE IF NOT EXISTS picture_palette_color
+(
+    id        bigint auto_increment comment 'id' primary key,
+    pictureId bigint           not null comment '图片 id',
+    spaceId   bigint           null comment '图片所在空间 id（为空表示公共图库）',
+    colorL    double           not null comment '颜色 CIELAB L*',
+    colorA    double           not null comment '颜色 CIELAB a*',
+    colorB    double           not null comment '颜色 CIELAB b*',
+    weight    tinyint unsigned not null comment '颜色在色板中的权重（0~255）',
+
+    INDEX idx_spaceId_colorLab (spaceId, colorL, colorA, colorB, weight, pictureId),
+    INDEX idx_pictureId (pictureId)
+) COMMENT '图片色板颜色' COLLATE = utf8mb4_unicode_ci;
+
 -- 图片分类表
 CREATE TABLE IF NOT EXISTS picture_category
 (
@@ -156,8 +227,46 @@ CREATE TABLE IF NOT EXISTS sys_notice
     updateTime    datetime DEFAULT CURRENT_TIMESTAMP NOT NULL ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
     isDelete      tinyint  DEFAULT 0                 NOT NULL COMMENT '是否删除',
 
-    INDEX idx_userId (userId),
+    INDEX idx_userId_createTime (userId, createTime),
     INDEX idx_pictureId (pictureId),
     INDEX idx_noticeStatus (noticeStatus),
     INDEX idx_readStatus (readStatus)
 ) COMMENT '系统通知表' COLLATE = utf8mb4_unicode_ci;
+
+-- 图片批量导入任务表（后台抓取任务及其进度，支持中断后恢复）
+CREATE TABLE IF NOT EXISTS picture_import_job
+(
+    id           bigint AUTO_INCREMENT COMMENT 'id' PRIMARY KEY,
+    userId       bigint                             NOT NULL COMMENT '创建任务的管理员ID',
+    searchText   varchar(256)                       NOT NULL COMMENT '搜索关键词',
+    namePrefix   varchar(128)                       NULL COMMENT '图片名称前缀',
+    category     varchar(64)                        NULL COMMENT '默认分类（AI 分析失败时使用）',
+    tags         varchar(512)                       NULL COMMENT '默认标签（JSON 数组，AI 分析失败时使用）',
+    targetCount  int                                NOT NULL COMMENT '目标导入数量',
+    successCount int      DEFAULT 0                 NOT NULL COMMENT '已成功导入数量',
+    failCount    int      DEFAULT 0                 NOT NULL COMMENT '导入失败数量',
+    nextOffset   int      DEFAULT 0                 NOT NULL COMMENT '下一页抓取偏移量',
+    status       tinyint  DEFAULT 0                 NOT NULL COMMENT '任务状态：0-执行中；1-已完成；2-失败',
+    errorMessage varchar(512)                       NULL COMMENT '失败原因',
+    createTime   datetime DEFAULT CURRENT_TIMESTAMP NOT NULL COMMENT '创建时间',
+    updateTime   datetime DEFAULT CURRENT_TIMESTAMP NOT NULL ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    isDelete     tinyint  DEFAULT 0                 NOT NULL COMMENT '是否删除',
+
+    INDEX idx_status (status)
+) COMMENT '图片批量导入任务' COLLATE = utf8mb4_unicode_ci;
+
+-- 图片批量导入条目表（按任务对图片地址去重，记录每张图片的导入结果）
+CREATE TABLE IF NOT EXISTS picture_import_item
+(
+    id         bigint AUTO_INCREMENT COMMENT 'id' PRIMARY KEY,
+    jobId      bigint                             NOT NULL COMMENT '导入任务ID',
+    urlHash    char(64)                           NOT NULL COMMENT '图片地址 SHA-256',
+    url        varchar(2048)                      NOT NULL COMMENT '图片地址',
+    status     tinyint  DEFAULT 0                 NOT NULL COMMENT '导入状态：0-待处理；1-成功；2-失败',
+    pictureId  bigint                             NULL COMMENT '导入成功后的图片ID',
+    createTime datetime DEFAULT CURRENT_TIMESTAMP NOT NULL COMMENT '创建时间',
+    updateTime datetime DEFAULT CURRENT_TIMESTAMP NOT NULL ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+
+    UNIQUE KEY uk_jobId_urlHash (jobId, urlHash),
+    INDEX idx_jobId_status (jobId, status)
+) COMMENT '图片批量导入条目' COLLATE = utf8mb4_unicode_ci;
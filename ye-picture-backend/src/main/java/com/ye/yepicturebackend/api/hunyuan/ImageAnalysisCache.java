@@ -0,0 +1,159 @@
+package com.ye.yepicturebackend.api.hunyuan;
+
+import cn.hutool.core.util.RandomUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.json.JSONUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ye.yepicturebackend.api.hunyuan.model.ImageAnalysisResult;
+import com.ye.yepicturebackend.exception.BusinessException;
+import com.ye.yepicturebackend.exception.ErrorCode;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 图片智能分析结果缓存（以图片内容哈希为 key）
+ * <p>
+ * 同一张图片的分析结果与访问地址无关，重复导入、重复地址、失败重试时直接复用：
+ * - 一级缓存：本地 Caffeine
+ * - 二级缓存：Redis（多节点共享）
+ * - 未命中：同一节点上相同内容的并发请求合并为一次混元调用
+ * </p>
+ */
+@Slf4j
+@Component
+public class ImageAnalysisCache {
+
+    /**
+     * Redis 缓存 key 前缀
+     */
+    private static final String CACHE_KEY_PREFIX = "yepicture:imageAnalysis:";
+
+    /**
+     * Redis 缓存基础过期时间（天），实际过期时间在此基础上随机增加 0 ~ 1 天，防止集中失效
+     */
+    private static final int REDIS_EXPIRE_DAYS = 7;
+
+    @Resource
+    private HunyuanImageAnalysis hunyuanImageAnalysis;
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    /**
+     * 本地缓存：内容哈希 -> 分析结果
+     */
+    private final Cache<String, ImageAnalysisResult> localCache = Caffeine.newBuilder()
+            .maximumSize(10000L)
+            .expireAfterWrite(1L, TimeUnit.HOURS)
+            .build();
+
+    /**
+     * 正在分析中的请求：内容哈希 -> 分析结果
+     */
+    private final Map<String, CompletableFuture<ImageAnalysisResult>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder localHitCount = new LongAdder();
+    private final LongAdder redisHitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder coalescedCount = new LongAdder();
+
+    /**
+     * 注册缓存命中指标：image.analysis.cache{result=local_hit|redis_hit|miss|coalesced}
+     */
+    @PostConstruct
+    public void bindMetrics() {
+        registerCounter("local_hit", localHitCount);
+        registerCounter("redis_hit", redisHitCount);
+        registerCounter("miss", missCount);
+        registerCounter("coalesced", coalescedCount);
+    }
+
+    private void registerCounter(String result, LongAdder counter) {
+        FunctionCounter.builder("image.analysis.cache", counter, LongAdder::sum)
+                .description("图片分析结果缓存访问次数")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 获取图片分析结果，缓存未命中时调用混元大模型分析并回写缓存
+     *
+     * @param contentHash 图片内容哈希（为空时不使用缓存）
+     * @param imageUrl    图片公网地址，仅在缓存未命中时使用
+     * @return ImageAnalysisResult 图片分析结果
+     */
+    public ImageAnalysisResult getOrAnalyze(String contentHash, String imageUrl) {
+        if (StrUtil.isBlank(contentHash)) {
+            missCount.increment();
+            return hunyuanImageAnalysis.analyzeImage(imageUrl);
+        }
+        // 1. 一级缓存
+        ImageAnalysisResult result = localCache.getIfPresent(contentHash);
+        if (result != null) {
+            localHitCount.increment();
+            return result;
+        }
+        // 2. 二级缓存
+        String cacheKey = CACHE_KEY_PREFIX + contentHash;
+        String cachedValue = stringRedisTemplate.opsForValue().get(cacheKey);
+        if (cachedValue != null) {
+            redisHitCount.increment();
+            result = JSONUtil.toBean(cachedValue, ImageAnalysisResult.class);
+            localCache.put(contentHash, result);
+            return result;
+        }
+        // 3. 合并相同内容的并发请求，仅由首个请求调用混元
+        CompletableFuture<ImageAnalysisResult> created = new CompletableFuture<>();
+        CompletableFuture<ImageAnalysisResult> existing = inFlight.putIfAbsent(contentHash, created);
+        if (existing != null) {
+            coalescedCount.increment();
+            return await(existing);
+        }
+        missCount.increment();
+        try {
+            result = hunyuanImageAnalysis.analyzeImage(imageUrl);
+            // 4. 回写缓存
+            localCache.put(contentHash, result);
+            int expireSeconds = (int) TimeUnit.DAYS.toSeconds(REDIS_EXPIRE_DAYS)
+                    + RandomUtil.randomInt(0, (int) TimeUnit.DAYS.toSeconds(1));
+            stringRedisTemplate.opsForValue().set(cacheKey, JSONUtil.toJsonStr(result), expireSeconds, TimeUnit.SECONDS);
+            created.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            created.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(contentHash, created);
+        }
+    }
+
+    /**
+     * 等待其他线程的分析结果（失败时原样抛出其异常）
+     */
+    private ImageAnalysisResult await(CompletableFuture<ImageAnalysisResult> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof BusinessException) {
+                throw (BusinessException) e.getCause();
+            }
+            throw new BusinessException(ErrorCode.OPERATION_ERROR, "图片分析失败");
+        }
+    }
+}
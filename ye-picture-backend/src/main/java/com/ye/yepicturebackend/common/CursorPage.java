@@ -0,0 +1,34 @@
+package com.ye.yepicturebackend.common;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 游标分页结果类
+ * 按 (createTime, id) 降序翻页，不统计总数；下一页请求携带 nextCursor 即可
+ *
+ * @param <T> 记录类型
+ */
+@Data
+public class CursorPage<T> implements Serializable {
+
+    /**
+     * 当前页记录
+     */
+    private List<T> records = Collections.emptyList();
+
+    /**
+     * 下一页游标（不透明字符串），没有更多数据时为 null
+     */
+    private String nextCursor;
+
+    /**
+     * 是否还有更多数据
+     */
+    private boolean hasMore;
+
+    private static final long serialVersionUID = 1L;
+}
@@ -28,4 +28,9 @@ public class PageRequest {
      * 排序顺序（默认降序）
      */
     private String sortOrder = "descend";
+
+    /**
+     * 游标（仅游标分页接口使用，首页为空，后续页传上一页返回的 nextCursor）
+     */
+    private String cursor;
 }
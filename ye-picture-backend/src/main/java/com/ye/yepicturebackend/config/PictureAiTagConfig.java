@@ -0,0 +1,52 @@
+package com.ye.yepicturebackend.config;
+
+import lombok.Data;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 图片 AI 打标配置
+ * <p>
+ * AI 分析耗时较长，使用独立的监听容器消费打标队列，
+ * 并发数与预取数单独配置，不占用其他队列的消费能力
+ * </p>
+ */
+@Configuration
+@ConfigurationProperties(prefix = "picture.ai-tag")
+@Data
+public class PictureAiTagConfig {
+
+    /**
+     * 最小消费者数
+     */
+    private int concurrency = 2;
+
+    /**
+     * 最大消费者数（消息积压时按需扩容）
+     */
+    private int maxConcurrency = 4;
+
+    /**
+     * 每个消费者的预取数（单条分析耗时数秒，预取过多会导致消息分配不均）
+     */
+    private int prefetch = 1;
+
+    /**
+     * AI 打标监听容器工厂（沿用全局监听配置，如手动 ACK、JSON 消息转换器）
+     */
+    @Bean(name = "aiTagListenerContainerFactory")
+    public SimpleRabbitListenerContainerFactory aiTagListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer,
+            ConnectionFactory connectionFactory) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setConcurrentConsumers(concurrency);
+        factory.setMaxConcurrentConsumers(Math.max(concurrency, maxConcurrency));
+        factory.setPrefetchCount(prefetch);
+        return factory;
+    }
+}
@@ -0,0 +1,34 @@
+package com.ye.yepicturebackend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 标签/分类位图过滤索引配置
+ */
+@Configuration
+@ConfigurationProperties(prefix = "picture.filter-index")
+@Data
+public class PictureFilterIndexConfig {
+
+    /**
+     * 是否启用位图过滤索引（关闭后标签/分类过滤全部走数据库）
+     */
+    private boolean enabled = true;
+
+    /**
+     * 索引定期后台重建间隔（分钟）：本实例的写入实时更新索引，其他实例的写入由版本号广播触发重建，此处为兜底
+     */
+    private int refreshMinutes = 10;
+
+    /**
+     * 最多缓存的空间索引数（公共图库计为一个）
+     */
+    private int maxScopes = 1000;
+
+    /**
+     * 单次过滤最多返回的候选图片数，超出后退回数据库过滤（避免过长的 IN 列表）
+     */
+    private int maxCandidates = 2000;
+}
@@ -0,0 +1,72 @@
+package com.ye.yepicturebackend.config;
+
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 图片批量导入配置
+ */
+@Configuration
+@ConfigurationProperties(prefix = "picture.import")
+@Data
+public class PictureImportConfig {
+
+    /**
+     * 单个任务最大导入数量
+     */
+    private int maxCount = 5000;
+
+    /**
+     * 每页抓取的图片数量
+     */
+    private int pageSize = 35;
+
+    /**
+     * 单个任务最多抓取的页数（防止搜索结果无限翻页）
+     */
+    private int maxPages = 500;
+
+    /**
+     * 同时执行的任务数
+     */
+    private int jobThreads = 2;
+
+    /**
+     * 下载上传阶段并发数
+     */
+    private int uploadThreads = 8;
+
+    /**
+     * 任务调度线程池（每个任务占用一个线程负责翻页与进度持久化）
+     * 使用守护线程，停机时不等待任务结束，未完成的任务在下次启动时从断点恢复
+     */
+    @Bean(name = "importJobExecutor", destroyMethod = "shutdownNow")
+    public ThreadPoolExecutor importJobExecutor() {
+        return new ThreadPoolExecutor(
+                jobThreads, jobThreads,
+                60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(jobThreads * 4),
+                ThreadFactoryBuilder.create().setNamePrefix("importJob-").setDaemon(true).build(),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * 下载上传阶段线程池
+     */
+    @Bean(name = "importUploadExecutor", destroyMethod = "shutdownNow")
+    public ThreadPoolExecutor importUploadExecutor() {
+        return new ThreadPoolExecutor(
+                uploadThreads, uploadThreads,
+                60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(jobThreads * uploadThreads),
+                ThreadFactoryBuilder.create().setNamePrefix("importUpload-").build(),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+}
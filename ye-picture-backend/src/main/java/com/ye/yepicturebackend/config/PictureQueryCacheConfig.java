@@ -0,0 +1,78 @@
+package com.ye.yepicturebackend.config;
+
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 图片列表查询缓存配置
+ */
+@Configuration
+@ConfigurationProperties(prefix = "picture.query-cache")
+@Data
+public class PictureQueryCacheConfig {
+
+    /**
+     * 是否启用查询缓存（关闭后仍维护版本号，供位图过滤索引判断是否最新）
+     */
+    private boolean enabled = true;
+
+    /**
+     * 本地缓存最大条目数
+     */
+    private long localMaxSize = 10000L;
+
+    /**
+     * 本地缓存过期时间（秒）
+     */
+    private int localExpireSeconds = 60;
+
+    /**
+     * Redis 缓存基础过期时间（秒），实际过期时间在此基础上随机增加 0 ~ 1 倍，防止集中失效
+     */
+    private int redisExpireSeconds = 300;
+
+    /**
+     * 本地缓存的版本号最长使用时间（秒）：失效广播丢失时，最迟在此时间后读取到新版本
+     */
+    private int versionCheckSeconds = 30;
+
+    /**
+     * 过期后仍可返回旧值的时间（秒）：期间返回旧值并在后台刷新一次，为 0 时过期即重新查询
+     */
+    private int staleSeconds = 120;
+
+    /**
+     * 是否使用 Redis 租约锁：缓存未命中时多个节点中只有一个执行查询，其余节点等待其结果
+     */
+    private boolean leaseLock = true;
+
+    /**
+     * 租约锁有效期（毫秒），也是其他节点等待结果的最长时间
+     */
+    private long leaseMillis = 3000L;
+
+    /**
+     * 后台刷新线程数
+     */
+    private int refreshThreads = 2;
+
+    /**
+     * 后台刷新线程池（队列满时拒绝刷新任务，调用方继续返回旧值）
+     */
+    @Bean(name = "pictureQueryRefreshExecutor", destroyMethod = "shutdownNow")
+    public ThreadPoolExecutor pictureQueryRefreshExecutor() {
+        return new ThreadPoolExecutor(
+                refreshThreads, refreshThreads,
+                60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(refreshThreads * 16),
+                ThreadFactoryBuilder.create().setNamePrefix("pictureQueryRefresh-").setDaemon(true).build(),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+}
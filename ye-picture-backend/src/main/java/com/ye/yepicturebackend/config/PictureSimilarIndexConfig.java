@@ -0,0 +1,44 @@
+package com.ye.yepicturebackend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 以图搜图相似索引配置
+ */
+@Configuration
+@ConfigurationProperties(prefix = "picture.similar-index")
+@Data
+public class PictureSimilarIndexConfig {
+
+    /**
+     * 索引后台重建间隔（分钟）：本实例的写入实时更新索引，其他实例的写入在重建后可见
+     */
+    private int refreshMinutes = 10;
+
+    /**
+     * 最多缓存的空间索引数（公共图库计为一个）
+     */
+    private int maxScopes = 1000;
+
+    /**
+     * 图片数不超过该值的空间直接精确比较全部图片，超过后使用 LSH 召回候选
+     */
+    private int exactScanLimit = 20000;
+
+    /**
+     * LSH 哈希表数量：越多召回率越高，内存占用越大
+     */
+    private int lshTables = 8;
+
+    /**
+     * 每个 LSH 哈希表从感知哈希中抽取的位数：越多桶越小，召回率越低
+     */
+    private int lshBits = 12;
+
+    /**
+     * 允许返回的最大特征距离（0~1）
+     */
+    private double maxDistance = 0.4;
+}
@@ -78,4 +78,29 @@ public class RabbitMQConfig {
                 .to(reviewNoticeExchange())
                 .with(RabbitMQConstant.REVIEW_NOTICE_ROUTING_KEY);
     }
-}
\ No newline at end of file
+
+    // 8. AI 打标交换机
+    @Bean
+    public DirectExchange aiTagExchange() {
+        return new DirectExchange(RabbitMQConstant.AI_TAG_EXCHANGE, true, false);
+    }
+
+    // 9. AI 打标队列（分析失败的消息进入死信队列）
+    @Bean
+    public Queue aiTagQueue() {
+        Map<String, Object> args = new HashMap<>();
+        args.put("x-dead-letter-exchange", RabbitMQConstant.DLX_EXCHANGE);
+        args.put("x-dead-letter-routing-key", RabbitMQConstant.DLX_ROUTING_KEY);
+        return QueueBuilder.durable(RabbitMQConstant.AI_TAG_QUEUE)
+                .withArguments(args)
+                .build();
+    }
+
+    // 10. 绑定 AI 打标队列到 AI 打标交换机
+    @Bean
+    public Binding aiTagBinding() {
+        return BindingBuilder.bind(aiTagQueue())
+                .to(aiTagExchange())
+                .with(RabbitMQConstant.AI_TAG_ROUTING_KEY);
+    }
+}
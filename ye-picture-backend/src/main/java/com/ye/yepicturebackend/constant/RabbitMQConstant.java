@@ -20,6 +20,17 @@ public final class RabbitMQConstant {
     /** 审核通知路由键 */
     public static final String REVIEW_NOTICE_ROUTING_KEY = "review.notice";
 
+    // ==================== 图片 AI 打标 ====================
+
+    /** AI 打标交换机 */
+    public static final String AI_TAG_EXCHANGE = "picture.ai.tag.exchange";
+
+    /** AI 打标队列 */
+    public static final String AI_TAG_QUEUE = "picture.ai.tag.queue";
+
+    /** AI 打标路由键 */
+    public static final String AI_TAG_ROUTING_KEY = "ai.tag";
+
     // ==================== 死信队列（DLX） ====================
 
     /** 死信交换机 */
@@ -0,0 +1,64 @@
+package com.ye.yepicturebackend.controller;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.StrUtil;
+import com.ye.yepicturebackend.exception.ErrorCode;
+import com.ye.yepicturebackend.exception.ThrowUtils;
+import com.ye.yepicturebackend.manager.storage.LocalObjectStorage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.annotation.Resource;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * 本地存储文件访问控制器
+ * <p>
+ * 仅在 {@code storage.type=local} 时启用，校验签名 URL 后以内存映射的方式输出文件内容
+ * </p>
+ */
+@Slf4j
+@RestController
+@RequestMapping("/storage/local")
+@ConditionalOnProperty(prefix = "storage", name = "type", havingValue = "local")
+public class LocalStorageController {
+
+    @Resource
+    private LocalObjectStorage localObjectStorage;
+
+    /**
+     * 访问本地存储文件
+     *
+     * @param key      对象存储标识
+     * @param expires  过期时间戳（毫秒）
+     * @param sign     签名
+     * @param response HTTP 响应对象，直接写出文件内容
+     */
+    @GetMapping
+    public void getObject(@RequestParam String key,
+                          @RequestParam long expires,
+                          @RequestParam String sign,
+                          HttpServletResponse response) throws IOException {
+        // 1. 校验签名与有效期
+        ThrowUtils.throwIf(!localObjectStorage.verifySignature(key, expires, sign),
+                ErrorCode.NO_AUTH_ERROR, "签名无效或已过期");
+        // 2. 内存映射读取文件
+        MappedByteBuffer buffer = localObjectStorage.mapObject(key);
+        ThrowUtils.throwIf(buffer == null, ErrorCode.NOT_FOUND_ERROR, "文件不存在");
+        // 3. 输出文件内容
+        response.setContentType(StrUtil.blankToDefault(FileUtil.getMimeType(key), "application/octet-stream"));
+        response.setContentLengthLong(buffer.remaining());
+        WritableByteChannel channel = Channels.newChannel(response.getOutputStream());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
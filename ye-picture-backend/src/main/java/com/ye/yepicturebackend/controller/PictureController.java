@@ -1,20 +1,14 @@
 package com.ye.yepicturebackend.controller;
 
 
-import cn.hutool.core.lang.TypeReference;
-import cn.hutool.core.util.RandomUtil;
 import cn.hutool.core.util.StrUtil;
-import cn.hutool.json.JSONUtil;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
-import com.github.benmanes.caffeine.cache.Cache;
-import com.github.benmanes.caffeine.cache.Caffeine;
 import com.ye.yepicturebackend.annotation.AuthCheck;
 import com.ye.yepicturebackend.api.aliyunai.AliYunAiApi;
 import com.ye.yepicturebackend.api.aliyunai.model.CreateOutPaintingTaskResponse;
 import com.ye.yepicturebackend.api.aliyunai.model.GetOutPaintingTaskResponse;
-import com.ye.yepicturebackend.api.imageSearch.ImageSearchApiFacade;
-import com.ye.yepicturebackend.api.imageSearch.model.ImageSearchResult;
 import com.ye.yepicturebackend.common.BaseResponse;
+import com.ye.yepicturebackend.common.CursorPage;
 import com.ye.yepicturebackend.common.DeleteRequest;
 import com.ye.yepicturebackend.common.ResultUtils;
 import com.ye.yepicturebackend.constant.UserConstant;
@@ -30,29 +24,28 @@ import com.ye.yepicturebackend.api.aliyunai.model.AiExtendRequest;
 import com.ye.yepicturebackend.model.dto.picture.upload.UploadRequest;
 import com.ye.yepicturebackend.model.vo.picture.PictureTagCategory;
 import com.ye.yepicturebackend.model.vo.picture.PictureVO;
+import com.ye.yepicturebackend.model.vo.picture.UploadTaskVO;
 import com.ye.yepicturebackend.model.dto.picture.review.ReviewPictureRequest;
 import com.ye.yepicturebackend.model.dto.picture.edit.UpdatePictureRequest;
 import com.ye.yepicturebackend.model.dto.picture.upload.UploadBatchRequest;
 import com.ye.yepicturebackend.model.dto.picture.edit.EditPictureRequest;
 import com.ye.yepicturebackend.model.dto.space.SpaceLevel;
 import com.ye.yepicturebackend.model.entity.Picture;
+import com.ye.yepicturebackend.model.entity.PictureImportJob;
 import com.ye.yepicturebackend.model.entity.User;
-import com.ye.yepicturebackend.model.enums.PictureReviewStatusEnum;
 import com.ye.yepicturebackend.model.enums.SpaceLevelEnum;
-import com.ye.yepicturebackend.service.CosUrlService;
+import com.ye.yepicturebackend.service.PictureImportJobService;
 import com.ye.yepicturebackend.service.PictureService;
+import com.ye.yepicturebackend.service.PictureUploadTaskService;
 import com.ye.yepicturebackend.service.UserService;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.data.redis.core.ValueOperations;
-import org.springframework.util.DigestUtils;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import javax.annotation.Resource;
 import javax.servlet.http.HttpServletRequest;
 import java.util.*;
-import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -67,13 +60,13 @@ public class PictureController {
     private PictureService pictureService;
 
     @Resource
-    private StringRedisTemplate stringRedisTemplate;
+    private AliYunAiApi aliYunAiApi;
 
     @Resource
-    private AliYunAiApi aliYunAiApi;
+    private PictureUploadTaskService pictureUploadTaskService;
 
     @Resource
-    private CosUrlService cosUrlService;
+    private PictureImportJobService pictureImportJobService;
 
     // region 上传照片核心
 
@@ -129,6 +122,61 @@ public class PictureController {
     }
 
 
+    /**
+     * 异步上传图片：暂存文件后立即返回任务 id，处理与入库在后台完成
+     *
+     * @param multipartFile 前端上传的图片文件
+     * @param uploadRequest 图片上传/更新请求参数
+     * @param request       HTTP请求对象，用于获取当前登录用户
+     * @return BaseResponse<String> 任务 id，通过 /upload/task 查询进度（HTTP 202）
+     */
+    @PostMapping("/upload/async")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    @SaSpaceCheckPermission(value = SpaceUserPermissionConstant.PICTURE_UPLOAD)
+    public BaseResponse<String> uploadPictureAsync(
+            @RequestPart("file") MultipartFile multipartFile,
+            UploadRequest uploadRequest,
+            HttpServletRequest request
+    ) {
+        User loginUser = userService.getLoginUser(request);
+        String taskId = pictureUploadTaskService.submitUpload(multipartFile, uploadRequest, loginUser);
+        return ResultUtils.success(taskId);
+    }
+
+    /**
+     * 异步通过URL上传图片：立即返回任务 id，下载、处理与入库在后台完成
+     *
+     * @param uploadRequest 请求体参数，fileUrl 必填
+     * @param request       HTTP请求对象，用于获取当前登录用户
+     * @return BaseResponse<String> 任务 id，通过 /upload/task 查询进度（HTTP 202）
+     */
+    @PostMapping("/upload/url/async")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    @SaSpaceCheckPermission(value = SpaceUserPermissionConstant.PICTURE_UPLOAD)
+    public BaseResponse<String> uploadPictureByUrlAsync(
+            @RequestBody UploadRequest uploadRequest,
+            HttpServletRequest request
+    ) {
+        User loginUser = userService.getLoginUser(request);
+        String taskId = pictureUploadTaskService.submitUploadByUrl(uploadRequest, loginUser);
+        return ResultUtils.success(taskId);
+    }
+
+    /**
+     * 查询异步上传任务状态
+     *
+     * @param taskId  任务 id
+     * @param request HTTP请求对象，用于获取当前登录用户
+     * @return BaseResponse<UploadTaskVO> 任务状态；成功时包含图片信息，失败时包含失败原因
+     */
+    @GetMapping("/upload/task")
+    public BaseResponse<UploadTaskVO> getUploadTask(@RequestParam String taskId,
+                                                    HttpServletRequest request) {
+        User loginUser = userService.getLoginUser(request);
+        return ResultUtils.success(pictureUploadTaskService.getUploadTask(taskId, loginUser));
+    }
+
+
     /**
      * 批量抓取并创建图片
      *
@@ -156,6 +204,53 @@ public class PictureController {
         return ResultUtils.success(uploadCount);
     }
 
+    /**
+     * 创建批量导入任务（后台分页抓取、AI 分析并上传，立即返回任务 id）
+     *
+     * @param uploadBatchRequest 请求体参数：searchText（必填）、count、namePrefix、category、tags
+     * @param request            HTTP请求对象，用于获取当前登录用户信息
+     * @return BaseResponse<Long> 任务 id
+     */
+    @PostMapping("/import/job/add")
+    @AuthCheck(mustRole = UserConstant.ADMIN_ROLE)
+    public BaseResponse<Long> addImportJob(
+            @RequestBody UploadBatchRequest uploadBatchRequest,
+            HttpServletRequest request) {
+        User loginUser = userService.getLoginUser(request);
+        Long jobId = pictureImportJobService.submitImportJob(uploadBatchRequest, loginUser);
+        return ResultUtils.success(jobId);
+    }
+
+    /**
+     * 恢复执行未完成的批量导入任务
+     *
+     * @param jobId   任务 id
+     * @param request HTTP请求对象，用于获取当前登录用户信息
+     * @return BaseResponse<Boolean> 是否已提交恢复
+     */
+    @PostMapping("/import/job/resume")
+    @AuthCheck(mustRole = UserConstant.ADMIN_ROLE)
+    public BaseResponse<Boolean> resumeImportJob(@RequestParam Long jobId,
+                                                 HttpServletRequest request) {
+        User loginUser = userService.getLoginUser(request);
+        pictureImportJobService.resumeImportJob(jobId, loginUser);
+        return ResultUtils.success(true);
+    }
+
+    /**
+     * 查询批量导入任务进度
+     *
+     * @param jobId 任务 id
+     * @return BaseResponse<PictureImportJob> 任务信息（状态、成功/失败数量、抓取偏移量等）
+     */
+    @GetMapping("/import/job/get")
+    @AuthCheck(mustRole = UserConstant.ADMIN_ROLE)
+    public BaseResponse<PictureImportJob> getImportJob(@RequestParam Long jobId) {
+        PictureImportJob job = pictureImportJobService.getById(jobId);
+        ThrowUtils.throwIf(job == null, ErrorCode.NOT_FOUND_ERROR, "导入任务不存在");
+        return ResultUtils.success(job);
+    }
+
     // endregion
 
     // region 管理员操作
@@ -319,22 +414,9 @@ public class PictureController {
 
     // region 缓存相关
 
-    /**
-     * 本地缓存实例（基于Caffeine实现）
-     * 使用方式：
-     * - 存：LOCAL_CACHE.put(key, value)
-     * - 取：LOCAL_CACHE.getIfPresent(key)
-     * - 删：LOCAL_CACHE.invalidate(key)
-     */
-    private final Cache<String, String> LOCAL_CACHE =
-            Caffeine.newBuilder().initialCapacity(1024)
-                    .maximumSize(10000L)
-                    // 缓存 5 分钟移除
-                    .expireAfterWrite(5L, TimeUnit.MINUTES)
-                    .build();
-
     /**
      * 分页获取图片列表VO（多级缓存）
+     * 查询缓存已并入 /list/page/vo，保留该接口仅为兼容旧版前端
      *
      * @param queryPictureRequest 分页查询请求参数，包含：
      *                            - current：页码（从1开始）
@@ -350,61 +432,7 @@ public class PictureController {
     public BaseResponse<Page<PictureVO>> listPictureVOByPageWithCathe(
             @RequestBody QueryPictureRequest queryPictureRequest,
             HttpServletRequest request) {
-        // 1. 参数校验
-        ThrowUtils.throwIf(queryPictureRequest == null, ErrorCode.PARAMS_ERROR, "无参数");
-        // 2. 提取参数
-        int current = queryPictureRequest.getCurrent();
-        int size = queryPictureRequest.getPageSize();
-        // 限制爬虫处理
-        ThrowUtils.throwIf(size > 20, ErrorCode.PARAMS_ERROR);
-        // 3. 权限控制: 普通用户只能看到审核通过的数据
-        queryPictureRequest.setReviewStatus(PictureReviewStatusEnum.PASS.getValue());
-        // 4. 构建缓存key
-        String queryCondition = JSONUtil.toJsonStr(queryPictureRequest);
-        String hashKey = DigestUtils.md5DigestAsHex(queryCondition.getBytes());
-        // 拼接缓存前缀
-        String cacheKey = "yepicture:listPictureVOByPage:" + hashKey;
-        // 5. 一级缓存：查询本地缓存（Caffeine）
-        String cachedValue = LOCAL_CACHE.getIfPresent(cacheKey);
-        if (cachedValue != null) {
-            Page<PictureVO> cachedPage = JSONUtil.toBean(
-                    cachedValue,
-                    new TypeReference<>() {
-                    },
-                    false
-            );
-            return ResultUtils.success(cachedPage);
-        }
-        // 6. 二级缓存：查询分布式缓存（Redis）
-        ValueOperations<String, String> valueOps = stringRedisTemplate.opsForValue();
-        cachedValue = valueOps.get(cacheKey);
-        if (cachedValue != null) {
-            // 缓存命中: 更新本地缓存
-            LOCAL_CACHE.put(cacheKey, cachedValue);
-            // 返回结果
-            Page<PictureVO> cachedPage = JSONUtil.toBean(
-                    cachedValue,
-                    new TypeReference<>() {
-                    },
-                    false
-            );
-            return ResultUtils.success(cachedPage);
-        }
-        // 7. 缓存未命中：查询数据库
-        Page<Picture> picturePage = pictureService.page(
-                new Page<>(current, size),
-                pictureService.getLambdaQueryWrapper(queryPictureRequest)
-        );
-        Page<PictureVO> pictureVOPage = pictureService.getPictureVOPage(picturePage, request);
-        // 8. 更新缓存
-        String cacheValue = JSONUtil.toJsonStr(pictureVOPage);
-        // 更新本地缓存
-        LOCAL_CACHE.put(cacheKey, cacheValue);
-        // 更新 Redis 缓存：设置5-10分钟随机过期时间（防止缓存雪崩）
-        int cacheExpireTime = 300 + RandomUtil.randomInt(0, 300);
-        valueOps.set(cacheKey, cacheValue, cacheExpireTime, TimeUnit.SECONDS);
-        // 9. 返回结果
-        return ResultUtils.success(pictureVOPage);
+        return ResultUtils.success(pictureService.getPictureVOByPage(queryPictureRequest, request));
     }
 
     // endregion
@@ -467,6 +495,22 @@ public class PictureController {
         return ResultUtils.success(pictureService.getPictureVOByPage(queryPictureRequest, request));
     }
 
+    /**
+     * 游标分页获取图片列表（VO），用于公共图库/空间的无限滚动
+     *
+     * @param queryPictureRequest 图片查询请求体：cursor 为上一页返回的 nextCursor（首页不传），pageSize 为页大小
+     * @param request             HTTP请求对象
+     * @return BaseResponse<CursorPage < PictureVO>> 接口响应对象：
+     * - 成功：返回本页记录、nextCursor 与 hasMore（不返回总数）
+     * - 失败：返回包含错误码和错误信息的响应（如游标不合法）
+     */
+    @PostMapping("/list/cursor/vo")
+    public BaseResponse<CursorPage<PictureVO>> listPictureVOByCursor(
+            @RequestBody QueryPictureRequest queryPictureRequest,
+            HttpServletRequest request) {
+        return ResultUtils.success(pictureService.getPictureVOByCursor(queryPictureRequest, request));
+    }
+
     /**
      * 编辑图片
      *
@@ -494,35 +538,27 @@ public class PictureController {
     // region 扩展功能
 
     /**
-     * 以图搜图
+     * 以图搜图（在源图片所在的空间或公共图库中搜索相似图片）
      *
      * @param searchPictureRequest 以图搜图请求体，需包含待搜索图片的ID
-     * @return 包含图像搜索结果列表的基础响应体
+     * @param request              HttpServletRequest对象，用于获取当前登录用户的会话信息
+     * @return 按相似度降序排列的图片列表
      */
     @PostMapping("/search/picture")
-    public BaseResponse<List<ImageSearchResult>> searchPictureByPicture(@RequestBody SearchPictureRequest searchPictureRequest) {
+    @SaSpaceCheckPermission(value = SpaceUserPermissionConstant.PICTURE_VIEW)
+    public BaseResponse<List<PictureVO>> searchPictureByPicture(@RequestBody SearchPictureRequest searchPictureRequest,
+                                                                HttpServletRequest request) {
         // 1. 参数校验
         ThrowUtils.throwIf(searchPictureRequest == null, ErrorCode.PARAMS_ERROR);
         Long pictureId = searchPictureRequest.getPictureId();
         ThrowUtils.throwIf(pictureId == null || pictureId <= 0, ErrorCode.PARAMS_ERROR);
+        User loginUser = userService.getLoginUser(request);
 
-        // 2. 查询图片是否存在
-        Picture picture = pictureService.getById(pictureId);
-        ThrowUtils.throwIf(picture == null, ErrorCode.NOT_FOUND_ERROR);
-
-        // 3. 获取 originKey 并生成临时可访问 URL
-        String originKey = picture.getOriginKey();
-        ThrowUtils.throwIf(StrUtil.isBlank(originKey), ErrorCode.SYSTEM_ERROR, "图片存储路径缺失");
-
-        // 生成较短有效期的签名 URL
-        String temporaryImageUrl = cosUrlService.generateSignedUrl(originKey, 5 * 60 * 1000L);
-        ThrowUtils.throwIf(temporaryImageUrl == null, ErrorCode.SYSTEM_ERROR, "无法生成图片访问链接");
-
-        // 4. 调用图像搜索 API
-        List<ImageSearchResult> resultList = ImageSearchApiFacade.searchImage(temporaryImageUrl);
+        // 2. 调用service
+        List<PictureVO> result = pictureService.searchPictureByPicture(pictureId, loginUser);
 
-        // 5. 返回结果
-        return ResultUtils.success(resultList);
+        // 3. 返回结果
+        return ResultUtils.success(result);
     }
 
     /**
@@ -550,6 +586,31 @@ public class PictureController {
         return ResultUtils.success(result);
     }
 
+    /**
+     * 根据色板搜索图片（图片色板中任意颜色与目标颜色接近即可命中，按颜色占比加权排序）
+     *
+     * @param searchColorRequest 请求体参数封装对象，包含：
+     *                           - picColor：目标颜色的十六进制字符串
+     *                           - spaceId：图片所在的空间ID（用于限定查询范围）
+     * @param request            HttpServletRequest对象，用于获取当前登录用户的会话信息
+     * @return BaseResponse<List < PictureVO>> 统一响应对象
+     */
+    @PostMapping("/search/palette")
+    @SaSpaceCheckPermission(value = SpaceUserPermissionConstant.PICTURE_VIEW)
+    public BaseResponse<List<PictureVO>> searchPictureByPalette(@RequestBody SearchColorRequest searchColorRequest, HttpServletRequest request) {
+        // 1. 校验并获取参数
+        ThrowUtils.throwIf(searchColorRequest == null, ErrorCode.PARAMS_ERROR);
+        String picColor = searchColorRequest.getPicColor();
+        Long spaceId = searchColorRequest.getSpaceId();
+        User loginUser = userService.getLoginUser(request);
+
+        // 2. 调用service
+        List<PictureVO> result = pictureService.searchPictureByPalette(spaceId, picColor, loginUser);
+
+        // 3. 返回结果
+        return ResultUtils.success(result);
+    }
+
     /**
      * 批量编辑图片信息
      *
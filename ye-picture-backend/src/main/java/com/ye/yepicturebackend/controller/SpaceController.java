@@ -4,6 +4,7 @@ package com.ye.yepicturebackend.controller;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.ye.yepicturebackend.annotation.AuthCheck;
 import com.ye.yepicturebackend.common.BaseResponse;
+import com.ye.yepicturebackend.common.CursorPage;
 import com.ye.yepicturebackend.common.DeleteRequest;
 import com.ye.yepicturebackend.common.ResultUtils;
 import com.ye.yepicturebackend.constant.UserConstant;
@@ -171,6 +172,22 @@ public class SpaceController {
         return ResultUtils.success(spaceService.getSpaceVOPage(spacePage, request));
     }
 
+    /**
+     * 游标分页获取空间列表（VO）
+     *
+     * @param spaceQueryRequest 空间查询请求体：cursor 为上一页返回的 nextCursor（首页不传），pageSize 为页大小
+     * @param request           HTTP请求对象
+     * @return BaseResponse<CursorPage < SpaceVO>> 接口响应对象：
+     * - 成功：返回本页记录、nextCursor 与 hasMore（不返回总数）
+     * - 失败：返回包含错误码和错误信息的响应（如游标不合法）
+     */
+    @PostMapping("/list/cursor/vo")
+    public BaseResponse<CursorPage<SpaceVO>> listSpaceVOByCursor(
+            @RequestBody SpaceQueryRequest spaceQueryRequest,
+            HttpServletRequest request) {
+        return ResultUtils.success(spaceService.listSpaceVOByCursor(spaceQueryRequest, request));
+    }
+
     // endregion
 
     // region 管理员
@@ -18,7 +18,6 @@ import com.ye.yepicturebackend.model.vo.space.SpaceUserVO;
 import com.ye.yepicturebackend.service.SpaceUserService;
 import com.ye.yepicturebackend.service.UserService;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.BeanUtils;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -113,7 +112,8 @@ public class SpaceUserController {
         }
         // 将实体类和 DTO 进行转换
         SpaceUser spaceUser = new SpaceUser();
-        BeanUtils.copyProperties(spaceUserEditRequest, spaceUser);
+        spaceUser.setId(spaceUserEditRequest.getId());
+        spaceUser.setSpaceRole(spaceUserEditRequest.getSpaceRole());
         // 数据校验
         spaceUserService.validSpaceUser(spaceUser, false);
         // 判断是否存在
@@ -2,6 +2,7 @@ package com.ye.yepicturebackend.controller;
 
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.ye.yepicturebackend.common.BaseResponse;
+import com.ye.yepicturebackend.common.CursorPage;
 import com.ye.yepicturebackend.common.ResultUtils;
 import com.ye.yepicturebackend.model.entity.User;
 import com.ye.yepicturebackend.model.vo.user.ReviewNoticeVO;
@@ -70,6 +71,27 @@ public class SysNoticeController {
         return ResultUtils.success(voPage);
     }
 
+    /**
+     * 游标分页查询当前登录用户的【图片审核通知】列表
+     * <p>
+     * 不统计总数，适用于消息列表的无限滚动；下一页请求携带上一页返回的 nextCursor。
+     * </p>
+     *
+     * @param cursor  上一页返回的游标，首页不传
+     * @param size    每页大小，默认值为 10，不超过 50
+     * @param request HTTP 请求对象，用于获取当前登录用户身份
+     * @return {@link BaseResponse} 包含游标分页的 {@link ReviewNoticeVO} 列表，成功时 code = 0
+     */
+    @GetMapping("/list/cursor")
+    public BaseResponse<CursorPage<ReviewNoticeVO>> listNoticesByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            HttpServletRequest request) {
+        User loginUser = userService.getLoginUser(request);
+        CursorPage<ReviewNoticeVO> cursorPage = sysNoticeService.listReviewNoticesByCursor(loginUser.getId(), cursor, size);
+        return ResultUtils.success(cursorPage);
+    }
+
     /**
      * 将指定 ID 的通知标记为“已读”
      * <p>
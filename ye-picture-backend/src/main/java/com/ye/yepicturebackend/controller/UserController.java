@@ -14,7 +14,6 @@ import com.ye.yepicturebackend.model.vo.user.UserVO;
 import com.ye.yepicturebackend.model.dto.user.*;
 import com.ye.yepicturebackend.model.entity.User;
 import com.ye.yepicturebackend.service.UserService;
-import org.springframework.beans.BeanUtils;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
@@ -97,7 +96,11 @@ public class UserController {
         // 2. 构建用户实体
         User user = new User();
         user.setId(userId);
-        BeanUtils.copyProperties(userEditRequest, user);
+        user.setUserName(userEditRequest.getUserName());
+        user.setUserAccount(userEditRequest.getUserAccount());
+        user.setUserAvatar(userEditRequest.getUserAvatar());
+        user.setUserProfile(userEditRequest.getUserProfile());
+        user.setUserEmail(userEditRequest.getUserEmail());
         // 2.1单独处理密码加密
         String newPassword = userEditRequest.getUserPassword();
         if (StrUtil.isNotBlank(newPassword)) {
@@ -182,7 +185,12 @@ public class UserController {
         ThrowUtils.throwIf(userAddRequest == null, ErrorCode.PARAMS_ERROR);
         // 2. 构建实体
         User user = new User();
-        BeanUtils.copyProperties(userAddRequest, user);
+        user.setUserName(userAddRequest.getUserName());
+        user.setUserAccount(userAddRequest.getUserAccount());
+        user.setUserAvatar(userAddRequest.getUserAvatar());
+        user.setUserProfile(userAddRequest.getUserProfile());
+        user.setUserEmail(userAddRequest.getUserEmail());
+        user.setUserRole(userAddRequest.getUserRole());
         String DEFAULT_PASSWORD = UserConstant.USER_DEFAULT_PASSWORD;
         String encryptPassword = userService.getEncryptPassword(DEFAULT_PASSWORD);
         user.setUserPassword(encryptPassword);
@@ -252,7 +260,12 @@ public class UserController {
                 ErrorCode.PARAMS_ERROR);
         // 2. 构建实体
         User user = new User();
-        BeanUtils.copyProperties(userUpdateRequest, user);
+        user.setId(userUpdateRequest.getId());
+        user.setUserName(userUpdateRequest.getUserName());
+        user.setUserAvatar(userUpdateRequest.getUserAvatar());
+        user.setUserProfile(userUpdateRequest.getUserProfile());
+        user.setUserEmail(userUpdateRequest.getUserEmail());
+        user.setUserRole(userUpdateRequest.getUserRole());
         // 3. 执行service
         boolean result = userService.updateById(user);
         ThrowUtils.throwIf(!result, ErrorCode.OPERATION_ERROR);
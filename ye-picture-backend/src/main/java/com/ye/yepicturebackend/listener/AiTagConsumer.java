@@ -0,0 +1,116 @@
+package com.ye.yepicturebackend.listener;
+
+import cn.hutool.json.JSONUtil;
+import com.rabbitmq.client.Channel;
+import com.ye.yepicturebackend.api.hunyuan.ImageAnalysisCache;
+import com.ye.yepicturebackend.api.hunyuan.model.ImageAnalysisResult;
+import com.ye.yepicturebackend.constant.RabbitMQConstant;
+import com.ye.yepicturebackend.manager.cache.PictureQueryCache;
+import com.ye.yepicturebackend.manager.index.PictureBitmapIndex;
+import com.ye.yepicturebackend.manager.tag.PictureTagManager;
+import com.ye.yepicturebackend.model.dto.picture.aitag.AiTagMessage;
+import com.ye.yepicturebackend.model.entity.Picture;
+import com.ye.yepicturebackend.service.PictureService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.Resource;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 图片 AI 打标消费者
+ * <p>
+ * 该消费者监听 {@link RabbitMQConstant#AI_TAG_QUEUE} 队列，
+ * 对已入库的图片调用混元大模型分析（按图片内容哈希缓存分析结果），回填分类、标签和简介
+ * </p>
+ *
+ * <h3>设计原则</h3>
+ * <ol>
+ *   <li><strong>不阻塞上传</strong>：图片先以占位分类/标签入库，分析在独立消费者中异步完成</li>
+ *   <li><strong>不覆盖人工编辑</strong>：仅当分类和标签仍为占位值时才回填</li>
+ *   <li><strong>失败处理</strong>：分析失败时拒绝消息（Nack）进入死信队列，图片保留占位信息</li>
+ * </ol>
+ */
+@Component
+@Slf4j
+public class AiTagConsumer {
+
+    @Resource
+    private ImageAnalysisCache imageAnalysisCache;
+
+    @Resource
+    private PictureService pictureService;
+
+    @Resource
+    private PictureTagManager pictureTagManager;
+
+    @Resource
+    private PictureBitmapIndex pictureBitmapIndex;
+
+    @Resource
+    private PictureQueryCache pictureQueryCache;
+
+    @Resource
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * 处理图片 AI 打标消息
+     *
+     * @param message 消息体，包含图片 ID、图片地址及占位信息
+     * @param msg     Spring AMQP 原生消息对象，用于获取 deliveryTag
+     * @param channel RabbitMQ 信道，用于手动 ACK/Nack 消息
+     */
+    @RabbitListener(queues = RabbitMQConstant.AI_TAG_QUEUE, containerFactory = "aiTagListenerContainerFactory")
+    public void handleAiTag(AiTagMessage message, Message msg, Channel channel) throws IOException {
+        long deliveryTag = msg.getMessageProperties().getDeliveryTag();
+        Long pictureId = message.getPictureId();
+        try {
+            // 1. 图片已删除时无需分析
+            Picture picture = pictureService.getById(pictureId);
+            if (picture == null) {
+                log.info("图片已删除，跳过AI打标, pictureId={}", pictureId);
+                channel.basicAck(deliveryTag, false);
+                return;
+            }
+            // 2. 调用 AI 分析图片内容（相同内容的图片复用分析结果）
+            ImageAnalysisResult aiResult = imageAnalysisCache.getOrAnalyze(picture.getFileHash(), message.getImageUrl());
+            // 3. 回填分类、标签和简介并同步标签关联（图片已删除或已被人工编辑时不更新）
+            List<String> tags = Arrays.asList(aiResult.getTags().split("，"));
+            Boolean updated = transactionTemplate.execute(status -> {
+                boolean result = pictureService.lambdaUpdate()
+                        .eq(Picture::getId, pictureId)
+                        .eq(Picture::getCategory, message.getPlaceholderCategory())
+                        .eq(Picture::getTags, message.getPlaceholderTags())
+                        .set(Picture::getCategory, aiResult.getCategory())
+                        .set(Picture::getTags, JSONUtil.toJsonStr(tags))
+                        .set(Picture::getIntroduction, aiResult.getDescription())
+                        .set(Picture::getUpdateTime, new Date())
+                        .update();
+                if (result) {
+                    pictureTagManager.syncPictureTags(pictureId, picture.getSpaceId(), tags);
+                    pictureBitmapIndex.onCategoryChanged(picture.getSpaceId(),
+                            Collections.singletonList(pictureId), aiResult.getCategory());
+                    pictureQueryCache.bumpVersion(picture.getSpaceId());
+                }
+                return result;
+            });
+            if (Boolean.TRUE.equals(updated)) {
+                log.info("图片AI打标完成, pictureId={}, 分类={}, 标签={}",
+                        pictureId, aiResult.getCategory(), aiResult.getTags());
+            } else {
+                log.info("图片已删除或已被编辑，跳过AI打标结果回填, pictureId={}", pictureId);
+            }
+            channel.basicAck(deliveryTag, false);
+        } catch (Exception e) {
+            log.warn("图片AI打标失败，消息将进入死信队列, pictureId={}: {}", pictureId, e.getMessage());
+            channel.basicNack(deliveryTag, false, false);
+        }
+    }
+}
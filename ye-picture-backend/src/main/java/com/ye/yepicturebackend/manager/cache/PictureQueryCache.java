@@ -0,0 +1,519 @@
+package com.ye.yepicturebackend.manager.cache;
+
+import cn.hutool.core.util.RandomUtil;
+import cn.hutool.json.JSONUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ye.yepicturebackend.config.PictureQueryCacheConfig;
+import com.ye.yepicturebackend.exception.BusinessException;
+import com.ye.yepicturebackend.exception.ErrorCode;
+import com.ye.yepicturebackend.utils.TransactionUtils;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 图片列表查询缓存（本地 Caffeine + Redis 两级）
+ * <p>
+ * 每个空间（公共图库单独一个）维护一个版本号，缓存 key 中带有版本号：
+ * - 上传、编辑、审核、删除图片后递增所在空间的版本号，旧版本的缓存不再被读到，随过期时间自然淘汰
+ * - 版本号变更通过 Redis 发布订阅广播，各节点丢弃本地缓存的版本号
+ * - 关闭缓存时仍维护版本号，供位图过滤索引等 {@link PictureVersionListener} 判断是否包含最新写入
+ * - 缓存内容不含签名地址（访问地址字段保存对象键），由调用方在读取后签名
+ * 防止缓存失效时大量请求同时查询数据库：
+ * - 同一节点上相同 key 的并发查询合并为一次，其余请求等待共享结果
+ * - 多个节点之间通过 Redis 租约锁只由一个节点查询，其余节点等待其写回广播后读取结果（不轮询 Redis）
+ * - 缓存过期后的一段时间内继续返回旧值，同时在后台刷新一次
+ * </p>
+ */
+@Slf4j
+@Component
+public class PictureQueryCache {
+
+    /**
+     * 缓存 key 前缀
+     */
+    private static final String CACHE_KEY_PREFIX = "yepicture:pictureQuery:";
+
+    /**
+     * 版本号 key 前缀
+     */
+    private static final String VERSION_KEY_PREFIX = "yepicture:pictureQuery:version:";
+
+    /**
+     * 版本号变更广播频道
+     */
+    private static final String INVALIDATE_CHANNEL = "yepicture:pictureQuery:invalidate";
+
+    /**
+     * 公共图库的空间键
+     */
+    private static final String PUBLIC_SCOPE = "public";
+
+    /**
+     * 版本号 key 过期时间（天），远大于缓存过期时间，过期后重新计数不会读到旧缓存
+     */
+    private static final int VERSION_EXPIRE_DAYS = 1;
+
+    /**
+     * 租约锁 key 前缀
+     */
+    private static final String LEASE_KEY_PREFIX = "yepicture:pictureQuery:lease:";
+
+    /**
+     * 租约持有者写回结果（或查询失败）的广播频道，消息为缓存 key
+     */
+    private static final String FILLED_CHANNEL = "yepicture:pictureQuery:filled";
+
+    /**
+     * 释放租约锁：仅持有者可以删除
+     */
+    private static final RedisScript<Long> RELEASE_LEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    @Resource
+    private PictureQueryCacheConfig pictureQueryCacheConfig;
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Resource
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    @Resource
+    private ThreadPoolExecutor pictureQueryRefreshExecutor;
+
+    /**
+     * 本地缓存：缓存 key -> 缓存条目
+     */
+    private Cache<String, CacheEntry> localCache;
+
+    /**
+     * 本地版本号：空间键 -> 版本号
+     */
+    private Cache<String, Long> localVersionCache;
+
+    /**
+     * 正在查询中的 key：缓存 key -> 查询结果 JSON
+     */
+    private final Map<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * 等待其他节点写回结果的 key：缓存 key -> 写回通知（每个 key 在本节点最多一个，其余请求已在 inFlight 合并）
+     */
+    private final Map<String, CompletableFuture<Void>> leaseWaiters = new ConcurrentHashMap<>();
+
+    /**
+     * 正在后台刷新的 key
+     */
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 版本号变更监听
+     */
+    private final List<PictureVersionListener> versionListeners = new CopyOnWriteArrayList<>();
+
+    private final LongAdder localHitCount = new LongAdder();
+    private final LongAdder redisHitCount = new LongAdder();
+    private final LongAdder staleHitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder coalescedCount = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        localCache = Caffeine.newBuilder()
+                .maximumSize(pictureQueryCacheConfig.getLocalMaxSize())
+                .expireAfterWrite(pictureQueryCacheConfig.getLocalExpireSeconds(), TimeUnit.SECONDS)
+                .build();
+        localVersionCache = Caffeine.newBuilder()
+                .maximumSize(pictureQueryCacheConfig.getLocalMaxSize())
+                .expireAfterWrite(pictureQueryCacheConfig.getVersionCheckSeconds(), TimeUnit.SECONDS)
+                .build();
+        // 订阅版本号变更（本节点发布的消息也会收到）
+        redisMessageListenerContainer.addMessageListener(
+                (message, pattern) -> onInvalidate(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(INVALIDATE_CHANNEL));
+        // 订阅租约持有者的写回通知，唤醒本节点等待该 key 的请求
+        redisMessageListenerContainer.addMessageListener(
+                (message, pattern) -> onFilled(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(FILLED_CHANNEL));
+        // 注册缓存命中指标：picture.query.cache{result=local_hit|redis_hit|stale_hit|miss|coalesced}
+        registerCounter("local_hit", localHitCount);
+        registerCounter("redis_hit", redisHitCount);
+        registerCounter("stale_hit", staleHitCount);
+        registerCounter("miss", missCount);
+        registerCounter("coalesced", coalescedCount);
+    }
+
+    /**
+     * 注册版本号变更监听
+     *
+     * @param listener 监听器
+     */
+    public void addVersionListener(PictureVersionListener listener) {
+        versionListeners.add(listener);
+    }
+
+    /**
+     * 处理版本号变更广播：丢弃本地版本号并通知监听器
+     */
+    private void onInvalidate(String scope) {
+        localVersionCache.invalidate(scope);
+        Long spaceId = spaceIdOf(scope);
+        for (PictureVersionListener listener : versionListeners) {
+            try {
+                listener.onVersionInvalidated(spaceId);
+            } catch (Exception e) {
+                log.warn("图片查询版本号变更通知失败，scope={}", scope, e);
+            }
+        }
+    }
+
+    private void registerCounter(String result, LongAdder counter) {
+        FunctionCounter.builder("picture.query.cache", counter, LongAdder::sum)
+                .description("图片列表查询缓存访问次数")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 读取查询结果，未命中时执行查询并回写缓存
+     *
+     * @param spaceId   空间 id，公共图库为 null
+     * @param queryType 查询类型（区分同一请求对象的不同查询，如分页/游标）
+     * @param request   查询请求（序列化后作为缓存 key 的一部分）
+     * @param type      查询结果类型
+     * @param loader    查询方法，结果中不能包含签名地址（过期后可能在后台线程中执行）
+     * @return 查询结果（每次调用返回独立的对象，调用方可以修改）
+     */
+    public <T> T get(Long spaceId, String queryType, Object request, Type type, Supplier<T> loader) {
+        if (!pictureQueryCacheConfig.isEnabled()) {
+            return loader.get();
+        }
+        String cacheKey;
+        try {
+            String scope = scopeOf(spaceId);
+            long version = localVersionCache.get(scope, this::loadVersion);
+            String requestHash = DigestUtils.md5DigestAsHex(JSONUtil.toJsonStr(request).getBytes(StandardCharsets.UTF_8));
+            cacheKey = CACHE_KEY_PREFIX + scope + ":" + version + ":" + queryType + ":" + requestHash;
+            // 1. 一级缓存
+            CacheEntry entry = localCache.getIfPresent(cacheKey);
+            if (entry != null) {
+                localHitCount.increment();
+            } else {
+                // 2. 二级缓存
+                entry = CacheEntry.decode(stringRedisTemplate.opsForValue().get(cacheKey));
+                if (entry != null) {
+                    redisHitCount.increment();
+                    localCache.put(cacheKey, entry);
+                }
+            }
+            if (entry != null) {
+                // 3. 已过期的旧值：直接返回，并在后台刷新一次
+                if (entry.isStale()) {
+                    staleHitCount.increment();
+                    refreshAsync(cacheKey, loader);
+                }
+                return JSONUtil.toBean(entry.getValue(), type, false);
+            }
+        } catch (Exception e) {
+            log.warn("读取图片查询缓存失败，直接查询数据库", e);
+            return loader.get();
+        }
+        // 4. 未命中：合并并发查询，仅由一个请求查询数据库
+        CompletableFuture<String> created = new CompletableFuture<>();
+        CompletableFuture<String> existing = inFlight.putIfAbsent(cacheKey, created);
+        if (existing != null) {
+            coalescedCount.increment();
+            return JSONUtil.toBean(await(existing), type, false);
+        }
+        missCount.increment();
+        try {
+            T result = loadWithLease(cacheKey, loader, type);
+            created.complete(JSONUtil.toJsonStr(result));
+            return result;
+        } catch (RuntimeException e) {
+            created.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(cacheKey, created);
+        }
+    }
+
+    /**
+     * 获取租约后查询并回写缓存；其他节点持有租约时等待其写回结果，持有者查询失败或超时后自行查询
+     */
+    private <T> T loadWithLease(String cacheKey, Supplier<T> loader, Type type) {
+        String leaseKey = LEASE_KEY_PREFIX + cacheKey;
+        String token = null;
+        if (pictureQueryCacheConfig.isLeaseLock()) {
+            token = tryAcquireLease(leaseKey);
+            if (token == null) {
+                CacheEntry entry = awaitLeaseHolder(cacheKey);
+                if (entry != null) {
+                    return JSONUtil.toBean(entry.getValue(), type, false);
+                }
+            }
+        }
+        try {
+            T result = loader.get();
+            put(cacheKey, JSONUtil.toJsonStr(result));
+            return result;
+        } finally {
+            if (token != null) {
+                releaseLease(leaseKey, token);
+                // 写回成功或查询失败都通知等待的节点，失败时它们不必等到租约过期
+                notifyFilled(cacheKey);
+            }
+        }
+    }
+
+    /**
+     * 等待持有租约的节点写回结果：先登记再读一次 Redis（避免错过登记前的写回），之后由写回广播唤醒
+     *
+     * @return 写回的缓存条目；持有者查询失败或超过租约有效期仍未写回时返回 null
+     */
+    private CacheEntry awaitLeaseHolder(String cacheKey) {
+        CompletableFuture<Void> filled = new CompletableFuture<>();
+        leaseWaiters.put(cacheKey, filled);
+        try {
+            CacheEntry entry = CacheEntry.decode(stringRedisTemplate.opsForValue().get(cacheKey));
+            if (entry == null) {
+                filled.get(pictureQueryCacheConfig.getLeaseMillis(), TimeUnit.MILLISECONDS);
+                entry = CacheEntry.decode(stringRedisTemplate.opsForValue().get(cacheKey));
+            }
+            if (entry != null) {
+                localCache.put(cacheKey, entry);
+            }
+            return entry;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException | TimeoutException e) {
+            return null;
+        } finally {
+            leaseWaiters.remove(cacheKey, filled);
+        }
+    }
+
+    /**
+     * 收到写回广播：唤醒本节点等待该 key 的请求
+     */
+    private void onFilled(String cacheKey) {
+        CompletableFuture<Void> filled = leaseWaiters.get(cacheKey);
+        if (filled != null) {
+            filled.complete(null);
+        }
+    }
+
+    private void notifyFilled(String cacheKey) {
+        try {
+            stringRedisTemplate.convertAndSend(FILLED_CHANNEL, cacheKey);
+        } catch (Exception e) {
+            log.warn("图片查询缓存写回广播失败，cacheKey={}", cacheKey, e);
+        }
+    }
+
+    /**
+     * 后台刷新已过期的缓存（同一 key 同时只刷新一次；其他节点正在刷新时跳过）
+     */
+    private void refreshAsync(String cacheKey, Supplier<?> loader) {
+        if (!refreshing.add(cacheKey)) {
+            return;
+        }
+        try {
+            pictureQueryRefreshExecutor.execute(() -> {
+                String leaseKey = LEASE_KEY_PREFIX + cacheKey;
+                String token = null;
+                try {
+                    if (pictureQueryCacheConfig.isLeaseLock()) {
+                        token = tryAcquireLease(leaseKey);
+                        if (token == null) {
+                            return;
+                        }
+                    }
+                    put(cacheKey, JSONUtil.toJsonStr(loader.get()));
+                } catch (Exception e) {
+                    log.warn("后台刷新图片查询缓存失败，cacheKey={}", cacheKey, e);
+                } finally {
+                    releaseLease(leaseKey, token);
+                    refreshing.remove(cacheKey);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // 刷新线程繁忙，本次继续返回旧值
+            refreshing.remove(cacheKey);
+        }
+    }
+
+    /**
+     * 写入两级缓存：逻辑过期时间之后仍保留 staleSeconds，期间返回旧值并后台刷新
+     */
+    private void put(String cacheKey, String value) {
+        try {
+            int expireSeconds = pictureQueryCacheConfig.getRedisExpireSeconds()
+                    + RandomUtil.randomInt(0, pictureQueryCacheConfig.getRedisExpireSeconds() + 1);
+            CacheEntry entry = new CacheEntry(System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(expireSeconds), value);
+            localCache.put(cacheKey, entry);
+            stringRedisTemplate.opsForValue().set(cacheKey, entry.encode(),
+                    expireSeconds + pictureQueryCacheConfig.getStaleSeconds(), TimeUnit.SECONDS);
+        } catch (Exception e) {
+            log.warn("写入图片查询缓存失败，cacheKey={}", cacheKey, e);
+        }
+    }
+
+    /**
+     * 尝试获取租约锁
+     *
+     * @return 租约凭证，未获取到时返回 null
+     */
+    private String tryAcquireLease(String leaseKey) {
+        String token = UUID.randomUUID().toString();
+        Boolean acquired = stringRedisTemplate.opsForValue().setIfAbsent(leaseKey, token,
+                pictureQueryCacheConfig.getLeaseMillis(), TimeUnit.MILLISECONDS);
+        return Boolean.TRUE.equals(acquired) ? token : null;
+    }
+
+    private void releaseLease(String leaseKey, String token) {
+        if (token == null) {
+            return;
+        }
+        try {
+            stringRedisTemplate.execute(RELEASE_LEASE_SCRIPT, Collections.singletonList(leaseKey), token);
+        } catch (Exception e) {
+            log.warn("释放图片查询缓存租约失败，leaseKey={}", leaseKey, e);
+        }
+    }
+
+    /**
+     * 等待同一节点上其他请求的查询结果（失败时原样抛出其异常）
+     */
+    private String await(CompletableFuture<String> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof BusinessException) {
+                throw (BusinessException) e.getCause();
+            }
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "图片查询失败");
+        }
+    }
+
+    /**
+     * 递增空间的缓存版本号（在当前事务提交后执行），使该空间的查询缓存全部失效
+     * 先通知本节点的监听器，再广播给其他节点
+     *
+     * @param spaceId 空间 id，公共图库为 null
+     */
+    public void bumpVersion(Long spaceId) {
+        String scope = scopeOf(spaceId);
+        TransactionUtils.afterCommit(() -> {
+            Long version = null;
+            try {
+                String versionKey = VERSION_KEY_PREFIX + scope;
+                version = stringRedisTemplate.opsForValue().increment(versionKey);
+                stringRedisTemplate.expire(versionKey, VERSION_EXPIRE_DAYS, TimeUnit.DAYS);
+                localVersionCache.invalidate(scope);
+            } catch (Exception e) {
+                log.error("图片查询缓存版本号更新失败，scope={}", scope, e);
+            }
+            for (PictureVersionListener listener : versionListeners) {
+                try {
+                    listener.onVersionBumped(spaceId, version);
+                } catch (Exception e) {
+                    log.warn("图片查询版本号变更通知失败，scope={}", scope, e);
+                }
+            }
+            if (version != null) {
+                try {
+                    stringRedisTemplate.convertAndSend(INVALIDATE_CHANNEL, scope);
+                } catch (Exception e) {
+                    log.error("图片查询缓存版本号广播失败，scope={}", scope, e);
+                }
+            }
+        });
+    }
+
+    /**
+     * 获取本节点当前使用的空间版本号（与查询缓存 key 中的版本号一致）
+     *
+     * @param spaceId 空间 id，公共图库为 null
+     * @return 版本号，读取失败时返回 null
+     */
+    public Long getVersion(Long spaceId) {
+        try {
+            return localVersionCache.get(scopeOf(spaceId), this::loadVersion);
+        } catch (Exception e) {
+            log.warn("读取图片查询版本号失败，spaceId={}", spaceId, e);
+            return null;
+        }
+    }
+
+    private Long loadVersion(String scope) {
+        String version = stringRedisTemplate.opsForValue().get(VERSION_KEY_PREFIX + scope);
+        return version == null ? 0L : Long.parseLong(version);
+    }
+
+    private static String scopeOf(Long spaceId) {
+        return spaceId == null ? PUBLIC_SCOPE : String.valueOf(spaceId);
+    }
+
+    private static Long spaceIdOf(String scope) {
+        return PUBLIC_SCOPE.equals(scope) ? null : Long.valueOf(scope);
+    }
+
+    /**
+     * 缓存条目：查询结果 JSON 与逻辑过期时间（Redis 中存为 "逻辑过期时间:JSON"）
+     */
+    @Getter
+    @AllArgsConstructor
+    private static class CacheEntry {
+
+        private final long softExpireAt;
+
+        private final String value;
+
+        boolean isStale() {
+            return System.currentTimeMillis() > softExpireAt;
+        }
+
+        String encode() {
+            return softExpireAt + ":" + value;
+        }
+
+        static CacheEntry decode(String cachedValue) {
+            if (cachedValue == null) {
+                return null;
+            }
+            int separator = cachedValue.indexOf(':');
+            return new CacheEntry(Long.parseLong(cachedValue.substring(0, separator)),
+                    cachedValue.substring(separator + 1));
+        }
+    }
+}
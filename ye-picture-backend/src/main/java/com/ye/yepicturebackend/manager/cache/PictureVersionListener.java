@@ -0,0 +1,22 @@
+package com.ye.yepicturebackend.manager.cache;
+
+/**
+ * 图片查询版本号变更监听（如位图过滤索引据此判断自身是否包含最新写入）
+ */
+public interface PictureVersionListener {
+
+    /**
+     * 本节点递增版本号后调用（与写入事务的提交回调在同一线程中执行）
+     *
+     * @param spaceId 空间 id，公共图库为 null
+     * @param version 递增后的版本号，递增失败时为 null
+     */
+    void onVersionBumped(Long spaceId, Long version);
+
+    /**
+     * 收到版本号变更广播后调用（包括本节点发布的广播）
+     *
+     * @param spaceId 空间 id，公共图库为 null
+     */
+    void onVersionInvalidated(Long spaceId);
+}
@@ -0,0 +1,292 @@
+package com.ye.yepicturebackend.manager.color;
+
+import com.ye.yepicturebackend.utils.ColorSimilarUtils;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * 图片色板提取器
+ * <p>
+ * - 解码时按整数步长抽样，只读取约 sampleSize × sampleSize 的像素（以图搜图特征提取也使用该抽样解码），忽略透明像素
+ * - 先用中位切分（median-cut）得到最多 5 个初始颜色，再做 k-means 迭代修正
+ * - k-means 每轮迭代前检查本线程的 CPU 时间，超出预算即停止并使用当前结果
+ * </p>
+ * 色板编码：每种颜色 4 字节（R、G、B、权重 0~255），按权重降序排列
+ */
+@Component
+public class PaletteExtractor {
+
+    /**
+     * 色板最多颜色数
+     */
+    public static final int MAX_COLORS = 5;
+
+    /**
+     * 色板中每种颜色占用的字节数
+     */
+    public static final int ENTRY_BYTES = 4;
+
+    /**
+     * k-means 最大迭代轮数
+     */
+    private static final int MAX_ITERATIONS = 8;
+
+    /**
+     * 视为透明而忽略的 alpha 阈值
+     */
+    private static final int MIN_ALPHA = 128;
+
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+
+    @Resource
+    private PicturePaletteConfig picturePaletteConfig;
+
+    /**
+     * 抽样解码图片：按整数步长跳过像素，解码结果的最大边长不超过 sampleSize
+     *
+     * @param inputStream 图片数据流（由调用方关闭）
+     * @return 抽样后的图片；格式不受支持时返回 null
+     */
+    public BufferedImage decodeSample(InputStream inputStream) throws IOException {
+        int sampleSize = picturePaletteConfig.getSampleSize();
+        try (ImageInputStream imageInputStream = ImageIO.createImageInputStream(inputStream)) {
+            Iterator<ImageReader> readers = imageInputStream == null
+                    ? null : ImageIO.getImageReaders(imageInputStream);
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(imageInputStream, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                int step = Math.max(1, (Math.max(width, height) + sampleSize - 1) / sampleSize);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * 提取图片色板
+     *
+     * @param image 抽样解码后的图片
+     * @return 编码后的色板；没有不透明像素时返回空数组
+     */
+    public byte[] extract(BufferedImage image) {
+        long deadline = cpuTimeNanos() + picturePaletteConfig.getCpuBudgetMillis() * 1_000_000L;
+        // 1. 读取不透明像素
+        int[] pixels = opaquePixels(image);
+        if (pixels.length == 0) {
+            return new byte[0];
+        }
+        // 2. 中位切分得到初始颜色
+        int[] centers = medianCut(pixels, MAX_COLORS);
+        // 3. k-means 修正（受 CPU 时间预算限制）
+        int[] assignment = new int[pixels.length];
+        int[][] scratch = new int[2][pixels.length];
+        int[] counts = assign(pixels, centers, assignment, scratch);
+        for (int i = 0; i < MAX_ITERATIONS && cpuTimeNanos() < deadline; i++) {
+            if (!updateCenters(pixels, centers, assignment)) {
+                break;
+            }
+            counts = assign(pixels, centers, assignment, scratch);
+        }
+        return encode(centers, counts, pixels.length);
+    }
+
+    /**
+     * 不透明像素的 0xRRGGBB 值
+     */
+    private static int[] opaquePixels(BufferedImage image) {
+        int[] argb = image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+        boolean hasAlpha = image.getColorModel().hasAlpha();
+        int size = 0;
+        for (int value : argb) {
+            if (!hasAlpha || (value >>> 24) >= MIN_ALPHA) {
+                argb[size++] = value & 0xFFFFFF;
+            }
+        }
+        return Arrays.copyOf(argb, size);
+    }
+
+    /**
+     * 中位切分：每次选取通道跨度最大的区间，按该通道排序后从中位数处一分为二
+     *
+     * @return 各区间的平均色
+     */
+    private static int[] medianCut(int[] pixels, int maxColors) {
+        // 区间 [starts[i], ends[i])
+        int[] starts = new int[maxColors];
+        int[] ends = new int[maxColors];
+        ends[0] = pixels.length;
+        int boxCount = 1;
+        while (boxCount < maxColors) {
+            int widestBox = -1;
+            int widestShift = 0;
+            int widestRange = 0;
+            for (int box = 0; box < boxCount; box++) {
+                if (ends[box] - starts[box] < 2) {
+                    continue;
+                }
+                for (int shift = 0; shift <= 16; shift += 8) {
+                    int range = channelRange(pixels, starts[box], ends[box], shift);
+                    if (range > widestRange) {
+                        widestRange = range;
+                        widestBox = box;
+                        widestShift = shift;
+                    }
+                }
+            }
+            // 所有区间都只剩单一颜色
+            if (widestBox < 0) {
+                break;
+            }
+            sortByChannel(pixels, starts[widestBox], ends[widestBox], widestShift);
+            int middle = (starts[widestBox] + ends[widestBox]) >>> 1;
+            starts[boxCount] = middle;
+            ends[boxCount] = ends[widestBox];
+            ends[widestBox] = middle;
+            boxCount++;
+        }
+        int[] centers = new int[boxCount];
+        for (int box = 0; box < boxCount; box++) {
+            long red = 0, green = 0, blue = 0;
+            for (int i = starts[box]; i < ends[box]; i++) {
+                red += (pixels[i] >> 16) & 0xFF;
+                green += (pixels[i] >> 8) & 0xFF;
+                blue += pixels[i] & 0xFF;
+            }
+            int count = ends[box] - starts[box];
+            centers[box] = (int) (red / count) << 16 | (int) (green / count) << 8 | (int) (blue / count);
+        }
+        return centers;
+    }
+
+    private static int channelRange(int[] pixels, int start, int end, int shift) {
+        int min = 255;
+        int max = 0;
+        for (int i = start; i < end; i++) {
+            int value = (pixels[i] >> shift) & 0xFF;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        return max - min;
+    }
+
+    /**
+     * 按指定通道排序区间（通道值放在高位并翻转符号位，使有符号排序等同于无符号排序，排序后还原）
+     */
+    private static void sortByChannel(int[] pixels, int start, int end, int shift) {
+        for (int i = start; i < end; i++) {
+            pixels[i] = (((pixels[i] >> shift) & 0xFF) << 24 | pixels[i]) ^ Integer.MIN_VALUE;
+        }
+        Arrays.sort(pixels, start, end);
+        for (int i = start; i < end; i++) {
+            pixels[i] &= 0xFFFFFF;
+        }
+    }
+
+    /**
+     * 将每个像素分配到最近的颜色
+     * 按颜色逐个批量计算全部像素的距离平方，再逐像素保留更近者（距离相同时保留靠前的颜色）
+     *
+     * @param scratch 两个长度不小于像素数的缓冲区：本轮距离、当前最近距离
+     * @return 各颜色的像素数
+     */
+    private static int[] assign(int[] pixels, int[] centers, int[] assignment, int[][] scratch) {
+        int[] distances = scratch[0];
+        int[] nearestDistances = scratch[1];
+        Arrays.fill(nearestDistances, 0, pixels.length, Integer.MAX_VALUE);
+        for (int c = 0; c < centers.length; c++) {
+            ColorSimilarUtils.distanceSquares(pixels, 0, pixels.length, centers[c], distances);
+            for (int i = 0; i < pixels.length; i++) {
+                if (distances[i] < nearestDistances[i]) {
+                    nearestDistances[i] = distances[i];
+                    assignment[i] = c;
+                }
+            }
+        }
+        int[] counts = new int[centers.length];
+        for (int i = 0; i < pixels.length; i++) {
+            counts[assignment[i]]++;
+        }
+        return counts;
+    }
+
+    /**
+     * 以所分配像素的平均值更新各颜色
+     *
+     * @return 是否有颜色发生变化
+     */
+    private static boolean updateCenters(int[] pixels, int[] centers, int[] assignment) {
+        long[] sums = new long[centers.length * 4];
+        for (int i = 0; i < pixels.length; i++) {
+            int offset = assignment[i] * 4;
+            sums[offset] += (pixels[i] >> 16) & 0xFF;
+            sums[offset + 1] += (pixels[i] >> 8) & 0xFF;
+            sums[offset + 2] += pixels[i] & 0xFF;
+            sums[offset + 3]++;
+        }
+        boolean changed = false;
+        for (int c = 0; c < centers.length; c++) {
+            long count = sums[c * 4 + 3];
+            if (count == 0) {
+                continue;
+            }
+            int center = (int) (sums[c * 4] / count) << 16
+                    | (int) (sums[c * 4 + 1] / count) << 8
+                    | (int) (sums[c * 4 + 2] / count);
+            changed |= center != centers[c];
+            centers[c] = center;
+        }
+        return changed;
+    }
+
+    /**
+     * 按像素占比降序编码色板（占比为 0 的颜色不写入）
+     */
+    private static byte[] encode(int[] centers, int[] counts, int total) {
+        Integer[] order = new Integer[centers.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (left, right) -> Integer.compare(counts[right], counts[left]));
+        byte[] palette = new byte[centers.length * ENTRY_BYTES];
+        int size = 0;
+        for (int index : order) {
+            if (counts[index] == 0) {
+                break;
+            }
+            int weight = Math.max(1, (int) Math.round(counts[index] * 255.0 / total));
+            palette[size++] = (byte) (centers[index] >> 16);
+            palette[size++] = (byte) (centers[index] >> 8);
+            palette[size++] = (byte) centers[index];
+            palette[size++] = (byte) weight;
+        }
+        return Arrays.copyOf(palette, size);
+    }
+
+    /**
+     * 当前线程已使用的 CPU 时间（不支持时退化为墙钟时间）
+     */
+    private static long cpuTimeNanos() {
+        return THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported()
+                ? THREAD_MX_BEAN.getCurrentThreadCpuTime() : System.nanoTime();
+    }
+}
@@ -0,0 +1,185 @@
+package com.ye.yepicturebackend.manager.color;
+
+import cn.hutool.core.util.StrUtil;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.ye.yepicturebackend.mapper.PictureMapper;
+import com.ye.yepicturebackend.model.entity.Picture;
+import com.ye.yepicturebackend.utils.ColorSimilarUtils;
+import com.ye.yepicturebackend.utils.ColorTopK;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+import java.util.List;
+
+/**
+ * 图片主色调管理器（以颜色搜图）
+ * <p>
+ * 上传时将主色调统一为 0xRRGGBB，并预先计算整数值与 CIELAB 分量存入 picture 表：
+ * - 搜索时在 (spaceId, picColorL, picColorA, picColorB) 索引上做 L*a*b* 范围查询，只读取 id 与 L*a*b*
+ * - 范围由色差上限推算，范围外的颜色色差一定超过上限；范围内的记录按 id 翻页全部读取，不会漏掉更相近的颜色
+ * - 候选颜色按 CIEDE2000 色差重新排序，只返回最相近的图片 id
+ * - 服务启动后回填尚未计算的历史图片
+ * </p>
+ */
+@Slf4j
+@Component
+public class PictureColorManager {
+
+    /**
+     * 逐级放宽的色差上限（占最大色差的比例），范围内已有足够的图片不超过该上限时停止
+     */
+    private static final double[] DELTA_E_STEPS = {0.125, 0.25, 0.5, 1};
+
+    /**
+     * 范围查询每页读取的候选数
+     */
+    private static final int PAGE_SIZE = 2000;
+
+    /**
+     * 历史图片回填时每批处理的图片数
+     */
+    private static final int BACKFILL_BATCH_SIZE = 500;
+
+    @Resource
+    private PictureMapper pictureMapper;
+
+    /**
+     * 填充图片主色调字段：统一为 0xRRGGBB，并计算整数值与 L*a*b* 分量（格式错误时仅保留原值）
+     *
+     * @param picture  图片实体
+     * @param picColor 主色调（支持腾讯COS返回的缩略格式，如 0x8、0xA100）
+     */
+    public void fillColorColumns(Picture picture, String picColor) {
+        picture.setPicColor(picColor);
+        Integer rgb = parseRgb(picture.getId(), picColor);
+        if (rgb == null) {
+            return;
+        }
+        double[] lab = ColorSimilarUtils.toLab(rgb);
+        picture.setPicColor(String.format("0x%06X", rgb));
+        picture.setPicColorRgb(rgb);
+        picture.setPicColorL(lab[0]);
+        picture.setPicColorA(lab[1]);
+        picture.setPicColorB(lab[2]);
+    }
+
+    /**
+     * 搜索空间内主色调与目标颜色最相近的图片
+     *
+     * @param spaceId       空间 id
+     * @param targetRgb     目标颜色（0xRRGGBB）
+     * @param limit         最多返回数量
+     * @param maxDeltaE     允许的最大 CIEDE2000 色差
+     * @return 按色差升序排列的图片 id
+     */
+    public List<Long> searchSimilar(Long spaceId, int targetRgb, int limit, double maxDeltaE) {
+        double[] target = ColorSimilarUtils.toLab(targetRgb);
+        // 色差最大的在堆顶，不为候选创建对象
+        ColorTopK topK = new ColorTopK(limit);
+        for (double step : DELTA_E_STEPS) {
+            double stepDeltaE = maxDeltaE * step;
+            // 1. 由色差上限推算范围，范围外的颜色色差一定超过 stepDeltaE
+            double lightnessRadius = ColorSimilarUtils.lightnessRadius(stepDeltaE);
+            double chromaRadius = ColorSimilarUtils.chromaRadius(target, stepDeltaE);
+            topK.reset();
+            int withinStepCount = 0;
+            long lastId = 0L;
+            while (true) {
+                // 2. 在索引上做 L*a*b* 范围查询（仅读取索引列），按 id 翻页读完整个范围
+                List<Picture> pictureList = pictureMapper.selectList(new LambdaQueryWrapper<Picture>()
+                        .select(Picture::getId, Picture::getPicColorL, Picture::getPicColorA, Picture::getPicColorB)
+                        .eq(Picture::getSpaceId, spaceId)
+                        .between(Picture::getPicColorL, target[0] - lightnessRadius, target[0] + lightnessRadius)
+                        .between(Picture::getPicColorA, target[1] - chromaRadius, target[1] + chromaRadius)
+                        .between(Picture::getPicColorB, target[2] - chromaRadius, target[2] + chromaRadius)
+                        .gt(Picture::getId, lastId)
+                        .orderByAsc(Picture::getId)
+                        .last("LIMIT " + PAGE_SIZE));
+                // 3. 按 CIEDE2000 色差过滤，保留最相近的 limit 张
+                for (Picture picture : pictureList) {
+                    double deltaE = ColorSimilarUtils.ciede2000(target[0], target[1], target[2],
+                            picture.getPicColorL(), picture.getPicColorA(), picture.getPicColorB());
+                    if (deltaE <= maxDeltaE) {
+                        topK.offer(picture.getId(), deltaE);
+                    }
+                    if (deltaE <= stepDeltaE) {
+                        withinStepCount++;
+                    }
+                }
+                if (pictureList.size() < PAGE_SIZE) {
+                    break;
+                }
+                lastId = pictureList.get(pictureList.size() - 1).getId();
+            }
+            // 范围外的颜色不会比已找到的 limit 张更相近，无需再放宽
+            if (withinStepCount >= limit) {
+                break;
+            }
+        }
+        // 4. 按色差升序输出
+        return topK.drainSorted();
+    }
+
+    /**
+     * 服务启动后回填历史图片的主色调整数值与 L*a*b* 分量
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillColorColumns() {
+        long lastId = 0L;
+        int pictureCount = 0;
+        try {
+            while (true) {
+                List<Picture> pictureList = pictureMapper.selectList(new LambdaQueryWrapper<Picture>()
+                        .select(Picture::getId, Picture::getPicColor)
+                        .gt(Picture::getId, lastId)
+                        .isNotNull(Picture::getPicColor)
+                        .isNull(Picture::getPicColorRgb)
+                        .orderByAsc(Picture::getId)
+                        .last("LIMIT " + BACKFILL_BATCH_SIZE));
+                if (pictureList.isEmpty()) {
+                    break;
+                }
+                for (Picture picture : pictureList) {
+                    Picture colorPicture = new Picture();
+                    colorPicture.setId(picture.getId());
+                    fillColorColumns(colorPicture, picture.getPicColor());
+                    if (colorPicture.getPicColorRgb() == null) {
+                        continue;
+                    }
+                    pictureMapper.update(null, new LambdaUpdateWrapper<Picture>()
+                            .eq(Picture::getId, picture.getId())
+                            .set(Picture::getPicColor, colorPicture.getPicColor())
+                            .set(Picture::getPicColorRgb, colorPicture.getPicColorRgb())
+                            .set(Picture::getPicColorL, colorPicture.getPicColorL())
+                            .set(Picture::getPicColorA, colorPicture.getPicColorA())
+                            .set(Picture::getPicColorB, colorPicture.getPicColorB())
+                            // 回填不视为业务更新，保留原更新时间
+                            .setSql("updateTime = updateTime"));
+                }
+                pictureCount += pictureList.size();
+                lastId = pictureList.get(pictureList.size() - 1).getId();
+            }
+            if (pictureCount > 0) {
+                log.info("历史图片主色调回填完成，共处理 {} 张图片", pictureCount);
+            }
+        } catch (Exception e) {
+            log.error("历史图片主色调回填失败，已处理 {} 张图片", pictureCount, e);
+        }
+    }
+
+    private static Integer parseRgb(Long pictureId, String picColor) {
+        if (StrUtil.isBlank(picColor)) {
+            return null;
+        }
+        try {
+            return ColorSimilarUtils.parseRgb(picColor);
+        } catch (NumberFormatException e) {
+            log.warn("图片主色调格式错误，图片ID：{}，主色调：{}", pictureId, picColor);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.ye.yepicturebackend.manager.color;
+
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 图片色板提取配置
+ */
+@Configuration
+@ConfigurationProperties(prefix = "picture.palette")
+@Data
+public class PicturePaletteConfig {
+
+    /**
+     * 是否在上传后提取色板
+     */
+    private boolean enabled = true;
+
+    /**
+     * 提取线程数（后台任务，默认只占用一个核）
+     */
+    private int workerThreads = 1;
+
+    /**
+     * 等待队列容量，队列满时放弃本次提取（色板保持空值），由定时回填补齐
+     */
+    private int queueCapacity = 256;
+
+    /**
+     * 定时回填间隔（分钟）：重新提取因队列满被放弃或提取失败的图片
+     */
+    private int backfillMinutes = 5;
+
+    /**
+     * 单张图片的 CPU 时间预算（毫秒）：解码后的聚类迭代超出预算即停止，使用当前结果
+     */
+    private long cpuBudgetMillis = 50L;
+
+    /**
+     * 解码时的最大边长（按整数步长抽样解码，不完整解码大图）
+     */
+    private int sampleSize = 64;
+
+    /**
+     * 色板提取线程池（有界队列 + 拒绝策略，不占用上传请求线程）
+     */
+    @Bean(name = "paletteExtractExecutor", destroyMethod = "shutdownNow")
+    public ThreadPoolExecutor paletteExtractExecutor() {
+        return new ThreadPoolExecutor(
+                workerThreads, workerThreads,
+                60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                ThreadFactoryBuilder.create().setNamePrefix("paletteExtract-").setDaemon(true).build(),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+}
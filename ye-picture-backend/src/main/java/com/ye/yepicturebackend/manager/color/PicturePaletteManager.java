@@ -0,0 +1,364 @@
+package com.ye.yepicturebackend.manager.color;
+
+import cn.hutool.core.util.StrUtil;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.ye.yepicturebackend.manager.storage.ObjectStorage;
+import com.ye.yepicturebackend.mapper.PictureMapper;
+import com.ye.yepicturebackend.mapper.PicturePaletteColorMapper;
+import com.ye.yepicturebackend.model.entity.Picture;
+import com.ye.yepicturebackend.model.entity.PicturePaletteColor;
+import com.ye.yepicturebackend.utils.ColorSimilarUtils;
+import com.ye.yepicturebackend.utils.ColorTopK;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.Resource;
+import java.awt.image.BufferedImage;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 图片色板管理器
+ * <p>
+ * - 图片入库后将色板提取任务提交到独立的有界线程池，不占用上传请求线程
+ * - 队列满或提取失败时色板保持空值（即待提取标记），定时回填从放弃的最小图片 id 起重新提取；服务启动时回填全部历史图片
+ * - 色板以二进制存入 picture.picPalette（最多 5 种颜色 × 4 字节），同时按颜色展开到 picture_palette_color，预先计算 L*a*b* 分量
+ * - 按色板搜图时由色差上限推算范围，在 (spaceId, colorL, colorA, colorB) 索引上做 L*a*b* 范围查询，
+ *   范围内的颜色按 CIEDE2000 色差计分，按图片累加权重
+ * </p>
+ */
+@Slf4j
+@Component
+public class PicturePaletteManager {
+
+    /**
+     * 范围查询每页读取的颜色数
+     */
+    private static final int SEARCH_PAGE_SIZE = 5000;
+
+    /**
+     * 历史图片回填时每批处理的图片数
+     */
+    private static final int BACKFILL_BATCH_SIZE = 200;
+
+    @Resource
+    private PicturePaletteConfig picturePaletteConfig;
+
+    @Resource(name = "paletteExtractExecutor")
+    private ThreadPoolExecutor paletteExtractExecutor;
+
+    @Resource
+    private PaletteExtractor paletteExtractor;
+
+    @Resource
+    private ObjectStorage objectStorage;
+
+    @Resource
+    private PictureMapper pictureMapper;
+
+    @Resource
+    private PicturePaletteColorMapper picturePaletteColorMapper;
+
+    @Resource
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * 放弃或提取失败的最小图片 id，定时回填从这里开始扫描（没有待回填图片时为 Long.MAX_VALUE）
+     */
+    private final AtomicLong pendingFromId = new AtomicLong(Long.MAX_VALUE);
+
+    /**
+     * 回填任务是否已在排队或执行，同一时间只保留一个
+     */
+    private final AtomicBoolean backfillRunning = new AtomicBoolean();
+
+    /**
+     * 提交色板提取任务（图片入库后调用，不等待结果）
+     *
+     * @param picture 已入库的图片
+     */
+    public void submitExtraction(Picture picture) {
+        if (!picturePaletteConfig.isEnabled() || StrUtil.isBlank(picture.getOriginKey())) {
+            return;
+        }
+        Long pictureId = picture.getId();
+        Long spaceId = picture.getSpaceId();
+        String originKey = picture.getOriginKey();
+        String sourceKey = sourceKeyOf(picture);
+        try {
+            paletteExtractExecutor.execute(() -> extractAndSave(pictureId, spaceId, originKey, sourceKey));
+        } catch (RejectedExecutionException e) {
+            markPending(pictureId);
+            log.warn("色板提取队列已满，等待定时回填，图片ID：{}（排队：{}）",
+                    pictureId, paletteExtractExecutor.getQueue().size());
+        }
+    }
+
+    /**
+     * 搜索空间内色板与目标颜色最匹配的图片
+     * 得分 = Σ 色板颜色权重 × (1 - 色差 / 最大色差)，只统计色差不超过最大色差的颜色
+     *
+     * @param spaceId   空间 id
+     * @param targetRgb 目标颜色（0xRRGGBB）
+     * @param limit     最多返回数量
+     * @param maxDeltaE 允许的最大 CIEDE2000 色差
+     * @return 按得分降序排列的图片 id
+     */
+    public List<Long> searchSimilar(Long spaceId, int targetRgb, int limit, double maxDeltaE) {
+        double[] target = ColorSimilarUtils.toLab(targetRgb);
+        // 1. 由色差上限推算范围，范围外的颜色色差一定超过上限，不参与计分
+        double lightnessRadius = ColorSimilarUtils.lightnessRadius(maxDeltaE);
+        double chromaRadius = ColorSimilarUtils.chromaRadius(target, maxDeltaE);
+        Map<Long, Double> scoreMap = new HashMap<>();
+        long lastId = 0L;
+        while (true) {
+            // 2. 在索引上做 L*a*b* 范围查询（仅读取索引列），按 id 翻页读完整个范围
+            List<PicturePaletteColor> colorList = picturePaletteColorMapper.selectList(
+                    new LambdaQueryWrapper<PicturePaletteColor>()
+                            .select(PicturePaletteColor::getId, PicturePaletteColor::getPictureId,
+                                    PicturePaletteColor::getColorL, PicturePaletteColor::getColorA,
+                                    PicturePaletteColor::getColorB, PicturePaletteColor::getWeight)
+                            .eq(PicturePaletteColor::getSpaceId, spaceId)
+                            .between(PicturePaletteColor::getColorL,
+                                    target[0] - lightnessRadius, target[0] + lightnessRadius)
+                            .between(PicturePaletteColor::getColorA,
+                                    target[1] - chromaRadius, target[1] + chromaRadius)
+                            .between(PicturePaletteColor::getColorB,
+                                    target[2] - chromaRadius, target[2] + chromaRadius)
+                            .gt(PicturePaletteColor::getId, lastId)
+                            .orderByAsc(PicturePaletteColor::getId)
+                            .last("LIMIT " + SEARCH_PAGE_SIZE));
+            // 3. 按色差计分，按图片累加
+            for (PicturePaletteColor color : colorList) {
+                double deltaE = ColorSimilarUtils.ciede2000(target[0], target[1], target[2],
+                        color.getColorL(), color.getColorA(), color.getColorB());
+                if (deltaE < maxDeltaE) {
+                    scoreMap.merge(color.getPictureId(),
+                            color.getWeight() / 255.0 * (1 - deltaE / maxDeltaE), Double::sum);
+                }
+            }
+            if (colorList.size() < SEARCH_PAGE_SIZE) {
+                break;
+            }
+            lastId = colorList.get(colorList.size() - 1).getId();
+        }
+        // 4. 保留得分最高的 limit 张（以负得分作为距离，得分最低的在堆顶），按得分降序输出
+        ColorTopK topK = new ColorTopK(limit);
+        scoreMap.forEach((pictureId, score) -> topK.offer(pictureId, -score));
+        return topK.drainSorted();
+    }
+
+    /**
+     * 删除图片的色板颜色（在图片删除的事务中调用）
+     *
+     * @param pictureId 图片 id
+     */
+    public void onPictureRemoved(Long pictureId) {
+        picturePaletteColorMapper.delete(new LambdaQueryWrapper<PicturePaletteColor>()
+                .eq(PicturePaletteColor::getPictureId, pictureId));
+    }
+
+    /**
+     * 服务启动后在提取线程池中回填尚未提取色板的历史图片
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillPalettes() {
+        if (!picturePaletteConfig.isEnabled()) {
+            return;
+        }
+        try {
+            paletteExtractExecutor.execute(this::backfillPaletteColors);
+        } catch (RejectedExecutionException e) {
+            log.warn("色板提取队列已满，跳过本次色板颜色回填");
+        }
+        submitBackfill(0L);
+    }
+
+    /**
+     * 将已提取的色板展开到色板颜色表（色板颜色表上线前提取的历史图片，无需重新解码）
+     */
+    private void backfillPaletteColors() {
+        long lastId = 0L;
+        int pictureCount = 0;
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                List<Picture> pictureList = pictureMapper.selectList(new LambdaQueryWrapper<Picture>()
+                        .select(Picture::getId, Picture::getSpaceId, Picture::getPicPalette)
+                        .gt(Picture::getId, lastId)
+                        .isNotNull(Picture::getPicPalette)
+                        .apply("LENGTH(picPalette) > 0")
+                        .notExists("SELECT 1 FROM picture_palette_color WHERE picture_palette_color.pictureId = picture.id")
+                        .orderByAsc(Picture::getId)
+                        .last("LIMIT " + BACKFILL_BATCH_SIZE));
+                if (pictureList.isEmpty()) {
+                    break;
+                }
+                List<PicturePaletteColor> colorList = new ArrayList<>();
+                for (Picture picture : pictureList) {
+                    colorList.addAll(toColorList(picture.getId(), picture.getSpaceId(), picture.getPicPalette()));
+                }
+                if (!colorList.isEmpty()) {
+                    picturePaletteColorMapper.insertBatch(colorList);
+                }
+                pictureCount += pictureList.size();
+                lastId = pictureList.get(pictureList.size() - 1).getId();
+            }
+            if (pictureCount > 0) {
+                log.info("历史图片色板颜色回填完成，共处理 {} 张图片", pictureCount);
+            }
+        } catch (Exception e) {
+            log.error("历史图片色板颜色回填失败，已处理 {} 张图片", pictureCount, e);
+        }
+    }
+
+    /**
+     * 定时回填因队列满被放弃或提取失败的图片（没有待回填图片时不扫描）
+     */
+    @Scheduled(fixedDelayString = "#{@picturePaletteConfig.backfillMinutes * 60000}",
+            initialDelayString = "#{@picturePaletteConfig.backfillMinutes * 60000}")
+    public void backfillPending() {
+        if (!picturePaletteConfig.isEnabled()) {
+            return;
+        }
+        long fromId = pendingFromId.getAndSet(Long.MAX_VALUE);
+        if (fromId != Long.MAX_VALUE) {
+            submitBackfill(fromId - 1);
+        }
+    }
+
+    /**
+     * 提交回填任务：已有回填任务或队列已满时保留待回填标记，等待下一轮
+     *
+     * @param afterId 从该 id 之后开始扫描
+     */
+    private void submitBackfill(long afterId) {
+        if (!backfillRunning.compareAndSet(false, true)) {
+            markPending(afterId + 1);
+            return;
+        }
+        try {
+            paletteExtractExecutor.execute(() -> {
+                try {
+                    doBackfill(afterId);
+                } finally {
+                    backfillRunning.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            backfillRunning.set(false);
+            markPending(afterId + 1);
+            log.warn("色板提取队列已满，历史图片回填推迟到下一轮");
+        }
+    }
+
+    private void markPending(long pictureId) {
+        pendingFromId.accumulateAndGet(pictureId, Math::min);
+    }
+
+    private void doBackfill(long afterId) {
+        long lastId = afterId;
+        int pictureCount = 0;
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                List<Picture> pictureList = pictureMapper.selectList(new LambdaQueryWrapper<Picture>()
+                        .select(Picture::getId, Picture::getSpaceId, Picture::getOriginKey, Picture::getThumbnailKey)
+                        .gt(Picture::getId, lastId)
+                        .isNull(Picture::getPicPalette)
+                        .isNotNull(Picture::getOriginKey)
+                        .orderByAsc(Picture::getId)
+                        .last("LIMIT " + BACKFILL_BATCH_SIZE));
+                if (pictureList.isEmpty()) {
+                    break;
+                }
+                for (Picture picture : pictureList) {
+                    extractAndSave(picture.getId(), picture.getSpaceId(), picture.getOriginKey(), sourceKeyOf(picture));
+                }
+                pictureCount += pictureList.size();
+                lastId = pictureList.get(pictureList.size() - 1).getId();
+            }
+            if (pictureCount > 0) {
+                log.info("历史图片色板回填完成，共处理 {} 张图片", pictureCount);
+            }
+        } catch (Exception e) {
+            markPending(lastId + 1);
+            log.error("历史图片色板回填失败，已处理 {} 张图片", pictureCount, e);
+        }
+    }
+
+    /**
+     * 提取色板并写回（图片已被重新上传时不写入，读取失败时保留空值并等待定时回填重试）
+     */
+    private void extractAndSave(Long pictureId, Long spaceId, String originKey, String sourceKey) {
+        byte[] palette;
+        try (InputStream inputStream = objectStorage.getObject(sourceKey)) {
+            BufferedImage image = paletteExtractor.decodeSample(inputStream);
+            palette = image == null ? new byte[0] : paletteExtractor.extract(image);
+        } catch (Exception e) {
+            markPending(pictureId);
+            log.warn("图片色板提取失败，图片ID：{}，存储标识：{}", pictureId, sourceKey, e);
+            return;
+        }
+        // 色板与色板颜色在同一事务中写入，图片已被删除或重新上传时都不写入
+        transactionTemplate.executeWithoutResult(status -> {
+            int updatedRows = pictureMapper.update(null, new LambdaUpdateWrapper<Picture>()
+                    .eq(Picture::getId, pictureId)
+                    .eq(Picture::getOriginKey, originKey)
+                    .set(Picture::getPicPalette, palette)
+                    // 色板为派生数据，不视为业务更新，保留原更新时间
+                    .setSql("updateTime = updateTime"));
+            if (updatedRows == 0) {
+                return;
+            }
+            picturePaletteColorMapper.delete(new LambdaQueryWrapper<PicturePaletteColor>()
+                    .eq(PicturePaletteColor::getPictureId, pictureId));
+            List<PicturePaletteColor> colorList = toColorList(pictureId, spaceId, palette);
+            if (!colorList.isEmpty()) {
+                picturePaletteColorMapper.insertBatch(colorList);
+            }
+        });
+    }
+
+    /**
+     * 将编码后的色板展开为色板颜色（预先计算 L*a*b* 分量）
+     */
+    private static List<PicturePaletteColor> toColorList(Long pictureId, Long spaceId, byte[] palette) {
+        List<PicturePaletteColor> colorList = new ArrayList<>(PaletteExtractor.MAX_COLORS);
+        for (int offset = 0; offset + PaletteExtractor.ENTRY_BYTES <= palette.length;
+             offset += PaletteExtractor.ENTRY_BYTES) {
+            int rgb = (palette[offset] & 0xFF) << 16 | (palette[offset + 1] & 0xFF) << 8 | (palette[offset + 2] & 0xFF);
+            double[] lab = ColorSimilarUtils.toLab(rgb);
+            PicturePaletteColor color = new PicturePaletteColor();
+            color.setPictureId(pictureId);
+            color.setSpaceId(spaceId);
+            color.setColorL(lab[0]);
+            color.setColorA(lab[1]);
+            color.setColorB(lab[2]);
+            color.setWeight(palette[offset + 3] & 0xFF);
+            colorList.add(color);
+        }
+        return colorList;
+    }
+
+    /**
+     * 提取色板使用的图片：优先使用缩略图，JDK 无法解码 webp 时改用原图（抽样解码，不会完整解码大图）
+     */
+    private static String sourceKeyOf(Picture picture) {
+        String thumbnailKey = picture.getThumbnailKey();
+        if (StrUtil.isNotBlank(thumbnailKey) && !StrUtil.endWithIgnoreCase(thumbnailKey, ".webp")) {
+            return thumbnailKey;
+        }
+        return picture.getOriginKey();
+    }
+}
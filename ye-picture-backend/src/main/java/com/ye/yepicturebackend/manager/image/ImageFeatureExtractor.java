@@ -0,0 +1,245 @@
+package com.ye.yepicturebackend.manager.image;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * 以图搜图特征提取器
+ * <p>
+ * 特征向量共 {@link #FEATURE_BYTES} 字节：
+ * - [0, 8)：感知哈希（pHash，32×32 灰度图 DCT 低频 8×8 系数与中位数比较，大端序 long）
+ * - [8, 72)：颜色直方图（RGB 各分 4 段共 64 格，每格为像素占比 × 255）
+ * - [72, 88)：边缘直方图（2×2 分区 × 4 个方向的 Sobel 梯度强度占比 × 255）
+ * </p>
+ * 距离为三部分归一化距离的加权和（0~1，越小越相似）
+ */
+public class ImageFeatureExtractor {
+
+    /**
+     * 私有构造方法：工具类禁止实例化
+     */
+    private ImageFeatureExtractor() {
+        throw new AssertionError("工具类不允许实例化");
+    }
+
+    public static final int FEATURE_BYTES = 88;
+
+    private static final int HASH_OFFSET = 0;
+
+    private static final int COLOR_OFFSET = 8;
+
+    private static final int COLOR_BINS = 64;
+
+    private static final int EDGE_OFFSET = COLOR_OFFSET + COLOR_BINS;
+
+    private static final int EDGE_BINS = 16;
+
+    /**
+     * 计算 pHash 与边缘直方图的灰度图边长
+     */
+    private static final int GRAY_SIZE = 32;
+
+    /**
+     * pHash 使用的低频系数边长
+     */
+    private static final int HASH_SIZE = 8;
+
+    /**
+     * 计入边缘直方图的最小梯度强度（过滤平坦区域的噪声）
+     */
+    private static final double MIN_EDGE_MAGNITUDE = 32;
+
+    /**
+     * 各部分距离的权重：感知哈希、颜色直方图、边缘直方图
+     */
+    private static final double WEIGHT_HASH = 0.5;
+    private static final double WEIGHT_COLOR = 0.3;
+    private static final double WEIGHT_EDGE = 0.2;
+
+    /**
+     * DCT 余弦表：COS_TABLE[u][x] = cos((2x + 1)uπ / 64)
+     */
+    private static final double[][] COS_TABLE = new double[GRAY_SIZE][GRAY_SIZE];
+
+    static {
+        for (int u = 0; u < GRAY_SIZE; u++) {
+            for (int x = 0; x < GRAY_SIZE; x++) {
+                COS_TABLE[u][x] = Math.cos((2 * x + 1) * u * Math.PI / (2 * GRAY_SIZE));
+            }
+        }
+    }
+
+    /**
+     * 提取特征向量
+     *
+     * @param image 图片（可为抽样解码后的小图）
+     * @return 特征向量，长度为 {@link #FEATURE_BYTES}
+     */
+    public static byte[] extract(BufferedImage image) {
+        byte[] feature = new byte[FEATURE_BYTES];
+        double[][] gray = toGray(image);
+        writeHash(feature, perceptualHash(gray));
+        writeColorHistogram(feature, image);
+        writeEdgeHistogram(feature, gray);
+        return feature;
+    }
+
+    /**
+     * 特征向量中的感知哈希
+     */
+    public static long hashOf(byte[] feature) {
+        long hash = 0;
+        for (int i = 0; i < 8; i++) {
+            hash = hash << 8 | (feature[HASH_OFFSET + i] & 0xFF);
+        }
+        return hash;
+    }
+
+    /**
+     * 两个特征向量的距离（0~1，越小越相似）
+     */
+    public static double distance(byte[] feature1, byte[] feature2) {
+        double hashDistance = Long.bitCount(hashOf(feature1) ^ hashOf(feature2)) / 64.0;
+        double colorDistance = l1(feature1, feature2, COLOR_OFFSET, COLOR_BINS) / (2 * 255.0);
+        double edgeDistance = l1(feature1, feature2, EDGE_OFFSET, EDGE_BINS) / (2 * 255.0);
+        return WEIGHT_HASH * hashDistance + WEIGHT_COLOR * Math.min(1, colorDistance)
+                + WEIGHT_EDGE * Math.min(1, edgeDistance);
+    }
+
+    private static int l1(byte[] feature1, byte[] feature2, int offset, int length) {
+        int sum = 0;
+        for (int i = offset; i < offset + length; i++) {
+            sum += Math.abs((feature1[i] & 0xFF) - (feature2[i] & 0xFF));
+        }
+        return sum;
+    }
+
+    /**
+     * 缩放为 32×32 灰度图（透明区域按白底处理）
+     */
+    private static double[][] toGray(BufferedImage image) {
+        BufferedImage scaled = new BufferedImage(GRAY_SIZE, GRAY_SIZE, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaled.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        graphics.drawImage(image, 0, 0, GRAY_SIZE, GRAY_SIZE, Color.WHITE, null);
+        graphics.dispose();
+        double[][] gray = new double[GRAY_SIZE][GRAY_SIZE];
+        for (int y = 0; y < GRAY_SIZE; y++) {
+            for (int x = 0; x < GRAY_SIZE; x++) {
+                int rgb = scaled.getRGB(x, y);
+                gray[y][x] = 0.299 * ((rgb >> 16) & 0xFF) + 0.587 * ((rgb >> 8) & 0xFF) + 0.114 * (rgb & 0xFF);
+            }
+        }
+        return gray;
+    }
+
+    /**
+     * pHash：二维 DCT 取左上角 8×8 低频系数，大于中位数（不含直流分量）的位为 1
+     */
+    private static long perceptualHash(double[][] gray) {
+        // 1. 先按行再按列做 DCT，只计算需要的低频部分
+        double[][] rows = new double[GRAY_SIZE][HASH_SIZE];
+        for (int y = 0; y < GRAY_SIZE; y++) {
+            for (int u = 0; u < HASH_SIZE; u++) {
+                double sum = 0;
+                for (int x = 0; x < GRAY_SIZE; x++) {
+                    sum += gray[y][x] * COS_TABLE[u][x];
+                }
+                rows[y][u] = sum;
+            }
+        }
+        double[] coefficients = new double[HASH_SIZE * HASH_SIZE];
+        for (int v = 0; v < HASH_SIZE; v++) {
+            for (int u = 0; u < HASH_SIZE; u++) {
+                double sum = 0;
+                for (int y = 0; y < GRAY_SIZE; y++) {
+                    sum += rows[y][u] * COS_TABLE[v][y];
+                }
+                coefficients[v * HASH_SIZE + u] = sum;
+            }
+        }
+        // 2. 与中位数比较（直流分量只反映整体亮度，不参与）
+        double[] sorted = Arrays.copyOfRange(coefficients, 1, coefficients.length);
+        Arrays.sort(sorted);
+        double median = sorted[sorted.length / 2];
+        long hash = 0;
+        for (int i = 1; i < coefficients.length; i++) {
+            if (coefficients[i] > median) {
+                hash |= 1L << i;
+            }
+        }
+        return hash;
+    }
+
+    private static void writeHash(byte[] feature, long hash) {
+        for (int i = 7; i >= 0; i--) {
+            feature[HASH_OFFSET + i] = (byte) hash;
+            hash >>>= 8;
+        }
+    }
+
+    /**
+     * 颜色直方图：RGB 各取高 2 位，共 64 格（透明像素不计入）
+     */
+    private static void writeColorHistogram(byte[] feature, BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] argb = image.getRGB(0, 0, width, height, null, 0, width);
+        boolean hasAlpha = image.getColorModel().hasAlpha();
+        int[] bins = new int[COLOR_BINS];
+        int total = 0;
+        for (int value : argb) {
+            if (hasAlpha && (value >>> 24) < 128) {
+                continue;
+            }
+            int bin = ((value >> 22) & 0x3) << 4 | ((value >> 14) & 0x3) << 2 | ((value >> 6) & 0x3);
+            bins[bin]++;
+            total++;
+        }
+        writeNormalized(feature, COLOR_OFFSET, bins, total);
+    }
+
+    /**
+     * 边缘直方图：Sobel 梯度按 2×2 分区、4 个方向（0°、45°、90°、135°）累加强度
+     */
+    private static void writeEdgeHistogram(byte[] feature, double[][] gray) {
+        int[] bins = new int[EDGE_BINS];
+        int total = 0;
+        int half = GRAY_SIZE / 2;
+        for (int y = 1; y < GRAY_SIZE - 1; y++) {
+            for (int x = 1; x < GRAY_SIZE - 1; x++) {
+                double gx = gray[y - 1][x + 1] + 2 * gray[y][x + 1] + gray[y + 1][x + 1]
+                        - gray[y - 1][x - 1] - 2 * gray[y][x - 1] - gray[y + 1][x - 1];
+                double gy = gray[y + 1][x - 1] + 2 * gray[y + 1][x] + gray[y + 1][x + 1]
+                        - gray[y - 1][x - 1] - 2 * gray[y - 1][x] - gray[y - 1][x + 1];
+                double magnitude = Math.hypot(gx, gy);
+                if (magnitude < MIN_EDGE_MAGNITUDE) {
+                    continue;
+                }
+                // 梯度方向折叠到 [0, 180)，按 45° 分段（以各方向为中心）
+                double angle = Math.toDegrees(Math.atan2(gy, gx));
+                if (angle < 0) {
+                    angle += 180;
+                }
+                int direction = (int) ((angle + 22.5) / 45) % 4;
+                int region = (y < half ? 0 : 2) + (x < half ? 0 : 1);
+                int weight = (int) Math.min(magnitude, 1024);
+                bins[region * 4 + direction] += weight;
+                total += weight;
+            }
+        }
+        writeNormalized(feature, EDGE_OFFSET, bins, total);
+    }
+
+    private static void writeNormalized(byte[] feature, int offset, int[] bins, int total) {
+        if (total == 0) {
+            return;
+        }
+        for (int i = 0; i < bins.length; i++) {
+            feature[offset + i] = (byte) Math.round(bins[i] * 255.0 / total);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.ye.yepicturebackend.manager.image;
+
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 图片处理配置
+ */
+@Configuration
+@ConfigurationProperties(prefix = "picture.process")
+@Data
+public class ImageProcessConfig {
+
+    /**
+     * 衍生图与元信息的生成方式
+     * - ci：上传时由 COS 数据万象处理（默认，压缩图为 webp）
+     * - local：应用内解码处理，不依赖 COS 数据万象；JDK 无 webp 编码器，压缩图为 jpg/png，体积通常大于 webp
+     * 本地文件系统存储始终使用应用内处理
+     */
+    private String mode = "ci";
+
+    /**
+     * 处理线程数（CPU 密集，默认与 CPU 核数一致）
+     */
+    private int workerThreads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * 等待队列容量，队列满时直接拒绝，避免请求无限堆积
+     */
+    private int queueCapacity = 64;
+
+    /**
+     * 单张图片处理超时时间（秒），即上传请求线程等待处理结果的最长时间
+     */
+    private int timeoutSeconds = 10;
+
+    /**
+     * 压缩图质量（0 ~ 1）
+     */
+    private float compressQuality = 0.8f;
+
+    /**
+     * 缩略图最大边长
+     */
+    private int thumbnailSize = 256;
+
+    /**
+     * 允许解码的最大像素数，防止超大尺寸图片耗尽内存
+     */
+    private long maxPixels = 40_000_000L;
+
+    /**
+     * 是否使用应用内处理
+     */
+    public boolean isLocalMode() {
+        return "local".equalsIgnoreCase(mode);
+    }
+
+    /**
+     * 图片处理线程池（有界队列 + 拒绝策略，限制同时解码的图片数；提交方等待结果）
+     */
+    @Bean(name = "imageProcessExecutor", destroyMethod = "shutdown")
+    public ThreadPoolExecutor imageProcessExecutor() {
+        return new ThreadPoolExecutor(
+                workerThreads,
+                workerThreads,
+                60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                ThreadFactoryBuilder.create().setNamePrefix("imageProcess-").build(),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+}
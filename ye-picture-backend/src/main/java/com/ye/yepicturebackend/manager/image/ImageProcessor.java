@@ -0,0 +1,258 @@
+package com.ye.yepicturebackend.manager.image;
+
+import cn.hutool.core.io.FileUtil;
+import com.ye.yepicturebackend.exception.BusinessException;
+import com.ye.yepicturebackend.exception.ErrorCode;
+import com.ye.yepicturebackend.exception.ThrowUtils;
+import com.ye.yepicturebackend.manager.storage.ObjectStorage;
+import com.ye.yepicturebackend.manager.storage.PictureStoreResult;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 应用内图片处理引擎（替代 COS 数据万象）
+ * <p>
+ * 每张图片只解码一次，基于同一份像素数据生成：
+ * - 原图元信息（宽高、格式、平均色）
+ * - 压缩图（jpg；含透明通道时为 png），不小于原图时不单独保存，直接使用原图
+ * - 缩略图（等比缩放到指定边长以内）
+ * 解码与编码在独立的有界线程池中执行，队列满时直接拒绝，避免 CPU 密集任务无限堆积。
+ * 调用线程会阻塞等待处理结果（最长 picture.process.timeout-seconds）：同步上传接口占用请求线程等待，
+ * 异步上传（/upload/async、/upload/url/async）在后台入库线程中等待，不占用请求线程
+ * </p>
+ */
+@Slf4j
+@Component
+public class ImageProcessor {
+
+    @Resource
+    private ImageProcessConfig imageProcessConfig;
+
+    @Resource(name = "imageProcessExecutor")
+    private ThreadPoolExecutor imageProcessExecutor;
+
+    /**
+     * 处理图片并将原图及衍生图写入对象存储
+     *
+     * @param objectStorage 目标对象存储
+     * @param key           原图存储标识
+     * @param data          原图数据
+     * @param withThumbnail 是否生成缩略图（不生成时缩略图复用压缩图）
+     * @return PictureStoreResult 图片存储结果；图片无法解码时返回 null，且不写入任何对象
+     */
+    public PictureStoreResult processAndStore(ObjectStorage objectStorage, String key,
+                                              byte[] data, boolean withThumbnail) {
+        // 1. 解码并生成衍生图
+        ProcessedImage processedImage = process(data, withThumbnail);
+        if (processedImage == null) {
+            return null;
+        }
+        // 2. 写入原图及衍生图（与原图位于同一目录）
+        String originKey = ObjectStorage.normalizeKey(key);
+        String parentKey = originKey.contains("/") ? originKey.substring(0, originKey.lastIndexOf('/') + 1) : "";
+        String mainName = FileUtil.mainName(originKey);
+        objectStorage.putObject(originKey, new ByteArrayInputStream(data), data.length);
+        // 压缩图不小于原图（如已充分压缩的 png）时直接使用原图
+        String compressKey = originKey;
+        byte[] compressData = processedImage.getCompressData();
+        if (compressData.length < data.length) {
+            compressKey = parentKey + mainName + "_compress." + processedImage.getCompressFormat();
+            objectStorage.putObject(compressKey, new ByteArrayInputStream(compressData), compressData.length);
+        }
+        String thumbnailKey = compressKey;
+        byte[] thumbnailData = processedImage.getThumbnailData();
+        if (thumbnailData != null) {
+            thumbnailKey = parentKey + mainName + "_thumbnail." + processedImage.getThumbnailFormat();
+            objectStorage.putObject(thumbnailKey, new ByteArrayInputStream(thumbnailData), thumbnailData.length);
+        }
+        // 3. 组装存储结果
+        PictureStoreResult result = new PictureStoreResult();
+        result.setOriginKey(originKey);
+        result.setCompressKey(compressKey);
+        result.setThumbnailKey(thumbnailKey);
+        result.setPicWidth(processedImage.getWidth());
+        result.setPicHeight(processedImage.getHeight());
+        result.setPicFormat(processedImage.getFormat());
+        result.setPicColor(processedImage.getAverageColor());
+        return result;
+    }
+
+    /**
+     * 在处理线程池中解码图片并生成衍生图，调用线程阻塞等待结果（带超时）
+     * 线程池只限制 CPU 密集任务的并发数，调用线程在等待期间不会被释放
+     *
+     * @param data          原图数据
+     * @param withThumbnail 是否生成缩略图
+     * @return ProcessedImage 处理结果；图片格式不受支持时返回 null
+     */
+    public ProcessedImage process(byte[] data, boolean withThumbnail) {
+        Future<ProcessedImage> future;
+        try {
+            future = imageProcessExecutor.submit(() -> doProcess(data, withThumbnail));
+        } catch (RejectedExecutionException e) {
+            log.warn("图片处理队列已满（活跃线程：{}，排队：{}）",
+                    imageProcessExecutor.getActiveCount(), imageProcessExecutor.getQueue().size());
+            throw new BusinessException(ErrorCode.OPERATION_ERROR, "图片处理繁忙，请稍后重试");
+        }
+        try {
+            return future.get(imageProcessConfig.getTimeoutSeconds(), TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "图片处理超时");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "图片处理被中断");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof BusinessException) {
+                throw (BusinessException) e.getCause();
+            }
+            log.error("图片处理失败", e.getCause());
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "图片处理失败");
+        }
+    }
+
+    /**
+     * 解码一次，生成元信息、压缩图和缩略图
+     */
+    private ProcessedImage doProcess(byte[] data, boolean withThumbnail) throws IOException {
+        try (ImageInputStream inputStream = ImageIO.createImageInputStream(new ByteArrayInputStream(data))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(inputStream);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(inputStream, true, true);
+                // 1. 先读取尺寸，拒绝超大图片，再解码像素
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                ThrowUtils.throwIf((long) width * height > imageProcessConfig.getMaxPixels(),
+                        ErrorCode.PARAMS_ERROR, "图片尺寸过大");
+                String format = normalizeFormat(reader.getFormatName());
+                BufferedImage image = reader.read(0);
+
+                ProcessedImage result = new ProcessedImage();
+                result.setWidth(width);
+                result.setHeight(height);
+                result.setFormat(format);
+                result.setAverageColor(averageColor(image));
+                // 2. 压缩图：JDK 无 webp 编码器，使用 jpg；含透明通道时使用 png 以保留透明度
+                boolean hasAlpha = image.getColorModel().hasAlpha();
+                result.setCompressFormat(hasAlpha ? "png" : "jpg");
+                result.setCompressData(encode(image, result.getCompressFormat()));
+                // 3. 缩略图：仅在原图超出限制时等比缩小，jpg 保持原格式，其余格式统一为 png
+                if (withThumbnail) {
+                    String thumbnailFormat = "jpg".equals(format) ? "jpg" : "png";
+                    result.setThumbnailFormat(thumbnailFormat);
+                    result.setThumbnailData(encode(scaleToFit(image, imageProcessConfig.getThumbnailSize()),
+                            thumbnailFormat));
+                }
+                return result;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * 编码图片（jpg 按配置质量压缩，不支持透明通道时先铺白底）
+     */
+    private byte[] encode(BufferedImage image, String format) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        if (!"jpg".equals(format)) {
+            ImageIO.write(image, format, outputStream);
+            return outputStream.toByteArray();
+        }
+        BufferedImage rgbImage = image;
+        if (image.getType() != BufferedImage.TYPE_INT_RGB) {
+            rgbImage = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = rgbImage.createGraphics();
+            graphics.drawImage(image, 0, 0, Color.WHITE, null);
+            graphics.dispose();
+        }
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpg").next();
+        try (ImageOutputStream imageOutputStream = ImageIO.createImageOutputStream(outputStream)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(imageProcessConfig.getCompressQuality());
+            writer.setOutput(imageOutputStream);
+            writer.write(null, new IIOImage(rgbImage, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * 等比缩放到指定边长以内（不放大）
+     */
+    private BufferedImage scaleToFit(BufferedImage image, int maxSize) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        if (width <= maxSize && height <= maxSize) {
+            return image;
+        }
+        double scale = Math.min(maxSize * 1.0 / width, maxSize * 1.0 / height);
+        int targetWidth = Math.max(1, (int) Math.round(width * scale));
+        int targetHeight = Math.max(1, (int) Math.round(height * scale));
+        BufferedImage scaled = new BufferedImage(targetWidth, targetHeight, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = scaled.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        graphics.drawImage(image, 0, 0, targetWidth, targetHeight, null);
+        graphics.dispose();
+        return scaled;
+    }
+
+    /**
+     * 计算图片平均色（抽样计算，格式与 COS 的 ave 一致：0xRRGGBB）
+     */
+    private String averageColor(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int stepX = Math.max(1, width / 64);
+        int stepY = Math.max(1, height / 64);
+        long red = 0, green = 0, blue = 0, count = 0;
+        for (int y = 0; y < height; y += stepY) {
+            for (int x = 0; x < width; x += stepX) {
+                int rgb = image.getRGB(x, y);
+                red += (rgb >> 16) & 0xFF;
+                green += (rgb >> 8) & 0xFF;
+                blue += rgb & 0xFF;
+                count++;
+            }
+        }
+        return String.format("0x%02X%02X%02X", red / count, green / count, blue / count);
+    }
+
+    /**
+     * 统一格式名称（与 COS 返回的格式保持一致，如 JPEG -> jpg）
+     */
+    private String normalizeFormat(String formatName) {
+        String format = formatName.toLowerCase();
+        return "jpeg".equals(format) ? "jpg" : format;
+    }
+}
@@ -0,0 +1,53 @@
+package com.ye.yepicturebackend.manager.image;
+
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 以图搜图特征提取配置（与色板提取相互独立）
+ */
+@Configuration
+@ConfigurationProperties(prefix = "picture.feature")
+@Data
+public class PictureFeatureConfig {
+
+    /**
+     * 是否在上传后提取以图搜图特征（关闭后以图搜图不可用）
+     */
+    private boolean enabled = true;
+
+    /**
+     * 提取线程数（后台任务，默认只占用一个核）
+     */
+    private int workerThreads = 1;
+
+    /**
+     * 等待队列容量，队列满时放弃本次提取（特征保持空值），由定时回填补齐
+     */
+    private int queueCapacity = 256;
+
+    /**
+     * 定时回填间隔（分钟）：重新提取因队列满被放弃或提取失败的图片
+     */
+    private int backfillMinutes = 5;
+
+    /**
+     * 特征提取线程池（有界队列 + 拒绝策略，不占用上传请求线程）
+     */
+    @Bean(name = "featureExtractExecutor", destroyMethod = "shutdownNow")
+    public ThreadPoolExecutor featureExtractExecutor() {
+        return new ThreadPoolExecutor(
+                workerThreads, workerThreads,
+                60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                ThreadFactoryBuilder.create().setNamePrefix("featureExtract-").setDaemon(true).build(),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+}
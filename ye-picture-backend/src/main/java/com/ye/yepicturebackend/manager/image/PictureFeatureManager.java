@@ -0,0 +1,219 @@
+package com.ye.yepicturebackend.manager.image;
+
+import cn.hutool.core.util.StrUtil;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.ye.yepicturebackend.manager.color.PaletteExtractor;
+import com.ye.yepicturebackend.manager.index.PictureSimilarIndex;
+import com.ye.yepicturebackend.manager.storage.ObjectStorage;
+import com.ye.yepicturebackend.mapper.PictureMapper;
+import com.ye.yepicturebackend.model.entity.Picture;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+import java.awt.image.BufferedImage;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 以图搜图特征管理器
+ * <p>
+ * - 图片入库后将特征提取任务提交到独立的有界线程池，与色板提取互不影响（可单独开关）
+ * - 特征存入 picture.picFeature 并更新相似索引
+ * - 队列满或提取失败时特征保持空值（即待提取标记），定时回填从放弃的最小图片 id 起重新提取；服务启动时回填全部历史图片
+ * </p>
+ */
+@Slf4j
+@Component
+public class PictureFeatureManager {
+
+    /**
+     * 历史图片回填时每批处理的图片数
+     */
+    private static final int BACKFILL_BATCH_SIZE = 200;
+
+    @Resource
+    private PictureFeatureConfig pictureFeatureConfig;
+
+    @Resource(name = "featureExtractExecutor")
+    private ThreadPoolExecutor featureExtractExecutor;
+
+    @Resource
+    private PaletteExtractor paletteExtractor;
+
+    @Resource
+    private ObjectStorage objectStorage;
+
+    @Resource
+    private PictureMapper pictureMapper;
+
+    @Resource
+    private PictureSimilarIndex pictureSimilarIndex;
+
+    /**
+     * 放弃或提取失败的最小图片 id，定时回填从这里开始扫描（没有待回填图片时为 Long.MAX_VALUE）
+     */
+    private final AtomicLong pendingFromId = new AtomicLong(Long.MAX_VALUE);
+
+    /**
+     * 回填任务是否已在排队或执行，同一时间只保留一个
+     */
+    private final AtomicBoolean backfillRunning = new AtomicBoolean();
+
+    /**
+     * 是否启用以图搜图特征提取
+     */
+    public boolean isEnabled() {
+        return pictureFeatureConfig.isEnabled();
+    }
+
+    /**
+     * 提交以图搜图特征提取任务（图片入库后、或搜索时发现特征缺失时调用，不等待结果）
+     *
+     * @param picture 已入库的图片
+     */
+    public void submitExtraction(Picture picture) {
+        if (!pictureFeatureConfig.isEnabled() || StrUtil.isBlank(picture.getOriginKey())) {
+            return;
+        }
+        Long pictureId = picture.getId();
+        Long spaceId = picture.getSpaceId();
+        String originKey = picture.getOriginKey();
+        String sourceKey = sourceKeyOf(picture);
+        try {
+            featureExtractExecutor.execute(() -> extractAndSave(pictureId, spaceId, originKey, sourceKey));
+        } catch (RejectedExecutionException e) {
+            markPending(pictureId);
+            log.warn("特征提取队列已满，等待定时回填，图片ID：{}（排队：{}）",
+                    pictureId, featureExtractExecutor.getQueue().size());
+        }
+    }
+
+    /**
+     * 服务启动后在提取线程池中回填尚未提取以图搜图特征的历史图片
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillFeatures() {
+        if (!pictureFeatureConfig.isEnabled()) {
+            return;
+        }
+        submitBackfill(0L);
+    }
+
+    /**
+     * 定时回填因队列满被放弃或提取失败的图片（没有待回填图片时不扫描）
+     */
+    @Scheduled(fixedDelayString = "#{@pictureFeatureConfig.backfillMinutes * 60000}",
+            initialDelayString = "#{@pictureFeatureConfig.backfillMinutes * 60000}")
+    public void backfillPending() {
+        if (!pictureFeatureConfig.isEnabled()) {
+            return;
+        }
+        long fromId = pendingFromId.getAndSet(Long.MAX_VALUE);
+        if (fromId != Long.MAX_VALUE) {
+            submitBackfill(fromId - 1);
+        }
+    }
+
+    /**
+     * 提交回填任务：已有回填任务或队列已满时保留待回填标记，等待下一轮
+     *
+     * @param afterId 从该 id 之后开始扫描
+     */
+    private void submitBackfill(long afterId) {
+        if (!backfillRunning.compareAndSet(false, true)) {
+            markPending(afterId + 1);
+            return;
+        }
+        try {
+            featureExtractExecutor.execute(() -> {
+                try {
+                    doBackfill(afterId);
+                } finally {
+                    backfillRunning.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            backfillRunning.set(false);
+            markPending(afterId + 1);
+            log.warn("特征提取队列已满，历史图片回填推迟到下一轮");
+        }
+    }
+
+    private void markPending(long pictureId) {
+        pendingFromId.accumulateAndGet(pictureId, Math::min);
+    }
+
+    private void doBackfill(long afterId) {
+        long lastId = afterId;
+        int pictureCount = 0;
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                List<Picture> pictureList = pictureMapper.selectList(new LambdaQueryWrapper<Picture>()
+                        .select(Picture::getId, Picture::getSpaceId, Picture::getOriginKey, Picture::getThumbnailKey)
+                        .gt(Picture::getId, lastId)
+                        .isNull(Picture::getPicFeature)
+                        .isNotNull(Picture::getOriginKey)
+                        .orderByAsc(Picture::getId)
+                        .last("LIMIT " + BACKFILL_BATCH_SIZE));
+                if (pictureList.isEmpty()) {
+                    break;
+                }
+                for (Picture picture : pictureList) {
+                    extractAndSave(picture.getId(), picture.getSpaceId(), picture.getOriginKey(), sourceKeyOf(picture));
+                }
+                pictureCount += pictureList.size();
+                lastId = pictureList.get(pictureList.size() - 1).getId();
+            }
+            if (pictureCount > 0) {
+                log.info("历史图片特征回填完成，共处理 {} 张图片", pictureCount);
+            }
+        } catch (Exception e) {
+            markPending(lastId + 1);
+            log.error("历史图片特征回填失败，已处理 {} 张图片", pictureCount, e);
+        }
+    }
+
+    /**
+     * 提取以图搜图特征并写回（图片已被重新上传时不写入，读取失败时保留空值并等待定时回填重试）
+     */
+    private void extractAndSave(Long pictureId, Long spaceId, String originKey, String sourceKey) {
+        byte[] feature;
+        try (InputStream inputStream = objectStorage.getObject(sourceKey)) {
+            BufferedImage image = paletteExtractor.decodeSample(inputStream);
+            feature = image == null ? new byte[0] : ImageFeatureExtractor.extract(image);
+        } catch (Exception e) {
+            markPending(pictureId);
+            log.warn("图片特征提取失败，图片ID：{}，存储标识：{}", pictureId, sourceKey, e);
+            return;
+        }
+        int updated = pictureMapper.update(null, new LambdaUpdateWrapper<Picture>()
+                .eq(Picture::getId, pictureId)
+                .eq(Picture::getOriginKey, originKey)
+                .set(Picture::getPicFeature, feature)
+                // 特征为派生数据，不视为业务更新，保留原更新时间
+                .setSql("updateTime = updateTime"));
+        if (updated > 0) {
+            pictureSimilarIndex.onFeatureSaved(spaceId, pictureId, feature);
+        }
+    }
+
+    /**
+     * 提取特征使用的图片：优先使用缩略图，JDK 无法解码 webp 时改用原图（抽样解码，不会完整解码大图）
+     */
+    private static String sourceKeyOf(Picture picture) {
+        String thumbnailKey = picture.getThumbnailKey();
+        if (StrUtil.isNotBlank(thumbnailKey) && !StrUtil.endWithIgnoreCase(thumbnailKey, ".webp")) {
+            return thumbnailKey;
+        }
+        return picture.getOriginKey();
+    }
+}
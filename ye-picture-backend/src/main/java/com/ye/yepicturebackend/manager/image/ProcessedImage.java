@@ -0,0 +1,51 @@
+package com.ye.yepicturebackend.manager.image;
+
+import lombok.Data;
+
+/**
+ * 图片处理结果
+ * 一次解码得到的原图元信息及衍生图数据
+ */
+@Data
+public class ProcessedImage {
+
+    /**
+     * 原图宽度
+     */
+    private int width;
+
+    /**
+     * 原图高度
+     */
+    private int height;
+
+    /**
+     * 原图格式（如 jpg、png）
+     */
+    private String format;
+
+    /**
+     * 原图平均色（0xRRGGBB）
+     */
+    private String averageColor;
+
+    /**
+     * 压缩图数据
+     */
+    private byte[] compressData;
+
+    /**
+     * 压缩图格式（jpg；含透明通道时为 png）
+     */
+    private String compressFormat;
+
+    /**
+     * 缩略图数据，未生成时为 null
+     */
+    private byte[] thumbnailData;
+
+    /**
+     * 缩略图格式
+     */
+    private String thumbnailFormat;
+}
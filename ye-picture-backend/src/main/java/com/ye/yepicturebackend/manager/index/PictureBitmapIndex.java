@@ -0,0 +1,503 @@
+package com.ye.yepicturebackend.manager.index;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.util.StrUtil;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.ye.yepicturebackend.config.PictureFilterIndexConfig;
+import com.ye.yepicturebackend.manager.cache.PictureQueryCache;
+import com.ye.yepicturebackend.manager.cache.PictureVersionListener;
+import com.ye.yepicturebackend.mapper.PictureMapper;
+import com.ye.yepicturebackend.mapper.PictureTagRelMapper;
+import com.ye.yepicturebackend.model.entity.Picture;
+import com.ye.yepicturebackend.model.entity.PictureTagRel;
+import com.ye.yepicturebackend.utils.TransactionUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * 图片标签/分类位图过滤索引
+ * <p>
+ * 按空间（公共图库单独一个）维护"标签 id -> 图片位图"与"分类 -> 图片位图"：
+ * - 图片 id 为雪花 id，位图中存放图片在本空间内的序号（按 id 升序分配），保证位图紧凑
+ * - 本实例的写入在事务提交后增量更新；其他实例的写入在收到查询缓存的版本号广播后重建
+ * - 查询时先在内存中求交/并集得到候选图片 id，数据库只需按主键读取
+ * 每个空间索引记录其已包含的查询缓存版本号（{@link PictureQueryCache}）：
+ * - 加载时取本节点当前版本号；本节点递增版本号时，若恰好比索引版本号大 1，则索引随之前进
+ * - 索引版本号与本节点当前版本号不一致（其他实例写入、广播或版本号读取失败）时不使用索引，
+ *   由调用方走数据库过滤，同时在后台重建，避免把缺少其他实例写入的结果缓存到新版本下
+ * </p>
+ */
+@Slf4j
+@Component
+public class PictureBitmapIndex implements PictureVersionListener {
+
+    /**
+     * 公共图库的空间键
+     */
+    private static final long PUBLIC_SCOPE = 0L;
+
+    /**
+     * 从数据库加载索引时每批读取的行数
+     */
+    private static final int LOAD_BATCH_SIZE = 5000;
+
+    /**
+     * 版本号未知（不与任何版本号一致，索引不会被使用）
+     */
+    private static final long UNKNOWN_VERSION = -1L;
+
+    /**
+     * 本线程已在事务提交后应用、等待版本号递增的索引更新：空间键 -> 更新列表
+     * （事务结束时清空，版本号递增未执行时也不会残留到线程的下一次请求）
+     */
+    private static final ThreadLocal<Map<Long, List<PendingUpdate>>> PENDING_UPDATES =
+            ThreadLocal.withInitial(HashMap::new);
+
+    @Resource
+    private PictureFilterIndexConfig pictureFilterIndexConfig;
+
+    @Resource
+    private PictureMapper pictureMapper;
+
+    @Resource
+    private PictureTagRelMapper pictureTagRelMapper;
+
+    @Resource
+    private PictureQueryCache pictureQueryCache;
+
+    /**
+     * 空间键 -> 空间索引（到期后后台重建，重建期间继续使用旧索引）
+     */
+    private LoadingCache<Long, ScopeIndex> scopeIndexCache;
+
+    @PostConstruct
+    public void init() {
+        scopeIndexCache = Caffeine.newBuilder()
+                .maximumSize(pictureFilterIndexConfig.getMaxScopes())
+                .refreshAfterWrite(Duration.ofMinutes(pictureFilterIndexConfig.getRefreshMinutes()))
+                .build(this::load);
+        pictureQueryCache.addVersionListener(this);
+    }
+
+    /**
+     * 服务启动后在后台预热公共图库索引
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (pictureFilterIndexConfig.isEnabled()) {
+            scopeIndexCache.refresh(PUBLIC_SCOPE);
+        }
+    }
+
+    // region 查询
+
+    /**
+     * 按标签、分类过滤图片
+     *
+     * @param spaceId  空间 id，公共图库为 null
+     * @param category 分类，为空时不按分类过滤
+     * @param tagIds   标签 id 列表，为空时不按标签过滤
+     * @param matchAll true：包含全部标签；false：包含任一标签
+     * @return 候选图片 id；索引未启用、不是最新或候选数超过上限时返回 null，由调用方走数据库过滤
+     */
+    public List<Long> filter(Long spaceId, String category, List<Integer> tagIds, boolean matchAll) {
+        if (!pictureFilterIndexConfig.isEnabled()
+                || (StrUtil.isBlank(category) && CollUtil.isEmpty(tagIds))) {
+            return null;
+        }
+        // 1. 索引须包含本节点当前版本号之前的全部写入，否则走数据库过滤并后台重建
+        Long currentVersion = pictureQueryCache.getVersion(spaceId);
+        if (currentVersion == null) {
+            return null;
+        }
+        long scopeKey = scopeKey(spaceId);
+        ScopeIndex scopeIndex = scopeIndexCache.get(scopeKey);
+        if (scopeIndex.getVersion() != currentVersion) {
+            scopeIndexCache.refresh(scopeKey);
+            return null;
+        }
+        // 2. 位图求交/并集
+        return scopeIndex.filter(normalizeCategory(category), tagIds, matchAll,
+                pictureFilterIndexConfig.getMaxCandidates());
+    }
+
+    // endregion
+
+    // region 增量更新
+
+    /**
+     * 图片标签变更（覆盖原有标签）
+     *
+     * @param spaceId    空间 id，公共图库为 null
+     * @param pictureIds 图片 id 列表
+     * @param tagIds     新的标签 id 列表
+     */
+    public void onTagsChanged(Long spaceId, Collection<Long> pictureIds, List<Integer> tagIds) {
+        afterCommit(spaceId, scopeIndex -> scopeIndex.setTags(pictureIds, tagIds));
+    }
+
+    /**
+     * 图片分类变更
+     *
+     * @param spaceId    空间 id，公共图库为 null
+     * @param pictureIds 图片 id 列表
+     * @param category   新的分类
+     */
+    public void onCategoryChanged(Long spaceId, Collection<Long> pictureIds, String category) {
+        String categoryKey = normalizeCategory(category);
+        afterCommit(spaceId, scopeIndex -> scopeIndex.setCategory(pictureIds, categoryKey));
+    }
+
+    /**
+     * 图片删除
+     *
+     * @param spaceId   空间 id，公共图库为 null
+     * @param pictureId 图片 id
+     */
+    public void onPictureRemoved(Long spaceId, Long pictureId) {
+        afterCommit(spaceId, scopeIndex -> {
+            scopeIndex.remove(pictureId);
+            return true;
+        });
+    }
+
+    /**
+     * 在事务提交后更新已加载的空间索引（未加载的空间下次查询时从数据库完整加载）
+     * 无法增量更新时（如序号无法按 id 升序分配）触发后台重建
+     * 更新同时登记到本线程，在随后的版本号递增回调中确认索引是否可以前进到新版本；
+     * 没有活动事务时更新已直接应用，登记随即清空
+     */
+    private void afterCommit(Long spaceId, IndexUpdate update) {
+        if (!pictureFilterIndexConfig.isEnabled()) {
+            return;
+        }
+        long scopeKey = scopeKey(spaceId);
+        TransactionUtils.afterCommit(() -> {
+            ScopeIndex scopeIndex = scopeIndexCache.getIfPresent(scopeKey);
+            if (scopeIndex != null && !update.apply(scopeIndex)) {
+                scopeIndex.setVersion(UNKNOWN_VERSION);
+                scopeIndexCache.refresh(scopeKey);
+            }
+            PENDING_UPDATES.get().computeIfAbsent(scopeKey, key -> new ArrayList<>())
+                    .add(new PendingUpdate(scopeIndex, update));
+        });
+        // 提交回调全部执行完（版本号递增回调在其中）后清空，回滚或未递增版本号时同样清空
+        TransactionUtils.afterCompletion(PENDING_UPDATES::remove);
+    }
+
+    /**
+     * 本节点递增版本号：将本线程登记的更新补应用到当前索引（期间索引可能已重建），
+     * 索引版本号恰好落后 1 时前进到新版本，否则说明有其他实例的写入，等待重建
+     */
+    @Override
+    public void onVersionBumped(Long spaceId, Long version) {
+        long scopeKey = scopeKey(spaceId);
+        Map<Long, List<PendingUpdate>> pendingMap = PENDING_UPDATES.get();
+        List<PendingUpdate> pendingList = pendingMap.remove(scopeKey);
+        if (pendingMap.isEmpty()) {
+            PENDING_UPDATES.remove();
+        }
+        if (!pictureFilterIndexConfig.isEnabled()) {
+            return;
+        }
+        ScopeIndex scopeIndex = scopeIndexCache.getIfPresent(scopeKey);
+        if (scopeIndex == null) {
+            return;
+        }
+        if (pendingList != null) {
+            for (PendingUpdate pending : pendingList) {
+                if (pending.appliedTo != scopeIndex && !pending.update.apply(scopeIndex)) {
+                    scopeIndex.setVersion(UNKNOWN_VERSION);
+                    scopeIndexCache.refresh(scopeKey);
+                    return;
+                }
+            }
+        }
+        if (version != null) {
+            scopeIndex.advanceVersion(version);
+        }
+    }
+
+    /**
+     * 收到版本号广播：索引落后于当前版本号（其他实例写入）时后台重建
+     */
+    @Override
+    public void onVersionInvalidated(Long spaceId) {
+        if (!pictureFilterIndexConfig.isEnabled()) {
+            return;
+        }
+        long scopeKey = scopeKey(spaceId);
+        ScopeIndex scopeIndex = scopeIndexCache.getIfPresent(scopeKey);
+        if (scopeIndex == null) {
+            return;
+        }
+        Long currentVersion = pictureQueryCache.getVersion(spaceId);
+        if (currentVersion == null || scopeIndex.getVersion() != currentVersion) {
+            scopeIndexCache.refresh(scopeKey);
+        }
+    }
+
+    @FunctionalInterface
+    private interface IndexUpdate {
+        /**
+         * @return 是否更新成功，false 表示需要重建索引
+         */
+        boolean apply(ScopeIndex scopeIndex);
+    }
+
+    /**
+     * 已应用、等待版本号递增的索引更新
+     */
+    private static class PendingUpdate {
+
+        /**
+         * 应用时的索引（当时未加载则为 null）
+         */
+        private final ScopeIndex appliedTo;
+
+        private final IndexUpdate update;
+
+        private PendingUpdate(ScopeIndex appliedTo, IndexUpdate update) {
+            this.appliedTo = appliedTo;
+            this.update = update;
+        }
+    }
+
+    // endregion
+
+    // region 加载
+
+    /**
+     * 从数据库完整加载一个空间的索引
+     */
+    private ScopeIndex load(Long scopeKey) {
+        long start = System.currentTimeMillis();
+        boolean publicScope = scopeKey == PUBLIC_SCOPE;
+        // 1. 先取版本号再读数据：该版本号之前的写入均已提交，一定包含在加载结果中
+        Long version = pictureQueryCache.getVersion(publicScope ? null : scopeKey);
+        ScopeIndex scopeIndex = new ScopeIndex();
+        scopeIndex.setVersion(version == null ? UNKNOWN_VERSION : version);
+        // 2. 按 id 升序分配序号，同时建立分类位图
+        long lastId = 0L;
+        while (true) {
+            List<Picture> pictureList = pictureMapper.selectList(new LambdaQueryWrapper<Picture>()
+                    .select(Picture::getId, Picture::getCategory)
+                    .isNull(publicScope, Picture::getSpaceId)
+                    .eq(!publicScope, Picture::getSpaceId, scopeKey)
+                    .gt(Picture::getId, lastId)
+                    .orderByAsc(Picture::getId)
+                    .last("LIMIT " + LOAD_BATCH_SIZE));
+            for (Picture picture : pictureList) {
+                int ordinal = scopeIndex.append(picture.getId());
+                String categoryKey = normalizeCategory(picture.getCategory());
+                if (categoryKey != null) {
+                    scopeIndex.categoryBitmaps.computeIfAbsent(categoryKey, key -> new RoaringBitmap()).add(ordinal);
+                }
+            }
+            if (pictureList.size() < LOAD_BATCH_SIZE) {
+                break;
+            }
+            lastId = pictureList.get(pictureList.size() - 1).getId();
+        }
+        // 3. 建立标签位图
+        long lastRelId = 0L;
+        while (true) {
+            List<PictureTagRel> relList = pictureTagRelMapper.selectList(new LambdaQueryWrapper<PictureTagRel>()
+                    .select(PictureTagRel::getId, PictureTagRel::getPictureId, PictureTagRel::getTagId)
+                    .isNull(publicScope, PictureTagRel::getSpaceId)
+                    .eq(!publicScope, PictureTagRel::getSpaceId, scopeKey)
+                    .gt(PictureTagRel::getId, lastRelId)
+                    .orderByAsc(PictureTagRel::getId)
+                    .last("LIMIT " + LOAD_BATCH_SIZE));
+            for (PictureTagRel rel : relList) {
+                int ordinal = scopeIndex.ordinalOf(rel.getPictureId());
+                if (ordinal >= 0) {
+                    scopeIndex.tagBitmaps.computeIfAbsent(rel.getTagId(), key -> new RoaringBitmap()).add(ordinal);
+                }
+            }
+            if (relList.size() < LOAD_BATCH_SIZE) {
+                break;
+            }
+            lastRelId = relList.get(relList.size() - 1).getId();
+        }
+        scopeIndex.tagBitmaps.values().forEach(RoaringBitmap::runOptimize);
+        scopeIndex.categoryBitmaps.values().forEach(RoaringBitmap::runOptimize);
+        log.info("图片过滤索引加载完成（空间：{}），图片 {} 张，标签 {} 个，分类 {} 个，耗时 {} ms",
+                publicScope ? "公共图库" : scopeKey, scopeIndex.size,
+                scopeIndex.tagBitmaps.size(), scopeIndex.categoryBitmaps.size(),
+                System.currentTimeMillis() - start);
+        return scopeIndex;
+    }
+
+    // endregion
+
+    private static long scopeKey(Long spaceId) {
+        return spaceId == null ? PUBLIC_SCOPE : spaceId;
+    }
+
+    /**
+     * 分类按数据库排序规则比较（忽略大小写与首尾空白），索引键统一规范化
+     */
+    private static String normalizeCategory(String category) {
+        return StrUtil.isBlank(category) ? null : category.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 单个空间的位图索引（方法均加锁，单次操作为内存位图运算，耗时在毫秒以内）
+     */
+    private static class ScopeIndex {
+
+        /**
+         * 序号 -> 图片 id（升序）
+         */
+        private long[] pictureIds = new long[1024];
+
+        private int size;
+
+        private final Map<Integer, RoaringBitmap> tagBitmaps = new HashMap<>();
+
+        private final Map<String, RoaringBitmap> categoryBitmaps = new HashMap<>();
+
+        /**
+         * 已包含的查询缓存版本号
+         */
+        private long version = UNKNOWN_VERSION;
+
+        synchronized long getVersion() {
+            return version;
+        }
+
+        synchronized void setVersion(long version) {
+            this.version = version;
+        }
+
+        /**
+         * 版本号恰好落后 1 时前进到新版本（本节点的写入已应用到索引）
+         */
+        synchronized void advanceVersion(long newVersion) {
+            if (version != UNKNOWN_VERSION && version == newVersion - 1) {
+                version = newVersion;
+            }
+        }
+
+        synchronized List<Long> filter(String categoryKey, List<Integer> tagIds, boolean matchAll, int maxCandidates) {
+            RoaringBitmap result = null;
+            if (categoryKey != null) {
+                result = bitmapOf(categoryBitmaps.get(categoryKey));
+            }
+            if (CollUtil.isNotEmpty(tagIds)) {
+                RoaringBitmap tagResult = null;
+                for (Integer tagId : tagIds) {
+                    RoaringBitmap tagBitmap = bitmapOf(tagBitmaps.get(tagId));
+                    if (tagResult == null) {
+                        tagResult = tagBitmap;
+                    } else if (matchAll) {
+                        tagResult.and(tagBitmap);
+                    } else {
+                        tagResult.or(tagBitmap);
+                    }
+                }
+                result = result == null ? tagResult : RoaringBitmap.and(result, tagResult);
+            }
+            if (result.getCardinality() > maxCandidates) {
+                return null;
+            }
+            List<Long> candidateIds = new ArrayList<>(result.getCardinality());
+            result.forEach((int ordinal) -> candidateIds.add(pictureIds[ordinal]));
+            return candidateIds;
+        }
+
+        synchronized boolean setTags(Collection<Long> pictureIdList, List<Integer> tagIds) {
+            for (Long pictureId : pictureIdList) {
+                int ordinal = CollUtil.isEmpty(tagIds) ? ordinalOf(pictureId) : ordinalOrAppend(pictureId);
+                if (ordinal == Integer.MIN_VALUE) {
+                    return false;
+                }
+                if (ordinal < 0) {
+                    continue;
+                }
+                tagBitmaps.values().forEach(bitmap -> bitmap.remove(ordinal));
+                for (Integer tagId : tagIds) {
+                    tagBitmaps.computeIfAbsent(tagId, key -> new RoaringBitmap()).add(ordinal);
+                }
+            }
+            return true;
+        }
+
+        synchronized boolean setCategory(Collection<Long> pictureIdList, String categoryKey) {
+            for (Long pictureId : pictureIdList) {
+                int ordinal = categoryKey == null ? ordinalOf(pictureId) : ordinalOrAppend(pictureId);
+                if (ordinal == Integer.MIN_VALUE) {
+                    return false;
+                }
+                if (ordinal < 0) {
+                    continue;
+                }
+                categoryBitmaps.values().forEach(bitmap -> bitmap.remove(ordinal));
+                if (categoryKey != null) {
+                    categoryBitmaps.computeIfAbsent(categoryKey, key -> new RoaringBitmap()).add(ordinal);
+                }
+            }
+            return true;
+        }
+
+        synchronized void remove(Long pictureId) {
+            int ordinal = ordinalOf(pictureId);
+            if (ordinal < 0) {
+                return;
+            }
+            tagBitmaps.values().forEach(bitmap -> bitmap.remove(ordinal));
+            categoryBitmaps.values().forEach(bitmap -> bitmap.remove(ordinal));
+        }
+
+        /**
+         * 查找图片序号
+         *
+         * @return 序号，不存在时返回负数
+         */
+        int ordinalOf(long pictureId) {
+            return Arrays.binarySearch(pictureIds, 0, size, pictureId);
+        }
+
+        /**
+         * 查找图片序号，不存在时按 id 升序追加
+         *
+         * @return 序号；新 id 小于已有最大 id（无法保持升序）时返回 Integer.MIN_VALUE
+         */
+        private int ordinalOrAppend(long pictureId) {
+            int ordinal = ordinalOf(pictureId);
+            if (ordinal >= 0) {
+                return ordinal;
+            }
+            if (size > 0 && pictureId < pictureIds[size - 1]) {
+                return Integer.MIN_VALUE;
+            }
+            return append(pictureId);
+        }
+
+        /**
+         * 追加图片并分配序号（调用方保证 id 升序）
+         */
+        int append(long pictureId) {
+            if (size == pictureIds.length) {
+                pictureIds = Arrays.copyOf(pictureIds, size * 2);
+            }
+            pictureIds[size] = pictureId;
+            return size++;
+        }
+
+        private static RoaringBitmap bitmapOf(RoaringBitmap bitmap) {
+            return bitmap == null ? new RoaringBitmap() : bitmap.clone();
+        }
+    }
+}
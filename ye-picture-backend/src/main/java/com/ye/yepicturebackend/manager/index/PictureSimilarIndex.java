@@ -0,0 +1,425 @@
+package com.ye.yepicturebackend.manager.index;
+
+import cn.hutool.core.util.ObjUtil;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.ye.yepicturebackend.config.PictureSimilarIndexConfig;
+import com.ye.yepicturebackend.manager.image.ImageFeatureExtractor;
+import com.ye.yepicturebackend.mapper.PictureMapper;
+import com.ye.yepicturebackend.model.entity.Picture;
+import com.ye.yepicturebackend.model.enums.PictureReviewStatusEnum;
+import com.ye.yepicturebackend.utils.TransactionUtils;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * 以图搜图相似索引
+ * <p>
+ * 按空间（公共图库单独一个）在内存中维护图片特征向量（感知哈希 + 颜色直方图 + 边缘直方图）：
+ * - 图片数较少的空间直接精确比较全部特征
+ * - 图片数较多时按感知哈希做位抽样 LSH：每张表抽取若干位作为桶号，查询时探测原桶及翻转一位后的相邻桶，召回候选后按完整特征距离排序
+ * - 公共图库只索引审核通过的图片，审核状态变化时增量加入或移除
+ * - 本实例提取特征、审核或删除图片后增量更新；其他实例的写入在索引后台重建后可见
+ * - 删除的图片只做标记，标记数超过一半时压缩序号并重建 LSH 表
+ * </p>
+ */
+@Slf4j
+@Component
+public class PictureSimilarIndex {
+
+    /**
+     * 公共图库的空间键
+     */
+    private static final long PUBLIC_SCOPE = 0L;
+
+    /**
+     * 从数据库加载索引时每批读取的行数
+     */
+    private static final int LOAD_BATCH_SIZE = 5000;
+
+    /**
+     * LSH 抽样位的随机种子（固定，保证各实例、各次重建的分桶一致）
+     */
+    private static final long LSH_SEED = 20240601L;
+
+    @Resource
+    private PictureSimilarIndexConfig pictureSimilarIndexConfig;
+
+    @Resource
+    private PictureMapper pictureMapper;
+
+    /**
+     * 每张 LSH 表抽取的感知哈希位（第 0 位为直流分量，恒为 0，不参与抽样）
+     */
+    private int[][] lshBitPositions;
+
+    /**
+     * 空间键 -> 空间索引（到期后后台重建，重建期间继续使用旧索引）
+     */
+    private LoadingCache<Long, ScopeIndex> scopeIndexCache;
+
+    @PostConstruct
+    public void init() {
+        Random random = new Random(LSH_SEED);
+        int bits = pictureSimilarIndexConfig.getLshBits();
+        lshBitPositions = new int[pictureSimilarIndexConfig.getLshTables()][];
+        for (int table = 0; table < lshBitPositions.length; table++) {
+            List<Integer> positions = new ArrayList<>(63);
+            for (int bit = 1; bit < 64; bit++) {
+                positions.add(bit);
+            }
+            Collections.shuffle(positions, random);
+            lshBitPositions[table] = positions.subList(0, bits).stream().mapToInt(Integer::intValue).toArray();
+        }
+        scopeIndexCache = Caffeine.newBuilder()
+                .maximumSize(pictureSimilarIndexConfig.getMaxScopes())
+                .refreshAfterWrite(Duration.ofMinutes(pictureSimilarIndexConfig.getRefreshMinutes()))
+                .build(this::load);
+    }
+
+    /**
+     * 服务启动后在后台预热公共图库索引
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        scopeIndexCache.refresh(PUBLIC_SCOPE);
+    }
+
+    /**
+     * 搜索相似图片
+     *
+     * @param spaceId   空间 id，公共图库为 null
+     * @param pictureId 源图片 id（不出现在结果中）
+     * @param feature   源图片特征向量
+     * @param limit     最多返回数量
+     * @return 按特征距离升序排列的图片 id
+     */
+    public List<Long> search(Long spaceId, Long pictureId, byte[] feature, int limit) {
+        return scopeIndexCache.get(scopeKey(spaceId)).search(feature, pictureId, limit,
+                pictureSimilarIndexConfig.getMaxDistance(), pictureSimilarIndexConfig.getExactScanLimit());
+    }
+
+    /**
+     * 图片特征提取完成（更新已加载的空间索引）
+     *
+     * @param spaceId   空间 id，公共图库为 null
+     * @param pictureId 图片 id
+     * @param feature   特征向量，长度不正确时从索引中移除
+     */
+    public void onFeatureSaved(Long spaceId, Long pictureId, byte[] feature) {
+        long scopeKey = scopeKey(spaceId);
+        TransactionUtils.afterCommit(() -> {
+            ScopeIndex scopeIndex = scopeIndexCache.getIfPresent(scopeKey);
+            if (scopeIndex == null) {
+                return;
+            }
+            if (isValid(feature) && (spaceId != null || isReviewPassed(pictureId))) {
+                scopeIndex.put(pictureId, feature);
+            } else {
+                scopeIndex.remove(pictureId);
+            }
+        });
+    }
+
+    /**
+     * 图片审核状态变化（公共图库在当前事务提交后加入或移除，私有空间不按审核状态过滤）
+     *
+     * @param spaceId      空间 id，公共图库为 null
+     * @param pictureId    图片 id
+     * @param reviewStatus 新的审核状态
+     * @param feature      图片当前的特征向量，尚未提取时为 null（提取完成后再加入）
+     */
+    public void onReviewStatusChanged(Long spaceId, Long pictureId, Integer reviewStatus, byte[] feature) {
+        if (spaceId != null) {
+            return;
+        }
+        boolean passed = ObjUtil.equals(reviewStatus, PictureReviewStatusEnum.PASS.getValue());
+        TransactionUtils.afterCommit(() -> {
+            ScopeIndex scopeIndex = scopeIndexCache.getIfPresent(PUBLIC_SCOPE);
+            if (scopeIndex == null) {
+                return;
+            }
+            if (!passed) {
+                scopeIndex.remove(pictureId);
+            } else if (isValid(feature)) {
+                scopeIndex.put(pictureId, feature);
+            }
+        });
+    }
+
+    /**
+     * 图片删除（在当前事务提交后更新已加载的空间索引）
+     *
+     * @param spaceId   空间 id，公共图库为 null
+     * @param pictureId 图片 id
+     */
+    public void onPictureRemoved(Long spaceId, Long pictureId) {
+        long scopeKey = scopeKey(spaceId);
+        TransactionUtils.afterCommit(() -> {
+            ScopeIndex scopeIndex = scopeIndexCache.getIfPresent(scopeKey);
+            if (scopeIndex != null) {
+                scopeIndex.remove(pictureId);
+            }
+        });
+    }
+
+    /**
+     * 从数据库完整加载一个空间的索引
+     */
+    private ScopeIndex load(Long scopeKey) {
+        long start = System.currentTimeMillis();
+        boolean publicScope = scopeKey == PUBLIC_SCOPE;
+        ScopeIndex scopeIndex = new ScopeIndex(lshBitPositions);
+        long lastId = 0L;
+        while (true) {
+            List<Picture> pictureList = pictureMapper.selectList(new LambdaQueryWrapper<Picture>()
+                    .select(Picture::getId, Picture::getPicFeature)
+                    .isNull(publicScope, Picture::getSpaceId)
+                    .eq(!publicScope, Picture::getSpaceId, scopeKey)
+                    .eq(publicScope, Picture::getReviewStatus, PictureReviewStatusEnum.PASS.getValue())
+                    .isNotNull(Picture::getPicFeature)
+                    .gt(Picture::getId, lastId)
+                    .orderByAsc(Picture::getId)
+                    .last("LIMIT " + LOAD_BATCH_SIZE));
+            for (Picture picture : pictureList) {
+                if (isValid(picture.getPicFeature())) {
+                    scopeIndex.put(picture.getId(), picture.getPicFeature());
+                }
+            }
+            if (pictureList.size() < LOAD_BATCH_SIZE) {
+                break;
+            }
+            lastId = pictureList.get(pictureList.size() - 1).getId();
+        }
+        log.info("以图搜图索引加载完成（空间：{}），图片 {} 张，耗时 {} ms",
+                publicScope ? "公共图库" : scopeKey, scopeIndex.liveCount(), System.currentTimeMillis() - start);
+        return scopeIndex;
+    }
+
+    private boolean isReviewPassed(Long pictureId) {
+        Picture picture = pictureMapper.selectOne(new LambdaQueryWrapper<Picture>()
+                .select(Picture::getReviewStatus)
+                .eq(Picture::getId, pictureId));
+        return picture != null
+                && ObjUtil.equals(picture.getReviewStatus(), PictureReviewStatusEnum.PASS.getValue());
+    }
+
+    private static long scopeKey(Long spaceId) {
+        return spaceId == null ? PUBLIC_SCOPE : spaceId;
+    }
+
+    private static boolean isValid(byte[] feature) {
+        return feature != null && feature.length == ImageFeatureExtractor.FEATURE_BYTES;
+    }
+
+    /**
+     * 单个空间的相似索引（方法均加锁）
+     * 图片按加入顺序分配序号，删除或重新提取时旧序号只做标记，标记数超过一半时压缩
+     */
+    private static class ScopeIndex {
+
+        /**
+         * 序号数不超过该值时不压缩
+         */
+        private static final int MIN_COMPACT_SIZE = 1024;
+
+        private final int[][] bitPositions;
+
+        /**
+         * LSH 表：buckets[表][桶号] -> 序号列表
+         */
+        private Bucket[][] buckets;
+
+        private long[] pictureIds = new long[1024];
+
+        /**
+         * 序号 -> 特征向量，已删除的序号为 null
+         */
+        private byte[][] features = new byte[1024][];
+
+        private int size;
+
+        /**
+         * 图片 id -> 当前序号
+         */
+        private final Map<Long, Integer> ordinals = new HashMap<>();
+
+        ScopeIndex(int[][] bitPositions) {
+            this.bitPositions = bitPositions;
+            this.buckets = newBuckets(bitPositions);
+        }
+
+        synchronized int liveCount() {
+            return ordinals.size();
+        }
+
+        synchronized void put(long pictureId, byte[] feature) {
+            remove(pictureId);
+            if (size == pictureIds.length) {
+                pictureIds = Arrays.copyOf(pictureIds, size * 2);
+                features = Arrays.copyOf(features, size * 2);
+            }
+            int ordinal = size++;
+            pictureIds[ordinal] = pictureId;
+            features[ordinal] = feature;
+            ordinals.put(pictureId, ordinal);
+            addToBuckets(ordinal);
+        }
+
+        synchronized void remove(long pictureId) {
+            Integer ordinal = ordinals.remove(pictureId);
+            if (ordinal == null) {
+                return;
+            }
+            features[ordinal] = null;
+            // 已删除的序号超过一半时压缩，精确比较与 LSH 召回都不再遍历失效序号
+            if (size > MIN_COMPACT_SIZE && ordinals.size() * 2 < size) {
+                compact();
+            }
+        }
+
+        /**
+         * 按原顺序重新分配有效图片的序号，并重建 LSH 表
+         */
+        private void compact() {
+            int liveSize = 0;
+            for (int ordinal = 0; ordinal < size; ordinal++) {
+                if (features[ordinal] == null) {
+                    continue;
+                }
+                pictureIds[liveSize] = pictureIds[ordinal];
+                features[liveSize] = features[ordinal];
+                ordinals.put(pictureIds[liveSize], liveSize);
+                liveSize++;
+            }
+            Arrays.fill(features, liveSize, size, null);
+            size = liveSize;
+            buckets = newBuckets(bitPositions);
+            for (int ordinal = 0; ordinal < size; ordinal++) {
+                addToBuckets(ordinal);
+            }
+        }
+
+        private void addToBuckets(int ordinal) {
+            long hash = ImageFeatureExtractor.hashOf(features[ordinal]);
+            for (int table = 0; table < buckets.length; table++) {
+                int key = bucketKey(hash, bitPositions[table]);
+                if (buckets[table][key] == null) {
+                    buckets[table][key] = new Bucket();
+                }
+                buckets[table][key].add(ordinal);
+            }
+        }
+
+        private static Bucket[][] newBuckets(int[][] bitPositions) {
+            Bucket[][] buckets = new Bucket[bitPositions.length][];
+            for (int table = 0; table < bitPositions.length; table++) {
+                buckets[table] = new Bucket[1 << bitPositions[table].length];
+            }
+            return buckets;
+        }
+
+        synchronized List<Long> search(byte[] feature, Long excludeId, int limit,
+                                       double maxDistance, int exactScanLimit) {
+            // 得分最差（距离最大）的在堆顶
+            PriorityQueue<SimilarCandidate> topQueue = new PriorityQueue<>(limit + 1,
+                    Comparator.comparingDouble(SimilarCandidate::getDistance).reversed());
+            if (ordinals.size() <= exactScanLimit) {
+                // 1. 图片较少：精确比较全部图片
+                for (int ordinal = 0; ordinal < size; ordinal++) {
+                    offer(topQueue, ordinal, feature, excludeId, limit, maxDistance);
+                }
+            } else {
+                // 2. 图片较多：探测各表的原桶及相邻桶召回候选（同一候选只比较一次）
+                BitSet visited = new BitSet(size);
+                long hash = ImageFeatureExtractor.hashOf(feature);
+                for (int table = 0; table < buckets.length; table++) {
+                    int key = bucketKey(hash, bitPositions[table]);
+                    for (int probe = -1; probe < bitPositions[table].length; probe++) {
+                        Bucket bucket = buckets[table][probe < 0 ? key : key ^ (1 << probe)];
+                        if (bucket == null) {
+                            continue;
+                        }
+                        for (int i = 0; i < bucket.size; i++) {
+                            int ordinal = bucket.ordinals[i];
+                            if (!visited.get(ordinal)) {
+                                visited.set(ordinal);
+                                offer(topQueue, ordinal, feature, excludeId, limit, maxDistance);
+                            }
+                        }
+                    }
+                }
+            }
+            // 3. 按距离升序输出
+            List<Long> result = new ArrayList<>(topQueue.size());
+            while (!topQueue.isEmpty()) {
+                result.add(topQueue.poll().getPictureId());
+            }
+            Collections.reverse(result);
+            return result;
+        }
+
+        private void offer(PriorityQueue<SimilarCandidate> topQueue, int ordinal, byte[] feature,
+                           Long excludeId, int limit, double maxDistance) {
+            byte[] candidate = features[ordinal];
+            if (candidate == null || (excludeId != null && pictureIds[ordinal] == excludeId)) {
+                return;
+            }
+            double distance = ImageFeatureExtractor.distance(feature, candidate);
+            if (distance > maxDistance) {
+                return;
+            }
+            if (topQueue.size() < limit) {
+                topQueue.add(new SimilarCandidate(pictureIds[ordinal], distance));
+            } else if (distance < topQueue.peek().getDistance()) {
+                topQueue.poll();
+                topQueue.add(new SimilarCandidate(pictureIds[ordinal], distance));
+            }
+        }
+
+        private static int bucketKey(long hash, int[] positions) {
+            int key = 0;
+            for (int i = 0; i < positions.length; i++) {
+                key |= (int) ((hash >>> positions[i]) & 1L) << i;
+            }
+            return key;
+        }
+    }
+
+    /**
+     * LSH 桶：序号列表
+     */
+    private static class Bucket {
+
+        private int[] ordinals = new int[4];
+
+        private int size;
+
+        void add(int ordinal) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+            }
+            ordinals[size++] = ordinal;
+        }
+    }
+
+    /**
+     * 相似搜索候选
+     */
+    @Value
+    private static class SimilarCandidate {
+
+        Long pictureId;
+
+        double distance;
+    }
+}
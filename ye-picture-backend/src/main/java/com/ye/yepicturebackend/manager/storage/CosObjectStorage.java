@@ -0,0 +1,172 @@
+package com.ye.yepicturebackend.manager.storage;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.StrUtil;
+import com.qcloud.cos.COSClient;
+import com.qcloud.cos.model.DeleteObjectsRequest;
+import com.qcloud.cos.model.ObjectMetadata;
+import com.qcloud.cos.model.PutObjectRequest;
+import com.qcloud.cos.model.PutObjectResult;
+import com.qcloud.cos.model.ciModel.persistence.CIObject;
+import com.qcloud.cos.model.ciModel.persistence.ImageInfo;
+import com.qcloud.cos.model.ciModel.persistence.PicOperations;
+import com.ye.yepicturebackend.manager.upload.CosClientConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+import java.io.File;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 腾讯云 COS 对象存储实现
+ * 衍生图（webp 压缩图 + 缩略图）与原图元信息由 COS 数据万象（CI）在上传时同步生成
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "storage", name = "type", havingValue = "cos", matchIfMissing = true)
+public class CosObjectStorage implements ObjectStorage {
+
+    @Resource
+    private CosClientConfig cosClientConfig;
+
+    @Resource
+    private COSClient cosClient;
+
+    @Resource
+    private CosPresigner cosPresigner;
+
+    @Override
+    public void putObject(String key, InputStream inputStream, long contentLength) {
+        ObjectMetadata objectMetadata = new ObjectMetadata();
+        if (contentLength >= 0) {
+            objectMetadata.setContentLength(contentLength);
+        }
+        cosClient.putObject(new PutObjectRequest(cosClientConfig.getBucket(), key, inputStream, objectMetadata));
+    }
+
+    @Override
+    public PictureStoreResult putPicture(String key, File file) {
+        PutObjectRequest putObjectRequest = new PutObjectRequest(cosClientConfig.getBucket(), key, file);
+        putObjectRequest.setPicOperations(buildPicOperations(key, file.length() > 2 * 1024));
+        return toStoreResult(key, cosClient.putObject(putObjectRequest));
+    }
+
+    @Override
+    public PictureStoreResult putPicture(String key, InputStream inputStream, long contentLength) {
+        ObjectMetadata objectMetadata = new ObjectMetadata();
+        if (contentLength >= 0) {
+            objectMetadata.setContentLength(contentLength);
+        }
+        PutObjectRequest putObjectRequest = new PutObjectRequest(
+                cosClientConfig.getBucket(), key, inputStream, objectMetadata);
+        // 长度未知时无法预判是否过小，统一生成缩略图
+        putObjectRequest.setPicOperations(buildPicOperations(key, contentLength < 0 || contentLength > 2 * 1024));
+        return toStoreResult(key, cosClient.putObject(putObjectRequest));
+    }
+
+    @Override
+    public InputStream getObject(String key) {
+        return cosClient.getObject(cosClientConfig.getBucket(), ObjectStorage.normalizeKey(key)).getObjectContent();
+    }
+
+    @Override
+    public void deleteObject(String key) {
+        cosClient.deleteObject(cosClientConfig.getBucket(), key);
+    }
+
+    @Override
+    public void deleteObjects(Collection<String> keys) {
+        if (CollUtil.isEmpty(keys)) {
+            return;
+        }
+        DeleteObjectsRequest deleteObjectsRequest = new DeleteObjectsRequest(cosClientConfig.getBucket());
+        deleteObjectsRequest.setKeys(keys.stream()
+                .map(DeleteObjectsRequest.KeyVersion::new)
+                .collect(Collectors.toList()));
+        cosClient.deleteObjects(deleteObjectsRequest);
+    }
+
+    @Override
+    public String generateSignedUrl(String key, Date expiration) {
+        if (StrUtil.isBlank(key)) {
+            return null;
+        }
+        // 预签名 GET 请求（下载）
+        return cosPresigner.presign(key, expiration);
+    }
+
+    @Override
+    public Map<String, String> generateSignedUrls(Collection<String> keys, Date expiration) {
+        return cosPresigner.presignAll(keys, expiration);
+    }
+
+    /**
+     * 构造图片处理参数（webp 压缩图 + 可选缩略图）
+     *
+     * @param key           原图在COS中的唯一存储标识
+     * @param withThumbnail 是否生成缩略图
+     * @return PicOperations 图片处理参数
+     */
+    private PicOperations buildPicOperations(String key, boolean withThumbnail) {
+        PicOperations picOperations = new PicOperations();
+        List<PicOperations.Rule> rules = new ArrayList<>();
+        picOperations.setIsPicInfo(1);  // 1 返回原图信息
+        // 图片压缩 (转成webp格式)
+        PicOperations.Rule compressRule = new PicOperations.Rule();
+        String webKey = FileUtil.mainName(key) + ".webp";
+        compressRule.setRule("imageMogr2/format/webp");
+        compressRule.setBucket(cosClientConfig.getBucket());
+        compressRule.setFileId(webKey);
+        rules.add(compressRule);
+        // 缩略图处理
+        if (withThumbnail) {
+            PicOperations.Rule thumbnailRule = new PicOperations.Rule();
+            String thumbnailKey = FileUtil.mainName(key) + "_thumbnail." + FileUtil.getSuffix(key);
+            thumbnailRule.setRule(String.format("imageMogr2/thumbnail/%sx%s>", 256, 256));
+            thumbnailRule.setBucket(cosClientConfig.getBucket());
+            thumbnailRule.setFileId(thumbnailKey);
+            rules.add(thumbnailRule);
+        }
+        // 构造处理参数
+        picOperations.setRules(rules);
+        return picOperations;
+    }
+
+    /**
+     * 将 COS 上传结果转换为通用的图片存储结果
+     *
+     * @param key             原图存储标识
+     * @param putObjectResult COS上传结果（含 CI 处理结果）
+     * @return PictureStoreResult 图片存储结果
+     */
+    private PictureStoreResult toStoreResult(String key, PutObjectResult putObjectResult) {
+        PictureStoreResult result = new PictureStoreResult();
+        result.setOriginKey(ObjectStorage.normalizeKey(key));
+        // 原图元信息
+        ImageInfo imageInfo = putObjectResult.getCiUploadResult().getOriginalInfo().getImageInfo();
+        result.setPicWidth(imageInfo.getWidth());
+        result.setPicHeight(imageInfo.getHeight());
+        result.setPicFormat(imageInfo.getFormat());
+        result.setPicColor(imageInfo.getAve());
+        // 压缩图和缩略图（按规则顺序返回）
+        List<CIObject> ciObjectList = putObjectResult.getCiUploadResult().getProcessResults().getObjectList();
+        if (CollUtil.isEmpty(ciObjectList)) {
+            log.warn("COS未返回压缩图/缩略图信息，仅返回原图片（key：{}）", key);
+            return result;
+        }
+        CIObject compressCiObj = ciObjectList.get(0);
+        CIObject thumbnailCiObj = ciObjectList.size() > 1 ? ciObjectList.get(1) : compressCiObj;
+        result.setCompressKey(compressCiObj.getKey());
+        result.setThumbnailKey(thumbnailCiObj.getKey());
+        return result;
+    }
+}
@@ -0,0 +1,316 @@
+package com.ye.yepicturebackend.manager.storage;
+
+import cn.hutool.core.util.StrUtil;
+import com.qcloud.cos.COSClient;
+import com.qcloud.cos.http.HttpMethodName;
+import com.qcloud.cos.model.GeneratePresignedUrlRequest;
+import com.ye.yepicturebackend.manager.upload.CosClientConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * COS 预签名 URL 生成器（替代每次调用 COSClient.generatePresignedUrl）
+ * <p>
+ * 按 COS 签名算法（q-sign-algorithm=sha1，签名 host 头）直接计算：
+ * - 签名起始时刻按时间窗口对齐，同一窗口、同一过期时刻下的 SignKey 只计算一次
+ * - Mac / MessageDigest / StringBuilder 按线程复用，不再逐次创建请求对象；
+ *   线程内的 Mac 已按当前 SignKey 初始化，同一窗口内不再重复 init
+ * - 支持批量签名，列表接口一次调用完成整页签名
+ * 启动时用 SDK 生成一条 URL，并以相同的签名时间本地重算比对；
+ * 结果不一致（如 SDK 升级改变了签名格式）时自动退回 SDK 签名
+ * </p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "storage", name = "type", havingValue = "cos", matchIfMissing = true)
+public class CosPresigner {
+
+    private static final String HMAC_SHA1 = "HmacSHA1";
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private static final ThreadLocal<KeyedMac> MAC = ThreadLocal.withInitial(KeyedMac::new);
+
+    private static final ThreadLocal<MessageDigest> SHA1 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private static final ThreadLocal<StringBuilder> BUILDER = ThreadLocal.withInitial(() -> new StringBuilder(512));
+
+    @Resource
+    private CosClientConfig cosClientConfig;
+
+    @Resource
+    private COSClient cosClient;
+
+    @Resource
+    private StorageConfig storageConfig;
+
+    /**
+     * 访问地址前缀，如 https://bucket.cos.ap-shanghai.myqcloud.com
+     */
+    private String endpoint;
+
+    /**
+     * 参与签名的 host 头（已 URL 编码）
+     */
+    private String encodedHost;
+
+    /**
+     * 签名起始时刻的对齐窗口（秒）
+     */
+    private long keyWindowSeconds;
+
+    /**
+     * 本地签名与 SDK 签名是否一致（不一致时退回 SDK）
+     */
+    private volatile boolean nativeEnabled;
+
+    /**
+     * 最近一次使用的签名密钥
+     */
+    private volatile SigningKey signingKey;
+
+    @PostConstruct
+    public void init() {
+        keyWindowSeconds = Math.max(1, storageConfig.getSignedUrl().getBucketSeconds());
+        try {
+            // 1. 由 SDK 生成一条探测 URL，解析访问地址
+            String probeKey = "presign-probe/probe.jpg";
+            String sdkUrl = presignBySdk(probeKey, new Date(System.currentTimeMillis() + 60_000L));
+            URI uri = URI.create(sdkUrl);
+            endpoint = uri.getScheme() + "://" + uri.getRawAuthority();
+            encodedHost = encode(uri.getHost());
+            // 2. 以相同的签名时间本地重算并比对
+            String nativeUrl = signLike(probeKey, sdkUrl);
+            nativeEnabled = sdkUrl.equals(nativeUrl);
+            if (!nativeEnabled) {
+                log.warn("本地预签名结果与 SDK 不一致，退回 SDK 签名。sdk={}, native={}", sdkUrl, nativeUrl);
+            }
+        } catch (Exception e) {
+            nativeEnabled = false;
+            log.warn("本地预签名自检失败，退回 SDK 签名", e);
+        }
+    }
+
+    /**
+     * 生成预签名 URL
+     *
+     * @param key        对象存储标识
+     * @param expiration 过期时刻
+     * @return 可直接访问的 URL
+     */
+    public String presign(String key, Date expiration) {
+        String normalizedKey = ObjectStorage.normalizeKey(key);
+        if (!nativeEnabled) {
+            return presignBySdk(normalizedKey, expiration);
+        }
+        return sign(normalizedKey, signingKey(expiration));
+    }
+
+    /**
+     * 批量生成预签名 URL（共用同一签名密钥）
+     *
+     * @param keys       对象存储标识集合
+     * @param expiration 过期时刻
+     * @return Map 对象存储标识 -> URL
+     */
+    public Map<String, String> presignAll(Collection<String> keys, Date expiration) {
+        Map<String, String> result = new LinkedHashMap<>(keys.size() * 2);
+        if (!nativeEnabled) {
+            for (String key : keys) {
+                result.put(key, presignBySdk(ObjectStorage.normalizeKey(key), expiration));
+            }
+            return result;
+        }
+        SigningKey currentKey = signingKey(expiration);
+        for (String key : keys) {
+            result.put(key, sign(ObjectStorage.normalizeKey(key), currentKey));
+        }
+        return result;
+    }
+
+    /**
+     * 获取签名密钥：起始时刻按窗口对齐，窗口与过期时刻不变时复用
+     */
+    private SigningKey signingKey(Date expiration) {
+        long nowSeconds = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+        long startSeconds = nowSeconds / keyWindowSeconds * keyWindowSeconds;
+        long endSeconds = TimeUnit.MILLISECONDS.toSeconds(expiration.getTime());
+        SigningKey current = signingKey;
+        if (current != null && current.startSeconds == startSeconds && current.endSeconds == endSeconds) {
+            return current;
+        }
+        current = new SigningKey(startSeconds, endSeconds);
+        signingKey = current;
+        return current;
+    }
+
+    /**
+     * 按 COS 签名算法计算 URL
+     * HttpString    = get\n/{key}\n\nhost={host}\n
+     * StringToSign  = sha1\n{KeyTime}\n{sha1(HttpString)}\n
+     * Signature     = HMAC-SHA1(SignKey, StringToSign)
+     */
+    private String sign(String key, SigningKey signingKey) {
+        StringBuilder builder = BUILDER.get();
+        // 1. HttpString 摘要
+        builder.setLength(0);
+        builder.append("get\n/").append(key).append("\n\nhost=").append(encodedHost).append('\n');
+        MessageDigest sha1 = SHA1.get();
+        String httpStringSha1 = hex(sha1.digest(builder.toString().getBytes(StandardCharsets.UTF_8)));
+        // 2. 签名
+        builder.setLength(0);
+        builder.append("sha1\n").append(signingKey.keyTime).append('\n').append(httpStringSha1).append('\n');
+        String signature = hex(MAC.get().init(signingKey).doFinal(builder.toString().getBytes(StandardCharsets.UTF_8)));
+        // 3. 拼接 URL
+        builder.setLength(0);
+        builder.append(endpoint).append('/').append(encodeKey(key))
+                .append("?q-sign-algorithm=sha1&q-ak=").append(cosClientConfig.getSecretId())
+                .append("&q-sign-time=").append(signingKey.encodedKeyTime)
+                .append("&q-key-time=").append(signingKey.encodedKeyTime)
+                .append("&q-header-list=host&q-url-param-list=&q-signature=").append(signature);
+        return builder.toString();
+    }
+
+    /**
+     * 使用 SDK 生成的 URL 中的签名时间，本地重新计算同一对象的 URL（用于与 SDK 结果逐字节比对）
+     *
+     * @param key    对象存储标识（已规范化）
+     * @param sdkUrl SDK 为该对象生成的 URL
+     * @return 本地计算的 URL
+     */
+    String signLike(String key, String sdkUrl) {
+        String signTime = URLDecoder.decode(StrUtil.subBetween(sdkUrl, "q-sign-time=", "&"), StandardCharsets.UTF_8);
+        long startSeconds = Long.parseLong(StrUtil.subBefore(signTime, ";", false));
+        long endSeconds = Long.parseLong(StrUtil.subAfter(signTime, ";", false));
+        return sign(key, new SigningKey(startSeconds, endSeconds));
+    }
+
+    /**
+     * 由 SDK 生成预签名 URL
+     *
+     * @param key        对象存储标识（已规范化）
+     * @param expiration 过期时刻
+     * @return 可直接访问的 URL
+     */
+    String presignBySdk(String key, Date expiration) {
+        GeneratePresignedUrlRequest req = new GeneratePresignedUrlRequest(
+                cosClientConfig.getBucket(), key, HttpMethodName.GET);
+        req.setExpiration(expiration);
+        return cosClient.generatePresignedUrl(req).toString();
+    }
+
+    private static Mac newMac() {
+        try {
+            return Mac.getInstance(HMAC_SHA1);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String hex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = HEX[(bytes[i] >> 4) & 0x0F];
+            chars[i * 2 + 1] = HEX[bytes[i] & 0x0F];
+        }
+        return new String(chars);
+    }
+
+    /**
+     * URL 编码（与 COS SDK 一致：空格为 %20，* 为 %2A，~ 不编码）
+     */
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8)
+                .replace("+", "%20")
+                .replace("*", "%2A")
+                .replace("%7E", "~");
+    }
+
+    /**
+     * 对象标识逐段编码，保留路径分隔符
+     */
+    private static String encodeKey(String key) {
+        return encode(key).replace("%2F", "/");
+    }
+
+    /**
+     * 签名密钥：KeyTime = start;end，SignKey = HMAC-SHA1(SecretKey, KeyTime) 的十六进制
+     */
+    private final class SigningKey {
+
+        private final long startSeconds;
+
+        private final long endSeconds;
+
+        private final String keyTime;
+
+        private final String encodedKeyTime;
+
+        private final SecretKeySpec signKey;
+
+        private SigningKey(long startSeconds, long endSeconds) {
+            this.startSeconds = startSeconds;
+            this.endSeconds = endSeconds;
+            this.keyTime = startSeconds + ";" + endSeconds;
+            this.encodedKeyTime = encode(keyTime);
+            // 每个窗口只计算一次，使用独立的 Mac，不影响线程内已初始化的 Mac
+            Mac mac = newMac();
+            try {
+                mac.init(new SecretKeySpec(cosClientConfig.getSecretKey().getBytes(StandardCharsets.UTF_8), HMAC_SHA1));
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+            byte[] signKeyHex = hex(mac.doFinal(keyTime.getBytes(StandardCharsets.UTF_8)))
+                    .getBytes(StandardCharsets.UTF_8);
+            this.signKey = new SecretKeySpec(signKeyHex, HMAC_SHA1);
+        }
+    }
+
+    /**
+     * 线程内复用的 Mac 及其当前初始化所用的签名密钥（doFinal 后 Mac 保留密钥，可直接计算下一条签名）
+     */
+    private static final class KeyedMac {
+
+        private final Mac mac = newMac();
+
+        private SigningKey owner;
+
+        /**
+         * 按签名密钥初始化（与上次相同时跳过）
+         */
+        private Mac init(SigningKey signingKey) {
+            if (owner != signingKey) {
+                try {
+                    mac.init(signingKey.signKey);
+                } catch (GeneralSecurityException e) {
+                    throw new IllegalStateException(e);
+                }
+                owner = signingKey;
+            }
+            return mac;
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.ye.yepicturebackend.manager.storage;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.io.IoUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.crypto.SecureUtil;
+import com.ye.yepicturebackend.exception.BusinessException;
+import com.ye.yepicturebackend.exception.ErrorCode;
+import com.ye.yepicturebackend.manager.image.ImageProcessor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URLEncoder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.Collection;
+import java.util.Date;
+
+/**
+ * 本地文件系统对象存储实现
+ * <p>
+ * - 写入：NIO FileChannel 直接传输，不经过用户态缓冲区中转
+ * - 读取：只读内存映射（{@link #mapObject(String)}），由本地文件访问接口输出
+ * - 衍生图：由应用内图片处理引擎生成压缩图、缩略图及原图元信息
+ * - 签名 URL：HMAC-SHA256(key:expires)，由访问接口校验（密钥必须显式配置，否则拒绝启动）
+ * </p>
+ * 适用于私有化部署节点以及无网络环境下的全链路压测
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "storage", name = "type", havingValue = "local")
+public class LocalObjectStorage implements ObjectStorage {
+
+    /**
+     * 单次传输的最大字节数
+     */
+    private static final long TRANSFER_CHUNK = 64 * 1024L;
+
+    /**
+     * 签名密钥的最小长度
+     */
+    static final int MIN_SIGN_SECRET_LENGTH = 32;
+
+    @Resource
+    private StorageConfig storageConfig;
+
+    @Resource
+    private ImageProcessor imageProcessor;
+
+    /**
+     * 存储根目录（绝对路径）
+     */
+    private Path rootPath;
+
+    @PostConstruct
+    public void init() throws IOException {
+        // 签名密钥决定了谁能访问存储中的任意对象，未配置或过短时拒绝启动
+        String signSecret = storageConfig.getLocal().getSignSecret();
+        if (StrUtil.isBlank(signSecret) || signSecret.length() < MIN_SIGN_SECRET_LENGTH) {
+            throw new IllegalStateException(String.format(
+                    "本地存储未配置签名密钥或密钥过短（至少 %d 个字符），请设置 storage.local.sign-secret"
+                            + "（环境变量 STORAGE_LOCAL_SIGN_SECRET）", MIN_SIGN_SECRET_LENGTH));
+        }
+        rootPath = Paths.get(storageConfig.getLocal().getRootPath()).toAbsolutePath().normalize();
+        Files.createDirectories(rootPath);
+        log.info("本地对象存储已启用，根目录：{}", rootPath);
+    }
+
+    @Override
+    public void putObject(String key, InputStream inputStream, long contentLength) {
+        Path target = resolve(key);
+        try (ReadableByteChannel source = Channels.newChannel(inputStream);
+             FileChannel channel = openForWrite(target)) {
+            long position = 0;
+            long transferred;
+            // 阻塞读取下，transferFrom 返回 0 即表示数据流已读完
+            while ((transferred = channel.transferFrom(source, position, TRANSFER_CHUNK)) > 0) {
+                position += transferred;
+            }
+        } catch (IOException e) {
+            // 数据流中途失败（如超过大小上限）时删除已写入的部分内容
+            try {
+                Files.deleteIfExists(target);
+            } catch (IOException deleteException) {
+                log.warn("删除写入失败的本地存储文件失败：{}", key, deleteException);
+            }
+            throw new UncheckedIOException("写入本地存储失败：" + key, e);
+        }
+    }
+
+    @Override
+    public PictureStoreResult putPicture(String key, File file) {
+        try {
+            return storePicture(key, Files.readAllBytes(file.toPath()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("读取图片文件失败：" + file.getAbsolutePath(), e);
+        }
+    }
+
+    @Override
+    public PictureStoreResult putPicture(String key, InputStream inputStream, long contentLength) {
+        return storePicture(key, IoUtil.readBytes(inputStream));
+    }
+
+    @Override
+    public InputStream getObject(String key) {
+        try {
+            return Files.newInputStream(resolve(key));
+        } catch (IOException e) {
+            throw new UncheckedIOException("读取本地存储文件失败：" + key, e);
+        }
+    }
+
+    @Override
+    public void deleteObject(String key) {
+        try {
+            Files.deleteIfExists(resolve(key));
+        } catch (IOException e) {
+            throw new UncheckedIOException("删除本地存储文件失败：" + key, e);
+        }
+    }
+
+    @Override
+    public void deleteObjects(Collection<String> keys) {
+        if (keys == null) {
+            return;
+        }
+        keys.forEach(this::deleteObject);
+    }
+
+    @Override
+    public String generateSignedUrl(String key, Date expiration) {
+        if (StrUtil.isBlank(key)) {
+            return null;
+        }
+        String normalizedKey = ObjectStorage.normalizeKey(key);
+        long expires = expiration.getTime();
+        return String.format("%s?key=%s&expires=%d&sign=%s",
+                storageConfig.getLocal().getBaseUrl(),
+                URLEncoder.encode(normalizedKey, StandardCharsets.UTF_8),
+                expires, sign(normalizedKey, expires));
+    }
+
+    /**
+     * 校验签名 URL 参数
+     *
+     * @param key     对象存储标识
+     * @param expires 过期时间戳（毫秒）
+     * @param sign    签名
+     * @return 签名有效且未过期时返回 true
+     */
+    public boolean verifySignature(String key, long expires, String sign) {
+        if (StrUtil.hasBlank(key, sign) || expires < System.currentTimeMillis()) {
+            return false;
+        }
+        // 定长时间比较，避免通过响应时间逐字节猜测签名
+        return MessageDigest.isEqual(sign.getBytes(StandardCharsets.UTF_8),
+                sign(ObjectStorage.normalizeKey(key), expires).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 以只读内存映射的方式打开对象
+     *
+     * @param key 对象存储标识
+     * @return MappedByteBuffer 文件内容映射，文件不存在时返回 null
+     */
+    public MappedByteBuffer mapObject(String key) throws IOException {
+        Path path = resolve(key);
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // 映射建立后即可关闭通道，映射在缓冲区被回收前一直有效
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    /**
+     * 由图片处理引擎解码原图，写入原图、压缩图和缩略图并提取原图元信息
+     *
+     * @param key  原图存储标识
+     * @param data 原图数据
+     * @return PictureStoreResult 图片存储结果
+     */
+    private PictureStoreResult storePicture(String key, byte[] data) {
+        PictureStoreResult result = imageProcessor.processAndStore(this, key, data, data.length > 2 * 1024);
+        if (result != null) {
+            return result;
+        }
+        // JDK 不支持的格式（如 webp）：仅保存原图
+        log.warn("本地存储无法解码图片，仅保存原图（key：{}）", key);
+        putObject(key, new ByteArrayInputStream(data), data.length);
+        result = new PictureStoreResult();
+        result.setOriginKey(ObjectStorage.normalizeKey(key));
+        result.setPicFormat(FileUtil.getSuffix(key));
+        return result;
+    }
+
+    /**
+     * 打开写入通道（自动创建父目录，覆盖已有文件）
+     */
+    private FileChannel openForWrite(Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        return FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    /**
+     * 将对象存储标识解析为根目录下的本地路径，禁止越出根目录
+     */
+    private Path resolve(String key) {
+        if (StrUtil.isBlank(key)) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "存储标识不能为空");
+        }
+        Path path = rootPath.resolve(ObjectStorage.normalizeKey(key)).normalize();
+        if (!path.startsWith(rootPath)) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "非法的存储标识");
+        }
+        return path;
+    }
+
+    /**
+     * 计算签名：HMAC-SHA256(key:expires)
+     */
+    private String sign(String key, long expires) {
+        return SecureUtil.hmacSha256(storageConfig.getLocal().getSignSecret()).digestHex(key + ":" + expires);
+    }
+}
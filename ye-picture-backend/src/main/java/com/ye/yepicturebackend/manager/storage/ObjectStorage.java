@@ -0,0 +1,118 @@
+package com.ye.yepicturebackend.manager.storage;
+
+import java.io.File;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 对象存储抽象（SPI）
+ * <p>
+ * 屏蔽具体存储实现（腾讯云 COS / 本地文件系统等）的差异，统一提供：
+ * - 普通对象上传
+ * - 图片上传并生成衍生图（压缩图 + 缩略图）及原图元信息
+ * - 读取对象内容
+ * - 单个 / 批量删除
+ * - 带时效的签名访问 URL
+ * </p>
+ * 通过配置项 {@code storage.type} 选择生效的实现
+ */
+public interface ObjectStorage {
+
+    /**
+     * 上传普通对象（不做任何图片处理）
+     *
+     * @param key           对象存储标识
+     * @param inputStream   数据流
+     * @param contentLength 数据长度（字节），未知时传 -1
+     */
+    void putObject(String key, InputStream inputStream, long contentLength);
+
+    /**
+     * 上传图片并生成衍生图
+     *
+     * @param key  原图存储标识
+     * @param file 本地图片文件
+     * @return PictureStoreResult 原图元信息及衍生图存储标识
+     */
+    PictureStoreResult putPicture(String key, File file);
+
+    /**
+     * 以流的方式上传图片并生成衍生图
+     *
+     * @param key           原图存储标识
+     * @param inputStream   图片数据流
+     * @param contentLength 数据长度（字节），未知时传 -1
+     * @return PictureStoreResult 原图元信息及衍生图存储标识
+     */
+    PictureStoreResult putPicture(String key, InputStream inputStream, long contentLength);
+
+    /**
+     * 读取对象内容
+     *
+     * @param key 对象存储标识
+     * @return 对象数据流（由调用方关闭）
+     */
+    InputStream getObject(String key);
+
+    /**
+     * 删除对象
+     *
+     * @param key 对象存储标识
+     */
+    void deleteObject(String key);
+
+    /**
+     * 批量删除对象
+     *
+     * @param keys 对象存储标识集合
+     */
+    void deleteObjects(Collection<String> keys);
+
+    /**
+     * 生成带时效的签名访问 URL
+     *
+     * @param key          对象存储标识（不应以 "/" 开头，以 "/" 开头时自动去除）
+     * @param expireMillis 有效时间（毫秒）
+     * @return 可直接访问的 URL
+     */
+    default String generateSignedUrl(String key, long expireMillis) {
+        return generateSignedUrl(key, new Date(System.currentTimeMillis() + expireMillis));
+    }
+
+    /**
+     * 生成在指定时刻过期的签名访问 URL
+     *
+     * @param key        对象存储标识（不应以 "/" 开头，以 "/" 开头时自动去除）
+     * @param expiration 过期时刻
+     * @return 可直接访问的 URL
+     */
+    String generateSignedUrl(String key, Date expiration);
+
+    /**
+     * 批量生成在指定时刻过期的签名访问 URL
+     *
+     * @param keys       对象存储标识集合
+     * @param expiration 过期时刻
+     * @return Map 对象存储标识 -> URL
+     */
+    default Map<String, String> generateSignedUrls(Collection<String> keys, Date expiration) {
+        Map<String, String> result = new LinkedHashMap<>(keys.size() * 2);
+        for (String key : keys) {
+            result.put(key, generateSignedUrl(key, expiration));
+        }
+        return result;
+    }
+
+    /**
+     * 规范化对象存储标识：去除开头的 "/"
+     *
+     * @param key 对象存储标识
+     * @return 规范化后的标识
+     */
+    static String normalizeKey(String key) {
+        return key != null && key.startsWith("/") ? key.substring(1) : key;
+    }
+}
@@ -0,0 +1,46 @@
+package com.ye.yepicturebackend.manager.storage;
+
+import lombok.Data;
+
+/**
+ * 图片存储结果
+ * 与具体存储实现无关的原图元信息及衍生图存储标识
+ */
+@Data
+public class PictureStoreResult {
+
+    /**
+     * 原图存储标识（不以 "/" 开头）
+     */
+    private String originKey;
+
+    /**
+     * 压缩图存储标识，未生成时为 null
+     */
+    private String compressKey;
+
+    /**
+     * 缩略图存储标识，未生成时为 null
+     */
+    private String thumbnailKey;
+
+    /**
+     * 原图宽度
+     */
+    private int picWidth;
+
+    /**
+     * 原图高度
+     */
+    private int picHeight;
+
+    /**
+     * 原图格式
+     */
+    private String picFormat;
+
+    /**
+     * 原图主色调（十六进制，如 0x4A5B6C）
+     */
+    private String picColor;
+}
@@ -0,0 +1,64 @@
+package com.ye.yepicturebackend.manager.storage;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 对象存储配置
+ */
+@Configuration
+@ConfigurationProperties(prefix = "storage")
+@Data
+public class StorageConfig {
+
+    /**
+     * 存储类型
+     * - cos：腾讯云 COS（默认）
+     * - local：本地文件系统
+     */
+    private String type = "cos";
+
+    /**
+     * 本地文件系统存储配置
+     */
+    private Local local = new Local();
+
+    /**
+     * 签名 URL 缓存配置
+     */
+    private SignedUrl signedUrl = new SignedUrl();
+
+    @Data
+    public static class Local {
+
+        /**
+         * 存储根目录
+         */
+        private String rootPath = "./storage";
+
+        /**
+         * 对外访问地址前缀（指向本地文件访问接口）
+         */
+        private String baseUrl = "http://localhost:8222/api/storage/local";
+
+        /**
+         * 签名密钥（无默认值，启用本地存储时必须配置，见 {@link LocalObjectStorage#MIN_SIGN_SECRET_LENGTH}）
+         */
+        private String signSecret;
+    }
+
+    @Data
+    public static class SignedUrl {
+
+        /**
+         * 过期时间对齐的时间窗口（秒）：同一窗口内同一对象返回相同的 URL
+         */
+        private long bucketSeconds = 300;
+
+        /**
+         * 缓存的最大 URL 数量
+         */
+        private long maxSize = 100_000;
+    }
+}
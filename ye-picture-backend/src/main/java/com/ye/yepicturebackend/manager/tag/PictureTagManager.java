@@ -0,0 +1,385 @@
+package com.ye.yepicturebackend.manager.tag;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.json.JSONUtil;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.ye.yepicturebackend.manager.index.PictureBitmapIndex;
+import com.ye.yepicturebackend.mapper.PictureMapper;
+import com.ye.yepicturebackend.mapper.PictureTagDictMapper;
+import com.ye.yepicturebackend.mapper.PictureTagRelMapper;
+import com.ye.yepicturebackend.model.entity.Picture;
+import com.ye.yepicturebackend.model.entity.PictureTagDict;
+import com.ye.yepicturebackend.model.entity.PictureTagRel;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * 图片标签管理器（标签字典 + 图片标签关联）
+ * <p>
+ * picture.tags 仍以 JSON 数组保存，写入时同步维护 picture_tag_rel：
+ * - 标签名称经 picture_tag_dict 映射为整型 id，进程内缓存双向映射
+ * - 标签筛选、标签统计与列表渲染基于关联表中的 id，不再逐行解析 JSON
+ * - 服务启动后回填尚未建立关联的历史图片
+ * </p>
+ */
+@Slf4j
+@Component
+public class PictureTagManager {
+
+    /**
+     * 标签名称最大长度（与 picture_tag_dict.tagName 一致）
+     */
+    private static final int MAX_TAG_LENGTH = 64;
+
+    /**
+     * 历史图片回填时每批处理的图片数
+     */
+    private static final int BACKFILL_BATCH_SIZE = 500;
+
+    @Resource
+    private PictureTagDictMapper pictureTagDictMapper;
+
+    @Resource
+    private PictureTagRelMapper pictureTagRelMapper;
+
+    @Resource
+    private PictureMapper pictureMapper;
+
+    @Resource
+    private PlatformTransactionManager transactionManager;
+
+    @Resource
+    private PictureBitmapIndex pictureBitmapIndex;
+
+    /**
+     * 标签名称 -> 标签 id
+     */
+    private final Map<String, Integer> tagIdMap = new ConcurrentHashMap<>();
+
+    /**
+     * 标签 id -> 标签名称
+     */
+    private final Map<Integer, String> tagNameMap = new ConcurrentHashMap<>();
+
+    /**
+     * 登记新标签使用独立事务：调用方事务回滚时，已缓存的标签 id 依然有效
+     */
+    private TransactionTemplate dictTransactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        dictTransactionTemplate = new TransactionTemplate(transactionManager);
+        dictTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        pictureTagDictMapper.selectList(null).forEach(this::cache);
+        log.info("标签字典加载完成，共 {} 个标签", tagNameMap.size());
+    }
+
+    // region 标签字典
+
+    /**
+     * 将标签名称映射为标签 id，不存在的标签自动登记
+     *
+     * @param tagNames 标签名称列表
+     * @return 去重后的标签 id 列表（保持原顺序）
+     */
+    public List<Integer> internTagIds(Collection<String> tagNames) {
+        List<String> names = normalize(tagNames);
+        List<String> missingNames = names.stream()
+                .filter(name -> !tagIdMap.containsKey(name))
+                .collect(Collectors.toList());
+        if (!missingNames.isEmpty()) {
+            dictTransactionTemplate.executeWithoutResult(status -> {
+                pictureTagDictMapper.insertIgnoreBatch(missingNames);
+                loadByNames(missingNames);
+            });
+        }
+        return toTagIds(names);
+    }
+
+    /**
+     * 将标签名称映射为标签 id，不存在的标签直接忽略（用于查询）
+     *
+     * @param tagNames 标签名称列表
+     * @return 已登记的标签 id 列表
+     */
+    public List<Integer> getTagIds(Collection<String> tagNames) {
+        return getTagIds(tagNames, false);
+    }
+
+    /**
+     * 将标签名称映射为标签 id（用于查询）
+     *
+     * @param tagNames   标签名称列表
+     * @param requireAll true：任一标签未登记时返回空列表（"包含全部标签"不可能命中）；false：忽略未登记的标签
+     * @return 已登记的标签 id 列表
+     */
+    public List<Integer> getTagIds(Collection<String> tagNames, boolean requireAll) {
+        List<String> names = normalize(tagNames);
+        List<String> missingNames = names.stream()
+                .filter(name -> !tagIdMap.containsKey(name))
+                .collect(Collectors.toList());
+        if (!missingNames.isEmpty()) {
+            // 其他实例登记的新标签
+            loadByNames(missingNames);
+        }
+        if (requireAll && !tagIdMap.keySet().containsAll(names)) {
+            return Collections.emptyList();
+        }
+        return toTagIds(names);
+    }
+
+    // endregion
+
+    // region 图片标签关联
+
+    /**
+     * 同步单张图片的标签关联（需与 picture.tags 的写入处于同一事务）
+     *
+     * @param pictureId 图片 id
+     * @param spaceId   图片所在空间 id，公共图库为 null
+     * @param tags      图片的完整标签列表
+     */
+    public void syncPictureTags(Long pictureId, Long spaceId, List<String> tags) {
+        syncPictureTags(Collections.singletonList(pictureId), spaceId, tags);
+    }
+
+    /**
+     * 同步一批图片的标签关联（这批图片使用相同的标签列表）
+     *
+     * @param pictureIds 图片 id 列表
+     * @param spaceId    图片所在空间 id，公共图库为 null
+     * @param tags       图片的完整标签列表
+     */
+    public void syncPictureTags(Collection<Long> pictureIds, Long spaceId, List<String> tags) {
+        if (CollUtil.isEmpty(pictureIds)) {
+            return;
+        }
+        List<Integer> tagIds = internTagIds(tags);
+        pictureTagRelMapper.delete(new LambdaQueryWrapper<PictureTagRel>()
+                .in(PictureTagRel::getPictureId, pictureIds));
+        pictureBitmapIndex.onTagsChanged(spaceId, pictureIds, tagIds);
+        if (tagIds.isEmpty()) {
+            return;
+        }
+        List<PictureTagRel> relList = new ArrayList<>(pictureIds.size() * tagIds.size());
+        for (Long pictureId : pictureIds) {
+            for (Integer tagId : tagIds) {
+                relList.add(buildRel(pictureId, tagId, spaceId));
+            }
+        }
+        pictureTagRelMapper.insertIgnoreBatch(relList);
+    }
+
+    /**
+     * 删除图片的标签关联（图片删除时调用）
+     *
+     * @param pictureId 图片 id
+     */
+    public void removePictureTags(Long pictureId) {
+        pictureTagRelMapper.delete(new LambdaQueryWrapper<PictureTagRel>()
+                .eq(PictureTagRel::getPictureId, pictureId));
+    }
+
+    /**
+     * 批量查询图片的标签名称
+     *
+     * @param pictureIds 图片 id 列表
+     * @return 图片 id -> 标签名称列表（保持写入顺序），没有关联的图片不在结果中
+     */
+    public Map<Long, List<String>> getTagNamesByPictureIds(Collection<Long> pictureIds) {
+        if (CollUtil.isEmpty(pictureIds)) {
+            return Collections.emptyMap();
+        }
+        List<PictureTagRel> relList = pictureTagRelMapper.selectList(new LambdaQueryWrapper<PictureTagRel>()
+                .select(PictureTagRel::getPictureId, PictureTagRel::getTagId)
+                .in(PictureTagRel::getPictureId, pictureIds)
+                .orderByAsc(PictureTagRel::getId));
+        loadByIds(relList.stream().map(PictureTagRel::getTagId).collect(Collectors.toSet()));
+        Map<Long, List<String>> tagNamesMap = new HashMap<>();
+        for (PictureTagRel rel : relList) {
+            String tagName = tagNameMap.get(rel.getTagId());
+            if (tagName != null) {
+                tagNamesMap.computeIfAbsent(rel.getPictureId(), id -> new ArrayList<>()).add(tagName);
+            }
+        }
+        return tagNamesMap;
+    }
+
+    /**
+     * 构造"带有任一标签的图片 id"子查询，用于 inSql 条件
+     *
+     * @param tagIds 标签 id 列表（不能为空）
+     * @return 子查询 SQL
+     */
+    public String buildPictureIdSubQuery(Collection<Integer> tagIds) {
+        return buildPictureIdSubQuery(tagIds, false);
+    }
+
+    /**
+     * 构造"带有任一/全部标签的图片 id"子查询，用于 inSql 条件
+     *
+     * @param tagIds   标签 id 列表（不能为空，已去重）
+     * @param matchAll true：包含全部标签；false：包含任一标签
+     * @return 子查询 SQL
+     */
+    public String buildPictureIdSubQuery(Collection<Integer> tagIds, boolean matchAll) {
+        String subQuery = "SELECT pictureId FROM picture_tag_rel WHERE tagId IN (" + CollUtil.join(tagIds, ",") + ")";
+        if (matchAll && tagIds.size() > 1) {
+            subQuery += " GROUP BY pictureId HAVING COUNT(*) = " + tagIds.size();
+        }
+        return subQuery;
+    }
+
+    /**
+     * 统计标签使用次数
+     *
+     * @param queryWrapper 关联表上的范围条件（如 spaceId）
+     * @return 标签名称 -> 使用该标签的图片数
+     */
+    public Map<String, Long> countTagUsage(QueryWrapper<PictureTagRel> queryWrapper) {
+        queryWrapper.select("tagId", "COUNT(*) AS count").groupBy("tagId");
+        List<Map<String, Object>> resultList = pictureTagRelMapper.selectMaps(queryWrapper);
+        Map<Integer, Long> countMap = new HashMap<>(resultList.size());
+        for (Map<String, Object> result : resultList) {
+            countMap.put(((Number) result.get("tagId")).intValue(), ((Number) result.get("count")).longValue());
+        }
+        loadByIds(countMap.keySet());
+        Map<String, Long> tagCountMap = new HashMap<>(countMap.size());
+        countMap.forEach((tagId, count) -> {
+            String tagName = tagNameMap.get(tagId);
+            if (tagName != null) {
+                tagCountMap.merge(tagName, count, Long::sum);
+            }
+        });
+        return tagCountMap;
+    }
+
+    /**
+     * 服务启动后回填历史图片的标签关联（仅处理有标签但尚无关联的图片，每张图片只解析一次 JSON）
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillPictureTags() {
+        long lastId = 0L;
+        int pictureCount = 0;
+        try {
+            while (true) {
+                List<Picture> pictureList = pictureMapper.selectList(new LambdaQueryWrapper<Picture>()
+                        .select(Picture::getId, Picture::getSpaceId, Picture::getTags)
+                        .gt(Picture::getId, lastId)
+                        .isNotNull(Picture::getTags)
+                        .notExists("SELECT 1 FROM picture_tag_rel r WHERE r.pictureId = picture.id")
+                        .orderByAsc(Picture::getId)
+                        .last("LIMIT " + BACKFILL_BATCH_SIZE));
+                if (pictureList.isEmpty()) {
+                    break;
+                }
+                List<PictureTagRel> relList = new ArrayList<>();
+                for (Picture picture : pictureList) {
+                    List<String> tags;
+                    try {
+                        tags = JSONUtil.toList(picture.getTags(), String.class);
+                    } catch (Exception e) {
+                        log.warn("解析图片标签失败，跳过回填，图片ID：{}，标签内容：{}", picture.getId(), picture.getTags());
+                        continue;
+                    }
+                    for (Integer tagId : internTagIds(tags)) {
+                        relList.add(buildRel(picture.getId(), tagId, picture.getSpaceId()));
+                    }
+                }
+                if (!relList.isEmpty()) {
+                    pictureTagRelMapper.insertIgnoreBatch(relList);
+                }
+                pictureCount += pictureList.size();
+                lastId = pictureList.get(pictureList.size() - 1).getId();
+            }
+            if (pictureCount > 0) {
+                log.info("历史图片标签关联回填完成，共处理 {} 张图片", pictureCount);
+            }
+        } catch (Exception e) {
+            log.error("历史图片标签关联回填失败，已处理 {} 张图片", pictureCount, e);
+        }
+    }
+
+    // endregion
+
+    /**
+     * 规范化标签名称：去除首尾空白、过滤空值与超长值、去重
+     */
+    private static List<String> normalize(Collection<String> tagNames) {
+        if (CollUtil.isEmpty(tagNames)) {
+            return Collections.emptyList();
+        }
+        return tagNames.stream()
+                .filter(StrUtil::isNotBlank)
+                .map(String::trim)
+                .filter(name -> name.length() <= MAX_TAG_LENGTH)
+                .distinct()
+                .collect(Collectors.toList());
+    }
+
+    private List<Integer> toTagIds(List<String> names) {
+        return names.stream()
+                .map(tagIdMap::get)
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 从数据库加载指定名称的标签；字典按排序规则比较（忽略大小写等），未精确命中的名称逐个登记别名
+     */
+    private void loadByNames(List<String> names) {
+        pictureTagDictMapper.selectList(new LambdaQueryWrapper<PictureTagDict>()
+                .in(PictureTagDict::getTagName, names)).forEach(this::cache);
+        for (String name : names) {
+            if (tagIdMap.containsKey(name)) {
+                continue;
+            }
+            PictureTagDict tagDict = pictureTagDictMapper.selectOne(new LambdaQueryWrapper<PictureTagDict>()
+                    .eq(PictureTagDict::getTagName, name)
+                    .last("LIMIT 1"));
+            if (tagDict != null) {
+                tagIdMap.put(name, tagDict.getId());
+            }
+        }
+    }
+
+    /**
+     * 从数据库加载缓存中缺失的标签 id
+     */
+    private void loadByIds(Collection<Integer> tagIds) {
+        List<Integer> missingIds = tagIds.stream()
+                .filter(tagId -> !tagNameMap.containsKey(tagId))
+                .distinct()
+                .collect(Collectors.toList());
+        if (!missingIds.isEmpty()) {
+            pictureTagDictMapper.selectBatchIds(missingIds).forEach(this::cache);
+        }
+    }
+
+    private void cache(PictureTagDict tagDict) {
+        tagIdMap.put(tagDict.getTagName(), tagDict.getId());
+        tagNameMap.put(tagDict.getId(), tagDict.getTagName());
+    }
+
+    private static PictureTagRel buildRel(Long pictureId, Integer tagId, Long spaceId) {
+        PictureTagRel rel = new PictureTagRel();
+        rel.setPictureId(pictureId);
+        rel.setTagId(tagId);
+        rel.setSpaceId(spaceId);
+        return rel;
+    }
+}
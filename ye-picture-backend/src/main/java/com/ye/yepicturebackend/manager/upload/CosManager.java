@@ -1,62 +1,85 @@
 package com.ye.yepicturebackend.manager.upload;
 
-import cn.hutool.core.io.FileUtil;
-import com.qcloud.cos.COSClient;
-import com.qcloud.cos.exception.CosClientException;
-import com.qcloud.cos.model.PutObjectRequest;
-import com.qcloud.cos.model.PutObjectResult;
-import com.qcloud.cos.model.ciModel.persistence.PicOperations;
+import cn.hutool.core.io.IoUtil;
+import com.ye.yepicturebackend.manager.image.ImageProcessConfig;
+import com.ye.yepicturebackend.manager.image.ImageProcessor;
+import com.ye.yepicturebackend.manager.storage.ObjectStorage;
+import com.ye.yepicturebackend.manager.storage.PictureStoreResult;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.Resource;
+import java.io.ByteArrayInputStream;
 import java.io.File;
-import java.util.ArrayList;
-import java.util.List;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.Collection;
 
+/**
+ * 对象存储管理器
+ * 上传、删除统一委托给当前生效的 {@link ObjectStorage} 实现（COS / 本地文件系统，由 storage.type 决定）；
+ * picture.process.mode=local 时，衍生图与元信息由应用内 {@link ImageProcessor} 生成，不依赖 COS 数据万象
+ */
+@Slf4j
 @Component
 public class CosManager {
 
     @Resource
-    private CosClientConfig cosClientConfig;
+    private ObjectStorage objectStorage;
 
     @Resource
-    private COSClient cosClient;
+    private ImageProcessor imageProcessor;
+
+    @Resource
+    private ImageProcessConfig imageProcessConfig;
 
     /**
-     * 上传图片文件到腾讯云COS并自动处理
+     * 上传图片文件并自动处理
      *
-     * @param key  原图在COS中的唯一存储标识
+     * @param key  原图的唯一存储标识
      * @param file 待上传的本地图片文件
-     * @return PutObjectResult 腾讯云COS返回的上传结果，包含：
-     * - 原图的存储信息（ETag、版本号等）
-     * - 图片处理结果（通过getPicInfo()获取原图信息及处理后文件的存储路径）
+     * @return PictureStoreResult 原图元信息及压缩图、缩略图的存储标识
      */
-    public PutObjectResult putPictureObject(String key, File file) {
-        PutObjectRequest putObjectRequest = new PutObjectRequest(cosClientConfig.getBucket(), key, file);
-        // 对图片进行处理
-        PicOperations picOperations = new PicOperations();
-        List<PicOperations.Rule> rules = new ArrayList<>();
-        picOperations.setIsPicInfo(1);  // 1 返回原图信息
-        // 图片压缩 (转成webp格式)
-        PicOperations.Rule compressRule = new PicOperations.Rule();
-        String webKey = FileUtil.mainName(key) + ".webp";
-        compressRule.setRule("imageMogr2/format/webp");
-        compressRule.setBucket(cosClientConfig.getBucket());
-        compressRule.setFileId(webKey);
-        rules.add(compressRule);
-        // 缩略图处理
-        if (file.length() > 2 * 1024) {
-            PicOperations.Rule thumbnailRule = new PicOperations.Rule();
-            String thumbnailKey = FileUtil.mainName(key) + "_thumbnail." + FileUtil.getSuffix(key);
-            thumbnailRule.setRule(String.format("imageMogr2/thumbnail/%sx%s>", 256, 256));
-            thumbnailRule.setBucket(cosClientConfig.getBucket());
-            thumbnailRule.setFileId(thumbnailKey);
-            rules.add(thumbnailRule);
+    public PictureStoreResult putPictureObject(String key, File file) {
+        if (imageProcessConfig.isLocalMode()) {
+            byte[] data;
+            try {
+                data = Files.readAllBytes(file.toPath());
+            } catch (IOException e) {
+                throw new UncheckedIOException("读取图片文件失败：" + file.getAbsolutePath(), e);
+            }
+            PictureStoreResult result = imageProcessor.processAndStore(
+                    objectStorage, key, data, data.length > 2 * 1024);
+            if (result != null) {
+                return result;
+            }
+            log.warn("应用内无法解码图片，交由存储端处理（key：{}）", key);
         }
-        // 构造处理参数
-        picOperations.setRules(rules);
-        putObjectRequest.setPicOperations(picOperations);
-        return cosClient.putObject(putObjectRequest);
+        return objectStorage.putPicture(key, file);
+    }
+
+    /**
+     * 以流的方式上传图片并自动处理（不落地临时文件）
+     *
+     * @param key           原图的唯一存储标识
+     * @param inputStream   图片数据流
+     * @param contentLength 数据长度（字节），未知时传 -1
+     * @return PictureStoreResult 原图元信息及压缩图、缩略图的存储标识
+     */
+    public PictureStoreResult putPictureObject(String key, InputStream inputStream, long contentLength) {
+        if (imageProcessConfig.isLocalMode()) {
+            byte[] data = IoUtil.readBytes(inputStream);
+            PictureStoreResult result = imageProcessor.processAndStore(
+                    objectStorage, key, data, data.length > 2 * 1024);
+            if (result != null) {
+                return result;
+            }
+            log.warn("应用内无法解码图片，交由存储端处理（key：{}）", key);
+            return objectStorage.putPicture(key, new ByteArrayInputStream(data), data.length);
+        }
+        return objectStorage.putPicture(key, inputStream, contentLength);
     }
 
     /**
@@ -64,8 +87,17 @@ public class CosManager {
      *
      * @param key 文件 key
      */
-    public void deleteObject(String key) throws CosClientException {
-        cosClient.deleteObject(cosClientConfig.getBucket(), key);
+    public void deleteObject(String key) {
+        objectStorage.deleteObject(key);
+    }
+
+    /**
+     * 批量删除对象
+     *
+     * @param keys 文件 key 集合
+     */
+    public void deleteObjects(Collection<String> keys) {
+        objectStorage.deleteObjects(keys);
     }
 
 }
@@ -0,0 +1,91 @@
+package com.ye.yepicturebackend.manager.upload;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 限时输入流
+ * 到达读取期限时由看门狗线程关闭底层流，阻塞中的读取随即结束；
+ * 超时后读到的流结束（底层流关闭后可能表现为 -1）或异常统一改为超时异常，避免把截断的数据当作完整内容，
+ * 用于 HTTP 响应体等读取超时只覆盖响应头的数据流
+ */
+@Slf4j
+public class DeadlineInputStream extends FilterInputStream {
+
+    /**
+     * 读取期限（毫秒），用于异常信息
+     */
+    private final long timeoutMillis;
+
+    /**
+     * 看门狗任务，正常关闭时取消
+     */
+    private final ScheduledFuture<?> watchdog;
+
+    /**
+     * 是否因到达期限而被关闭
+     */
+    @Getter
+    private volatile boolean timedOut;
+
+    public DeadlineInputStream(InputStream in, ScheduledExecutorService scheduler, long timeoutMillis) {
+        super(in);
+        this.timeoutMillis = timeoutMillis;
+        this.watchdog = scheduler.schedule(this::expire, timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public int read() throws IOException {
+        try {
+            return checkEnd(super.read());
+        } catch (IOException e) {
+            throw timeoutOr(e);
+        }
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        try {
+            return checkEnd(super.read(b, off, len));
+        } catch (IOException e) {
+            throw timeoutOr(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchdog.cancel(false);
+        super.close();
+    }
+
+    private void expire() {
+        timedOut = true;
+        try {
+            in.close();
+        } catch (IOException e) {
+            log.warn("关闭超时的数据流失败", e);
+        }
+    }
+
+    private int checkEnd(int n) throws IOException {
+        if (n == -1 && timedOut) {
+            throw timeoutException();
+        }
+        return n;
+    }
+
+    private IOException timeoutOr(IOException e) {
+        return timedOut ? timeoutException() : e;
+    }
+
+    private IOException timeoutException() {
+        return new IOException("数据读取超过 " + timeoutMillis + " 毫秒");
+    }
+}
@@ -63,4 +63,17 @@ public class FilePictureUpload extends PictureUploadTemplate {
         MultipartFile multipartFile = (MultipartFile) inputSource;
         multipartFile.transferTo(file);
     }
+
+    /**
+     * 打开本地文件输入源的数据流（内存缓冲上传，不落地临时文件）
+     *
+     * @param inputSource 输入源，实际类型为MultipartFile（前端上传的文件对象）
+     * @return UploadStream 文件数据流，长度取自 MultipartFile#getSize
+     * @throws Exception 当读取上传文件失败时抛出
+     */
+    @Override
+    protected UploadStream openStream(Object inputSource) throws Exception {
+        MultipartFile multipartFile = (MultipartFile) inputSource;
+        return new UploadStream(multipartFile.getInputStream(), multipartFile.getSize(), null);
+    }
 }
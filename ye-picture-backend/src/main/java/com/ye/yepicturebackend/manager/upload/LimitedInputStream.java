@@ -0,0 +1,80 @@
+package com.ye.yepicturebackend.manager.upload;
+
+import lombok.Getter;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 限长计数输入流
+ * 在数据流经时累计已读取的字节数，一旦超过上限立即中断读取，
+ * 用于读取输入源时边读边校验文件大小（不依赖 Content-Length）
+ */
+public class LimitedInputStream extends FilterInputStream {
+
+    /**
+     * 允许读取的最大字节数
+     */
+    private final long maxBytes;
+
+    /**
+     * 已读取的字节数
+     */
+    @Getter
+    private long count;
+
+    /**
+     * 是否因超过上限而中断
+     */
+    @Getter
+    private boolean exceeded;
+
+    public LimitedInputStream(InputStream in, long maxBytes) {
+        super(in);
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b != -1) {
+            afterRead(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = super.read(b, off, len);
+        if (n > 0) {
+            afterRead(n);
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        if (skipped > 0) {
+            afterRead(skipped);
+        }
+        return skipped;
+    }
+
+    /**
+     * 不支持 mark/reset，避免重复计数
+     */
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    private void afterRead(long n) throws IOException {
+        count += n;
+        if (count > maxBytes) {
+            exceeded = true;
+            throw new IOException("文件大小超过上限 " + maxBytes + " 字节");
+        }
+    }
+}
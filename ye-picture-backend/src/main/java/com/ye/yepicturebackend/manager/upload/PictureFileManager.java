@@ -0,0 +1,226 @@
+package com.ye.yepicturebackend.manager.upload;
+
+import cn.hutool.core.util.StrUtil;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.ye.yepicturebackend.mapper.PictureFileMapper;
+import com.ye.yepicturebackend.model.dto.picture.upload.UploadResult;
+import com.ye.yepicturebackend.model.entity.PictureFile;
+import com.ye.yepicturebackend.exception.BusinessException;
+import com.ye.yepicturebackend.exception.ErrorCode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 图片文件管理器（内容寻址去重 + 引用计数）
+ * <p>
+ * 以原图内容的 SHA-256 作为唯一标识：
+ * - 上传时命中已存储的相同内容，直接复用原图/压缩图/缩略图，跳过 COS 上传与图片处理
+ * - 上传得到的文件即持有一个引用（新登记的文件初始计数为 1，复用的文件先原子地 +1），
+ *   由图片记录入库继承；入库失败时释放，删除图片时 -1，计数归零才真正删除对象存储中的文件
+ * - 计数归零但未能清理的文件（如进程在释放与清理之间退出）由定时任务兜底回收
+ * </p>
+ */
+@Slf4j
+@Component
+public class PictureFileManager {
+
+    /**
+     * 并发登记相同内容时的最大重试次数
+     */
+    private static final int MAX_REGISTER_ATTEMPTS = 3;
+
+    /**
+     * 每次回收的最大文件数
+     */
+    private static final int SWEEP_BATCH_SIZE = 100;
+
+    @Resource
+    private PictureFileMapper pictureFileMapper;
+
+    @Resource
+    private CosManager cosManager;
+
+    @Resource
+    private PictureUploadConfig pictureUploadConfig;
+
+    /**
+     * 根据内容哈希查询已存储的图片文件
+     *
+     * @param fileHash 原图内容 SHA-256
+     * @return PictureFile 已存储的图片文件，不存在时返回 null
+     */
+    public PictureFile getByHash(String fileHash) {
+        if (StrUtil.isBlank(fileHash)) {
+            return null;
+        }
+        return pictureFileMapper.selectOne(new LambdaQueryWrapper<PictureFile>()
+                .eq(PictureFile::getFileHash, fileHash));
+    }
+
+    /**
+     * 复用已存储的图片文件：先原子地增加引用计数，再读取文件记录
+     * 计数成功后文件不会被并发清理；读取的是加计数之后的记录，不会拿到已被清理后重新登记前的旧存储标识
+     *
+     * @param fileHash 原图内容 SHA-256
+     * @return PictureFile 已持有引用的图片文件，不存在时返回 null
+     */
+    public PictureFile acquireExisting(String fileHash) {
+        if (StrUtil.isBlank(fileHash) || !acquire(fileHash)) {
+            return null;
+        }
+        PictureFile pictureFile = getByHash(fileHash);
+        if (pictureFile == null) {
+            // 持有引用的记录不会被删除，出现时说明数据被外部修改
+            log.error("图片文件引用计数成功但记录不存在（fileHash：{}）", fileHash);
+        }
+        return pictureFile;
+    }
+
+    /**
+     * 登记新上传的图片文件（初始引用计数为 1，由本次上传持有）
+     * 若相同内容已被登记，改为复用已有文件并持有其引用，调用方需清理本次上传的对象
+     *
+     * @param uploadResult 上传结果（需包含 fileHash）
+     * @return PictureFile 最终生效且已持有引用的图片文件记录
+     */
+    public PictureFile register(UploadResult uploadResult) {
+        String fileHash = uploadResult.getFileHash();
+        for (int attempt = 0; attempt < MAX_REGISTER_ATTEMPTS; attempt++) {
+            PictureFile storedFile = acquireExisting(fileHash);
+            if (storedFile != null) {
+                log.info("相同内容的图片已被登记，复用已有文件（fileHash：{}）", fileHash);
+                return storedFile;
+            }
+            PictureFile pictureFile = new PictureFile();
+            pictureFile.setFileHash(fileHash);
+            pictureFile.setOriginKey(uploadResult.getOriginKey());
+            pictureFile.setCompressKey(uploadResult.getCompressKey());
+            pictureFile.setThumbnailKey(uploadResult.getThumbnailKey());
+            pictureFile.setPicSize(uploadResult.getPicSize());
+            pictureFile.setPicWidth(uploadResult.getPicWidth());
+            pictureFile.setPicHeight(uploadResult.getPicHeight());
+            pictureFile.setPicScale(uploadResult.getPicScale());
+            pictureFile.setPicFormat(uploadResult.getPicFormat());
+            pictureFile.setPicColor(uploadResult.getPicColor());
+            pictureFile.setRefCount(1);
+            try {
+                pictureFileMapper.insert(pictureFile);
+                return pictureFile;
+            } catch (DuplicateKeyException e) {
+                // 并发登记了相同内容，重新尝试复用（对方的记录也可能刚被清理）
+                log.info("相同内容的图片已被并发登记（fileHash：{}）", fileHash);
+            }
+        }
+        throw new BusinessException(ErrorCode.OPERATION_ERROR, "图片文件登记失败，请稍后重试");
+    }
+
+    /**
+     * 增加引用计数
+     *
+     * @param fileHash 原图内容 SHA-256
+     * @return 是否成功（文件记录已被清理时返回 false）
+     */
+    public boolean acquire(String fileHash) {
+        return pictureFileMapper.update(null, new LambdaUpdateWrapper<PictureFile>()
+                .setSql("refCount = refCount + 1")
+                .eq(PictureFile::getFileHash, fileHash)) > 0;
+    }
+
+    /**
+     * 减少引用计数
+     *
+     * @param fileHash 原图内容 SHA-256
+     * @return 剩余引用计数；文件记录不存在时返回 -1
+     */
+    public int release(String fileHash) {
+        pictureFileMapper.update(null, new LambdaUpdateWrapper<PictureFile>()
+                .setSql("refCount = refCount - 1")
+                .eq(PictureFile::getFileHash, fileHash)
+                .gt(PictureFile::getRefCount, 0));
+        PictureFile pictureFile = getByHash(fileHash);
+        return pictureFile == null ? -1 : pictureFile.getRefCount();
+    }
+
+    /**
+     * 删除已无引用的图片文件记录
+     * 仅当引用计数仍为 0 时删除，防止与并发复用产生竞争
+     *
+     * @param fileHash 原图内容 SHA-256
+     * @return 是否删除成功（成功后调用方才可清理对象存储）
+     */
+    public boolean removeIfUnreferenced(String fileHash) {
+        return pictureFileMapper.delete(new LambdaQueryWrapper<PictureFile>()
+                .eq(PictureFile::getFileHash, fileHash)
+                .eq(PictureFile::getRefCount, 0)) > 0;
+    }
+
+    /**
+     * 回收引用计数为 0 且超过保留时间的图片文件（释放后未能清理的文件）
+     * 删除记录时再次确认计数为 0，多实例同时执行时只有删除成功的一方清理对象存储
+     */
+    @Scheduled(fixedDelayString = "#{@pictureUploadConfig.orphanSweepMinutes * 60000}",
+            initialDelayString = "#{@pictureUploadConfig.orphanSweepMinutes * 60000}")
+    public void sweepUnreferenced() {
+        Date deadline = new Date(System.currentTimeMillis()
+                - pictureUploadConfig.getOrphanRetentionMinutes() * 60_000L);
+        List<PictureFile> pictureFileList = pictureFileMapper.selectList(new LambdaQueryWrapper<PictureFile>()
+                .eq(PictureFile::getRefCount, 0)
+                .lt(PictureFile::getUpdateTime, deadline)
+                .last("LIMIT " + SWEEP_BATCH_SIZE));
+        int swept = 0;
+        for (PictureFile pictureFile : pictureFileList) {
+            if (!removeIfUnreferenced(pictureFile.getFileHash())) {
+                continue;
+            }
+            Set<String> keys = new LinkedHashSet<>();
+            for (String key : Arrays.asList(pictureFile.getOriginKey(), pictureFile.getCompressKey(),
+                    pictureFile.getThumbnailKey())) {
+                if (StrUtil.isNotBlank(key)) {
+                    keys.add(key);
+                }
+            }
+            try {
+                cosManager.deleteObjects(keys);
+                swept++;
+            } catch (Exception e) {
+                log.error("回收无引用的图片文件失败（fileHash：{}，keys：{}）", pictureFile.getFileHash(), keys, e);
+            }
+        }
+        if (swept > 0) {
+            log.info("已回收无引用的图片文件 {} 个", swept);
+        }
+    }
+
+    /**
+     * 由已存储的图片文件构造上传结果（复用存储对象，无需重新上传）
+     *
+     * @param pictureFile 已存储的图片文件
+     * @param picName     图片名称
+     * @return UploadResult 上传结果
+     */
+    public UploadResult toUploadResult(PictureFile pictureFile, String picName) {
+        UploadResult result = new UploadResult();
+        result.setPicName(picName);
+        result.setFileHash(pictureFile.getFileHash());
+        result.setOriginKey(pictureFile.getOriginKey());
+        result.setCompressKey(pictureFile.getCompressKey());
+        result.setThumbnailKey(pictureFile.getThumbnailKey());
+        result.setPicSize(pictureFile.getPicSize());
+        result.setPicWidth(pictureFile.getPicWidth() == null ? 0 : pictureFile.getPicWidth());
+        result.setPicHeight(pictureFile.getPicHeight() == null ? 0 : pictureFile.getPicHeight());
+        result.setPicScale(pictureFile.getPicScale());
+        result.setPicFormat(pictureFile.getPicFormat());
+        result.setPicColor(pictureFile.getPicColor());
+        return result;
+    }
+}
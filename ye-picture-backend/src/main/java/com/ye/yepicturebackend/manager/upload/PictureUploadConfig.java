@@ -0,0 +1,124 @@
+package com.ye.yepicturebackend.manager.upload;
+
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 图片上传配置
+ */
+@Configuration
+@ConfigurationProperties(prefix = "picture.upload")
+@Data
+public class PictureUploadConfig {
+
+    /**
+     * 是否不落地临时文件
+     * - true：输入源（文件流 / HTTP 响应体）在 3M 上限内读入内存，计算内容哈希后再上传
+     * - false：先写入本地临时文件，计算内容哈希后再上传
+     * 两种方式命中已存储的相同内容时均跳过对象存储上传与图片处理
+     */
+    private boolean streaming = true;
+
+    /**
+     * URL上传：建立连接超时时间（毫秒）
+     */
+    private long urlConnectTimeoutMillis = 5000;
+
+    /**
+     * URL上传：等待响应超时时间（毫秒）
+     */
+    private long urlReadTimeoutMillis = 10000;
+
+    /**
+     * URL上传：整体下载期限（毫秒），从发送请求到读完响应体，超过后中断下载
+     */
+    private long urlDownloadTimeoutMillis = 30000;
+
+    /**
+     * 异步上传：下载阶段线程数（IO 密集）
+     */
+    private int ingestThreads = 8;
+
+    /**
+     * 异步上传：处理入库阶段线程数
+     */
+    private int persistThreads = 4;
+
+    /**
+     * 异步上传：每个阶段的等待队列容量，队列满时拒绝新任务
+     */
+    private int taskQueueCapacity = 200;
+
+    /**
+     * 异步上传：任务状态保留时间（分钟）
+     */
+    private long taskTtlMinutes = 60;
+
+    /**
+     * 无引用图片文件的保留时间（分钟）：引用计数为 0 且超过该时间未更新的文件由定时任务回收
+     */
+    private long orphanRetentionMinutes = 30;
+
+    /**
+     * 无引用图片文件的回收间隔（分钟）
+     */
+    private long orphanSweepMinutes = 10;
+
+    /**
+     * URL上传共享的 HTTP 客户端（内置连接池，复用到同一远程主机的连接）
+     */
+    @Bean(name = "pictureHttpClient")
+    public HttpClient pictureHttpClient() {
+        return HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(urlConnectTimeoutMillis))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+
+    /**
+     * URL上传下载期限看门狗：到期时关闭响应体（任务在正常读完后取消并移出队列）
+     */
+    @Bean(name = "urlDownloadWatchdog", destroyMethod = "shutdownNow")
+    public ScheduledThreadPoolExecutor urlDownloadWatchdog() {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1,
+                ThreadFactoryBuilder.create().setNamePrefix("urlDownloadWatchdog-").setDaemon(true).build());
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+
+    /**
+     * 异步上传下载阶段线程池
+     */
+    @Bean(name = "uploadIngestExecutor", destroyMethod = "shutdown")
+    public ThreadPoolExecutor uploadIngestExecutor() {
+        return new ThreadPoolExecutor(
+                ingestThreads, ingestThreads,
+                60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(taskQueueCapacity),
+                ThreadFactoryBuilder.create().setNamePrefix("uploadIngest-").build(),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * 异步上传处理入库阶段线程池
+     */
+    @Bean(name = "uploadPersistExecutor", destroyMethod = "shutdown")
+    public ThreadPoolExecutor uploadPersistExecutor() {
+        return new ThreadPoolExecutor(
+                persistThreads, persistThreads,
+                60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(taskQueueCapacity),
+                ThreadFactoryBuilder.create().setNamePrefix("uploadPersist-").build(),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+}
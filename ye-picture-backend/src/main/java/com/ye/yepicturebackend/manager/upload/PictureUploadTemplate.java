@@ -1,24 +1,27 @@
 package com.ye.yepicturebackend.manager.upload;
 
-import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.date.DateUtil;
 import cn.hutool.core.io.FileUtil;
 import cn.hutool.core.util.NumberUtil;
 import cn.hutool.core.util.RandomUtil;
 import cn.hutool.core.util.StrUtil;
-import com.qcloud.cos.model.PutObjectResult;
-import com.qcloud.cos.model.ciModel.persistence.CIObject;
-import com.qcloud.cos.model.ciModel.persistence.ImageInfo;
-import com.qcloud.cos.model.ciModel.persistence.ProcessResults;
+import cn.hutool.crypto.digest.DigestUtil;
 import com.ye.yepicturebackend.exception.BusinessException;
 import com.ye.yepicturebackend.exception.ErrorCode;
+import com.ye.yepicturebackend.exception.ThrowUtils;
+import com.ye.yepicturebackend.manager.storage.PictureStoreResult;
 import com.ye.yepicturebackend.model.dto.picture.upload.UploadResult;
+import com.ye.yepicturebackend.model.entity.PictureFile;
 import lombok.extern.slf4j.Slf4j;
 
 import javax.annotation.Resource;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.Date;
-import java.util.List;
+import java.util.LinkedHashSet;
 
 
 /**
@@ -33,16 +36,31 @@ public abstract class PictureUploadTemplate {
     @Resource
     private CosManager cosManager;
 
+    @Resource
+    private PictureUploadConfig pictureUploadConfig;
+
+    @Resource
+    private PictureFileManager pictureFileManager;
+
+    /**
+     * 图片大小上限：3M
+     */
+    protected static final long MAX_FILE_SIZE = 3 * 1024 * 1024L;
+
     /**
      * 上传图片到腾讯云COS（重构：明确原图/压缩图/缩略图地址映射）
      *
      * @param inputSource      本地图片输入源对象（支持URL、File等）
      * @param uploadPathPrefix 图片在COS中的存储路径前缀（如"user/123"）
-     * @return UploadPictureResult 图片上传结果封装对象（含原图+压缩图+缩略图完整信息）
+     * @param recorder         上传指标记录器
+     * @return UploadPictureResult 图片上传结果封装对象（含原图+压缩图+缩略图完整信息），
+     * 结果中的图片文件已持有一个引用，调用方入库失败时需释放
      */
-    public UploadResult uploadPicture(Object inputSource, String uploadPathPrefix) {
+    public UploadResult uploadPicture(Object inputSource, String uploadPathPrefix, UploadMetrics.Recorder recorder) {
         // 1. 校验图片合法性
+        long start = System.nanoTime();
         validPicture(inputSource);
+        recorder.record(UploadMetrics.STAGE_VALIDATE, start);
         // 2. 构建上传文件名和图片存储路径
         String uuid = RandomUtil.randomString(8);
         String originFilename = getOriginFilename(inputSource);
@@ -53,32 +71,216 @@ public abstract class PictureUploadTemplate {
         String originUploadFilename = String.format("%s_%s.%s", DateUtil.formatDate(new Date()), uuid, fileSuffix);
         // COS的完整存储路径
         String originUploadPath = String.format("/%s/origin/%s", uploadPathPrefix, originUploadFilename);
-        File tempFile = null;
         try {
-            // 3. 创建临时文件
-            tempFile = File.createTempFile("origin_pic_", fileSuffix);
-            processFile(inputSource, tempFile);
-            // 4. 调用COS管理工具上传图片
-            PutObjectResult putObjectResult = cosManager.putPictureObject(originUploadPath, tempFile);
-            // 5. 提取COS返回的元信息（原图+压缩图+缩略图）
-            ImageInfo originImageInfo = putObjectResult.getCiUploadResult().getOriginalInfo().getImageInfo();
-            ProcessResults processResults = putObjectResult.getCiUploadResult().getProcessResults();
-            List<CIObject> ciObjectList = processResults.getObjectList();
-            // 6. 构建完整结果（原图信息 + 压缩图/缩略图信息）
-            UploadResult result = new UploadResult();
-            // 原图片
-            fillOriginPictureInfo(result, originImageInfo, originFilename, tempFile, originUploadPath);
-            // 压缩图和缩略图
-            fillCompressAndThumbnailInfo(result, ciObjectList);
-            return result;
+            // 3. 上传原图（内存缓冲 / 临时文件）并获取COS返回结果
+            if (pictureUploadConfig.isStreaming()) {
+                return uploadByMemory(inputSource, originFilename, originUploadPath, recorder);
+            }
+            return uploadByTempFile(inputSource, originFilename, fileSuffix, originUploadPath, recorder);
+        } catch (BusinessException e) {
+            throw e;
         } catch (Exception e) {
             log.error("图片上传到腾讯云COS失败（输入源：{}，路径前缀：{}）", inputSource, uploadPathPrefix, e);
             throw new BusinessException(ErrorCode.SYSTEM_ERROR, "图片上传失败：" + e.getMessage());
+        }
+    }
+
+    /**
+     * 内存缓冲上传：输入源数据在大小上限内读入内存（不落地临时文件），先计算 SHA-256 再决定是否上传
+     * 相同内容已存储时直接复用，跳过对象存储写入与图片处理；picSize 取实际读取的字节数
+     *
+     * @param inputSource      图片输入源对象
+     * @param originFilename   清洗后的原始文件名
+     * @param originUploadPath 原图在COS的存储路径
+     * @param recorder         上传指标记录器
+     * @return UploadResult 图片上传结果
+     */
+    private UploadResult uploadByMemory(Object inputSource, String originFilename,
+                                        String originUploadPath, UploadMetrics.Recorder recorder) throws Exception {
+        // 1. 读取数据并计算内容哈希
+        long start = System.nanoTime();
+        byte[] data;
+        try (UploadStream uploadStream = openStream(inputSource)) {
+            data = readLimited(uploadStream);
+        }
+        String fileHash = DigestUtil.sha256Hex(data);
+        recorder.record(UploadMetrics.STAGE_DOWNLOAD, start);
+        recorder.recordBytes(data.length);
+        // 2. 相同内容已存储：持有其引用后直接复用，跳过COS上传与图片处理
+        PictureFile storedFile = pictureFileManager.acquireExisting(fileHash);
+        if (storedFile != null) {
+            log.info("图片内容已存在，复用已存储文件（fileHash：{}，originKey：{}）", fileHash, storedFile.getOriginKey());
+            return pictureFileManager.toUploadResult(storedFile, FileUtil.mainName(originFilename));
+        }
+        // 3. 按实际长度上传
+        start = System.nanoTime();
+        PictureStoreResult storeResult = cosManager.putPictureObject(originUploadPath,
+                new ByteArrayInputStream(data), data.length);
+        recorder.record(UploadMetrics.STAGE_STORE, start);
+        UploadResult result = buildUploadResult(storeResult, originFilename, data.length);
+        return registerPictureFile(result, fileHash);
+    }
+
+    /**
+     * 暂存输入源：校验后将图片数据完整读入内存（受 3M 上限约束），供异步上传在请求结束后继续处理
+     *
+     * @param inputSource 图片输入源对象
+     * @return StagedPicture 已暂存的图片数据
+     */
+    public StagedPicture stage(Object inputSource) {
+        validPicture(inputSource);
+        String originFilename = cleanFilename(getOriginFilename(inputSource));
+        try (UploadStream uploadStream = openStream(inputSource)) {
+            return new StagedPicture(UploadMetrics.sourceOf(inputSource), originFilename,
+                    readLimited(uploadStream));
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("图片暂存失败（输入源：{}）", inputSource, e);
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "图片暂存失败：" + e.getMessage());
+        }
+    }
+
+    /**
+     * 在大小上限内读取全部数据，超过上限立即中断
+     *
+     * @param uploadStream 图片数据流
+     * @return byte[] 图片数据
+     */
+    private byte[] readLimited(UploadStream uploadStream) throws IOException {
+        long contentLength = uploadStream.getContentLength();
+        ThrowUtils.throwIf(contentLength > MAX_FILE_SIZE,
+                ErrorCode.PARAMS_ERROR, "文件大小不能超过 3M");
+        LimitedInputStream limitedInputStream =
+                new LimitedInputStream(uploadStream.getInputStream(), MAX_FILE_SIZE);
+        ByteArrayOutputStream outputStream =
+                new ByteArrayOutputStream(contentLength > 0 ? (int) contentLength : 64 * 1024);
+        byte[] buffer = new byte[8192];
+        int len;
+        try {
+            while ((len = limitedInputStream.read(buffer)) != -1) {
+                outputStream.write(buffer, 0, len);
+            }
+        } catch (IOException e) {
+            // 流经字节数超限导致的中断，按参数错误处理
+            ThrowUtils.throwIf(limitedInputStream.isExceeded(),
+                    ErrorCode.PARAMS_ERROR, "文件大小不能超过 3M");
+            throw e;
+        }
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * 临时文件上传：先将输入源写入本地临时文件，再上传到COS
+     *
+     * @param inputSource      图片输入源对象
+     * @param originFilename   清洗后的原始文件名
+     * @param fileSuffix       文件后缀
+     * @param originUploadPath 原图在COS的存储路径
+     * @param recorder         上传指标记录器
+     * @return UploadResult 图片上传结果
+     */
+    private UploadResult uploadByTempFile(Object inputSource, String originFilename, String fileSuffix,
+                                          String originUploadPath, UploadMetrics.Recorder recorder) throws Exception {
+        File tempFile = null;
+        try {
+            // 创建临时文件
+            long start = System.nanoTime();
+            tempFile = File.createTempFile("origin_pic_", fileSuffix);
+            processFile(inputSource, tempFile);
+            String fileHash = DigestUtil.sha256Hex(tempFile);
+            recorder.record(UploadMetrics.STAGE_DOWNLOAD, start);
+            recorder.recordBytes(tempFile.length());
+            // 相同内容已存储：持有其引用后直接复用，跳过COS上传与图片处理
+            PictureFile storedFile = pictureFileManager.acquireExisting(fileHash);
+            if (storedFile != null) {
+                log.info("图片内容已存在，复用已存储文件（fileHash：{}，originKey：{}）", fileHash, storedFile.getOriginKey());
+                return pictureFileManager.toUploadResult(storedFile, FileUtil.mainName(originFilename));
+            }
+            // 调用COS管理工具上传图片
+            start = System.nanoTime();
+            PictureStoreResult storeResult = cosManager.putPictureObject(originUploadPath, tempFile);
+            recorder.record(UploadMetrics.STAGE_STORE, start);
+            long picSize;
+            try {
+                picSize = FileUtil.size(tempFile);
+            } catch (Exception e) {
+                log.warn("获取原图片大小失败（文件名：{}），使用默认值0", originFilename, e);
+                picSize = 0L;
+            }
+            UploadResult result = buildUploadResult(storeResult, originFilename, picSize);
+            return registerPictureFile(result, fileHash);
         } finally {
-            // 7. 清理临时文件
+            // 清理临时文件
             deleteTempFile(tempFile);
         }
     }
+
+    /**
+     * 登记新上传的图片文件（返回的文件已持有一个引用）
+     * 若相同内容已被并发上传并登记，则删除本次上传的对象并复用已有文件
+     *
+     * @param result   本次上传结果
+     * @param fileHash 原图内容 SHA-256
+     * @return UploadResult 最终生效的上传结果
+     */
+    private UploadResult registerPictureFile(UploadResult result, String fileHash) {
+        result.setFileHash(fileHash);
+        PictureFile pictureFile;
+        try {
+            pictureFile = pictureFileManager.register(result);
+        } catch (RuntimeException e) {
+            // 登记失败时本次上传的对象无人引用，立即清理
+            deleteStoredObjects(result.getOriginKey(), result.getCompressKey(), result.getThumbnailKey());
+            throw e;
+        }
+        if (result.getOriginKey().equals(pictureFile.getOriginKey())) {
+            return result;
+        }
+        // 清理本次重复上传的对象
+        deleteStoredObjects(result.getOriginKey(), result.getCompressKey(), result.getThumbnailKey());
+        return pictureFileManager.toUploadResult(pictureFile, result.getPicName());
+    }
+
+    /**
+     * 删除本次上传写入的对象（失败仅记录日志）
+     *
+     * @param keys 原图、压缩图、缩略图的存储标识，可为空
+     */
+    private void deleteStoredObjects(String... keys) {
+        for (String key : new LinkedHashSet<>(Arrays.asList(keys))) {
+            if (StrUtil.isBlank(key)) {
+                continue;
+            }
+            try {
+                cosManager.deleteObject(key);
+            } catch (Exception e) {
+                log.warn("清理本次上传的对象失败（key：{}）", key, e);
+            }
+        }
+    }
+
+    /**
+     * 根据存储结果构建完整的上传结果（原图信息 + 压缩图/缩略图信息）
+     *
+     * @param storeResult    对象存储返回的图片存储结果
+     * @param originFilename 原始文件名
+     * @param picSize        原图大小（字节）
+     * @return UploadResult 图片上传结果
+     */
+    private UploadResult buildUploadResult(PictureStoreResult storeResult, String originFilename, long picSize) {
+        UploadResult result = new UploadResult();
+        // 原图片
+        fillOriginPictureInfo(result, storeResult, originFilename, picSize);
+        // 压缩图和缩略图
+        if (StrUtil.isBlank(storeResult.getCompressKey())) {
+            log.warn("对象存储未返回压缩图/缩略图信息，仅返回原图片");
+        }
+        result.setCompressKey(storeResult.getCompressKey());
+        result.setThumbnailKey(storeResult.getThumbnailKey());
+        return result;
+    }
+
     /**
      * 【新增】清洗文件名，剔除URL查询参数和非法字符
      */
@@ -98,55 +300,29 @@ public abstract class PictureUploadTemplate {
     /**
      * 填充原图片基础信息
      *
-     * @param result           上传结果对象（待填充）
-     * @param originImageInfo  COS返回的原图片元信息
-     * @param originFilename   原始文件名（用于提取图片名称）
-     * @param tempFile         原图片临时文件（用于获取文件大小）
-     * @param originUploadPath 原图片在COS的存储路径（用于构建访问URL）
+     * @param result         上传结果对象（待填充）
+     * @param storeResult    对象存储返回的原图元信息
+     * @param originFilename 原始文件名（用于提取图片名称）
+     * @param picSize        原图片大小（字节）
      */
     private void fillOriginPictureInfo(
-            UploadResult result, ImageInfo originImageInfo,
-            String originFilename, File tempFile, String originUploadPath) {
-        // 图片宽高
-        int originWidth = originImageInfo.getWidth();
-        int originHeight = originImageInfo.getHeight();
-        double picScale = NumberUtil.round(originWidth * 1.0 / originHeight, 2).doubleValue();
+            UploadResult result, PictureStoreResult storeResult,
+            String originFilename, long picSize) {
+        // 图片宽高（无法解析时宽高为 0，比例按 0 处理）
+        int originWidth = storeResult.getPicWidth();
+        int originHeight = storeResult.getPicHeight();
+        double picScale = originHeight == 0 ? 0 : NumberUtil.round(originWidth * 1.0 / originHeight, 2).doubleValue();
         // 设置结果属性
         result.setPicName(FileUtil.mainName(originFilename));
-        result.setPicFormat(originImageInfo.getFormat());
+        result.setPicFormat(storeResult.getPicFormat());
         result.setPicWidth(originWidth);
         result.setPicHeight(originHeight);
         result.setPicScale(picScale);
-        result.setPicColor(originImageInfo.getAve());
-        try {
-            result.setPicSize(FileUtil.size(tempFile));
-        } catch (Exception e) {
-            log.warn("获取原图片大小失败（文件名：{}），使用默认值0", originFilename, e);
-            result.setPicSize(0L);
-        }
-
-        // 存储标准化的 COS Key
-        String normalizedKey = originUploadPath.startsWith("/") ? originUploadPath.substring(1) : originUploadPath;
-        result.setOriginKey(normalizedKey);
-    }
-
-    /**
-     * 填充压缩图和缩略图信息
-     *
-     * @param result       上传结果对象（待填充）
-     * @param ciObjectList COS返回的CI处理对象列表（含压缩图、缩略图）
-     */
-    private void fillCompressAndThumbnailInfo(UploadResult result, List<CIObject> ciObjectList) {
-        if (CollUtil.isEmpty(ciObjectList)) {
-            log.warn("COS未返回压缩图/缩略图信息，仅返回原图片");
-            return;
-        }
-        CIObject compressCiObj = ciObjectList.get(0);
-        CIObject thumbnailCiObj = ciObjectList.size() > 1 ? ciObjectList.get(1) : compressCiObj;
+        result.setPicColor(storeResult.getPicColor());
+        result.setPicSize(picSize);
 
-        // 直接存储 COS Key
-        result.setCompressKey(compressCiObj.getKey());
-        result.setThumbnailKey(thumbnailCiObj.getKey());
+        // 存储标准化的 Key
+        result.setOriginKey(storeResult.getOriginKey());
     }
 
     /**
@@ -172,6 +348,14 @@ public abstract class PictureUploadTemplate {
      */
     protected abstract void processFile(Object inputSource, File file) throws Exception;
 
+    /**
+     * 打开输入源的数据流（内存缓冲上传与暂存使用）
+     *
+     * @param inputSource 图片输入源对象
+     * @return UploadStream 图片数据流及其声明长度
+     */
+    protected abstract UploadStream openStream(Object inputSource) throws Exception;
+
     /**
      * 删除临时文件
      *
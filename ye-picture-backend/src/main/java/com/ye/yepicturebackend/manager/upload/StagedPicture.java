@@ -0,0 +1,32 @@
+package com.ye.yepicturebackend.manager.upload;
+
+import lombok.Getter;
+
+/**
+ * 已暂存的图片
+ * 异步上传时在请求线程内读入内存的图片数据，请求结束后由后台任务继续处理
+ */
+@Getter
+public class StagedPicture {
+
+    /**
+     * 暂存前的输入源类型（file / url）
+     */
+    private final String sourceType;
+
+    /**
+     * 原始文件名（已清洗）
+     */
+    private final String originFilename;
+
+    /**
+     * 图片数据
+     */
+    private final byte[] data;
+
+    public StagedPicture(String sourceType, String originFilename, byte[] data) {
+        this.sourceType = sourceType;
+        this.originFilename = originFilename;
+        this.data = data;
+    }
+}
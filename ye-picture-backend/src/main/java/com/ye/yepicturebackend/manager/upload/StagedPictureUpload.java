@@ -0,0 +1,66 @@
+package com.ye.yepicturebackend.manager.upload;
+
+import cn.hutool.core.io.FileUtil;
+import com.ye.yepicturebackend.exception.ErrorCode;
+import com.ye.yepicturebackend.exception.ThrowUtils;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+
+/**
+ * 暂存图片上传处理器
+ * 功能：处理异步上传中已读入内存的图片数据（{@link StagedPicture}）
+ * 继承自PictureUploadTemplate，实现了针对StagedPicture类型输入源的抽象方法
+ */
+@Service
+public class StagedPictureUpload extends PictureUploadTemplate {
+
+    /**
+     * 校验暂存图片的合法性（暂存时已完成格式与大小校验，此处仅做兜底）
+     *
+     * @param inputSource 输入源，实际类型为StagedPicture
+     */
+    @Override
+    protected void validPicture(Object inputSource) {
+        StagedPicture stagedPicture = (StagedPicture) inputSource;
+        ThrowUtils.throwIf(stagedPicture == null || stagedPicture.getData() == null,
+                ErrorCode.PARAMS_ERROR, "文件不能为空");
+        ThrowUtils.throwIf(stagedPicture.getData().length > MAX_FILE_SIZE,
+                ErrorCode.PARAMS_ERROR, "文件大小不能超过 3M");
+    }
+
+    /**
+     * 获取暂存图片的原始文件名
+     *
+     * @param inputSource 输入源，实际类型为StagedPicture
+     * @return 暂存时记录的原始文件名
+     */
+    @Override
+    protected String getOriginFilename(Object inputSource) {
+        return ((StagedPicture) inputSource).getOriginFilename();
+    }
+
+    /**
+     * 将暂存数据写入本地临时文件
+     *
+     * @param inputSource 输入源，实际类型为StagedPicture
+     * @param file        本地临时文件对象
+     */
+    @Override
+    protected void processFile(Object inputSource, File file) {
+        FileUtil.writeBytes(((StagedPicture) inputSource).getData(), file);
+    }
+
+    /**
+     * 打开暂存数据的数据流
+     *
+     * @param inputSource 输入源，实际类型为StagedPicture
+     * @return UploadStream 内存数据流
+     */
+    @Override
+    protected UploadStream openStream(Object inputSource) {
+        byte[] data = ((StagedPicture) inputSource).getData();
+        return new UploadStream(new ByteArrayInputStream(data), data.length, null);
+    }
+}
@@ -0,0 +1,160 @@
+package com.ye.yepicturebackend.manager.upload;
+
+import com.ye.yepicturebackend.model.enums.SpaceLevelEnum;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 图片上传分阶段指标
+ * <p>
+ * - picture.upload.stage：各阶段耗时直方图（stage / source / spaceLevel）
+ * - picture.upload.bytes：上传字节数（source / spaceLevel）
+ * 通过 /actuator/prometheus 暴露，仅记录成功完成的阶段；指标按标签组合缓存，只在首次使用时注册
+ * </p>
+ */
+@Component
+public class UploadMetrics {
+
+    /**
+     * 阶段：输入源校验
+     */
+    public static final String STAGE_VALIDATE = "validate";
+
+    /**
+     * 阶段：读取输入源（本地文件读取 / 远程图片下载），含内容哈希计算
+     */
+    public static final String STAGE_DOWNLOAD = "download";
+
+    /**
+     * 阶段：对象存储上传（含衍生图生成）
+     */
+    public static final String STAGE_STORE = "store";
+
+    /**
+     * 阶段：图片记录入库（含文件引用登记）
+     */
+    public static final String STAGE_PERSIST = "persist";
+
+    /**
+     * 阶段：空间额度更新
+     */
+    public static final String STAGE_QUOTA = "quota";
+
+    /**
+     * 阶段：上传全流程
+     */
+    public static final String STAGE_TOTAL = "total";
+
+    /**
+     * 输入源：本地文件
+     */
+    public static final String SOURCE_FILE = "file";
+
+    /**
+     * 输入源：图片 URL
+     */
+    public static final String SOURCE_URL = "url";
+
+    /**
+     * 空间级别：公共图库
+     */
+    public static final String SPACE_LEVEL_PUBLIC = "public";
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    /**
+     * 阶段耗时指标：stage|source|spaceLevel -> Timer
+     */
+    private final Map<String, Timer> stageTimers = new ConcurrentHashMap<>();
+
+    /**
+     * 上传字节数指标：source|spaceLevel -> Counter
+     */
+    private final Map<String, Counter> byteCounters = new ConcurrentHashMap<>();
+
+    /**
+     * 创建单次上传的指标记录器
+     *
+     * @param inputSource 图片输入源
+     * @param spaceLevel  空间级别，公共图库为 null
+     * @return Recorder 指标记录器
+     */
+    public Recorder recorder(Object inputSource, Integer spaceLevel) {
+        SpaceLevelEnum spaceLevelEnum = SpaceLevelEnum.getEnumByValue(spaceLevel);
+        String spaceLevelTag = spaceLevelEnum == null ? SPACE_LEVEL_PUBLIC : spaceLevelEnum.name().toLowerCase();
+        return new Recorder(sourceOf(inputSource), spaceLevelTag);
+    }
+
+    /**
+     * 获取输入源类型（异步上传的暂存图片取暂存前的输入源类型）
+     *
+     * @param inputSource 图片输入源
+     * @return String 输入源类型
+     */
+    public static String sourceOf(Object inputSource) {
+        if (inputSource instanceof String) {
+            return SOURCE_URL;
+        }
+        if (inputSource instanceof StagedPicture) {
+            return ((StagedPicture) inputSource).getSourceType();
+        }
+        return SOURCE_FILE;
+    }
+
+    /**
+     * 单次上传的指标记录器（标签在创建时确定）
+     */
+    public class Recorder {
+
+        private final String source;
+
+        private final String spaceLevel;
+
+        private Recorder(String source, String spaceLevel) {
+            this.source = source;
+            this.spaceLevel = spaceLevel;
+        }
+
+        /**
+         * 记录阶段耗时
+         *
+         * @param stage      阶段名称
+         * @param startNanos 阶段开始时间（System.nanoTime()）
+         */
+        public void record(String stage, long startNanos) {
+            stageTimers.computeIfAbsent(stage + "|" + source + "|" + spaceLevel,
+                    key -> Timer.builder("picture.upload.stage")
+                            .description("图片上传各阶段耗时")
+                            .tag("stage", stage)
+                            .tag("source", source)
+                            .tag("spaceLevel", spaceLevel)
+                            .publishPercentileHistogram()
+                            .register(meterRegistry))
+                    .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * 记录上传字节数
+         *
+         * @param bytes 字节数
+         */
+        public void recordBytes(long bytes) {
+            byteCounters.computeIfAbsent(source + "|" + spaceLevel,
+                    key -> Counter.builder("picture.upload.bytes")
+                            .description("图片上传字节数")
+                            .baseUnit("bytes")
+                            .tag("source", source)
+                            .tag("spaceLevel", spaceLevel)
+                            .register(meterRegistry))
+                    .increment(bytes);
+        }
+    }
+}
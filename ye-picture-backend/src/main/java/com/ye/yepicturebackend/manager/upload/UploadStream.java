@@ -0,0 +1,47 @@
+package com.ye.yepicturebackend.manager.upload;
+
+import lombok.Getter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 图片上传输入流
+ * 封装输入源打开后的数据流、声明的内容长度以及需要随流一起释放的底层资源（如 HTTP 响应）
+ */
+@Getter
+public class UploadStream implements Closeable {
+
+    /**
+     * 图片数据流
+     */
+    private final InputStream inputStream;
+
+    /**
+     * 声明的内容长度（字节），未知时为 -1
+     */
+    private final long contentLength;
+
+    /**
+     * 关联的底层资源，可为 null
+     */
+    private final Closeable resource;
+
+    public UploadStream(InputStream inputStream, long contentLength, Closeable resource) {
+        this.inputStream = inputStream;
+        this.contentLength = contentLength;
+        this.resource = resource;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            inputStream.close();
+        } finally {
+            if (resource != null) {
+                resource.close();
+            }
+        }
+    }
+}
@@ -1,35 +1,61 @@
 package com.ye.yepicturebackend.manager.upload;
 
 import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.io.IORuntimeException;
+import cn.hutool.core.io.IoUtil;
 import cn.hutool.core.util.StrUtil;
-import cn.hutool.http.HttpResponse;
 import cn.hutool.http.HttpStatus;
-import cn.hutool.http.HttpUtil;
-import cn.hutool.http.Method;
 import com.ye.yepicturebackend.exception.BusinessException;
 import com.ye.yepicturebackend.exception.ErrorCode;
 import com.ye.yepicturebackend.exception.ThrowUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.Resource;
 import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.MalformedURLException;
+import java.net.URI;
 import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * URL图片上传处理器
  * 功能：处理从网络URL上传图片的场景，包括URL合法性校验、图片格式/大小验证及文件下载
+ * 每次上传只发送一次 GET 请求，通过共享的 HttpClient 复用连接
  * 继承自PictureUploadTemplate，实现了针对URL类型输入源的抽象方法
  */
 @Slf4j
 @Service
 public class UrlPictureUpload extends PictureUploadTemplate {
 
+    /**
+     * 允许的图片类型
+     */
+    private static final List<String> ALLOW_CONTENT_TYPES = Arrays.asList("image/jpeg", "image/jpg"
+            , "image/png", "image/webp");
+
+    @Resource
+    private PictureUploadConfig pictureUploadConfig;
+
+    @Resource(name = "pictureHttpClient")
+    private HttpClient pictureHttpClient;
+
+    @Resource(name = "urlDownloadWatchdog")
+    private ScheduledExecutorService urlDownloadWatchdog;
+
     /**
      * 校验URL图片输入源的合法性
-     * 校验逻辑包括：非空检查、URL格式验证、协议限制、文件存在性及类型/大小限制
+     * 校验逻辑包括：非空检查、URL格式验证、协议限制
      *
      * @param inputSource 输入源，实际类型为String（图片URL地址）
      */
@@ -48,32 +74,7 @@ public class UrlPictureUpload extends PictureUploadTemplate {
         // 3.校验url的协议
         ThrowUtils.throwIf(!fileUrl.startsWith("http://") && !fileUrl.startsWith("https://"),
                 ErrorCode.PARAMS_ERROR, "仅支持HTTP或HTTPS协议的文件地址");
-        // 4.发送head请求验证文件是否存在
-        try (HttpResponse httpResponse = HttpUtil.createRequest(Method.HEAD, fileUrl).execute()) {
-            if (httpResponse.getStatus() != HttpStatus.HTTP_OK) {
-                // 文件不存在直接返回
-                return;
-            }
-            // 5.文件存在,文件类型校验
-            String contentType = httpResponse.header("Content-Type");
-            if (StrUtil.isNotBlank(contentType)) {
-                final List<String> ALLOW_CONTENT_TYPES = Arrays.asList("image/jpeg", "image/jpg"
-                        , "image/png", "image/webp");
-                ThrowUtils.throwIf(!ALLOW_CONTENT_TYPES.contains(contentType.toLowerCase()),
-                        ErrorCode.PARAMS_ERROR, "文件类型错误");
-            }
-            // 6.文件存在,文件大小校验
-            String contentLengthStr = httpResponse.header("Content-Length");
-            if (StrUtil.isNotBlank(contentLengthStr)) {
-                try {
-                    long contentLength = Long.parseLong(contentLengthStr);
-                    final long ONE_M = 1024 * 1024;
-                    ThrowUtils.throwIf(contentLength > 3 * ONE_M, ErrorCode.PARAMS_ERROR, "文件大小不能超过3M");
-                } catch (NumberFormatException e) {
-                    throw new BusinessException(ErrorCode.PARAMS_ERROR, "文件大小格式异常");
-                }
-            }
-        }
+        // 4.文件类型与大小在下载时根据 GET 响应头及实际流经字节数校验，不再额外发送 HEAD 请求
     }
 
     /**
@@ -89,14 +90,72 @@ public class UrlPictureUpload extends PictureUploadTemplate {
     }
 
     /**
-     * 处理URL输入源，将远程图片下载到本地临时文件
+     * 处理URL输入源，将远程图片下载到本地临时文件（与内存缓冲上传共用同一次 GET 请求及大小限制）
      *
      * @param inputSource 输入源，实际类型为String（图片URL地址）
      * @param file        本地临时文件对象，用于存储下载的图片内容
      */
     @Override
     protected void processFile(Object inputSource, File file) throws Exception {
+        try (UploadStream uploadStream = openStream(inputSource);
+             OutputStream outputStream = Files.newOutputStream(file.toPath())) {
+            LimitedInputStream limitedInputStream =
+                    new LimitedInputStream(uploadStream.getInputStream(), MAX_FILE_SIZE);
+            try {
+                IoUtil.copy(limitedInputStream, outputStream);
+            } catch (IORuntimeException e) {
+                ThrowUtils.throwIf(limitedInputStream.isExceeded(),
+                        ErrorCode.PARAMS_ERROR, "文件大小不能超过3M");
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * 打开URL输入源的数据流：仅发送一次 GET 请求（复用连接池），
+     * 根据响应头校验状态码、文件类型及声明大小，响应体由调用方在大小上限内流式读取；
+     * 请求超时只覆盖等待响应头，响应体的读取由看门狗按整体下载期限中断
+     *
+     * @param inputSource 输入源，实际类型为String（图片URL地址）
+     * @return UploadStream 响应体数据流，长度取自 Content-Length（缺失时为 -1），关闭时释放连接
+     */
+    @Override
+    protected UploadStream openStream(Object inputSource) throws Exception {
         String fileUrl = (String) inputSource;
-        HttpUtil.downloadFile(fileUrl, file);
+        long start = System.nanoTime();
+        HttpRequest httpRequest = HttpRequest.newBuilder(URI.create(fileUrl))
+                .timeout(Duration.ofMillis(pictureUploadConfig.getUrlReadTimeoutMillis()))
+                .GET()
+                .build();
+        HttpResponse<InputStream> httpResponse =
+                pictureHttpClient.send(httpRequest, HttpResponse.BodyHandlers.ofInputStream());
+        InputStream body = httpResponse.body();
+        try {
+            // 1.校验状态码
+            int status = httpResponse.statusCode();
+            if (status != HttpStatus.HTTP_OK) {
+                throw new BusinessException(ErrorCode.OPERATION_ERROR, "远程图片下载失败，状态码：" + status);
+            }
+            // 2.校验文件类型
+            String contentType = httpResponse.headers().firstValue("Content-Type").orElse(null);
+            if (StrUtil.isNotBlank(contentType)) {
+                String mimeType = StrUtil.subBefore(contentType, ";", false).trim().toLowerCase();
+                ThrowUtils.throwIf(!ALLOW_CONTENT_TYPES.contains(mimeType),
+                        ErrorCode.PARAMS_ERROR, "文件类型错误");
+            }
+            // 3.校验声明大小（未声明时由读取过程中的字节计数兜底）
+            long contentLength = httpResponse.headers().firstValueAsLong("Content-Length").orElse(-1L);
+            ThrowUtils.throwIf(contentLength > MAX_FILE_SIZE, ErrorCode.PARAMS_ERROR, "文件大小不能超过3M");
+            // 4.剩余的下载期限内读取响应体
+            long remainingMillis = pictureUploadConfig.getUrlDownloadTimeoutMillis()
+                    - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            ThrowUtils.throwIf(remainingMillis <= 0, ErrorCode.OPERATION_ERROR, "远程图片下载超时");
+            return new UploadStream(new DeadlineInputStream(body, urlDownloadWatchdog, remainingMillis),
+                    contentLength, null);
+        } catch (RuntimeException e) {
+            // 校验失败立即关闭响应体，中断剩余数据传输
+            body.close();
+            throw e;
+        }
     }
 }
@@ -0,0 +1,12 @@
+package com.ye.yepicturebackend.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.ye.yepicturebackend.model.entity.PictureImportJob;
+
+/**
+ * 图片批量导入任务 Mapper 接口
+ * 继承自 BaseMapper，提供基本的 CRUD 操作
+ */
+public interface PictureImportJobMapper extends BaseMapper<PictureImportJob> {
+
+}
@@ -1,7 +1,11 @@
 package com.ye.yepicturebackend.mapper;
 
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
+import com.baomidou.mybatisplus.core.toolkit.Constants;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.ye.yepicturebackend.model.entity.Picture;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Param;
 
 
 /**
@@ -11,6 +15,17 @@ import com.baomidou.mybatisplus.core.mapper.BaseMapper;
  */
 public interface PictureMapper extends BaseMapper<Picture> {
 
+    /**
+     * 全文检索分页查询，按相关度降序（相关度相同时按 id 降序）
+     *
+     * @param page         分页参数
+     * @param queryWrapper 查询条件（需已包含全文检索条件，且不能包含排序条件）
+     * @param searchText   搜索词
+     * @return Page<Picture> 分页结果
+     */
+    Page<Picture> selectPageByRelevance(Page<Picture> page,
+                                        @Param(Constants.WRAPPER) Wrapper<Picture> queryWrapper,
+                                        @Param("searchText") String searchText);
 }
 
 
@@ -0,0 +1,22 @@
+package com.ye.yepicturebackend.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.ye.yepicturebackend.model.entity.PicturePaletteColor;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * 图片色板颜色 Mapper 接口
+ * 继承自 BaseMapper，提供基本的 CRUD 操作
+ */
+public interface PicturePaletteColorMapper extends BaseMapper<PicturePaletteColor> {
+
+    /**
+     * 批量写入图片色板颜色
+     *
+     * @param colorList 色板颜色列表
+     * @return 新增的行数
+     */
+    int insertBatch(@Param("colorList") List<PicturePaletteColor> colorList);
+}
@@ -0,0 +1,22 @@
+package com.ye.yepicturebackend.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.ye.yepicturebackend.model.entity.PictureTagDict;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.Collection;
+
+/**
+ * 标签字典 Mapper 接口
+ * 继承自 BaseMapper，提供基本的 CRUD 操作
+ */
+public interface PictureTagDictMapper extends BaseMapper<PictureTagDict> {
+
+    /**
+     * 批量登记标签名称（已存在的名称忽略）
+     *
+     * @param tagNameList 标签名称列表
+     * @return 实际新增的行数
+     */
+    int insertIgnoreBatch(@Param("tagNameList") Collection<String> tagNameList);
+}
@@ -0,0 +1,22 @@
+package com.ye.yepicturebackend.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.ye.yepicturebackend.model.entity.PictureTagRel;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * 图片标签关联 Mapper 接口
+ * 继承自 BaseMapper，提供基本的 CRUD 操作
+ */
+public interface PictureTagRelMapper extends BaseMapper<PictureTagRel> {
+
+    /**
+     * 批量写入图片标签关联（已存在的关联忽略）
+     *
+     * @param relList 图片标签关联列表
+     * @return 实际新增的行数
+     */
+    int insertIgnoreBatch(@Param("relList") List<PictureTagRel> relList);
+}
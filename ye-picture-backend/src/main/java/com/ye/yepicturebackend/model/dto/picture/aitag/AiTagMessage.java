@@ -0,0 +1,34 @@
+package com.ye.yepicturebackend.model.dto.picture.aitag;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 图片 AI 打标任务消息体（用于 RabbitMQ 传输）
+ */
+@Data
+public class AiTagMessage implements Serializable {
+
+    /**
+     * 图片 id
+     */
+    private Long pictureId;
+
+    /**
+     * 用于分析的图片地址（需公网可访问）
+     */
+    private String imageUrl;
+
+    /**
+     * 入库时使用的占位分类
+     */
+    private String placeholderCategory;
+
+    /**
+     * 入库时使用的占位标签（JSON 数组）
+     */
+    private String placeholderTags;
+
+    private static final long serialVersionUID = 3185067461938265521L;
+}
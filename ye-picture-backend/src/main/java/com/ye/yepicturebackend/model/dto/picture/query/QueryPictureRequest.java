@@ -40,6 +40,11 @@ public class QueryPictureRequest extends PageRequest implements Serializable {
      */
     private List<String> tags;
 
+    /**
+     * 标签匹配方式：true-包含全部标签，false-包含任一标签（默认）
+     */
+    private boolean tagsMatchAll;
+
     /**
      * 文件体积
      */
@@ -115,5 +120,10 @@ public class QueryPictureRequest extends PageRequest implements Serializable {
      */
     private Date endEditTime;
 
+    /**
+     * 字段投影：thumbnail / card / full（默认）
+     */
+    private String projection;
+
     private static final long serialVersionUID = 5867784458134169479L;
 }
@@ -58,4 +58,9 @@ public class UploadResult {
      */
     private String picColor;
 
+    /**
+     * 原图内容 SHA-256（十六进制）
+     */
+    private String fileHash;
+
 }
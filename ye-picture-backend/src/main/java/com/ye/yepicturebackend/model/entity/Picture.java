@@ -85,6 +85,41 @@ public class Picture implements Serializable {
      */
     private String picColor;
 
+    /**
+     * 图片主色调（0xRRGGBB 整数）
+     */
+    private Integer picColorRgb;
+
+    /**
+     * 图片主色调 CIELAB L*
+     */
+    private Double picColorL;
+
+    /**
+     * 图片主色调 CIELAB a*
+     */
+    private Double picColorA;
+
+    /**
+     * 图片主色调 CIELAB b*
+     */
+    private Double picColorB;
+
+    /**
+     * 图片色板（最多 5 种颜色，每种 4 字节：R、G、B、权重），空数组表示无法提取
+     */
+    private byte[] picPalette;
+
+    /**
+     * 以图搜图特征（感知哈希 + 颜色直方图 + 边缘直方图），空数组表示无法提取
+     */
+    private byte[] picFeature;
+
+    /**
+     * 原图内容 SHA-256（关联 picture_file）
+     */
+    private String fileHash;
+
     /**
      * 创建用户 id
      */
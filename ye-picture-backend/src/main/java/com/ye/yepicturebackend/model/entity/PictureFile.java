@@ -0,0 +1,89 @@
+package com.ye.yepicturebackend.model.entity;
+
+import com.baomidou.mybatisplus.annotation.*;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * 图片文件实体类（按内容哈希去重的存储对象及其引用计数）
+ */
+@TableName(value = "picture_file")
+@Data
+public class PictureFile implements Serializable {
+
+    /**
+     * id
+     */
+    @TableId(type = IdType.AUTO)
+    private Long id;
+
+    /**
+     * 原图内容 SHA-256（十六进制）
+     */
+    private String fileHash;
+
+    /**
+     * 原图 COS 相对路径（Key）
+     */
+    private String originKey;
+
+    /**
+     * 压缩图 COS 相对路径（Key）
+     */
+    private String compressKey;
+
+    /**
+     * 缩略图 COS 相对路径（Key）
+     */
+    private String thumbnailKey;
+
+    /**
+     * 图片体积
+     */
+    private Long picSize;
+
+    /**
+     * 图片宽度
+     */
+    private Integer picWidth;
+
+    /**
+     * 图片高度
+     */
+    private Integer picHeight;
+
+    /**
+     * 图片宽高比例
+     */
+    private Double picScale;
+
+    /**
+     * 图片格式
+     */
+    private String picFormat;
+
+    /**
+     * 图片主色调
+     */
+    private String picColor;
+
+    /**
+     * 引用该文件的图片记录数
+     */
+    private Integer refCount;
+
+    /**
+     * 创建时间
+     */
+    private Date createTime;
+
+    /**
+     * 更新时间
+     */
+    private Date updateTime;
+
+    @TableField(exist = false)
+    private static final long serialVersionUID = 3164985207418093551L;
+}
@@ -0,0 +1,59 @@
+package com.ye.yepicturebackend.model.entity;
+
+import com.baomidou.mybatisplus.annotation.*;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * 图片批量导入条目实体类
+ */
+@TableName(value = "picture_import_item")
+@Data
+public class PictureImportItem implements Serializable {
+
+    /**
+     * id
+     */
+    @TableId(type = IdType.AUTO)
+    private Long id;
+
+    /**
+     * 导入任务ID
+     */
+    private Long jobId;
+
+    /**
+     * 图片地址 SHA-256
+     */
+    private String urlHash;
+
+    /**
+     * 图片地址
+     */
+    private String url;
+
+    /**
+     * 导入状态：0-待处理；1-成功；2-失败
+     */
+    private Integer status;
+
+    /**
+     * 导入成功后的图片ID
+     */
+    private Long pictureId;
+
+    /**
+     * 创建时间
+     */
+    private Date createTime;
+
+    /**
+     * 更新时间
+     */
+    private Date updateTime;
+
+    @TableField(exist = false)
+    private static final long serialVersionUID = -2719045833618250746L;
+}
@@ -0,0 +1,95 @@
+package com.ye.yepicturebackend.model.entity;
+
+import com.baomidou.mybatisplus.annotation.*;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * 图片批量导入任务实体类
+ */
+@TableName(value = "picture_import_job")
+@Data
+public class PictureImportJob implements Serializable {
+
+    /**
+     * id
+     */
+    @TableId(type = IdType.AUTO)
+    private Long id;
+
+    /**
+     * 创建任务的管理员ID
+     */
+    private Long userId;
+
+    /**
+     * 搜索关键词
+     */
+    private String searchText;
+
+    /**
+     * 图片名称前缀
+     */
+    private String namePrefix;
+
+    /**
+     * 默认分类（AI 分析失败时使用）
+     */
+    private String category;
+
+    /**
+     * 默认标签（JSON 数组，AI 分析失败时使用）
+     */
+    private String tags;
+
+    /**
+     * 目标导入数量
+     */
+    private Integer targetCount;
+
+    /**
+     * 已成功导入数量
+     */
+    private Integer successCount;
+
+    /**
+     * 导入失败数量
+     */
+    private Integer failCount;
+
+    /**
+     * 下一页抓取偏移量
+     */
+    private Integer nextOffset;
+
+    /**
+     * 任务状态：0-执行中；1-已完成；2-失败
+     */
+    private Integer status;
+
+    /**
+     * 失败原因
+     */
+    private String errorMessage;
+
+    /**
+     * 创建时间
+     */
+    private Date createTime;
+
+    /**
+     * 更新时间
+     */
+    private Date updateTime;
+
+    /**
+     * 是否删除
+     */
+    @TableLogic
+    private Integer isDelete;
+
+    @TableField(exist = false)
+    private static final long serialVersionUID = 6087314279650412381L;
+}
@@ -0,0 +1,53 @@
+package com.ye.yepicturebackend.model.entity;
+
+import com.baomidou.mybatisplus.annotation.*;
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 图片色板颜色实体类（色板中的每种颜色一行，预先计算 CIELAB 分量，用于按色板搜图）
+ */
+@TableName(value = "picture_palette_color")
+@Data
+public class PicturePaletteColor implements Serializable {
+
+    /**
+     * id
+     */
+    @TableId(type = IdType.AUTO)
+    private Long id;
+
+    /**
+     * 图片 id
+     */
+    private Long pictureId;
+
+    /**
+     * 图片所在空间 id（为空表示公共图库）
+     */
+    private Long spaceId;
+
+    /**
+     * 颜色 CIELAB L*
+     */
+    private Double colorL;
+
+    /**
+     * 颜色 CIELAB a*
+     */
+    private Double colorA;
+
+    /**
+     * 颜色 CIELAB b*
+     */
+    private Double colorB;
+
+    /**
+     * 颜色在色板中的权重（0~255）
+     */
+    private Integer weight;
+
+    @TableField(exist = false)
+    private static final long serialVersionUID = 1L;
+}
@@ -0,0 +1,44 @@
+package com.ye.yepicturebackend.model.entity;
+
+import com.baomidou.mybatisplus.annotation.*;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * 图片标签关联实体类
+ */
+@TableName(value = "picture_tag_rel")
+@Data
+public class PictureTagRel implements Serializable {
+
+    /**
+     * id
+     */
+    @TableId(type = IdType.AUTO)
+    private Long id;
+
+    /**
+     * 图片 id
+     */
+    private Long pictureId;
+
+    /**
+     * 标签 id（关联 picture_tag_dict）
+     */
+    private Integer tagId;
+
+    /**
+     * 图片所在空间 id（为空表示公共图库）
+     */
+    private Long spaceId;
+
+    /**
+     * 创建时间
+     */
+    private Date createTime;
+
+    @TableField(exist = false)
+    private static final long serialVersionUID = 1L;
+}
@@ -0,0 +1,37 @@
+package com.ye.yepicturebackend.model.enums;
+
+import cn.hutool.core.util.ObjUtil;
+import lombok.Getter;
+
+/**
+ * 图片批量导入条目状态
+ */
+@Getter
+public enum ImportItemStatusEnum {
+    PENDING("待处理", 0),
+    SUCCEED("成功", 1),
+    FAILED("失败", 2);
+
+    private final String text;
+    private final int value;
+
+    ImportItemStatusEnum(String text, int value) {
+        this.text = text;
+        this.value = value;
+    }
+
+    /**
+     * 根据 value 获取枚举
+     */
+    public static ImportItemStatusEnum getEnumByValue(Integer value) {
+        if (ObjUtil.isEmpty(value)) {
+            return null;
+        }
+        for (ImportItemStatusEnum importItemStatusEnum : ImportItemStatusEnum.values()) {
+            if (importItemStatusEnum.value == value) {
+                return importItemStatusEnum;
+            }
+        }
+        return null;
+    }
+}
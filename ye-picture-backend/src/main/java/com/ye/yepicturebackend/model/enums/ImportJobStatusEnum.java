@@ -0,0 +1,37 @@
+package com.ye.yepicturebackend.model.enums;
+
+import cn.hutool.core.util.ObjUtil;
+import lombok.Getter;
+
+/**
+ * 图片批量导入任务状态
+ */
+@Getter
+public enum ImportJobStatusEnum {
+    RUNNING("执行中", 0),
+    COMPLETED("已完成", 1),
+    FAILED("失败", 2);
+
+    private final String text;
+    private final int value;
+
+    ImportJobStatusEnum(String text, int value) {
+        this.text = text;
+        this.value = value;
+    }
+
+    /**
+     * 根据 value 获取枚举
+     */
+    public static ImportJobStatusEnum getEnumByValue(Integer value) {
+        if (ObjUtil.isEmpty(value)) {
+            return null;
+        }
+        for (ImportJobStatusEnum importJobStatusEnum : ImportJobStatusEnum.values()) {
+            if (importJobStatusEnum.value == value) {
+                return importJobStatusEnum;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,73 @@
+package com.ye.yepicturebackend.model.enums;
+
+import cn.hutool.core.util.ObjUtil;
+import lombok.Getter;
+
+/**
+ * 图片列表字段投影
+ * <p>
+ * 决定列表接口查询哪些列、签名哪些访问地址：
+ * - thumbnail：瀑布流/网格，仅缩略图及布局所需的尺寸、主色调
+ * - card：卡片，缩略图 + 压缩图及名称、分类、标签、作者
+ * - full：全部字段（默认）
+ * </p>
+ */
+@Getter
+public enum PictureProjectionEnum {
+
+    THUMBNAIL("缩略图", "thumbnail", false, false, true, false),
+    CARD("卡片", "card", false, true, true, true),
+    FULL("完整", "full", true, true, true, true);
+
+    private final String text;
+
+    private final String value;
+
+    /**
+     * 是否签名原图地址
+     */
+    private final boolean signOrigin;
+
+    /**
+     * 是否签名压缩图地址
+     */
+    private final boolean signCompress;
+
+    /**
+     * 是否签名缩略图地址
+     */
+    private final boolean signThumbnail;
+
+    /**
+     * 是否填充作者信息
+     */
+    private final boolean withUser;
+
+    PictureProjectionEnum(String text, String value, boolean signOrigin, boolean signCompress,
+                          boolean signThumbnail, boolean withUser) {
+        this.text = text;
+        this.value = value;
+        this.signOrigin = signOrigin;
+        this.signCompress = signCompress;
+        this.signThumbnail = signThumbnail;
+        this.withUser = withUser;
+    }
+
+    /**
+     * 根据 value 获取枚举
+     *
+     * @param value 枚举值的 value
+     * @return 枚举值
+     */
+    public static PictureProjectionEnum getEnumByValue(String value) {
+        if (ObjUtil.isEmpty(value)) {
+            return null;
+        }
+        for (PictureProjectionEnum anEnum : PictureProjectionEnum.values()) {
+            if (anEnum.value.equals(value)) {
+                return anEnum;
+            }
+        }
+        return null;
+    }
+}
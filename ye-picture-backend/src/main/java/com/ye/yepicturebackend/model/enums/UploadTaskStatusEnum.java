@@ -0,0 +1,39 @@
+package com.ye.yepicturebackend.model.enums;
+
+import cn.hutool.core.util.ObjUtil;
+import lombok.Getter;
+
+/**
+ * 异步上传任务状态
+ */
+@Getter
+public enum UploadTaskStatusEnum {
+    WAITING("排队中", 0),
+    INGESTING("下载中", 1),
+    PROCESSING("处理中", 2),
+    SUCCEED("成功", 3),
+    FAILED("失败", 4);
+
+    private final String text;
+    private final int value;
+
+    UploadTaskStatusEnum(String text, int value) {
+        this.text = text;
+        this.value = value;
+    }
+
+    /**
+     * 根据 value 获取枚举
+     */
+    public static UploadTaskStatusEnum getEnumByValue(Integer value) {
+        if (ObjUtil.isEmpty(value)) {
+            return null;
+        }
+        for (UploadTaskStatusEnum uploadTaskStatusEnum : UploadTaskStatusEnum.values()) {
+            if (uploadTaskStatusEnum.value == value) {
+                return uploadTaskStatusEnum;
+            }
+        }
+        return null;
+    }
+}
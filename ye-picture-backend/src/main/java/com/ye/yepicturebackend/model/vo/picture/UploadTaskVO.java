@@ -0,0 +1,50 @@
+package com.ye.yepicturebackend.model.vo.picture;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * 异步上传任务VO
+ */
+@Data
+public class UploadTaskVO implements Serializable {
+
+    /**
+     * 任务 id
+     */
+    private String taskId;
+
+    /**
+     * 提交任务的用户 id
+     */
+    private Long userId;
+
+    /**
+     * 任务状态：0-排队中；1-下载中；2-处理中；3-成功；4-失败
+     */
+    private Integer status;
+
+    /**
+     * 上传成功后的图片信息
+     */
+    private PictureVO picture;
+
+    /**
+     * 失败原因
+     */
+    private String errorMessage;
+
+    /**
+     * 创建时间
+     */
+    private Date createTime;
+
+    /**
+     * 更新时间
+     */
+    private Date updateTime;
+
+    private static final long serialVersionUID = -4620918735104582213L;
+}
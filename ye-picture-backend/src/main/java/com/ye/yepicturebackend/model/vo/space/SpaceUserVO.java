@@ -3,7 +3,6 @@ package com.ye.yepicturebackend.model.vo.space;
 import com.ye.yepicturebackend.model.entity.SpaceUser;
 import com.ye.yepicturebackend.model.vo.user.UserVO;
 import lombok.Data;
-import org.springframework.beans.BeanUtils;
 
 import java.io.Serializable;
 import java.util.Date;
@@ -63,7 +62,12 @@ public class SpaceUserVO implements Serializable {
             return null;
         }
         SpaceUser spaceUser = new SpaceUser();
-        BeanUtils.copyProperties(spaceUserVO, spaceUser);
+        spaceUser.setId(spaceUserVO.getId());
+        spaceUser.setSpaceId(spaceUserVO.getSpaceId());
+        spaceUser.setUserId(spaceUserVO.getUserId());
+        spaceUser.setSpaceRole(spaceUserVO.getSpaceRole());
+        spaceUser.setCreateTime(spaceUserVO.getCreateTime());
+        spaceUser.setUpdateTime(spaceUserVO.getUpdateTime());
         return spaceUser;
     }
 
@@ -78,7 +82,12 @@ public class SpaceUserVO implements Serializable {
             return null;
         }
         SpaceUserVO spaceUserVO = new SpaceUserVO();
-        BeanUtils.copyProperties(spaceUser, spaceUserVO);
+        spaceUserVO.setId(spaceUser.getId());
+        spaceUserVO.setSpaceId(spaceUser.getSpaceId());
+        spaceUserVO.setUserId(spaceUser.getUserId());
+        spaceUserVO.setSpaceRole(spaceUser.getSpaceRole());
+        spaceUserVO.setCreateTime(spaceUser.getCreateTime());
+        spaceUserVO.setUpdateTime(spaceUser.getUpdateTime());
         return spaceUserVO;
     }
 }
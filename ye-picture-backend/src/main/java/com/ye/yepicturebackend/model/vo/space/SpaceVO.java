@@ -3,7 +3,6 @@ package com.ye.yepicturebackend.model.vo.space;
 import com.ye.yepicturebackend.model.entity.Space;
 import com.ye.yepicturebackend.model.vo.user.UserVO;
 import lombok.Data;
-import org.springframework.beans.BeanUtils;
 
 import java.io.Serializable;
 import java.util.ArrayList;
@@ -91,7 +90,7 @@ public class SpaceVO implements Serializable {
      * 封装类转对象
      * 此方法用于将SpaceVO视图对象转换为Space实体对象
      * <p>
-     * 使用Spring的BeanUtils工具类进行属性拷贝
+     * 逐字段显式复制属性
      *
      * @param spaceVO Space视图对象，包含前端传递的数据
      * @return Space 转换后的Space实体对象，如果输入为null则返回null
@@ -103,8 +102,19 @@ public class SpaceVO implements Serializable {
         }
         // 创建Space实体对象
         Space space = new Space();
-        // 使用BeanUtils工具类将spaceVO的属性值复制到space对象中
-        BeanUtils.copyProperties(spaceVO, space);
+        // 逐字段复制属性值（不使用反射）
+        space.setId(spaceVO.getId());
+        space.setSpaceName(spaceVO.getSpaceName());
+        space.setSpaceLevel(spaceVO.getSpaceLevel());
+        space.setSpaceType(spaceVO.getSpaceType());
+        space.setMaxSize(spaceVO.getMaxSize());
+        space.setMaxCount(spaceVO.getMaxCount());
+        space.setTotalSize(spaceVO.getTotalSize());
+        space.setTotalCount(spaceVO.getTotalCount());
+        space.setUserId(spaceVO.getUserId());
+        space.setCreateTime(spaceVO.getCreateTime());
+        space.setEditTime(spaceVO.getEditTime());
+        space.setUpdateTime(spaceVO.getUpdateTime());
         // 返回转换后的对象
         return space;
     }
@@ -113,7 +123,7 @@ public class SpaceVO implements Serializable {
      * 对象转封装类
      * 该方法用于将Space对象转换为SpaceVO视图对象
      * <p>
-     * 使用Spring的BeanUtils工具类进行属性复制
+     * 逐字段显式复制属性，避免每次转换时反射读取属性描述符
      *
      * @param space 需要转换的Space实体对象
      * @return 转换后的SpaceVO视图对象，如果输入参数为null则返回null
@@ -125,9 +135,20 @@ public class SpaceVO implements Serializable {
         }
         // 创建SpaceVO对象实例
         SpaceVO spaceVO = new SpaceVO();
-    // 使用BeanUtils工具类将space对象的属性复制到spaceVO对象中
-        BeanUtils.copyProperties(space, spaceVO);
-    // 返回转换后的VO对象
+        // 逐字段复制属性值（不使用反射）
+        spaceVO.setId(space.getId());
+        spaceVO.setSpaceName(space.getSpaceName());
+        spaceVO.setSpaceLevel(space.getSpaceLevel());
+        spaceVO.setSpaceType(space.getSpaceType());
+        spaceVO.setMaxSize(space.getMaxSize());
+        spaceVO.setMaxCount(space.getMaxCount());
+        spaceVO.setTotalSize(space.getTotalSize());
+        spaceVO.setTotalCount(space.getTotalCount());
+        spaceVO.setUserId(space.getUserId());
+        spaceVO.setCreateTime(space.getCreateTime());
+        spaceVO.setEditTime(space.getEditTime());
+        spaceVO.setUpdateTime(space.getUpdateTime());
+        // 返回转换后的VO对象
         return spaceVO;
     }
 }
@@ -1,5 +1,7 @@
 package com.ye.yepicturebackend.service;
 
+import java.util.Collection;
+import java.util.Map;
 
 /**
  * COS URL 生成服务接口
@@ -17,4 +19,12 @@ public interface CosUrlService {
      */
     String generateSignedUrl(String key, long expireMillis);
 
+    /**
+     * 批量生成默认有效期的签名 URL（空 key 被忽略）
+     *
+     * @param keys 对象键集合
+     * @return Map 对象键 -> 签名 URL
+     */
+    Map<String, String> generateDefaultSignedUrls(Collection<String> keys);
+
 }
\ No newline at end of file
@@ -0,0 +1,33 @@
+package com.ye.yepicturebackend.service;
+
+import com.baomidou.mybatisplus.extension.service.IService;
+import com.ye.yepicturebackend.model.dto.picture.upload.UploadBatchRequest;
+import com.ye.yepicturebackend.model.entity.PictureImportJob;
+import com.ye.yepicturebackend.model.entity.User;
+
+/**
+ * 图片批量导入任务服务接口
+ */
+public interface PictureImportJobService extends IService<PictureImportJob> {
+
+    /**
+     * 创建并启动批量导入任务（后台执行，立即返回）
+     *
+     * @param uploadBatchRequest 批量导入请求参数：
+     *                           - searchText：搜索关键词（必填）
+     *                           - count：目标导入数量
+     *                           - namePrefix：图片名称前缀
+     *                           - category / tags：AI 分析失败时使用的默认分类与标签
+     * @param loginUser          当前登录用户（管理员）
+     * @return 任务 id
+     */
+    Long submitImportJob(UploadBatchRequest uploadBatchRequest, User loginUser);
+
+    /**
+     * 恢复未完成的导入任务（从上次持久化的进度继续）
+     *
+     * @param jobId     任务 id
+     * @param loginUser 当前登录用户（管理员）
+     */
+    void resumeImportJob(Long jobId, User loginUser);
+}
@@ -3,6 +3,7 @@ package com.ye.yepicturebackend.service;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.ye.yepicturebackend.api.aliyunai.model.CreateOutPaintingTaskResponse;
+import com.ye.yepicturebackend.common.CursorPage;
 import com.ye.yepicturebackend.common.DeleteRequest;
 import com.ye.yepicturebackend.model.dto.picture.delete.DeletePictureResult;
 import com.ye.yepicturebackend.model.dto.picture.edit.EditBatchRequest;
@@ -15,12 +16,14 @@ import com.ye.yepicturebackend.model.dto.picture.review.ReviewPictureRequest;
 import com.ye.yepicturebackend.model.dto.picture.upload.UploadBatchRequest;
 import com.ye.yepicturebackend.model.dto.picture.edit.EditPictureRequest;
 import com.ye.yepicturebackend.model.entity.Picture;
+import com.ye.yepicturebackend.model.enums.PictureProjectionEnum;
 import com.baomidou.mybatisplus.extension.service.IService;
 import com.ye.yepicturebackend.model.entity.User;
 
 import javax.servlet.http.HttpServletRequest;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * 图片服务接口
@@ -33,7 +36,7 @@ public interface PictureService extends IService<Picture> {
     /**
      * 上传或更新图片
      *
-     * @param inputSource          图片输入源：支持两种类型，1. 本地文件相关对象，2. 图片URL字符串
+     * @param inputSource          图片输入源：支持三种类型，1. 本地文件相关对象，2. 图片URL字符串，3. 异步上传暂存的图片
      * @param uploadRequest 图片上传/更新请求参数
      * @param loginUser            当前登录用户对象
      * @return PictureVO 脱敏后的图片视图对象
@@ -41,6 +44,20 @@ public interface PictureService extends IService<Picture> {
     PictureVO uploadPicture(Object inputSource,
                             UploadRequest uploadRequest,
                             User loginUser);
+
+    /**
+     * 上传或更新图片，并在图片入库的同一事务中执行额外的写入（如登记批量导入条目的结果）
+     *
+     * @param inputSource   图片输入源
+     * @param uploadRequest 图片上传/更新请求参数
+     * @param loginUser     当前登录用户对象
+     * @param afterSave     图片记录写入后、事务提交前执行，抛出异常时图片入库一并回滚；可为 null
+     * @return PictureVO 脱敏后的图片视图对象
+     */
+    PictureVO uploadPicture(Object inputSource,
+                            UploadRequest uploadRequest,
+                            User loginUser,
+                            Consumer<Picture> afterSave);
     // endregion
 
     // region 工具类
@@ -61,6 +78,17 @@ public interface PictureService extends IService<Picture> {
      */
     Page<PictureVO> getPictureVOPage(Page<Picture> picturePage, HttpServletRequest request);
 
+    /**
+     * 按字段投影将（Page<Picture>）转换为（Page<PictureVO>）
+     *
+     * @param picturePage 数据库查询得到的图片实体分页对象
+     * @param projection  字段投影，决定签名哪些访问地址、是否填充作者信息
+     * @param request     HTTP请求对象
+     * @return Page<PictureVO> 前端可直接渲染的图片VO分页对象
+     */
+    Page<PictureVO> getPictureVOPage(Page<Picture> picturePage, PictureProjectionEnum projection,
+                                     HttpServletRequest request);
+
     /**
      * （Picture）转换为（PictureVO）
      *
@@ -116,6 +144,16 @@ public interface PictureService extends IService<Picture> {
      */
     Integer uploadPictureByBatch(UploadBatchRequest uploadBatchRequest, User loginUser);
 
+    /**
+     * 提交图片 AI 打标任务（异步分析并回填分类、标签和简介）
+     *
+     * @param pictureId           已入库的图片 id
+     * @param imageUrl            用于分析的图片地址（需公网可访问）
+     * @param placeholderCategory 入库时使用的占位分类
+     * @param placeholderTags     入库时使用的占位标签
+     */
+    void submitAiTagging(Long pictureId, String imageUrl, String placeholderCategory, List<String> placeholderTags);
+
     /**
      * 图片审核处理
      *
@@ -175,6 +213,15 @@ public interface PictureService extends IService<Picture> {
      */
     Page<PictureVO> getPictureVOByPage(QueryPictureRequest queryPictureRequest, HttpServletRequest request);
 
+    /**
+     * 游标分页查询图片VO列表（按创建时间倒序，不统计总数）
+     *
+     * @param queryPictureRequest 图片查询请求体，包含游标、页大小、空间ID等查询条件（排序字段不生效）
+     * @param request             HTTP请求对象
+     * @return CursorPage<PictureVO> 游标分页结果，nextCursor 用于请求下一页
+     */
+    CursorPage<PictureVO> getPictureVOByCursor(QueryPictureRequest queryPictureRequest, HttpServletRequest request);
+
 
     // endregion
 
@@ -186,10 +233,29 @@ public interface PictureService extends IService<Picture> {
      * @param spaceId   图片所在的空间ID（用于限定查询范围）
      * @param picColor  目标颜色的十六进制字符串（支持腾讯COS返回的缩略格式，如0x8、0xA100等）
      * @param loginUser 当前登录用户对象（用于权限校验）
-     * @return 按颜色相似度降序排列的图片VO列表（最多12条，相似度越高越靠前）
+     * @return 按 CIEDE2000 色差升序排列的图片VO列表（最多12条，颜色越接近越靠前）
      */
     List<PictureVO> searchPictureByColor(Long spaceId, String picColor, User loginUser);
 
+    /**
+     * 根据色板搜索图片（匹配图片色板中的任意颜色，按颜色占比加权计分）
+     *
+     * @param spaceId   图片所在的空间ID（用于限定查询范围）
+     * @param picColor  目标颜色的十六进制字符串
+     * @param loginUser 当前登录用户对象（用于权限校验）
+     * @return 按色板得分降序排列的图片VO列表（最多12条）
+     */
+    List<PictureVO> searchPictureByPalette(Long spaceId, String picColor, User loginUser);
+
+    /**
+     * 以图搜图（在源图片所在的空间或公共图库中，按感知哈希、颜色与边缘特征搜索相似图片）
+     *
+     * @param pictureId 源图片 id
+     * @param loginUser 当前登录用户对象（用于权限校验）
+     * @return 按相似度降序排列的图片VO列表（不含源图片）
+     */
+    List<PictureVO> searchPictureByPicture(Long pictureId, User loginUser);
+
     /**
      * 批量编辑图片信息（分类、标签、名称）
      *
@@ -0,0 +1,40 @@
+package com.ye.yepicturebackend.service;
+
+import com.ye.yepicturebackend.model.dto.picture.upload.UploadRequest;
+import com.ye.yepicturebackend.model.entity.User;
+import com.ye.yepicturebackend.model.vo.picture.UploadTaskVO;
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * 异步图片上传任务服务接口
+ */
+public interface PictureUploadTaskService {
+
+    /**
+     * 提交本地文件异步上传任务（文件在请求线程内暂存，后续处理在后台完成）
+     *
+     * @param multipartFile 前端上传的图片文件
+     * @param uploadRequest 图片上传/更新请求参数
+     * @param loginUser     当前登录用户
+     * @return 任务 id
+     */
+    String submitUpload(MultipartFile multipartFile, UploadRequest uploadRequest, User loginUser);
+
+    /**
+     * 提交URL异步上传任务（下载、处理、入库均在后台完成）
+     *
+     * @param uploadRequest 图片上传/更新请求参数，fileUrl 必填
+     * @param loginUser     当前登录用户
+     * @return 任务 id
+     */
+    String submitUploadByUrl(UploadRequest uploadRequest, User loginUser);
+
+    /**
+     * 查询异步上传任务状态（仅任务提交者可查）
+     *
+     * @param taskId    任务 id
+     * @param loginUser 当前登录用户
+     * @return UploadTaskVO 任务状态
+     */
+    UploadTaskVO getUploadTask(String taskId, User loginUser);
+}
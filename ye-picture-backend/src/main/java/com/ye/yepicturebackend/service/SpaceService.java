@@ -3,6 +3,7 @@ package com.ye.yepicturebackend.service;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.IService;
+import com.ye.yepicturebackend.common.CursorPage;
 import com.ye.yepicturebackend.common.DeleteRequest;
 import com.ye.yepicturebackend.model.vo.space.SpaceVO;
 import com.ye.yepicturebackend.model.dto.space.SpaceAddRequest;
@@ -163,6 +164,15 @@ public interface SpaceService extends IService<Space> {
      */
     Page<SpaceVO> getSpaceVOPage(Page<Space> spacePage, HttpServletRequest request);
 
+    /**
+     * 游标分页查询空间VO列表（按创建时间倒序，不统计总数）
+     *
+     * @param spaceQueryRequest 空间查询请求参数对象，包含游标、页大小及查询条件（排序字段不生效）
+     * @param request           HTTP请求对象，用于批量关联查询用户信息
+     * @return CursorPage<SpaceVO> 游标分页结果，nextCursor 用于请求下一页
+     */
+    CursorPage<SpaceVO> listSpaceVOByCursor(SpaceQueryRequest spaceQueryRequest, HttpServletRequest request);
+
     // endregion
 
 }
\ No newline at end of file
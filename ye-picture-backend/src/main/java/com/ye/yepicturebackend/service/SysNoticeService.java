@@ -2,6 +2,7 @@ package com.ye.yepicturebackend.service;
 
 import com.baomidou.mybatisplus.extension.service.IService;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.ye.yepicturebackend.common.CursorPage;
 import com.ye.yepicturebackend.model.entity.SysNotice;
 import com.ye.yepicturebackend.model.vo.user.ReviewNoticeVO;
 
@@ -51,4 +52,14 @@ public interface SysNoticeService extends IService<SysNotice> {
      * @return 分页的 ReviewNoticeVO 列表，每个 VO 包含通知内容及关联图片的展示信息
      */
     Page<ReviewNoticeVO> listReviewNoticesByUser(Long userId, int page, int size);
+
+    /**
+     * 游标分页查询用户的【图片审核通知】（按创建时间倒序，不统计总数）
+     *
+     * @param userId 用户ID，用于筛选该用户收到的审核通知
+     * @param cursor 上一页返回的游标，首页为空
+     * @param size   每页大小，不超过50
+     * @return 游标分页的 ReviewNoticeVO 列表，nextCursor 用于请求下一页
+     */
+    CursorPage<ReviewNoticeVO> listReviewNoticesByCursor(Long userId, String cursor, int size);
 }
\ No newline at end of file
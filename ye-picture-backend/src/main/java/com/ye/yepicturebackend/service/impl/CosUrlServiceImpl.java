@@ -1,34 +1,79 @@
 package com.ye.yepicturebackend.service.impl;
 
-import com.qcloud.cos.COSClient;
-import com.qcloud.cos.http.HttpMethodName;
-import com.qcloud.cos.model.GeneratePresignedUrlRequest;
-import com.ye.yepicturebackend.manager.upload.CosClientConfig;
-import com.ye.yepicturebackend.service.CosUrlService;
 import cn.hutool.core.util.StrUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ye.yepicturebackend.manager.storage.ObjectStorage;
+import com.ye.yepicturebackend.manager.storage.StorageConfig;
+import com.ye.yepicturebackend.service.CosUrlService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
-import java.net.URL;
+import javax.annotation.PostConstruct;
+import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * COS URL 生成服务实现类
+ * 签名方式由当前生效的 {@link ObjectStorage} 实现决定
+ * <p>
+ * 签名 URL 的过期时刻按固定时间窗口对齐：同一窗口内同一对象返回完全相同的 URL，
+ * 每个窗口只签名一次，浏览器与 CDN 也可以按 URL 缓存图片。
+ * 缓存命中率通过 cache.gets{cache=signedUrl} 等指标暴露
+ * </p>
  */
 @Service
 @RequiredArgsConstructor
 public class CosUrlServiceImpl implements CosUrlService {
 
-    private final CosClientConfig cosClientConfig;
-    private final COSClient cosClient;
+    /**
+     * 默认有效期：30 分钟
+     */
+    private static final long DEFAULT_EXPIRE_MILLIS = 30 * 60 * 1000L;
+
+    private final ObjectStorage objectStorage;
+
+    private final StorageConfig storageConfig;
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * 签名 URL 缓存：对象标识 + 有效时间 + 窗口序号 -> URL
+     */
+    private Cache<String, String> signedUrlCache;
+
+    /**
+     * 时间窗口长度（毫秒）
+     */
+    private long bucketMillis;
+
+    @PostConstruct
+    public void init() {
+        StorageConfig.SignedUrl signedUrlConfig = storageConfig.getSignedUrl();
+        bucketMillis = TimeUnit.SECONDS.toMillis(Math.max(1, signedUrlConfig.getBucketSeconds()));
+        // 窗口序号是缓存 key 的一部分，过期窗口的条目不会再被命中，保留一个窗口即可
+        signedUrlCache = Caffeine.newBuilder()
+                .maximumSize(signedUrlConfig.getMaxSize())
+                .expireAfterWrite(bucketMillis, TimeUnit.MILLISECONDS)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, signedUrlCache, "signedUrl");
+    }
 
     /**
      * 生成一个带时效性的、可公开访问的临时签名 URL（Presigned URL）
+     * 过期时刻对齐到当前窗口结束后的 expireMillis，保证窗口内任意时刻返回的 URL 剩余有效期不少于 expireMillis
      *
-     * @param key          COS 中的对象键（即文件路径），例如 "user/123/avatar.png"
-     *                     如果以 "/" 开头，会自动去除（COS Key 不应以 / 开头）
-     * @param expireMillis 签名 URL 的有效时间（毫秒），例如 3600000 = 1 小时
-     * @return 临时可访问的完整 HTTPS URL，如：
+     * @param key          对象键（即文件路径），例如 "user/123/avatar.png"
+     *                     如果以 "/" 开头，会自动去除（Key 不应以 / 开头）
+     * @param expireMillis 签名 URL 的最短有效时间（毫秒），例如 3600000 = 1 小时
+     * @return 临时可访问的完整 URL，如：
      * <a href="https://your-bucket.cos.ap-beijing.myqcloud.com/user/123/avatar.png?sign=xxx">...</a>
      * 若 key 为空，则返回 null
      */
@@ -37,23 +82,11 @@ public class CosUrlServiceImpl implements CosUrlService {
         if (StrUtil.isBlank(key)) {
             return null;
         }
-        // COS 的 Key 规范：不应以 "/" 开头，否则可能导致签名失败或路径错误
-        String normalizedKey = key.startsWith("/") ? key.substring(1) : key;
-
-        // 计算过期时间：当前时间 + 指定毫秒数
-        Date expiration = new Date(System.currentTimeMillis() + expireMillis);
-
-        // 构造预签名请求：指定 bucket、key、HTTP 方法（GET 表示只读）
-        GeneratePresignedUrlRequest req = new GeneratePresignedUrlRequest(
-                cosClientConfig.getBucket(),   // 存储桶名称
-                normalizedKey,                 // 文件在 COS 中的路径（Key）
-                HttpMethodName.GET             // 只允许 GET 请求（下载）
-        );
-        req.setExpiration(expiration); // 设置过期时间
-
-        // 调用 COS SDK 生成带签名的 URL
-        URL signedUrl = cosClient.generatePresignedUrl(req);
-        return signedUrl.toString();
+        String normalizedKey = ObjectStorage.normalizeKey(key);
+        long bucket = System.currentTimeMillis() / bucketMillis;
+        Date expiration = new Date((bucket + 1) * bucketMillis + expireMillis);
+        return signedUrlCache.get(normalizedKey + "|" + expireMillis + "|" + bucket,
+                cacheKey -> objectStorage.generateSignedUrl(normalizedKey, expiration));
     }
 
     /**
@@ -61,7 +94,41 @@ public class CosUrlServiceImpl implements CosUrlService {
      */
     @Override
     public String generateDefaultSignedUrl(String key) {
-        return generateSignedUrl(key, 30 * 60 * 1000); // 默认 30 分钟
+        return generateSignedUrl(key, DEFAULT_EXPIRE_MILLIS);
+    }
+
+    /**
+     * 批量生成默认有效期的签名 URL：先查缓存，未命中的 key 一次性批量签名后回填缓存
+     */
+    @Override
+    public Map<String, String> generateDefaultSignedUrls(Collection<String> keys) {
+        Map<String, String> result = new HashMap<>(keys.size() * 2);
+        long bucket = System.currentTimeMillis() / bucketMillis;
+        // 1. 查缓存
+        Map<String, String> missKeys = new LinkedHashMap<>();
+        for (String key : keys) {
+            if (StrUtil.isBlank(key) || result.containsKey(key)) {
+                continue;
+            }
+            String normalizedKey = ObjectStorage.normalizeKey(key);
+            String cacheKey = normalizedKey + "|" + DEFAULT_EXPIRE_MILLIS + "|" + bucket;
+            String url = signedUrlCache.getIfPresent(cacheKey);
+            if (url != null) {
+                result.put(key, url);
+            } else {
+                missKeys.put(normalizedKey, key);
+            }
+        }
+        if (missKeys.isEmpty()) {
+            return result;
+        }
+        // 2. 批量签名并回填缓存
+        Date expiration = new Date((bucket + 1) * bucketMillis + DEFAULT_EXPIRE_MILLIS);
+        objectStorage.generateSignedUrls(missKeys.keySet(), expiration).forEach((normalizedKey, url) -> {
+            signedUrlCache.put(normalizedKey + "|" + DEFAULT_EXPIRE_MILLIS + "|" + bucket, url);
+            result.put(missKeys.get(normalizedKey), url);
+        });
+        return result;
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,408 @@
+package com.ye.yepicturebackend.service.impl;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.util.ObjUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.crypto.digest.DigestUtil;
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.ye.yepicturebackend.config.PictureImportConfig;
+import com.ye.yepicturebackend.exception.BusinessException;
+import com.ye.yepicturebackend.exception.ErrorCode;
+import com.ye.yepicturebackend.exception.ThrowUtils;
+import com.ye.yepicturebackend.mapper.PictureImportItemMapper;
+import com.ye.yepicturebackend.mapper.PictureImportJobMapper;
+import com.ye.yepicturebackend.model.dto.picture.upload.UploadBatchRequest;
+import com.ye.yepicturebackend.model.dto.picture.upload.UploadRequest;
+import com.ye.yepicturebackend.model.entity.PictureImportItem;
+import com.ye.yepicturebackend.model.entity.PictureImportJob;
+import com.ye.yepicturebackend.model.entity.User;
+import com.ye.yepicturebackend.model.enums.ImportItemStatusEnum;
+import com.ye.yepicturebackend.model.enums.ImportJobStatusEnum;
+import com.ye.yepicturebackend.model.vo.picture.PictureVO;
+import com.ye.yepicturebackend.service.PictureImportJobService;
+import com.ye.yepicturebackend.service.PictureService;
+import com.ye.yepicturebackend.service.UserService;
+import lombok.extern.slf4j.Slf4j;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.Resource;
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 图片批量导入任务服务实现类
+ * <p>
+ * 导入在后台执行，每个任务由一个调度线程负责：
+ * 1. 逐页抓取搜索结果，图片地址按任务去重后登记为导入条目
+ * 2. 条目在有界线程池中并发下载上传，以占位分类/标签入库后提交 AI 打标队列异步分析
+ * 3. 每页处理完成后持久化进度（偏移量、成功/失败数），服务重启后自动从断点继续
+ * </p>
+ */
+@Slf4j
+@Service
+public class PictureImportJobServiceImpl extends ServiceImpl<PictureImportJobMapper, PictureImportJob>
+        implements PictureImportJobService {
+
+    /**
+     * 搜索结果抓取地址（q：关键词；first：偏移量；count：每页数量）
+     */
+    private static final String FETCH_URL = "https://cn.bing.com/images/async?q=%s&first=%d&count=%d&mmasync=1";
+
+    @Resource
+    private PictureImportItemMapper pictureImportItemMapper;
+
+    @Resource
+    private PictureService pictureService;
+
+    @Resource
+    private UserService userService;
+
+    @Resource
+    private PictureImportConfig pictureImportConfig;
+
+    @Resource(name = "importJobExecutor")
+    private ThreadPoolExecutor importJobExecutor;
+
+    @Resource(name = "importUploadExecutor")
+    private ThreadPoolExecutor importUploadExecutor;
+
+    /**
+     * 当前节点正在执行的任务 id，防止同一任务被重复调度
+     */
+    private final Set<Long> runningJobIds = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public Long submitImportJob(UploadBatchRequest uploadBatchRequest, User loginUser) {
+        // 1. 参数校验
+        ThrowUtils.throwIf(uploadBatchRequest == null, ErrorCode.PARAMS_ERROR);
+        String searchText = uploadBatchRequest.getSearchText();
+        Integer count = uploadBatchRequest.getCount();
+        ThrowUtils.throwIf(StrUtil.isBlank(searchText), ErrorCode.PARAMS_ERROR, "搜索词不能为空");
+        ThrowUtils.throwIf(count == null || count <= 0 || count > pictureImportConfig.getMaxCount(),
+                ErrorCode.PARAMS_ERROR, "导入数量需在 1 ~ " + pictureImportConfig.getMaxCount() + " 之间");
+        // 2. 创建任务
+        PictureImportJob job = new PictureImportJob();
+        job.setUserId(loginUser.getId());
+        job.setSearchText(searchText);
+        // 名称前缀默认为搜索关键词
+        job.setNamePrefix(StrUtil.blankToDefault(uploadBatchRequest.getNamePrefix(), searchText));
+        job.setCategory(uploadBatchRequest.getCategory());
+        if (CollUtil.isNotEmpty(uploadBatchRequest.getTags())) {
+            job.setTags(JSONUtil.toJsonStr(uploadBatchRequest.getTags()));
+        }
+        job.setTargetCount(count);
+        job.setSuccessCount(0);
+        job.setFailCount(0);
+        job.setNextOffset(0);
+        job.setStatus(ImportJobStatusEnum.RUNNING.getValue());
+        boolean result = this.save(job);
+        ThrowUtils.throwIf(!result, ErrorCode.OPERATION_ERROR, "创建导入任务失败");
+        log.info("创建批量导入任务（jobId：{}），搜索词: {}, 数量: {}", job.getId(), searchText, count);
+        // 3. 提交后台执行
+        schedule(job.getId(), loginUser);
+        return job.getId();
+    }
+
+    @Override
+    public void resumeImportJob(Long jobId, User loginUser) {
+        ThrowUtils.throwIf(ObjUtil.isNull(jobId), ErrorCode.PARAMS_ERROR);
+        PictureImportJob job = this.getById(jobId);
+        ThrowUtils.throwIf(job == null, ErrorCode.NOT_FOUND_ERROR, "导入任务不存在");
+        ThrowUtils.throwIf(job.getStatus() == ImportJobStatusEnum.COMPLETED.getValue(),
+                ErrorCode.OPERATION_ERROR, "导入任务已完成");
+        ThrowUtils.throwIf(runningJobIds.contains(jobId), ErrorCode.OPERATION_ERROR, "导入任务正在执行中");
+        this.lambdaUpdate()
+                .eq(PictureImportJob::getId, jobId)
+                .set(PictureImportJob::getStatus, ImportJobStatusEnum.RUNNING.getValue())
+                .set(PictureImportJob::getErrorMessage, null)
+                .update();
+        schedule(jobId, loginUser);
+    }
+
+    /**
+     * 服务启动后恢复因重启而中断的任务
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedJobs() {
+        List<PictureImportJob> jobList = this.lambdaQuery()
+                .eq(PictureImportJob::getStatus, ImportJobStatusEnum.RUNNING.getValue())
+                .list();
+        for (PictureImportJob job : jobList) {
+            User user = userService.getById(job.getUserId());
+            if (user == null) {
+                finish(job.getId(), ImportJobStatusEnum.FAILED, "任务创建者不存在");
+                continue;
+            }
+            try {
+                schedule(job.getId(), user);
+                log.info("恢复中断的批量导入任务（jobId：{}）", job.getId());
+            } catch (BusinessException e) {
+                log.warn("恢复批量导入任务失败（jobId：{}）：{}", job.getId(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 提交任务到调度线程池
+     */
+    private void schedule(Long jobId, User loginUser) {
+        if (!runningJobIds.add(jobId)) {
+            return;
+        }
+        try {
+            importJobExecutor.execute(() -> {
+                try {
+                    runJob(jobId, loginUser);
+                } finally {
+                    runningJobIds.remove(jobId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            runningJobIds.remove(jobId);
+            throw new BusinessException(ErrorCode.OPERATION_ERROR, "导入任务过多，请稍后恢复执行");
+        }
+    }
+
+    /**
+     * 执行导入任务：先补完上次中断的条目，再从持久化的偏移量继续翻页
+     */
+    private void runJob(Long jobId, User loginUser) {
+        PictureImportJob job = this.getById(jobId);
+        if (job == null) {
+            return;
+        }
+        // 成功/失败数以条目状态为准：条目状态与图片记录同时提交，中断前最后一页的结果尚未写入任务进度
+        AtomicInteger successCount = new AtomicInteger(countItems(jobId, ImportItemStatusEnum.SUCCEED));
+        AtomicInteger failCount = new AtomicInteger(countItems(jobId, ImportItemStatusEnum.FAILED));
+        // 已占用的导入名额（成功数 + 正在上传数），用于精确控制导入数量
+        AtomicInteger reservedCount = new AtomicInteger(successCount.get());
+        try {
+            // 1. 处理上次中断时尚未完成的条目（图片已入库的条目已标记为成功，不会重复上传）
+            List<PictureImportItem> pendingItems = pictureImportItemMapper.selectList(
+                    new LambdaQueryWrapper<PictureImportItem>()
+                            .eq(PictureImportItem::getJobId, jobId)
+                            .eq(PictureImportItem::getStatus, ImportItemStatusEnum.PENDING.getValue()));
+            processItems(job, pendingItems, loginUser, successCount, failCount, reservedCount);
+            int offset = job.getNextOffset();
+            saveProgress(jobId, offset, successCount.get(), failCount.get());
+            // 2. 逐页抓取，直到达到目标数量或无更多结果
+            int pageCount = 0;
+            while (successCount.get() < job.getTargetCount() && pageCount < pictureImportConfig.getMaxPages()) {
+                List<String> urlList = fetchPage(job.getSearchText(), offset);
+                if (urlList.isEmpty()) {
+                    log.info("批量导入任务无更多搜索结果（jobId：{}，offset：{}）", jobId, offset);
+                    break;
+                }
+                offset += pictureImportConfig.getPageSize();
+                pageCount++;
+                List<PictureImportItem> newItems = registerItems(jobId, urlList);
+                processItems(job, newItems, loginUser, successCount, failCount, reservedCount);
+                // 3. 每页处理完成后持久化进度
+                saveProgress(jobId, offset, successCount.get(), failCount.get());
+            }
+            finish(jobId, ImportJobStatusEnum.COMPLETED, null);
+            log.info("批量导入任务完成（jobId：{}），成功：{}，失败：{}", jobId, successCount.get(), failCount.get());
+        } catch (Exception e) {
+            log.error("批量导入任务执行失败（jobId：{}）", jobId, e);
+            saveProgress(jobId, null, successCount.get(), failCount.get());
+            finish(jobId, ImportJobStatusEnum.FAILED, StrUtil.maxLength(e.getMessage(), 500));
+        }
+    }
+
+    /**
+     * 并发处理一批导入条目（下载上传 -> 提交 AI 打标），并等待全部完成
+     * 同一任务同时处理的条目数不超过上传并发数
+     */
+    private void processItems(PictureImportJob job, List<PictureImportItem> items, User loginUser,
+                              AtomicInteger successCount, AtomicInteger failCount,
+                              AtomicInteger reservedCount) throws InterruptedException {
+        if (CollUtil.isEmpty(items)) {
+            return;
+        }
+        Semaphore inFlight = new Semaphore(pictureImportConfig.getUploadThreads());
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (PictureImportItem item : items) {
+            if (successCount.get() >= job.getTargetCount()) {
+                break;
+            }
+            inFlight.acquire();
+            CompletableFuture<Void> future = CompletableFuture
+                    .supplyAsync(() -> {
+                        int sequence = reservedCount.incrementAndGet();
+                        if (sequence > job.getTargetCount()) {
+                            // 已达到目标数量，放弃本条目
+                            reservedCount.decrementAndGet();
+                            return null;
+                        }
+                        try {
+                            UploadRequest uploadRequest = buildUploadRequest(job, item.getUrl());
+                            uploadRequest.setPicName(job.getNamePrefix() + sequence);
+                            // 条目在图片入库的同一事务中标记为成功，中断后恢复时不会重复导入
+                            PictureVO pictureVO = pictureService.uploadPicture(item.getUrl(), uploadRequest, loginUser,
+                                    picture -> updateItem(item.getId(), ImportItemStatusEnum.SUCCEED, picture.getId()));
+                            pictureService.submitAiTagging(pictureVO.getId(), item.getUrl(),
+                                    uploadRequest.getCategory(), uploadRequest.getTags());
+                            return pictureVO.getId();
+                        } catch (RuntimeException e) {
+                            reservedCount.decrementAndGet();
+                            throw e;
+                        }
+                    }, importUploadExecutor)
+                    .handle((pictureId, e) -> {
+                        if (e != null) {
+                            Throwable cause = e.getCause() != null ? e.getCause() : e;
+                            log.warn("批量导入图片失败（jobId：{}，url：{}）：{}", job.getId(), item.getUrl(), cause.getMessage());
+                            failCount.incrementAndGet();
+                            updateItem(item.getId(), ImportItemStatusEnum.FAILED, null);
+                        } else if (pictureId != null) {
+                            successCount.incrementAndGet();
+                        }
+                        inFlight.release();
+                        return null;
+                    });
+            futures.add(future);
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+    }
+
+    /**
+     * 构造上传参数：使用任务的默认分类与标签作为占位，AI 分析结果由打标队列异步回填
+     */
+    private UploadRequest buildUploadRequest(PictureImportJob job, String fileUrl) {
+        UploadRequest uploadRequest = new UploadRequest();
+        uploadRequest.setFileUrl(fileUrl);
+        uploadRequest.setCategory(StrUtil.blankToDefault(job.getCategory(), "其他"));
+        uploadRequest.setTags(StrUtil.isNotBlank(job.getTags())
+                ? JSONUtil.toList(job.getTags(), String.class)
+                : Arrays.asList(job.getSearchText(), "网络图片"));
+        uploadRequest.setIntroduction("一张来自网络的图片");
+        return uploadRequest;
+    }
+
+    /**
+     * 抓取一页搜索结果，提取原始图片地址（去除查询参数，页内去重）
+     */
+    private List<String> fetchPage(String searchText, int offset) {
+        String fetchUrl = String.format(FETCH_URL, URLEncoder.encode(searchText, StandardCharsets.UTF_8),
+                offset, pictureImportConfig.getPageSize());
+        Document document;
+        try {
+            document = Jsoup.connect(fetchUrl).timeout(10_000).get();
+        } catch (IOException e) {
+            throw new BusinessException(ErrorCode.OPERATION_ERROR, "获取页面失败：" + e.getMessage());
+        }
+        Element div = document.getElementsByClass("dgControl").first();
+        if (ObjUtil.isNull(div)) {
+            return new ArrayList<>();
+        }
+        Set<String> urlSet = new LinkedHashSet<>();
+        for (Element imgElement : div.select(".iusc")) {
+            String fileUrl;
+            try {
+                JSONObject jsonObject = JSONUtil.parseObj(imgElement.attr("m"));
+                fileUrl = jsonObject.getStr("murl");
+            } catch (Exception e) {
+                log.error("解析图片数据失败", e);
+                continue;
+            }
+            if (StrUtil.isBlank(fileUrl)) {
+                continue;
+            }
+            int questionMarkIndex = fileUrl.indexOf("?");
+            if (questionMarkIndex > -1) {
+                fileUrl = fileUrl.substring(0, questionMarkIndex);
+            }
+            urlSet.add(fileUrl);
+        }
+        return new ArrayList<>(urlSet);
+    }
+
+    /**
+     * 登记导入条目，任务内已出现过的图片地址直接跳过
+     *
+     * @return 新登记的条目
+     */
+    private List<PictureImportItem> registerItems(Long jobId, List<String> urlList) {
+        List<PictureImportItem> newItems = new ArrayList<>();
+        for (String url : urlList) {
+            PictureImportItem item = new PictureImportItem();
+            item.setJobId(jobId);
+            item.setUrlHash(DigestUtil.sha256Hex(url));
+            item.setUrl(url);
+            item.setStatus(ImportItemStatusEnum.PENDING.getValue());
+            try {
+                pictureImportItemMapper.insert(item);
+                newItems.add(item);
+            } catch (DuplicateKeyException e) {
+                log.debug("图片地址已导入过，跳过（jobId：{}，url：{}）", jobId, url);
+            }
+        }
+        return newItems;
+    }
+
+    /**
+     * 更新条目状态
+     */
+    private void updateItem(Long itemId, ImportItemStatusEnum status, Long pictureId) {
+        pictureImportItemMapper.update(null, new LambdaUpdateWrapper<PictureImportItem>()
+                .eq(PictureImportItem::getId, itemId)
+                .set(PictureImportItem::getStatus, status.getValue())
+                .set(pictureId != null, PictureImportItem::getPictureId, pictureId));
+    }
+
+    /**
+     * 统计任务中指定状态的条目数
+     */
+    private int countItems(Long jobId, ImportItemStatusEnum status) {
+        return Math.toIntExact(pictureImportItemMapper.selectCount(new LambdaQueryWrapper<PictureImportItem>()
+                .eq(PictureImportItem::getJobId, jobId)
+                .eq(PictureImportItem::getStatus, status.getValue())));
+    }
+
+    /**
+     * 持久化任务进度
+     *
+     * @param nextOffset 下一页偏移量，为 null 时不更新
+     */
+    private void saveProgress(Long jobId, Integer nextOffset, int successCount, int failCount) {
+        this.lambdaUpdate()
+                .eq(PictureImportJob::getId, jobId)
+                .set(nextOffset != null, PictureImportJob::getNextOffset, nextOffset)
+                .set(PictureImportJob::getSuccessCount, successCount)
+                .set(PictureImportJob::getFailCount, failCount)
+                .update();
+    }
+
+    /**
+     * 结束任务
+     */
+    private void finish(Long jobId, ImportJobStatusEnum status, String errorMessage) {
+        this.lambdaUpdate()
+                .eq(PictureImportJob::getId, jobId)
+                .set(PictureImportJob::getStatus, status.getValue())
+                .set(PictureImportJob::getErrorMessage, errorMessage)
+                .update();
+    }
+}
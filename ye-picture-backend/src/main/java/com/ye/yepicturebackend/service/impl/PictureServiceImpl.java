@@ -1,21 +1,21 @@
 package com.ye.yepicturebackend.service.impl;
 
-import cn.hutool.core.bean.BeanUtil;
 import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.collection.CollectionUtil;
+import cn.hutool.core.lang.TypeReference;
 import cn.hutool.core.util.ObjUtil;
 import cn.hutool.core.util.StrUtil;
 import cn.hutool.json.JSONObject;
 import cn.hutool.json.JSONUtil;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.core.toolkit.support.SFunction;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.ye.yepicturebackend.api.aliyunai.AliYunAiApi;
 import com.ye.yepicturebackend.api.aliyunai.model.CreateOutPaintingTaskRequest;
 import com.ye.yepicturebackend.api.aliyunai.model.CreateOutPaintingTaskResponse;
-import com.ye.yepicturebackend.api.hunyuan.HunyuanImageAnalysis;
-import com.ye.yepicturebackend.api.hunyuan.model.ImageAnalysisResult;
+import com.ye.yepicturebackend.common.CursorPage;
 import com.ye.yepicturebackend.common.DeleteRequest;
 import com.ye.yepicturebackend.constant.RabbitMQConstant;
 import com.ye.yepicturebackend.constant.UserConstant;
@@ -31,10 +31,23 @@ import com.ye.yepicturebackend.exception.ThrowUtils;
 import com.ye.yepicturebackend.manager.upload.CosManager;
 import com.ye.yepicturebackend.manager.auth.SpaceUserAuthManager;
 import com.ye.yepicturebackend.manager.auth.StpKit;
+import com.ye.yepicturebackend.manager.cache.PictureQueryCache;
+import com.ye.yepicturebackend.manager.color.PictureColorManager;
+import com.ye.yepicturebackend.manager.color.PicturePaletteManager;
+import com.ye.yepicturebackend.manager.image.ImageFeatureExtractor;
+import com.ye.yepicturebackend.manager.image.PictureFeatureManager;
+import com.ye.yepicturebackend.manager.index.PictureBitmapIndex;
+import com.ye.yepicturebackend.manager.index.PictureSimilarIndex;
+import com.ye.yepicturebackend.manager.tag.PictureTagManager;
 import com.ye.yepicturebackend.manager.auth.model.SpaceUserPermissionConstant;
 import com.ye.yepicturebackend.manager.upload.FilePictureUpload;
+import com.ye.yepicturebackend.manager.upload.PictureFileManager;
 import com.ye.yepicturebackend.manager.upload.PictureUploadTemplate;
+import com.ye.yepicturebackend.manager.upload.StagedPicture;
+import com.ye.yepicturebackend.manager.upload.StagedPictureUpload;
+import com.ye.yepicturebackend.manager.upload.UploadMetrics;
 import com.ye.yepicturebackend.manager.upload.UrlPictureUpload;
+import com.ye.yepicturebackend.model.dto.picture.aitag.AiTagMessage;
 import com.ye.yepicturebackend.model.dto.picture.review.ReviewNoticeMessage;
 import com.ye.yepicturebackend.model.vo.picture.PictureVO;
 import com.ye.yepicturebackend.model.vo.user.UserVO;
@@ -47,32 +60,35 @@ import com.ye.yepicturebackend.model.entity.Picture;
 import com.ye.yepicturebackend.model.entity.Space;
 import com.ye.yepicturebackend.model.entity.User;
 import com.ye.yepicturebackend.model.enums.PictureReviewStatusEnum;
+import com.ye.yepicturebackend.model.enums.PictureProjectionEnum;
 import com.ye.yepicturebackend.service.CosUrlService;
 import com.ye.yepicturebackend.service.PictureService;
 import com.ye.yepicturebackend.mapper.PictureMapper;
 import com.ye.yepicturebackend.mapper.PictureTagMapper;
 import com.ye.yepicturebackend.mapper.PictureCategoryMapper;
 import com.ye.yepicturebackend.model.entity.PictureTag;
+import com.ye.yepicturebackend.model.entity.PictureTagRel;
 import com.ye.yepicturebackend.model.entity.PictureCategory;
 import com.ye.yepicturebackend.service.SpaceService;
 import com.ye.yepicturebackend.service.UserService;
 import com.ye.yepicturebackend.utils.ColorSimilarUtils;
+import com.ye.yepicturebackend.utils.CursorUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 import org.jsoup.select.Elements;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
-import org.springframework.beans.BeanUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.support.TransactionTemplate;
 
 import javax.annotation.Resource;
 import javax.servlet.http.HttpServletRequest;
-import java.awt.*;
 import java.io.IOException;
 import java.util.*;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /**
@@ -83,6 +99,43 @@ import java.util.stream.Collectors;
 public class PictureServiceImpl extends ServiceImpl<PictureMapper, Picture>
         implements PictureService {
 
+    /**
+     * 全文索引 ngram 分词长度（与 MySQL ngram_token_size 一致），更短的搜索词退化为模糊匹配
+     */
+    private static final int NGRAM_TOKEN_SIZE = 2;
+
+    /**
+     * 以颜色搜图：最多返回数量与允许的最大 CIEDE2000 色差
+     */
+    private static final int COLOR_SEARCH_LIMIT = 12;
+
+    private static final double COLOR_MAX_DELTA_E = 20;
+
+    /**
+     * 以图搜图：最多返回数量
+     */
+    private static final int SIMILAR_SEARCH_LIMIT = 20;
+
+    /**
+     * 全文检索过滤表达式（对应 picture 表的 ngram 全文索引 ft_name_introduction_category）
+     * 使用布尔模式的短语匹配：ngram 分词后自然语言模式命中任意一个 2 字片段即匹配，短语要求所有片段连续出现
+     * （相关度排序仍使用自然语言模式，见 PictureMapper.selectPageByRelevance）
+     */
+    private static final String FULLTEXT_MATCH_SQL =
+            "MATCH(name, introduction, category) AGAINST({0} IN BOOLEAN MODE)";
+
+    /**
+     * 合法排序字段映射表
+     */
+    private static final Map<String, SFunction<Picture, ?>> SORT_FIELD_MAP = new HashMap<>();
+
+    static {
+        SORT_FIELD_MAP.put("createTime", Picture::getCreateTime);
+        SORT_FIELD_MAP.put("picSize", Picture::getPicSize);
+        SORT_FIELD_MAP.put("picWidth", Picture::getPicWidth);
+        SORT_FIELD_MAP.put("name", Picture::getName);
+    }
+
     @Resource
     private UserService userService;
 
@@ -92,6 +145,9 @@ public class PictureServiceImpl extends ServiceImpl<PictureMapper, Picture>
     @Resource
     private UrlPictureUpload urlPictureUpload;
 
+    @Resource
+    private StagedPictureUpload stagedPictureUpload;
+
     @Resource
     private SpaceService spaceService;
 
@@ -114,7 +170,25 @@ public class PictureServiceImpl extends ServiceImpl<PictureMapper, Picture>
     private PictureCategoryMapper pictureCategoryMapper;
 
     @Resource
-    private HunyuanImageAnalysis hunyuanImageAnalysis;
+    private PictureTagManager pictureTagManager;
+
+    @Resource
+    private PictureBitmapIndex pictureBitmapIndex;
+
+    @Resource
+    private PictureColorManager pictureColorManager;
+
+    @Resource
+    private PicturePaletteManager picturePaletteManager;
+
+    @Resource
+    private PictureFeatureManager pictureFeatureManager;
+
+    @Resource
+    private PictureSimilarIndex pictureSimilarIndex;
+
+    @Resource
+    private PictureQueryCache pictureQueryCache;
 
     @Resource
     private RabbitTemplate rabbitTemplate;
@@ -125,12 +199,18 @@ public class PictureServiceImpl extends ServiceImpl<PictureMapper, Picture>
     @Resource
     private CosUrlService cosUrlService;
 
+    @Resource
+    private PictureFileManager pictureFileManager;
+
+    @Resource
+    private UploadMetrics uploadMetrics;
+
     // region 上传照片核心
 
     /**
      * 上传或更新图片
      *
-     * @param inputSource          图片输入源：支持两种类型，1. 本地文件相关对象，2. 图片URL字符串
+     * @param inputSource          图片输入源：支持三种类型，1. 本地文件相关对象，2. 图片URL字符串，3. 异步上传暂存的图片
      * @param uploadRequest 图片上传/更新请求参数
      * @param loginUser            当前登录用户对象
      * @return PictureVO 脱敏后的图片视图对象
@@ -139,16 +219,35 @@ public class PictureServiceImpl extends ServiceImpl<PictureMapper, Picture>
     public PictureVO uploadPicture(Object inputSource,
                                    UploadRequest uploadRequest,
                                    User loginUser) {
+        return uploadPicture(inputSource, uploadRequest, loginUser, null);
+    }
+
+    /**
+     * 上传或更新图片，并在图片入库的同一事务中执行额外的写入
+     *
+     * @param inputSource   图片输入源
+     * @param uploadRequest 图片上传/更新请求参数
+     * @param loginUser     当前登录用户对象
+     * @param afterSave     图片记录写入后、事务提交前执行，可为 null
+     * @return PictureVO 脱敏后的图片视图对象
+     */
+    @Override
+    public PictureVO uploadPicture(Object inputSource,
+                                   UploadRequest uploadRequest,
+                                   User loginUser,
+                                   Consumer<Picture> afterSave) {
         // 1. 权限校验
         ThrowUtils.throwIf(inputSource == null,
                 ErrorCode.PARAMS_ERROR, "图片为空");
         ThrowUtils.throwIf(loginUser == null,
                 ErrorCode.NO_AUTH_ERROR, "无操作权限");
+        long uploadStart = System.nanoTime();
         Long pictureId = uploadRequest != null ? uploadRequest.getId() : null;
         // 校验空间是否存在
         Long spaceId = uploadRequest != null ? uploadRequest.getSpaceId() : null;
+        Space space = null;
         if (spaceId != null) {
-            Space space = spaceService.getById(spaceId);
+            space = spaceService.getById(spaceId);
             ThrowUtils.throwIf(space == null,
                     ErrorCode.NOT_FOUND_ERROR, "空间不存在");
             // 校验额度
@@ -160,8 +259,9 @@ public class PictureServiceImpl extends ServiceImpl<PictureMapper, Picture>
             }
         }
         // 更新权限校验
+        Picture oldPicture = null;
         if (pictureId != null) {
-            Picture oldPicture = this.getById(pictureId);
+            oldPicture = this.getById(pictureId);
             ThrowUtils.throwIf(oldPicture == null,
                     ErrorCode.NOT_FOUND_ERROR, "操作的原图片不存在");
             // 校验空间是否一致
@@ -184,32 +284,91 @@ public class PictureServiceImpl extends ServiceImpl<PictureMapper, Picture>
             uploadPathPrefix = String.format("space/%s", spaceId);
         }
         // 选择上传模板并上传
-        PictureUploadTemplate pictureUploadTemplate = (inputSource instanceof String)
-                ? urlPictureUpload
-                : filePictureUpload;
-        UploadResult uploadResult = pictureUploadTemplate.uploadPicture(inputSource, uploadPathPrefix);
+        PictureUploadTemplate pictureUploadTemplate;
+        if (inputSource instanceof String) {
+            pictureUploadTemplate = urlPictureUpload;
+        } else if (inputSource instanceof StagedPicture) {
+            pictureUploadTemplate = stagedPictureUpload;
+        } else {
+            pictureUploadTemplate = filePictureUpload;
+        }
+        UploadMetrics.Recorder recorder = uploadMetrics.recorder(inputSource,
+                space != null ? space.getSpaceLevel() : null);
+        // 上传结果已持有对图片文件的引用，由图片记录继承
+        UploadResult uploadResult = pictureUploadTemplate.uploadPicture(inputSource, uploadPathPrefix, recorder);
         // 构造图片实体
         Picture picture = getPicture(loginUser, uploadResult, pictureId, uploadRequest);
+        try {
+            savePicture(picture, uploadResult, uploadRequest, loginUser, spaceId, recorder, afterSave);
+        } catch (RuntimeException e) {
+            // 入库失败：释放本次上传持有的引用（无其他引用时清理对象存储）
+            this.clearPictureFile(picture);
+            throw e;
+        }
+        // 异步提取色板与以图搜图特征（不等待结果）
+        picturePaletteManager.submitExtraction(picture);
+        pictureFeatureManager.submitExtraction(picture);
+        // 更新图片时释放对旧文件的引用（无引用后清理对象存储）
+        if (oldPicture != null && StrUtil.isNotBlank(oldPicture.getOriginKey())) {
+            this.clearPictureFile(oldPicture);
+        }
+        recorder.record(UploadMetrics.STAGE_TOTAL, uploadStart);
+        return pictureVoConverter.toVo(picture);
+    }
+
+    /**
+     * 补充图片实体并在事务中入库（含标签关联、过滤索引、空间额度）
+     *
+     * @param picture       待入库的图片实体
+     * @param uploadResult  图片上传结果
+     * @param uploadRequest 图片上传/更新请求参数
+     * @param loginUser     当前登录用户
+     * @param spaceId       空间 id，公共图库为 null
+     * @param recorder      上传指标记录器
+     * @param afterSave     图片记录写入后在同一事务中执行，可为 null
+     */
+    private void savePicture(Picture picture, UploadResult uploadResult, UploadRequest uploadRequest,
+                             User loginUser, Long spaceId, UploadMetrics.Recorder recorder,
+                             Consumer<Picture> afterSave) {
+        // 主色调统一格式，并预先计算整数值与 L*a*b* 分量
+        pictureColorManager.fillColorColumns(picture, uploadResult.getPicColor());
         // 补充审核参数
         this.fillReviewParams(picture, loginUser);
         // 执行入库,使用事务
-        Long finalSpaceId = spaceId;
         transactionTemplate.execute(status -> {
+            long start = System.nanoTime();
             boolean result = this.saveOrUpdate(picture);
             ThrowUtils.throwIf(!result,
                     ErrorCode.OPERATION_ERROR, "图片上传失败");
-            if (finalSpaceId != null) {
+            if (afterSave != null) {
+                afterSave.accept(picture);
+            }
+            // 同步标签关联与过滤索引
+            if (picture.getTags() != null) {
+                pictureTagManager.syncPictureTags(picture.getId(), picture.getSpaceId(), uploadRequest.getTags());
+            }
+            if (picture.getCategory() != null) {
+                pictureBitmapIndex.onCategoryChanged(picture.getSpaceId(),
+                        Collections.singletonList(picture.getId()), picture.getCategory());
+            }
+            // 重新上传的图片特征随后重新提取，待审核时先从公共图库索引中移除
+            pictureSimilarIndex.onReviewStatusChanged(picture.getSpaceId(), picture.getId(),
+                    picture.getReviewStatus(), null);
+            pictureQueryCache.bumpVersion(picture.getSpaceId());
+            recorder.record(UploadMetrics.STAGE_PERSIST, start);
+            if (spaceId != null) {
+                start = System.nanoTime();
                 boolean update = spaceService.lambdaUpdate()
-                        .eq(Space::getId, finalSpaceId)
+                        .eq(Space::getId, spaceId)
                         .setSql("totalSize = totalSize + " + picture.getPicSize())
                         .setSql("totalCount = totalCount + 1")
                         .update();
                 ThrowUtils.throwIf(!update,
                         ErrorCode.OPERATION_ERROR, "额度更新失败");
+                recorder.record(UploadMetrics.STAGE_QUOTA, start);
             }
             return picture;
         });
-        return pictureVoConverter.toVo(picture);
     }
 
     /**
@@ -241,6 +400,7 @@ public class PictureServiceImpl extends ServiceImpl<PictureMapper, Picture>
         picture.setPicScale(uploadResult.getPicScale());
         picture.setPicFormat(uploadResult.getPicFormat());
         picture.setPicColor(uploadResult.getPicColor());
+        picture.setFileHash(uploadResult.getFileHash());
 
         // 处理分类、标签和简介
         if (uploadRequest != null) {
@@ -321,6 +481,20 @@ public class PictureServiceImpl extends ServiceImpl<PictureMapper, Picture>
      */
     @Override
     public Page<PictureVO> getPictureVOPage(Page<Picture> picturePage, HttpServletRequest request) {
+        return this.getPictureVOPage(picturePage, PictureProjectionEnum.FULL, request);
+    }
+
+    /**
+     * 按字段投影将（Page<Picture>）转换为（Page<PictureVO>）
+     *
+     * @param picturePage 数据库查询得到的图片实体分页对象
+     * @param projection  字段投影，决定签名哪些访问地址、是否填充作者信息
+     * @param request     HTTP请求对象
+     * @return Page<PictureVO> 前端可直接渲染的图片VO分页对象
+     */
+    @Override
+    public Page<PictureVO> getPictureVOPage(Page<Picture> picturePage, PictureProjectionEnum projection,
+                                            HttpServletRequest request) {
         List<Picture> records = picturePage.getRecords();
         Page<PictureVO> voPage = new Page<>(
                 picturePage.getCurrent(),
@@ -330,11 +504,34 @@ public class PictureServiceImpl extends ServiceImpl<PictureMapper, Picture>
         if (records.isEmpty()) {
             return voPage;
         }
+        voPage.setRecords(this.getPictureVOList(records, projection));
+        return voPage;
+    }
+
+    /**
+     * 按字段投影批量转换图片VO（签名地址整批生成，作者信息整批查询）
+     *
+     * @param records    图片实体列表
+     * @param projection 字段投影，决定签名哪些访问地址、是否填充作者信息
+     * @return List<PictureVO> 图片VO列表
+     */
+    private List<PictureVO> getPictureVOList(List<Picture> records, PictureProjectionEnum projection) {
+        return pictureVoConverter.signUrls(this.getUnsignedPictureVOList(records, projection));
+    }
 
+    /**
+     * 按字段投影批量转换图片VO，访问地址字段保存对象键而不签名（用于查询缓存）
+     *
+     * @param records    图片实体列表
+     * @param projection 字段投影，决定保留哪些访问地址、是否填充作者信息
+     * @return List<PictureVO> 未签名的图片VO列表
+     */
+    private List<PictureVO> getUnsignedPictureVOList(List<Picture> records, PictureProjectionEnum projection) {
         // 转换 VO
-        List<PictureVO> voList = records.stream()
-                .map(pictureVoConverter::toVo)
-                .collect(Collectors.toList());
+        List<PictureVO> voList = pictureVoConverter.toUnsignedVoList(records, projection);
+        if (!projection.isWithUser()) {
+            return voList;
+        }
 
         // 批量查用户
         Set<Long> userIds = voList.stream()
@@ -348,9 +545,7 @@ public class PictureServiceImpl extends ServiceImpl<PictureMapper, Picture>
         voList.forEach(vo ->
                 vo.setUser(userVOMap.getOrDefault(vo.getUserId(), UserConstant.UNKNOWN_USER_VO))
         );
-
-        voPage.setRecords(voList);
-        return voPage;
+        return voList;
     }
 
     /**
@@ -408,12 +603,15 @@ public class PictureServiceImpl extends ServiceImpl<PictureMapper, Picture>
                 ErrorCode.PARAMS_ERROR, "请勿重复审核");
         // 数据库操作
         Picture updatePicture = new Picture();
-        BeanUtil.copyProperties(reviewPictureRequest, updatePicture);
+        updatePicture.setId(reviewPictureRequest.getId());
+        updatePicture.setReviewStatus(reviewPictureRequest.getReviewStatus());
         updatePicture.setReviewerId(loginUser.getId());
         updatePicture.setReviewTime(new Date());
         updatePicture.setReviewMessage(reviewMessage);
         boolean result = this.updateById(updatePicture);
         ThrowUtils.throwIf(!result, ErrorCode.OPERATION_ERROR);
+        pictureSimilarIndex.onReviewStatusChanged(oldPicture.getSpaceId(), id, reviewStatus, oldPicture.getPicFeature());
+        pictureQueryCache.bumpVersion(oldPicture.getSpaceId());
         // 审核成功后，发送异步通知消息
         try {
             ReviewNoticeMessage message = new ReviewNoticeMessage();
@@ -486,6 +684,11 @@ public class PictureServiceImpl extends ServiceImpl<PictureMapper, Picture>
             boolean dbDeleted = this.removeById(pictureId);
             ThrowUtils.throwIf(!dbDeleted,
                     ErrorCode.OPERATION_ERROR, "数据库删除失败");
+            pictureTagManager.removePictureTags(pictureId);
+            pictureBitmapIndex.onPictureRemoved(oldPicture.getSpaceId(), pictureId);
+            pictureSimilarIndex.onPictureRemoved(oldPicture.getSpaceId(), pictureId);
+            picturePaletteManager.onPictureRemoved(pictureId);
+            pictureQueryCache.bumpVersion(oldPicture.getSpaceId());
             // 释放额度
             Long spaceId = oldPicture.getSpaceId();
             if (spaceId != null) {
@@ -534,36 +737,52 @@ public class PictureServiceImpl extends ServiceImpl<PictureMapper, Picture>
         StringBuilder resultMsg = new StringBuilder();
 
         try {
-            // 基于 originKey 查询引用次数（唯一标识）
-            long originReferenceCount = this.lambdaQuery()
-                    .eq(Picture::getOriginKey, originKey)
-                    .count();
-
-            if (originReferenceCount > 1) {
-                String msg = String.format("原图被 %d 条记录引用，不执行删除（originKey：%s）",
-                        originReferenceCount, originKey);
-                deleteResult.setMessage(msg);
-                log.info(msg);
-                return deleteResult;
+            String fileHash = oldPicture.getFileHash();
+            int remainingReferenceCount = StrUtil.isNotBlank(fileHash)
+                    ? pictureFileManager.release(fileHash)
+                    : -1;
+            if (remainingReferenceCount >= 0) {
+                // 基于引用计数表判断是否仍被其他记录引用
+                if (remainingReferenceCount > 0 || !pictureFileManager.removeIfUnreferenced(fileHash)) {
+                    String msg = String.format("原图仍被其他记录引用，不执行删除（originKey：%s）", originKey);
+                    deleteResult.setMessage(msg);
+                    log.info(msg);
+                    return deleteResult;
+                }
+            } else {
+                // 历史数据无引用计数：基于 originKey 查询引用次数（唯一标识）
+                long originReferenceCount = this.lambdaQuery()
+                        .eq(Picture::getOriginKey, originKey)
+                        .count();
+
+                if (originReferenceCount > 1) {
+                    String msg = String.format("原图被 %d 条记录引用，不执行删除（originKey：%s）",
+                            originReferenceCount, originKey);
+                    deleteResult.setMessage(msg);
+                    log.info(msg);
+                    return deleteResult;
+                }
             }
 
-            // 执行删除
-            cosManager.deleteObject(originKey);
+            // 执行删除（原图、压缩图、缩略图一次批量删除）
+            List<String> deleteKeys = new ArrayList<>();
+            deleteKeys.add(originKey);
             resultMsg.append("原图删除成功；");
 
-            if (StrUtil.isNotBlank(compressKey)) {
-                cosManager.deleteObject(compressKey);
+            if (StrUtil.isNotBlank(compressKey) && !deleteKeys.contains(compressKey)) {
+                deleteKeys.add(compressKey);
                 resultMsg.append("压缩图删除成功；");
             } else {
                 resultMsg.append("无压缩图可删除；");
             }
 
-            if (StrUtil.isNotBlank(thumbnailKey)) {
-                cosManager.deleteObject(thumbnailKey);
+            if (StrUtil.isNotBlank(thumbnailKey) && !deleteKeys.contains(thumbnailKey)) {
+                deleteKeys.add(thumbnailKey);
                 resultMsg.append("缩略图删除成功");
             } else {
                 resultMsg.append("无缩略图可删除");
             }
+            cosManager.deleteObjects(deleteKeys);
 
             deleteResult.setDeleted(true);
             deleteResult.setMessage(resultMsg.toString().trim().replaceAll("；$", ""));
@@ -600,16 +819,32 @@ public class PictureServiceImpl extends ServiceImpl<PictureMapper, Picture>
 
         // 3. 构建更新对象
         Picture updatePicture = new Picture();
-        BeanUtils.copyProperties(editPictureRequest, updatePicture);
+        updatePicture.setId(editPictureRequest.getId());
+        updatePicture.setName(editPictureRequest.getName());
+        updatePicture.setIntroduction(editPictureRequest.getIntroduction());
+        updatePicture.setCategory(editPictureRequest.getCategory());
         updatePicture.setTags(JSONUtil.toJsonStr(editPictureRequest.getTags()));
         updatePicture.setEditTime(new Date());
         this.validPicture(updatePicture);
         this.fillReviewParams(updatePicture, loginUser);
 
-        // 4. 执行数据库更新
-        boolean updateSuccess = this.updateById(updatePicture);
-        ThrowUtils.throwIf(!updateSuccess,
-                ErrorCode.OPERATION_ERROR, "图片编辑失败，数据库更新异常");
+        // 4. 执行数据库更新（同步标签关联）
+        transactionTemplate.execute(status -> {
+            boolean updateSuccess = this.updateById(updatePicture);
+            ThrowUtils.throwIf(!updateSuccess,
+                    ErrorCode.OPERATION_ERROR, "图片编辑失败，数据库更新异常");
+            if (updatePicture.getTags() != null) {
+                pictureTagManager.syncPictureTags(pictureId, oldPicture.getSpaceId(), editPictureRequest.getTags());
+            }
+            if (updatePicture.getCategory() != null) {
+                pictureBitmapIndex.onCategoryChanged(oldPicture.getSpaceId(),
+                        Collections.singletonList(pictureId), updatePicture.getCategory());
+            }
+            pictureSimilarIndex.onReviewStatusChanged(oldPicture.getSpaceId(), pictureId,
+                    updatePicture.getReviewStatus(), oldPicture.getPicFeature());
+            pictureQueryCache.bumpVersion(oldPicture.getSpaceId());
+            return true;
+        });
         Map<String, Object> resultMap = new HashMap<>(3);
         resultMap.put("editSuccess", true);
         resultMap.put("pictureId", pictureId);
@@ -637,6 +872,7 @@ public class PictureServiceImpl extends ServiceImpl<PictureMapper, Picture>
         String introduction = queryPictureRequest.getIntroduction();
         String category = queryPictureRequest.getCategory();
         List<String> tags = queryPictureRequest.getTags();
+        boolean tagsMatchAll = queryPictureRequest.isTagsMatchAll();
         Long picSize = queryPictureRequest.getPicSize();
         Integer picWidth = queryPictureRequest.getPicWidth();
         Integer picHeight = queryPictureRequest.getPicHeight();
@@ -653,18 +889,24 @@ public class PictureServiceImpl extends ServiceImpl<PictureMapper, Picture>
         String sortOrder = queryPictureRequest.getSortOrder();
         Date startEditTime = queryPictureRequest.getStartEditTime();
         Date endEditTime = queryPictureRequest.getEndEditTime();
+        PictureProjectionEnum projection = getProjection(queryPictureRequest);
 
-
-        // 关键词搜索 - 支持按图片名称、简介、分类进行模糊搜索
+        // 关键词搜索 - 按图片名称、简介、分类全文检索（ngram 全文索引），单字搜索词退化为模糊匹配
         if (StrUtil.isNotBlank(searchText)) {
             log.info("执行关键词搜索，搜索词: {}", searchText);
-            lambdaQueryWrapper.and(lqw -> lqw
-                    .like(Picture::getName, searchText)
-                    .or()
-                    .like(Picture::getIntroduction, searchText)
-                    .or()
-                    .like(Picture::getCategory, searchText)
-            );
+            String keyword = searchText.trim();
+            String phrase = toFulltextPhrase(keyword);
+            if (phrase != null) {
+                lambdaQueryWrapper.apply(FULLTEXT_MATCH_SQL, phrase);
+            } else {
+                lambdaQueryWrapper.and(lqw -> lqw
+                        .like(Picture::getName, keyword)
+                        .or()
+                        .like(Picture::getIntroduction, keyword)
+                        .or()
+                        .like(Picture::getCategory, keyword)
+                );
+            }
         }
         // 精准匹配
         lambdaQueryWrapper
@@ -689,28 +931,78 @@ public class PictureServiceImpl extends ServiceImpl<PictureMapper, Picture>
                 .like(StrUtil.isNotBlank(picFormat), Picture::getPicFormat, picFormat)
                 .like(StrUtil.isNotBlank(reviewMessage), Picture::getReviewMessage, reviewMessage)
         ;
-        // JSON标签匹配
-        if (CollUtil.isNotEmpty(tags)) {
-            String tagsJson = JSONUtil.toJsonStr(tags);
-            lambdaQueryWrapper.apply("JSON_OVERLAPS(tags, {0})", tagsJson);
+        // 标签、分类过滤：优先在位图索引中求交/并集得到候选图片 id，索引不可用时标签走关联表子查询
+        List<Integer> tagIds = CollUtil.isEmpty(tags)
+                ? Collections.emptyList() : pictureTagManager.getTagIds(tags, tagsMatchAll);
+        if (CollUtil.isNotEmpty(tags) && tagIds.isEmpty()) {
+            lambdaQueryWrapper.apply("1 = 0");
+        } else if (!tagIds.isEmpty() || StrUtil.isNotBlank(category)) {
+            // 仅单个空间或公共图库有索引
+            List<Long> candidateIds = spaceId != null || nullSpaceId
+                    ? pictureBitmapIndex.filter(spaceId, category, tagIds, tagsMatchAll) : null;
+            if (candidateIds != null) {
+                if (candidateIds.isEmpty()) {
+                    lambdaQueryWrapper.apply("1 = 0");
+                } else {
+                    lambdaQueryWrapper.in(Picture::getId, candidateIds);
+                }
+            } else if (!tagIds.isEmpty()) {
+                lambdaQueryWrapper.inSql(Picture::getId,
+                        pictureTagManager.buildPictureIdSubQuery(tagIds, tagsMatchAll));
+            }
         }
-        // 合法排序字段映射表
-        Map<String, SFunction<Picture, ?>> sortFieldMap = new HashMap<>();
-        sortFieldMap.put("createTime", Picture::getCreateTime);
-        sortFieldMap.put("picSize", Picture::getPicSize);
-        sortFieldMap.put("picWidth", Picture::getPicWidth);
-        sortFieldMap.put("name", Picture::getName);
         // 校验并应用排序条件
-        if (StrUtil.isNotEmpty(sortField) && sortFieldMap.containsKey(sortField)) {
+        if (StrUtil.isNotEmpty(sortField) && SORT_FIELD_MAP.containsKey(sortField)) {
             boolean isAsc = "ascend".equals(sortOrder);
-            lambdaQueryWrapper.orderBy(true, isAsc, sortFieldMap.get(sortField));
+            lambdaQueryWrapper.orderBy(true, isAsc, SORT_FIELD_MAP.get(sortField));
+        } else if (isRelevanceSearch(queryPictureRequest)) {
+            // 全文检索未指定排序时按相关度排序（由 selectPageByRelevance 追加排序条件）
+            log.debug("全文检索按相关度排序，搜索词: {}", searchText);
         } else {
             // 默认按创建时间降序
             lambdaQueryWrapper.orderByDesc(Picture::getCreateTime);
         }
+        // 字段投影
+        selectProjection(lambdaQueryWrapper, projection);
         return lambdaQueryWrapper;
     }
 
+    /**
+     * 按字段投影选择查询列
+     * 各投影均须包含 id 与 createTime：游标分页以二者编码下一页游标
+     *
+     * @param lambdaQueryWrapper 查询条件
+     * @param projection         字段投影，完整字段不限制查询列
+     */
+    static void selectProjection(LambdaQueryWrapper<Picture> lambdaQueryWrapper, PictureProjectionEnum projection) {
+        if (projection == PictureProjectionEnum.THUMBNAIL) {
+            lambdaQueryWrapper.select(Picture::getId, Picture::getThumbnailKey,
+                    Picture::getPicWidth, Picture::getPicHeight, Picture::getPicScale, Picture::getPicColor,
+                    Picture::getUserId, Picture::getSpaceId, Picture::getCreateTime);
+        } else if (projection == PictureProjectionEnum.CARD) {
+            lambdaQueryWrapper.select(Picture::getId, Picture::getThumbnailKey, Picture::getCompressKey,
+                    Picture::getName, Picture::getCategory, Picture::getTags,
+                    Picture::getPicWidth, Picture::getPicHeight, Picture::getPicScale, Picture::getPicColor,
+                    Picture::getUserId, Picture::getSpaceId, Picture::getCreateTime);
+        }
+    }
+
+    /**
+     * 解析字段投影（未指定时为完整字段）
+     *
+     * @param queryPictureRequest 图片查询请求参数对象
+     * @return PictureProjectionEnum 字段投影
+     */
+    private PictureProjectionEnum getProjection(QueryPictureRequest queryPictureRequest) {
+        String projectionValue = queryPictureRequest.getProjection();
+        if (StrUtil.isBlank(projectionValue)) {
+            return PictureProjectionEnum.FULL;
+        }
+        PictureProjectionEnum projection = PictureProjectionEnum.getEnumByValue(projectionValue);
+        ThrowUtils.throwIf(projection == null, ErrorCode.PARAMS_ERROR, "字段投影不存在");
+        return projection;
+    }
+
     /**
      * 根据图片ID获取图片VO
      *
@@ -762,6 +1054,97 @@ public class PictureServiceImpl extends ServiceImpl<PictureMapper, Picture>
         // 限制爬虫
         ThrowUtils.throwIf(size > 20, ErrorCode.PARAMS_ERROR);
         // 空间权限校验
+        fillListScope(queryPictureRequest);
+        PictureProjectionEnum projection = getProjection(queryPictureRequest);
+        // 查询缓存（不含签名地址），未命中时执行数据库（全文检索未指定排序时按相关度排序）
+        Page<PictureVO> voPage = pictureQueryCache.get(queryPictureRequest.getSpaceId(), "page", queryPictureRequest,
+                new TypeReference<Page<PictureVO>>() {
+                }, () -> {
+                    LambdaQueryWrapper<Picture> queryWrapper = this.getLambdaQueryWrapper(queryPictureRequest);
+                    Page<Picture> picturePage = isRelevanceSearch(queryPictureRequest)
+                            ? this.getBaseMapper().selectPageByRelevance(new Page<>(current, size), queryWrapper,
+                            queryPictureRequest.getSearchText().trim())
+                            : this.page(new Page<>(current, size), queryWrapper);
+                    Page<PictureVO> unsignedPage = new Page<>(current, size, picturePage.getTotal());
+                    unsignedPage.setRecords(this.getUnsignedPictureVOList(picturePage.getRecords(), projection));
+                    return unsignedPage;
+                });
+        // 读取后签名访问地址
+        pictureVoConverter.signUrls(voPage.getRecords());
+        return voPage;
+    }
+
+    /**
+     * 是否按全文检索相关度排序：搜索词可走全文索引，且未指定合法的排序字段
+     *
+     * @param queryPictureRequest 图片查询请求体
+     * @return 是否按相关度排序
+     */
+    private static boolean isRelevanceSearch(QueryPictureRequest queryPictureRequest) {
+        String searchText = queryPictureRequest.getSearchText();
+        String sortField = queryPictureRequest.getSortField();
+        return StrUtil.isNotBlank(searchText)
+                && toFulltextPhrase(searchText.trim()) != null
+                && !(StrUtil.isNotEmpty(sortField) && SORT_FIELD_MAP.containsKey(sortField));
+    }
+
+    /**
+     * 将搜索词转换为布尔模式的短语（"搜索词"）：短语内的运算符按普通字符处理，
+     * 双引号无法转义，替换为空格
+     *
+     * @param keyword 去除首尾空白的搜索词
+     * @return 全文检索短语，搜索词不足一个 ngram 分词长度时返回 null（退化为模糊匹配）
+     */
+    static String toFulltextPhrase(String keyword) {
+        String cleaned = StrUtil.trim(keyword.replace('"', ' '));
+        if (cleaned.length() < NGRAM_TOKEN_SIZE) {
+            return null;
+        }
+        return "\"" + cleaned + "\"";
+    }
+
+    /**
+     * 游标分页查询图片VO列表（按创建时间倒序，不统计总数）
+     *
+     * @param queryPictureRequest 图片查询请求体，包含游标、页大小、空间ID等查询条件（排序字段不生效）
+     * @param request             HTTP请求对象
+     * @return CursorPage<PictureVO> 游标分页结果，nextCursor 用于请求下一页
+     */
+    @Override
+    public CursorPage<PictureVO> getPictureVOByCursor(QueryPictureRequest queryPictureRequest, HttpServletRequest request) {
+        // 参数校验
+        ThrowUtils.throwIf(queryPictureRequest == null, ErrorCode.PARAMS_ERROR, "无参数");
+        int size = queryPictureRequest.getPageSize();
+        // 限制爬虫
+        ThrowUtils.throwIf(size <= 0 || size > 20, ErrorCode.PARAMS_ERROR);
+        // 空间权限校验
+        fillListScope(queryPictureRequest);
+        // 游标分页固定按 (createTime, id) 倒序
+        queryPictureRequest.setSortField("createTime");
+        queryPictureRequest.setSortOrder("descend");
+        PictureProjectionEnum projection = getProjection(queryPictureRequest);
+        // 查询缓存（不含签名地址），未命中时执行数据库
+        CursorPage<PictureVO> cursorPage = pictureQueryCache.get(queryPictureRequest.getSpaceId(), "cursor",
+                queryPictureRequest, new TypeReference<CursorPage<PictureVO>>() {
+                }, () -> {
+                    LambdaQueryWrapper<Picture> queryWrapper = this.getLambdaQueryWrapper(queryPictureRequest);
+                    CursorUtils.applyCursor(queryWrapper, queryPictureRequest.getCursor(),
+                            Picture::getCreateTime, Picture::getId);
+                    List<Picture> records = this.page(CursorUtils.newPage(size), queryWrapper).getRecords();
+                    return CursorUtils.toCursorPage(records, size, Picture::getCreateTime, Picture::getId,
+                            pictureList -> this.getUnsignedPictureVOList(pictureList, projection));
+                });
+        // 读取后签名访问地址
+        pictureVoConverter.signUrls(cursorPage.getRecords());
+        return cursorPage;
+    }
+
+    /**
+     * 填充列表查询范围：公共图库只能查看已过审的数据，私有空间需要查看权限
+     *
+     * @param queryPictureRequest 图片查询请求体
+     */
+    private void fillListScope(QueryPictureRequest queryPictureRequest) {
         Long spaceId = queryPictureRequest.getSpaceId();
         // 公开图库
         if (spaceId == null) {
@@ -773,12 +1156,6 @@ public class PictureServiceImpl extends ServiceImpl<PictureMapper, Picture>
             boolean hasPermission = StpKit.SPACE.hasPermission(SpaceUserPermissionConstant.PICTURE_VIEW);
             ThrowUtils.throwIf(!hasPermission, ErrorCode.NO_AUTH_ERROR, "没有空间权限");
         }
-        // 执行数据库
-        Page<Picture> picturePage = this.page(
-                new Page<>(current, size),
-                this.getLambdaQueryWrapper(queryPictureRequest)
-        );
-        return this.getPictureVOPage(picturePage, request);
     }
 
     // endregion
@@ -817,6 +1194,10 @@ public class PictureServiceImpl extends ServiceImpl<PictureMapper, Picture>
 
         log.info("开始批量上传图片，搜索词: {}, 数量: {}, 分类: {}, 标签: {}",
                 searchText, count, batchCategory, batchTags);
+        // AI 分析完成前使用的占位分类和标签
+        String placeholderCategory = StrUtil.blankToDefault(batchCategory, "其他");
+        List<String> placeholderTags = CollUtil.isNotEmpty(batchTags)
+                ? batchTags : Arrays.asList(searchText, "网络图片");
 
         // 2. 构建抓取链接，获取网页内容
         String fetchUrl = String.format("https://cn.bing.com/images/async?q=%smmasync=1", searchText);
@@ -838,7 +1219,7 @@ public class PictureServiceImpl extends ServiceImpl<PictureMapper, Picture>
         // 从容器中筛选图片标签
         Elements imgElementList = div.select(".iusc");
 
-        // 4. 遍历图片，批量上传并AI分析
+        // 4. 遍历图片，批量上传并提交AI打标
         int uploadCount = 0;
         for (Element imgElement : imgElementList) {
             // 获取data-m属性中的JSON字符串
@@ -869,28 +1250,16 @@ public class PictureServiceImpl extends ServiceImpl<PictureMapper, Picture>
             if (StrUtil.isNotBlank(namePrefix)) {
                 uploadRequest.setPicName(namePrefix + (uploadCount + 1));
             }
-            // 调用AI分析图片内容
-            try {
-                ImageAnalysisResult aiResult = hunyuanImageAnalysis.analyzeImage(fileUrl);
-
-                uploadRequest.setCategory(aiResult.getCategory());
-                uploadRequest.setTags(Arrays.asList(aiResult.getTags().split("，")));
-                uploadRequest.setIntroduction(aiResult.getDescription());
-
-                log.info("图片AI分析成功: 分类={}, 标签={}", aiResult.getCategory(), aiResult.getTags());
-
-            } catch (Exception e) {
-                // AI分析失败的处理
-                uploadRequest.setCategory("其他");
-                uploadRequest.setTags(Arrays.asList(searchText, "网络图片"));
-                uploadRequest.setIntroduction("一张来自网络的图片");
-                log.warn("图片AI分析失败: {}", e.getMessage());
-            }
+            // 先以占位分类和标签入库，AI 分析由打标队列异步完成
+            uploadRequest.setCategory(placeholderCategory);
+            uploadRequest.setTags(placeholderTags);
+            uploadRequest.setIntroduction("一张来自网络的图片");
             // 调用单张图片上传方法，处理上传逻辑
             try {
                 PictureVO pictureVO = this.uploadPicture(fileUrl, uploadRequest, loginUser);
                 log.info("图片上传成功,id={}", pictureVO.getId());
                 uploadCount++;
+                this.submitAiTagging(pictureVO.getId(), fileUrl, placeholderCategory, placeholderTags);
             } catch (Exception e) {
                 log.error("图片上传失败", e);
                 continue;
@@ -902,6 +1271,34 @@ public class PictureServiceImpl extends ServiceImpl<PictureMapper, Picture>
         return uploadCount;
     }
 
+    /**
+     * 提交图片 AI 打标任务（异步分析并回填分类、标签和简介）
+     * 发送失败不影响图片上传，图片保留占位信息
+     *
+     * @param pictureId           已入库的图片 id
+     * @param imageUrl            用于分析的图片地址（需公网可访问）
+     * @param placeholderCategory 入库时使用的占位分类
+     * @param placeholderTags     入库时使用的占位标签
+     */
+    @Override
+    public void submitAiTagging(Long pictureId, String imageUrl,
+                                String placeholderCategory, List<String> placeholderTags) {
+        try {
+            AiTagMessage message = new AiTagMessage();
+            message.setPictureId(pictureId);
+            message.setImageUrl(imageUrl);
+            message.setPlaceholderCategory(placeholderCategory);
+            message.setPlaceholderTags(JSONUtil.toJsonStr(placeholderTags));
+            rabbitTemplate.convertAndSend(
+                    RabbitMQConstant.AI_TAG_EXCHANGE,
+                    RabbitMQConstant.AI_TAG_ROUTING_KEY,
+                    message
+            );
+        } catch (Exception e) {
+            log.warn("发送AI打标消息失败，pictureId={}", pictureId, e);
+        }
+    }
+
     /**
      * 图片更新 (管理员)
      *
@@ -926,7 +1323,10 @@ public class PictureServiceImpl extends ServiceImpl<PictureMapper, Picture>
 
         // 3. 构造新实体图片 (实体类转换)
         Picture picture = new Picture();
-        BeanUtils.copyProperties(updatePictureRequest, picture);
+        picture.setId(updatePictureRequest.getId());
+        picture.setName(updatePictureRequest.getName());
+        picture.setIntroduction(updatePictureRequest.getIntroduction());
+        picture.setCategory(updatePictureRequest.getCategory());
         List<String> tags = updatePictureRequest.getTags();
         picture.setTags(CollectionUtil.isEmpty(tags) ? null : JSONUtil.toJsonStr(tags));
         picture.setUpdateTime(new Date());
@@ -934,10 +1334,23 @@ public class PictureServiceImpl extends ServiceImpl<PictureMapper, Picture>
         this.validPicture(picture);
         // 5. 补充审核参数
         this.fillReviewParams(picture, loginUser);
-        // 6. 执行数据库更新
-        boolean updateResult = this.updateById(picture);
-        ThrowUtils.throwIf(!updateResult,
-                ErrorCode.OPERATION_ERROR, "数据库操作失败");
+        // 6. 执行数据库更新（同步标签关联）
+        transactionTemplate.execute(status -> {
+            boolean updateResult = this.updateById(picture);
+            ThrowUtils.throwIf(!updateResult,
+                    ErrorCode.OPERATION_ERROR, "数据库操作失败");
+            if (picture.getTags() != null) {
+                pictureTagManager.syncPictureTags(id, oldPicture.getSpaceId(), tags);
+            }
+            if (picture.getCategory() != null) {
+                pictureBitmapIndex.onCategoryChanged(oldPicture.getSpaceId(),
+                        Collections.singletonList(id), picture.getCategory());
+            }
+            pictureSimilarIndex.onReviewStatusChanged(oldPicture.getSpaceId(), id,
+                    picture.getReviewStatus(), oldPicture.getPicFeature());
+            pictureQueryCache.bumpVersion(oldPicture.getSpaceId());
+            return true;
+        });
         // 7. 构建返回结果
         Map<String, Object> result = new HashMap<>(4);
         result.put("success", true);
@@ -972,57 +1385,123 @@ public class PictureServiceImpl extends ServiceImpl<PictureMapper, Picture>
         ThrowUtils.throwIf(space == null,
                 ErrorCode.NOT_FOUND_ERROR, "空间不存在");
 
-        // 3. 查询符合条件的图片
-        List<Picture> pictureList = this.lambdaQuery()
-                .eq(Picture::getSpaceId, spaceId)       // 限定空间ID
-                .isNotNull(Picture::getPicColor)       // 必须有主色调信息
-                .list();
-        // 若查询结果为空，直接返回空列表
-        if (CollUtil.isEmpty(pictureList)) {
+        // 3. 解析目标颜色：支持 #RRGGBB、0xRRGGBB 与腾讯COS返回的缩略格式
+        int targetRgb;
+        try {
+            targetRgb = ColorSimilarUtils.parseRgb(picColor);
+        } catch (NumberFormatException e) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "颜色格式错误，请使用 #RRGGBB 或 0xRRGGBB 格式");
+        }
+
+        // 4. 按 L*a*b* 索引范围查询并以 CIEDE2000 色差排序（色差越小越相似）
+        List<Long> pictureIds = pictureColorManager.searchSimilar(spaceId, targetRgb,
+                COLOR_SEARCH_LIMIT, COLOR_MAX_DELTA_E);
+        if (pictureIds.isEmpty()) {
             return Collections.emptyList();
         }
 
-        // 4. 颜色格式转换：支持 #RRGGBB 和 0xRRGGBB 两种格式
-        String normalizedColor = picColor;
-        if (picColor.startsWith("#")) {
-            // 将 #RRGGBB 格式转换为 0xRRGGBB 格式（Color.decode 需要）
-            normalizedColor = "0x" + picColor.substring(1);
-        } else if (!picColor.startsWith("0x") && !picColor.startsWith("0X")) {
-            // 如果没有前缀，添加 0x 前缀
-            normalizedColor = "0x" + picColor;
+        // 5. 仅读取命中的图片，按色差顺序转换为VO返回
+        return listPictureVOInOrder(pictureIds, picture -> true);
+    }
+
+    /**
+     * 以图搜图：在源图片所在的空间（或公共图库）中搜索相似图片
+     *
+     * @param pictureId 源图片 id
+     * @param loginUser 当前登录用户对象
+     * @return 按特征距离升序排列的图片VO列表（不含源图片）
+     */
+    @Override
+    public List<PictureVO> searchPictureByPicture(Long pictureId, User loginUser) {
+        // 1. 参数合法性校验
+        ThrowUtils.throwIf(pictureId == null || pictureId <= 0,
+                ErrorCode.PARAMS_ERROR, "参数有误");
+        ThrowUtils.throwIf(loginUser == null,
+                ErrorCode.NO_AUTH_ERROR, "无操作权限");
+
+        // 2. 源图片校验（权限校验由 Controller 层的 @SaSpaceCheckPermission 注解处理）
+        Picture picture = this.getById(pictureId);
+        ThrowUtils.throwIf(picture == null,
+                ErrorCode.NOT_FOUND_ERROR, "图片不存在");
+        ThrowUtils.throwIf(!pictureFeatureManager.isEnabled(),
+                ErrorCode.OPERATION_ERROR, "以图搜图功能未开启");
+        byte[] feature = picture.getPicFeature();
+        if (feature == null) {
+            // 提取任务可能因队列满被放弃，重新提交一次（仍然放弃时由定时回填补齐）
+            pictureFeatureManager.submitExtraction(picture);
+            throw new BusinessException(ErrorCode.OPERATION_ERROR, "图片特征尚未生成，请稍后重试");
+        }
+        ThrowUtils.throwIf(feature.length != ImageFeatureExtractor.FEATURE_BYTES,
+                ErrorCode.OPERATION_ERROR, "该图片格式不支持以图搜图");
+
+        // 3. 在相似索引中搜索同一空间的图片
+        Long spaceId = picture.getSpaceId();
+        List<Long> pictureIds = pictureSimilarIndex.search(spaceId, pictureId, feature, SIMILAR_SEARCH_LIMIT);
+        if (pictureIds.isEmpty()) {
+            return Collections.emptyList();
         }
 
-        // 5. 将目标颜色的十六进制字符串解析为Color对象
-        Color targetColor;
+        // 4. 仅读取命中的图片，按距离顺序转换为VO返回（公共图库再按审核状态过滤一次：其他实例的审核结果在索引重建后才同步）
+        return listPictureVOInOrder(pictureIds, similar -> spaceId != null
+                || ObjUtil.equals(similar.getReviewStatus(), PictureReviewStatusEnum.PASS.getValue()));
+    }
+
+    /**
+     * 根据色板搜索图片（匹配图片色板中的任意颜色，按颜色占比加权计分）
+     *
+     * @param spaceId   图片所在的空间ID
+     * @param picColor  目标颜色的十六进制字符串
+     * @param loginUser 当前登录用户对象
+     * @return 按色板得分降序排列的图片VO列表
+     */
+    @Override
+    public List<PictureVO> searchPictureByPalette(Long spaceId, String picColor, User loginUser) {
+        // 1. 参数合法性校验
+        ThrowUtils.throwIf(spaceId == null || StrUtil.isBlank(picColor),
+                ErrorCode.PARAMS_ERROR, "参数有误");
+        ThrowUtils.throwIf(loginUser == null,
+                ErrorCode.NO_AUTH_ERROR, "无操作权限");
+
+        // 2. 空间存在性校验（权限校验由 Controller 层的 @SaSpaceCheckPermission 注解处理）
+        Space space = spaceService.getById(spaceId);
+        ThrowUtils.throwIf(space == null,
+                ErrorCode.NOT_FOUND_ERROR, "空间不存在");
+
+        // 3. 解析目标颜色
+        int targetRgb;
         try {
-            targetColor = Color.decode(normalizedColor);
+            targetRgb = ColorSimilarUtils.parseRgb(picColor);
         } catch (NumberFormatException e) {
             throw new BusinessException(ErrorCode.PARAMS_ERROR, "颜色格式错误，请使用 #RRGGBB 或 0xRRGGBB 格式");
         }
-        // 6. 定义相似度阈值
-        final double SIMILARITY_THRESHOLD = 0.6;
-
-        // 7. 过滤并排序
-        List<Picture> filteredAndSortedPictures = pictureList.stream()
-                // 计算相似度并过滤
-                .map(picture -> {
-                    Color pictureColor = Color.decode(picture.getPicColor());
-                    double similarity = ColorSimilarUtils.calculateSimilarity(targetColor, pictureColor);
-                    return new AbstractMap.SimpleEntry<>(picture, similarity);
-                })
-                .filter(entry -> entry.getValue() >= SIMILARITY_THRESHOLD) // 阈值过滤
-                // 按相似度降序排序
-                .sorted((entry1, entry2) -> Double.compare(entry2.getValue(), entry1.getValue()))
-                // 提取图片对象
-                .map(AbstractMap.SimpleEntry::getKey)
-                // 保留最多12条
-                .limit(12)
-                .collect(Collectors.toList());
 
-        // 8. 转换为VO返回
-        return filteredAndSortedPictures.stream()
-                .map(pictureVoConverter::toVo)
+        // 4. 按色板计分，取得分最高的图片
+        List<Long> pictureIds = picturePaletteManager.searchSimilar(spaceId, targetRgb,
+                COLOR_SEARCH_LIMIT, COLOR_MAX_DELTA_E);
+        if (pictureIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        // 5. 仅读取命中的图片，按得分顺序转换为VO返回
+        return listPictureVOInOrder(pictureIds, picture -> true);
+    }
+
+    /**
+     * 按给定 id 顺序读取图片并转换为VO（已删除或不满足过滤条件的图片跳过）
+     *
+     * @param pictureIds 有序的图片 id
+     * @param filter     图片过滤条件
+     * @return 与 pictureIds 顺序一致的图片VO列表
+     */
+    private List<PictureVO> listPictureVOInOrder(List<Long> pictureIds, Predicate<Picture> filter) {
+        Map<Long, Picture> pictureMap = this.listByIds(pictureIds).stream()
+                .filter(filter)
+                .collect(Collectors.toMap(Picture::getId, picture -> picture));
+        List<Picture> sortedPictures = pictureIds.stream()
+                .map(pictureMap::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
+        return pictureVoConverter.toVoList(sortedPictures);
     }
 
     /**
@@ -1076,10 +1555,23 @@ public class PictureServiceImpl extends ServiceImpl<PictureMapper, Picture>
             fillPictureWithNameRule(pictureList, nameRule);
         });
 
-        // 5. 执行批量更新操作
-        boolean result = this.updateBatchById(pictureList);
-        ThrowUtils.throwIf(!result,
-                ErrorCode.OPERATION_ERROR);
+        // 5. 执行批量更新操作（同步标签关联与过滤索引）
+        transactionTemplate.execute(status -> {
+            boolean result = this.updateBatchById(pictureList);
+            ThrowUtils.throwIf(!result,
+                    ErrorCode.OPERATION_ERROR);
+            List<Long> updatedIdList = pictureList.stream()
+                    .map(Picture::getId)
+                    .collect(Collectors.toList());
+            if (CollUtil.isNotEmpty(tags)) {
+                pictureTagManager.syncPictureTags(updatedIdList, spaceId, tags);
+            }
+            if (StrUtil.isNotBlank(category)) {
+                pictureBitmapIndex.onCategoryChanged(spaceId, updatedIdList, category);
+            }
+            pictureQueryCache.bumpVersion(spaceId);
+            return true;
+        });
     }
 
     /**
@@ -1120,7 +1612,7 @@ public class PictureServiceImpl extends ServiceImpl<PictureMapper, Picture>
         taskRequest.setInput(input);
 
         // 5. 复制前端请求中的扩展参数
-        BeanUtils.copyProperties(aiExtendRequest, taskRequest);
+        taskRequest.setParameters(aiExtendRequest.getParameters());
 
         log.info("组装阿里云请求参数：model={}，imageUrl={}，x_scale={}，y_scale={}",
                 taskRequest.getModel(),
@@ -1171,7 +1663,7 @@ public class PictureServiceImpl extends ServiceImpl<PictureMapper, Picture>
         // 1. 查询所有公共图库的图片（spaceId 为 null）
         LambdaQueryWrapper<Picture> pictureQueryWrapper = new LambdaQueryWrapper<>();
         pictureQueryWrapper.isNull(Picture::getSpaceId)
-                .select(Picture::getId, Picture::getCategory, Picture::getTags);
+                .select(Picture::getId, Picture::getCategory);
         List<Picture> publicPictures = this.list(pictureQueryWrapper);
 
         // 过滤掉 null 对象，确保列表中没有 null 元素
@@ -1200,31 +1692,9 @@ public class PictureServiceImpl extends ServiceImpl<PictureMapper, Picture>
             }
         }
 
-        // 3. 提取所有唯一的标签
-        Set<String> tagSet = new HashSet<>();
-        for (Picture picture : publicPictures) {
-            // 添加 null 检查，防止空指针异常
-            if (picture == null) {
-                continue;
-            }
-            if (StrUtil.isNotBlank(picture.getTags())) {
-                try {
-                    // 解析 JSON 数组格式的标签
-                    List<String> tags = JSONUtil.toList(picture.getTags(), String.class);
-                    if (CollUtil.isNotEmpty(tags)) {
-                        for (String tag : tags) {
-                            if (StrUtil.isNotBlank(tag)) {
-                                tagSet.add(tag.trim());
-                            }
-                        }
-                    }
-                } catch (Exception e) {
-                    log.warn("解析图片标签失败，图片ID：{}，标签内容：{}",
-                            picture.getId(),
-                            picture.getTags(), e);
-                }
-            }
-        }
+        // 3. 提取公共图库中使用过的标签（基于标签关联表）
+        Set<String> tagSet = pictureTagManager.countTagUsage(
+                new QueryWrapper<PictureTagRel>().isNull("spaceId")).keySet();
 
         // 4. 查询数据库中已存在的标签和分类
         List<PictureTag> existingTags = pictureTagMapper.selectList(null);
@@ -0,0 +1,173 @@
+package com.ye.yepicturebackend.service.impl;
+
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.json.JSONUtil;
+import com.ye.yepicturebackend.exception.BusinessException;
+import com.ye.yepicturebackend.exception.ErrorCode;
+import com.ye.yepicturebackend.exception.ThrowUtils;
+import com.ye.yepicturebackend.manager.upload.FilePictureUpload;
+import com.ye.yepicturebackend.manager.upload.PictureUploadConfig;
+import com.ye.yepicturebackend.manager.upload.StagedPicture;
+import com.ye.yepicturebackend.manager.upload.UrlPictureUpload;
+import com.ye.yepicturebackend.model.dto.picture.upload.UploadRequest;
+import com.ye.yepicturebackend.model.entity.User;
+import com.ye.yepicturebackend.model.enums.UploadTaskStatusEnum;
+import com.ye.yepicturebackend.model.vo.picture.PictureVO;
+import com.ye.yepicturebackend.model.vo.picture.UploadTaskVO;
+import com.ye.yepicturebackend.service.PictureService;
+import com.ye.yepicturebackend.service.PictureUploadTaskService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.annotation.Resource;
+import java.util.Date;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 异步图片上传任务服务实现类
+ * <p>
+ * 请求线程只负责校验与暂存，随即返回任务 id；后续分阶段在有界线程池中完成：
+ * - 下载阶段（uploadIngestExecutor）：拉取远程图片并暂存到内存（仅URL上传）
+ * - 处理入库阶段（uploadPersistExecutor）：对象存储上传、衍生图生成、数据库入库
+ * 任务状态保存在 Redis 中，客户端通过任务 id 轮询
+ * </p>
+ */
+@Slf4j
+@Service
+public class PictureUploadTaskServiceImpl implements PictureUploadTaskService {
+
+    /**
+     * 任务状态缓存 key 前缀
+     */
+    private static final String TASK_KEY_PREFIX = "yepicture:uploadTask:";
+
+    @Resource
+    private PictureService pictureService;
+
+    @Resource
+    private FilePictureUpload filePictureUpload;
+
+    @Resource
+    private UrlPictureUpload urlPictureUpload;
+
+    @Resource
+    private PictureUploadConfig pictureUploadConfig;
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Resource(name = "uploadIngestExecutor")
+    private ThreadPoolExecutor uploadIngestExecutor;
+
+    @Resource(name = "uploadPersistExecutor")
+    private ThreadPoolExecutor uploadPersistExecutor;
+
+    @Override
+    public String submitUpload(MultipartFile multipartFile, UploadRequest uploadRequest, User loginUser) {
+        ThrowUtils.throwIf(loginUser == null, ErrorCode.NO_AUTH_ERROR, "无操作权限");
+        // 1. 请求结束后上传文件即被清理，需在请求线程内暂存
+        StagedPicture stagedPicture = filePictureUpload.stage(multipartFile);
+        // 2. 创建任务并直接进入处理入库阶段
+        UploadTaskVO task = createTask(loginUser);
+        submitStage(uploadPersistExecutor, task,
+                () -> persist(task, stagedPicture, uploadRequest, loginUser));
+        return task.getTaskId();
+    }
+
+    @Override
+    public String submitUploadByUrl(UploadRequest uploadRequest, User loginUser) {
+        ThrowUtils.throwIf(loginUser == null, ErrorCode.NO_AUTH_ERROR, "无操作权限");
+        ThrowUtils.throwIf(uploadRequest == null || StrUtil.isBlank(uploadRequest.getFileUrl()),
+                ErrorCode.PARAMS_ERROR, "url地址为空");
+        String fileUrl = uploadRequest.getFileUrl();
+        // 1. 创建任务并进入下载阶段
+        UploadTaskVO task = createTask(loginUser);
+        submitStage(uploadIngestExecutor, task, () -> {
+            updateStatus(task, UploadTaskStatusEnum.INGESTING);
+            StagedPicture stagedPicture = urlPictureUpload.stage(fileUrl);
+            // 2. 下载完成后进入处理入库阶段
+            submitStage(uploadPersistExecutor, task,
+                    () -> persist(task, stagedPicture, uploadRequest, loginUser));
+        });
+        return task.getTaskId();
+    }
+
+    @Override
+    public UploadTaskVO getUploadTask(String taskId, User loginUser) {
+        ThrowUtils.throwIf(StrUtil.isBlank(taskId), ErrorCode.PARAMS_ERROR, "任务 id 不能为空");
+        String json = stringRedisTemplate.opsForValue().get(TASK_KEY_PREFIX + taskId);
+        ThrowUtils.throwIf(StrUtil.isBlank(json), ErrorCode.NOT_FOUND_ERROR, "任务不存在或已过期");
+        UploadTaskVO task = JSONUtil.toBean(json, UploadTaskVO.class);
+        ThrowUtils.throwIf(!loginUser.getId().equals(task.getUserId()),
+                ErrorCode.NO_AUTH_ERROR, "无权查看该任务");
+        return task;
+    }
+
+    /**
+     * 处理入库阶段：复用同步上传流程完成对象存储上传与入库
+     */
+    private void persist(UploadTaskVO task, StagedPicture stagedPicture,
+                         UploadRequest uploadRequest, User loginUser) {
+        updateStatus(task, UploadTaskStatusEnum.PROCESSING);
+        PictureVO pictureVO = pictureService.uploadPicture(stagedPicture, uploadRequest, loginUser);
+        task.setPicture(pictureVO);
+        updateStatus(task, UploadTaskStatusEnum.SUCCEED);
+    }
+
+    /**
+     * 将任务阶段提交到指定线程池，阶段内的异常统一记为任务失败
+     * 线程池队列已满时任务直接失败，避免无限堆积
+     */
+    private void submitStage(ThreadPoolExecutor executor, UploadTaskVO task, Runnable stage) {
+        try {
+            executor.execute(() -> {
+                try {
+                    stage.run();
+                } catch (BusinessException e) {
+                    fail(task, e.getMessage());
+                } catch (Exception e) {
+                    log.error("异步上传任务执行失败（taskId：{}）", task.getTaskId(), e);
+                    fail(task, "图片上传失败");
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            fail(task, "上传任务繁忙，请稍后重试");
+            throw new BusinessException(ErrorCode.OPERATION_ERROR, "上传任务繁忙，请稍后重试");
+        }
+    }
+
+    /**
+     * 创建任务（排队中）
+     */
+    private UploadTaskVO createTask(User loginUser) {
+        UploadTaskVO task = new UploadTaskVO();
+        task.setTaskId(IdUtil.fastSimpleUUID());
+        task.setUserId(loginUser.getId());
+        task.setCreateTime(new Date());
+        updateStatus(task, UploadTaskStatusEnum.WAITING);
+        return task;
+    }
+
+    /**
+     * 标记任务失败
+     */
+    private void fail(UploadTaskVO task, String errorMessage) {
+        task.setErrorMessage(errorMessage);
+        updateStatus(task, UploadTaskStatusEnum.FAILED);
+    }
+
+    /**
+     * 更新任务状态并写入 Redis
+     */
+    private void updateStatus(UploadTaskVO task, UploadTaskStatusEnum status) {
+        task.setStatus(status.getValue());
+        task.setUpdateTime(new Date());
+        stringRedisTemplate.opsForValue().set(TASK_KEY_PREFIX + task.getTaskId(), JSONUtil.toJsonStr(task),
+                pictureUploadConfig.getTaskTtlMinutes(), TimeUnit.MINUTES);
+    }
+}
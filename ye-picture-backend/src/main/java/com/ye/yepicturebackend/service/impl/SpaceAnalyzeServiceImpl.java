@@ -2,14 +2,15 @@ package com.ye.yepicturebackend.service.impl;
 
 import cn.hutool.core.util.NumberUtil;
 import cn.hutool.core.util.ObjUtil;
-import cn.hutool.json.JSONUtil;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.ye.yepicturebackend.exception.BusinessException;
 import com.ye.yepicturebackend.exception.ErrorCode;
 import com.ye.yepicturebackend.exception.ThrowUtils;
+import com.ye.yepicturebackend.manager.tag.PictureTagManager;
 import com.ye.yepicturebackend.model.dto.space.analyze.*;
 import com.ye.yepicturebackend.model.entity.Picture;
+import com.ye.yepicturebackend.model.entity.PictureTagRel;
 import com.ye.yepicturebackend.model.entity.Space;
 import com.ye.yepicturebackend.model.entity.User;
 import com.ye.yepicturebackend.model.vo.space.analyze.*;
@@ -42,6 +43,9 @@ public class SpaceAnalyzeServiceImpl extends ServiceImpl<SpaceMapper, Space>
     @Resource
     private PictureService pictureService;
 
+    @Resource
+    private PictureTagManager pictureTagManager;
+
     /**
      * 获取空间资源使用情况分析
      *
@@ -172,24 +176,14 @@ public class SpaceAnalyzeServiceImpl extends ServiceImpl<SpaceMapper, Space>
         // 2. 检查权限
         checkSpaceAnalyzeAuth(spaceTagAnalyzeRequest, loginUser);
 
-        // 3. 构造查询条件
-        QueryWrapper<Picture> queryWrapper = new QueryWrapper<>();
+        // 3. 构造查询条件（基于图片标签关联表）
+        QueryWrapper<PictureTagRel> queryWrapper = new QueryWrapper<>();
         fillAnalyzeQueryWrapper(spaceTagAnalyzeRequest, queryWrapper);
 
-        // 4. 查询所有符合条件的标签
-        queryWrapper.select("tags");
-        List<String> tagsJsonList = pictureService.getBaseMapper().selectObjs(queryWrapper)
-                .stream()
-                .filter(ObjUtil::isNotNull)
-                .map(Object::toString)
-                .collect(Collectors.toList());
-
-        // 5. 合并所有标签并统计使用次数
-        Map<String, Long> tagCountMap = tagsJsonList.stream()
-                .flatMap(tagsJson -> JSONUtil.toList(tagsJson, String.class).stream())
-                .collect(Collectors.groupingBy(tag -> tag, Collectors.counting()));
+        // 4. 按标签统计使用次数
+        Map<String, Long> tagCountMap = pictureTagManager.countTagUsage(queryWrapper);
 
-        // 6. 转换为响应对象，按使用次数降序排序
+        // 5. 转换为响应对象，按使用次数降序排序
         return tagCountMap.entrySet().stream()
                 .sorted((e1, e2) -> Long.compare(e2.getValue(), e1.getValue())) // 降序排列
                 .map(entry -> new SpaceTagAnalyzeResponse(entry.getKey(), entry.getValue()))
@@ -343,10 +337,10 @@ public class SpaceAnalyzeServiceImpl extends ServiceImpl<SpaceMapper, Space>
      *
      * @param spaceAnalyzeRequest 空间分析请求参数对象
      *                            包含查询范围标识（isQueryAll/isQueryPublic）、目标私有空间ID（spaceId），决定查询条件的构建逻辑
-     * @param queryWrapper        MyBatis-Plus的查询条件构造器（针对Picture表）
+     * @param queryWrapper        MyBatis-Plus的查询条件构造器（针对含 spaceId 字段的表，如 picture、picture_tag_rel）
      *                            用于接收动态构建的查询条 ，最终用于执行数据库查询
      */
-    private static void fillAnalyzeQueryWrapper(SpaceAnalyzeRequest spaceAnalyzeRequest, QueryWrapper<Picture> queryWrapper) {
+    private static <T> void fillAnalyzeQueryWrapper(SpaceAnalyzeRequest spaceAnalyzeRequest, QueryWrapper<T> queryWrapper) {
         // 查询所有
         if (spaceAnalyzeRequest.isQueryAll()) {
             return;
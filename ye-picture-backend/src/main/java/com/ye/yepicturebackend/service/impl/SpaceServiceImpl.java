@@ -6,6 +6,7 @@ import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.toolkit.support.SFunction;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.ye.yepicturebackend.common.CursorPage;
 import com.ye.yepicturebackend.common.DeleteRequest;
 import com.ye.yepicturebackend.constant.UserConstant;
 import com.ye.yepicturebackend.exception.BusinessException;
@@ -29,9 +30,9 @@ import com.ye.yepicturebackend.service.SpaceService;
 import com.ye.yepicturebackend.mapper.SpaceMapper;
 import com.ye.yepicturebackend.service.SpaceUserService;
 import com.ye.yepicturebackend.service.UserService;
+import com.ye.yepicturebackend.utils.CursorUtils;
 
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.BeanUtils;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.support.TransactionTemplate;
@@ -80,7 +81,9 @@ public class SpaceServiceImpl extends ServiceImpl<SpaceMapper, Space>
 
         // 2. 构建空间实体
         Space space = new Space();
-        BeanUtils.copyProperties(spaceAddRequest, space);
+        space.setSpaceName(spaceAddRequest.getSpaceName());
+        space.setSpaceLevel(spaceAddRequest.getSpaceLevel());
+        space.setSpaceType(spaceAddRequest.getSpaceType());
         // 2.1 默认值
         if (StrUtil.isBlank(spaceAddRequest.getSpaceName())) {
             space.setSpaceName("默认空间");
@@ -225,7 +228,8 @@ public class SpaceServiceImpl extends ServiceImpl<SpaceMapper, Space>
 
         // 4. 构建编辑对象
         Space space = new Space();
-        BeanUtils.copyProperties(spaceEditRequest, space);
+        space.setId(spaceEditRequest.getId());
+        space.setSpaceName(spaceEditRequest.getSpaceName());
         // 设置编辑时间
         Date editTime = new Date();
         space.setEditTime(editTime);
@@ -362,7 +366,11 @@ public class SpaceServiceImpl extends ServiceImpl<SpaceMapper, Space>
 
         // 5. 构建更新对象
         Space updateSpace = new Space();
-        BeanUtils.copyProperties(spaceUpdateRequest, updateSpace);
+        updateSpace.setId(spaceUpdateRequest.getId());
+        updateSpace.setSpaceName(spaceUpdateRequest.getSpaceName());
+        updateSpace.setSpaceLevel(spaceUpdateRequest.getSpaceLevel());
+        updateSpace.setMaxSize(spaceUpdateRequest.getMaxSize());
+        updateSpace.setMaxCount(spaceUpdateRequest.getMaxCount());
         // 根据级别设置容量配置
         if (newLevelEnum != null) {
             updateSpace.setMaxCount(newLevelEnum.getMaxCount());  // 从枚举获取最大文件数
@@ -468,7 +476,42 @@ public class SpaceServiceImpl extends ServiceImpl<SpaceMapper, Space>
         if (records.isEmpty()) {
             return voPage;
         }
+        voPage.setRecords(getSpaceVOList(records));
+        return voPage;
+    }
 
+    /**
+     * 游标分页查询空间VO列表（按创建时间倒序，不统计总数）
+     *
+     * @param spaceQueryRequest 空间查询请求参数对象，包含游标、页大小及查询条件（排序字段不生效）
+     * @param request           HTTP请求对象，用于批量关联查询用户信息
+     * @return CursorPage<SpaceVO> 游标分页结果，nextCursor 用于请求下一页
+     */
+    @Override
+    public CursorPage<SpaceVO> listSpaceVOByCursor(SpaceQueryRequest spaceQueryRequest, HttpServletRequest request) {
+        // 1. 参数校验
+        ThrowUtils.throwIf(spaceQueryRequest == null, ErrorCode.PARAMS_ERROR, "无参数");
+        int size = spaceQueryRequest.getPageSize();
+        // 限制爬虫
+        ThrowUtils.throwIf(size <= 0 || size > 20, ErrorCode.PARAMS_ERROR);
+
+        // 2. 构造查询条件：游标分页固定按 (createTime, id) 倒序
+        spaceQueryRequest.setSortField(null);
+        LambdaQueryWrapper<Space> queryWrapper = this.getLambdaQueryWrapper(spaceQueryRequest);
+        CursorUtils.applyCursor(queryWrapper, spaceQueryRequest.getCursor(), Space::getCreateTime, Space::getId);
+
+        // 3. 执行查询并转换
+        List<Space> records = this.page(CursorUtils.newPage(size), queryWrapper).getRecords();
+        return CursorUtils.toCursorPage(records, size, Space::getCreateTime, Space::getId, this::getSpaceVOList);
+    }
+
+    /**
+     * 批量转换空间VO（用户信息整批查询）
+     *
+     * @param records 空间实体列表
+     * @return List<SpaceVO> 空间VO列表
+     */
+    private List<SpaceVO> getSpaceVOList(List<Space> records) {
         List<SpaceVO> voList = records.stream()
                 .map(SpaceVO::objToVo)
                 .collect(Collectors.toList());
@@ -483,9 +526,7 @@ public class SpaceServiceImpl extends ServiceImpl<SpaceMapper, Space>
         voList.forEach(vo ->
                 vo.setUser(userVOMap.getOrDefault(vo.getUserId(), UserConstant.UNKNOWN_USER_VO))
         );
-
-        voPage.setRecords(voList);
-        return voPage;
+        return voList;
     }
 
     /**
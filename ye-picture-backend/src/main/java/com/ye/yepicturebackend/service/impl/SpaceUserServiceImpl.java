@@ -21,7 +21,6 @@ import com.ye.yepicturebackend.service.SpaceService;
 import com.ye.yepicturebackend.service.SpaceUserService;
 import com.ye.yepicturebackend.mapper.SpaceUserMapper;
 import com.ye.yepicturebackend.service.UserService;
-import org.springframework.beans.BeanUtils;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
@@ -56,7 +55,9 @@ public class SpaceUserServiceImpl extends ServiceImpl<SpaceUserMapper, SpaceUser
         // 参数校验
         ThrowUtils.throwIf(spaceUserAddRequest == null, ErrorCode.PARAMS_ERROR);
         SpaceUser spaceUser = new SpaceUser();
-        BeanUtils.copyProperties(spaceUserAddRequest, spaceUser);
+        spaceUser.setSpaceId(spaceUserAddRequest.getSpaceId());
+        spaceUser.setUserId(spaceUserAddRequest.getUserId());
+        spaceUser.setSpaceRole(spaceUserAddRequest.getSpaceRole());
         validSpaceUser(spaceUser, true);
         // 数据库操作
         boolean result = this.save(spaceUser);
@@ -3,6 +3,9 @@ package com.ye.yepicturebackend.service.impl;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.ye.yepicturebackend.common.CursorPage;
+import com.ye.yepicturebackend.exception.ErrorCode;
+import com.ye.yepicturebackend.exception.ThrowUtils;
 import com.ye.yepicturebackend.mapper.SysNoticeMapper;
 import com.ye.yepicturebackend.model.entity.Picture;
 import com.ye.yepicturebackend.model.entity.SysNotice;
@@ -10,6 +13,7 @@ import com.ye.yepicturebackend.model.vo.user.ReviewNoticeVO;
 import com.ye.yepicturebackend.service.CosUrlService;
 import com.ye.yepicturebackend.service.PictureService;
 import com.ye.yepicturebackend.service.SysNoticeService;
+import com.ye.yepicturebackend.utils.CursorUtils;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.Resource;
@@ -103,14 +107,55 @@ public class SysNoticeServiceImpl extends ServiceImpl<SysNoticeMapper, SysNotice
         // 2. 执行分页查询
         Page<SysNotice> resultPage = this.page(sysNoticePage, queryWrapper);
 
-        // 3. 提取所有 pictureId（用于批量查询图片信息，避免 N+1 问题）
-        List<Long> pictureIds = resultPage.getRecords().stream()
+        // 3. 转换为 ReviewNoticeVO 列表（批量查询关联图片）
+        List<ReviewNoticeVO> voList = toReviewNoticeVOList(resultPage.getRecords());
+
+        // 4. 构造最终的分页 VO 对象
+        Page<ReviewNoticeVO> voPage = new Page<>(page, size, resultPage.getTotal());
+        voPage.setRecords(voList);
+        return voPage;
+    }
+
+    /**
+     * 游标分页查询用户的【图片审核通知】（按创建时间倒序，不统计总数）
+     *
+     * @param userId 用户 ID
+     * @param cursor 上一页返回的游标，首页为空
+     * @param size   每页大小
+     * @return 游标分页的 ReviewNoticeVO 列表
+     */
+    @Override
+    public CursorPage<ReviewNoticeVO> listReviewNoticesByCursor(Long userId, String cursor, int size) {
+        ThrowUtils.throwIf(size <= 0 || size > 50, ErrorCode.PARAMS_ERROR);
+        // 1. 构造查询条件：仅查询类型为“审核通知”（noticeType = 1）的通知，按 (createTime, id) 倒序
+        LambdaQueryWrapper<SysNotice> queryWrapper = new LambdaQueryWrapper<>();
+        queryWrapper.eq(SysNotice::getUserId, userId)
+                .eq(SysNotice::getNoticeType, 1) // 1 表示审核通知
+                .eq(SysNotice::getIsDelete, 0)
+                .orderByDesc(SysNotice::getCreateTime);
+        CursorUtils.applyCursor(queryWrapper, cursor, SysNotice::getCreateTime, SysNotice::getId);
+
+        // 2. 执行查询并转换
+        List<SysNotice> records = this.page(CursorUtils.newPage(size), queryWrapper).getRecords();
+        return CursorUtils.toCursorPage(records, size, SysNotice::getCreateTime, SysNotice::getId,
+                this::toReviewNoticeVOList);
+    }
+
+    /**
+     * 批量转换审核通知 VO（含图片标题和预览图）
+     *
+     * @param noticeList 通知实体列表
+     * @return ReviewNoticeVO 列表
+     */
+    private List<ReviewNoticeVO> toReviewNoticeVOList(List<SysNotice> noticeList) {
+        // 1. 提取所有 pictureId（用于批量查询图片信息，避免 N+1 问题）
+        List<Long> pictureIds = noticeList.stream()
                 .map(SysNotice::getPictureId)
                 .filter(Objects::nonNull)
                 .distinct()
                 .collect(Collectors.toList());
 
-        // 4. 批量查询关联的图片信息（提升性能）
+        // 2. 批量查询关联的图片信息（提升性能）
         Map<Long, Picture> pictureMap;
         if (!pictureIds.isEmpty()) {
             List<Picture> pictures = pictureService.listByIds(pictureIds);
@@ -120,8 +165,8 @@ public class SysNoticeServiceImpl extends ServiceImpl<SysNoticeMapper, SysNotice
             pictureMap = new HashMap<>();
         }
 
-        // 5. 转换为 ReviewNoticeVO 列表
-        List<ReviewNoticeVO> voList = resultPage.getRecords().stream().map(sysNotice -> {
+        // 3. 转换为 ReviewNoticeVO 列表
+        return noticeList.stream().map(sysNotice -> {
             ReviewNoticeVO vo = new ReviewNoticeVO();
             vo.setId(sysNotice.getId());
             vo.setUserId(sysNotice.getUserId());
@@ -140,7 +185,7 @@ public class SysNoticeServiceImpl extends ServiceImpl<SysNoticeMapper, SysNotice
                 );
             }
 
-            // 6. 填充图片相关信息（标题 + 预览图 URL）
+            // 4. 填充图片相关信息（标题 + 预览图 URL）
             if (sysNotice.getPictureId() != null) {
                 Picture picture = pictureMap.get(sysNotice.getPictureId());
                 if (picture != null) {
@@ -157,10 +202,5 @@ public class SysNoticeServiceImpl extends ServiceImpl<SysNoticeMapper, SysNotice
 
             return vo;
         }).collect(Collectors.toList());
-
-        // 7. 构造最终的分页 VO 对象
-        Page<ReviewNoticeVO> voPage = new Page<>(page, size, resultPage.getTotal());
-        voPage.setRecords(voList);
-        return voPage;
     }
 }
\ No newline at end of file
@@ -24,6 +24,36 @@ public class ColorSimilarUtils {
     private static final int WEIGHT_GREEN = 4;
     private static final int WEIGHT_BLUE = 3;
 
+    /**
+     * 加权距离平方的最大值（两颜色完全相反时）
+     */
+    private static final long MAX_DISTANCE_SQUARE = 255L * 255L * (WEIGHT_RED + WEIGHT_GREEN + WEIGHT_BLUE);
+
+    /**
+     * 加权距离的最大值
+     */
+    private static final double MAX_DISTANCE = Math.sqrt(MAX_DISTANCE_SQUARE);
+
+    /**
+     * CIEDE2000 公式中的常量 25^7
+     */
+    private static final double POW_25_7 = Math.pow(25, 7);
+
+    /**
+     * CIEDE2000 亮度权重 S_L 的最大值（L* 为 0 或 100 时）
+     */
+    private static final double MAX_LIGHTNESS_WEIGHT = 1 + 0.015 * 2500 / Math.sqrt(2520);
+
+    /**
+     * 旋转项 R_T 最多使彩度、色相差的平方和缩小为 1 - sin(60°) 倍，距离上限需相应放大
+     */
+    private static final double MAX_ROTATION_FACTOR = 1 / Math.sqrt(1 - Math.sin(Math.toRadians(60)));
+
+    /**
+     * a*、b* 分量的取值范围足以覆盖全部 sRGB 颜色
+     */
+    private static final double FULL_CHROMA_RADIUS = 256;
+
     /**
      * 计算两个Color对象的相似度（基于加权欧氏距离）
      *
@@ -32,34 +62,8 @@ public class ColorSimilarUtils {
      * @return 相似度值，范围0~1（值越接近1表示颜色越相似，完全相同为1）
      */
     public static double calculateSimilarity(Color color1, Color color2) {
-        // 提取两个颜色的RGB通道值（0~255）
-        int r1 = color1.getRed();
-        int g1 = color1.getGreen();
-        int b1 = color1.getBlue();
-
-        int r2 = color2.getRed();
-        int g2 = color2.getGreen();
-        int b2 = color2.getBlue();
-
-        // 计算各通道差值的加权平方和
-        // 公式：(R1-R2)²×权重R + (G1-G2)²×权重G + (B1-B2)²×权重B
-        long redDiff = (long) Math.pow(r1 - r2, 2) * WEIGHT_RED;
-        long greenDiff = (long) Math.pow(g1 - g2, 2) * WEIGHT_GREEN;
-        long blueDiff = (long) Math.pow(b1 - b2, 2) * WEIGHT_BLUE;
-
-        // 计算加权欧氏距离（开平方）
-        double distance = Math.sqrt(redDiff + greenDiff + blueDiff);
-
-        // 计算最大可能距离（当两颜色完全相反时的理论最大值）
-        // 公式：√[(255²×权重R) + (255²×权重G) + (255²×权重B)]
-        double maxDistance = Math.sqrt(
-                (long) Math.pow(255, 2) * WEIGHT_RED +
-                (long) Math.pow(255, 2) * WEIGHT_GREEN +
-                (long) Math.pow(255, 2) * WEIGHT_BLUE
-        );
-
-        // 转换为相似度：1 - 距离占比（距离越小，相似度越高）
-        return 1 - (distance / maxDistance);
+        // 公式：1 - √[(R1-R2)²×权重R + (G1-G2)²×权重G + (B1-B2)²×权重B] / 最大距离
+        return toSimilarity(distanceSquare(color1.getRGB(), color2.getRGB()));
     }
 
     /**
@@ -70,11 +74,217 @@ public class ColorSimilarUtils {
      * @return 相似度值，范围0~1（值越接近1表示颜色越相似）
      */
     public static double calculateSimilarity(String hexColor1, String hexColor2) {
-        // 将十六进制字符串解析为Color对象
-        Color color1 = Color.decode(hexColor1);
-        Color color2 = Color.decode(hexColor2);
-        // 调用Color对象的相似度计算方法
-        return calculateSimilarity(color1, color2);
+        // 直接解析为 0xRRGGBB 整数，不创建 Color 对象
+        return toSimilarity(distanceSquare(parseRgb(hexColor1), parseRgb(hexColor2)));
+    }
+
+    /**
+     * 解析十六进制颜色字符串为 0xRRGGBB 整数
+     *
+     * @param hexColor 颜色字符串，支持 #RRGGBB、0xRRGGBB、RRGGBB 以及腾讯COS返回的缩略格式（如 0x8、0xA100）
+     * @return 0xRRGGBB 整数
+     * @throws NumberFormatException 格式错误
+     */
+    public static int parseRgb(String hexColor) {
+        String hex = hexColor.trim();
+        if (hex.startsWith("#")) {
+            hex = hex.substring(1);
+        } else if (hex.startsWith("0x") || hex.startsWith("0X")) {
+            hex = hex.substring(2);
+        }
+        if (hex.isEmpty() || hex.length() > 6) {
+            throw new NumberFormatException("颜色格式错误：" + hexColor);
+        }
+        return Integer.parseInt(hex, 16);
+    }
+
+    /**
+     * 计算两个 0xRRGGBB 颜色的加权距离平方（与 {@link #calculateSimilarity(Color, Color)} 使用相同的权重）
+     */
+    public static long distanceSquare(int rgb1, int rgb2) {
+        int redDiff = ((rgb1 >> 16) & 0xFF) - ((rgb2 >> 16) & 0xFF);
+        int greenDiff = ((rgb1 >> 8) & 0xFF) - ((rgb2 >> 8) & 0xFF);
+        int blueDiff = (rgb1 & 0xFF) - (rgb2 & 0xFF);
+        return distanceSquare(redDiff, greenDiff, blueDiff);
+    }
+
+    /**
+     * 按通道差值计算加权距离平方
+     */
+    public static long distanceSquare(int redDiff, int greenDiff, int blueDiff) {
+        return (long) redDiff * redDiff * WEIGHT_RED
+                + (long) greenDiff * greenDiff * WEIGHT_GREEN
+                + (long) blueDiff * blueDiff * WEIGHT_BLUE;
+    }
+
+    /**
+     * 批量计算候选颜色到目标颜色的加权距离平方
+     * 循环体只有 int 运算且无分支，便于 JIT 自动向量化（单个距离平方最大为 585225，不会溢出 int）
+     *
+     * @param colors    候选颜色（0xRRGGBB）
+     * @param from      起始下标（包含）
+     * @param to        结束下标（不包含）
+     * @param targetRgb 目标颜色（0xRRGGBB）
+     * @param out       输出数组，out[i - from] 为 colors[i] 的距离平方
+     */
+    public static void distanceSquares(int[] colors, int from, int to, int targetRgb, int[] out) {
+        int targetRed = (targetRgb >> 16) & 0xFF;
+        int targetGreen = (targetRgb >> 8) & 0xFF;
+        int targetBlue = targetRgb & 0xFF;
+        for (int i = from; i < to; i++) {
+            int color = colors[i];
+            int redDiff = ((color >> 16) & 0xFF) - targetRed;
+            int greenDiff = ((color >> 8) & 0xFF) - targetGreen;
+            int blueDiff = (color & 0xFF) - targetBlue;
+            out[i - from] = redDiff * redDiff * WEIGHT_RED
+                    + greenDiff * greenDiff * WEIGHT_GREEN
+                    + blueDiff * blueDiff * WEIGHT_BLUE;
+        }
+    }
+
+    /**
+     * 加权距离平方转换为相似度（0~1）
+     */
+    public static double toSimilarity(long distanceSquare) {
+        return 1 - Math.sqrt(distanceSquare) / MAX_DISTANCE;
+    }
+
+    /**
+     * 相似度阈值转换为允许的最大加权距离平方
+     */
+    public static long toMaxDistanceSquare(double minSimilarity) {
+        double maxDistance = (1 - minSimilarity) * MAX_DISTANCE;
+        return (long) Math.floor(maxDistance * maxDistance);
+    }
+
+    /**
+     * 0xRRGGBB 颜色转换为 CIELAB（sRGB，D65 白点）
+     *
+     * @param rgb 0xRRGGBB 整数
+     * @return {L*, a*, b*}，L* 范围 0~100，a*、b* 约为 -128~127
+     */
+    public static double[] toLab(int rgb) {
+        // 1. sRGB 反伽马得到线性 RGB
+        double red = linearize((rgb >> 16) & 0xFF);
+        double green = linearize((rgb >> 8) & 0xFF);
+        double blue = linearize(rgb & 0xFF);
+        // 2. 线性 RGB 转 XYZ，并按 D65 白点归一化
+        double x = (0.4124564 * red + 0.3575761 * green + 0.1804375 * blue) / 0.95047;
+        double y = 0.2126729 * red + 0.7151522 * green + 0.0721750 * blue;
+        double z = (0.0193339 * red + 0.1191920 * green + 0.9503041 * blue) / 1.08883;
+        // 3. XYZ 转 L*a*b*
+        double fx = labF(x);
+        double fy = labF(y);
+        double fz = labF(z);
+        return new double[]{116 * fy - 16, 500 * (fx - fy), 200 * (fy - fz)};
+    }
+
+    private static double linearize(int channel) {
+        double value = channel / 255.0;
+        return value <= 0.04045 ? value / 12.92 : Math.pow((value + 0.055) / 1.055, 2.4);
+    }
+
+    private static double labF(double t) {
+        return t > 216.0 / 24389.0 ? Math.cbrt(t) : (24389.0 / 27.0 * t + 16) / 116;
+    }
+
+    /**
+     * 计算两个 L*a*b* 颜色的 CIEDE2000 色差（值越小越相似，小于 1 人眼基本不可分辨）
+     */
+    public static double ciede2000(double l1, double a1, double b1, double l2, double a2, double b2) {
+        // 1. 按平均彩度修正 a*
+        double c1 = Math.hypot(a1, b1);
+        double c2 = Math.hypot(a2, b2);
+        double meanC7 = Math.pow((c1 + c2) / 2, 7);
+        double g = 0.5 * (1 - Math.sqrt(meanC7 / (meanC7 + POW_25_7)));
+        double a1Prime = (1 + g) * a1;
+        double a2Prime = (1 + g) * a2;
+        double c1Prime = Math.hypot(a1Prime, b1);
+        double c2Prime = Math.hypot(a2Prime, b2);
+        double h1Prime = hueAngle(b1, a1Prime);
+        double h2Prime = hueAngle(b2, a2Prime);
+        // 2. 明度、彩度、色相差
+        double deltaLPrime = l2 - l1;
+        double deltaCPrime = c2Prime - c1Prime;
+        double deltaHuePrime;
+        if (c1Prime * c2Prime == 0) {
+            deltaHuePrime = 0;
+        } else if (Math.abs(h2Prime - h1Prime) <= 180) {
+            deltaHuePrime = h2Prime - h1Prime;
+        } else if (h2Prime <= h1Prime) {
+            deltaHuePrime = h2Prime - h1Prime + 360;
+        } else {
+            deltaHuePrime = h2Prime - h1Prime - 360;
+        }
+        double deltaHPrime = 2 * Math.sqrt(c1Prime * c2Prime) * Math.sin(Math.toRadians(deltaHuePrime / 2));
+        // 3. 平均值与权重函数
+        double meanLPrime = (l1 + l2) / 2;
+        double meanCPrime = (c1Prime + c2Prime) / 2;
+        double meanHPrime;
+        if (c1Prime * c2Prime == 0) {
+            meanHPrime = h1Prime + h2Prime;
+        } else if (Math.abs(h1Prime - h2Prime) <= 180) {
+            meanHPrime = (h1Prime + h2Prime) / 2;
+        } else if (h1Prime + h2Prime < 360) {
+            meanHPrime = (h1Prime + h2Prime + 360) / 2;
+        } else {
+            meanHPrime = (h1Prime + h2Prime - 360) / 2;
+        }
+        double t = 1 - 0.17 * Math.cos(Math.toRadians(meanHPrime - 30))
+                + 0.24 * Math.cos(Math.toRadians(2 * meanHPrime))
+                + 0.32 * Math.cos(Math.toRadians(3 * meanHPrime + 6))
+                - 0.20 * Math.cos(Math.toRadians(4 * meanHPrime - 63));
+        double meanL50 = (meanLPrime - 50) * (meanLPrime - 50);
+        double sl = 1 + 0.015 * meanL50 / Math.sqrt(20 + meanL50);
+        double sc = 1 + 0.045 * meanCPrime;
+        double sh = 1 + 0.015 * meanCPrime * t;
+        double deltaTheta = 30 * Math.exp(-Math.pow((meanHPrime - 275) / 25, 2));
+        double meanCPrime7 = Math.pow(meanCPrime, 7);
+        double rt = -2 * Math.sqrt(meanCPrime7 / (meanCPrime7 + POW_25_7)) * Math.sin(Math.toRadians(2 * deltaTheta));
+        // 4. 合成色差
+        double lTerm = deltaLPrime / sl;
+        double cTerm = deltaCPrime / sc;
+        double hTerm = deltaHPrime / sh;
+        return Math.sqrt(lTerm * lTerm + cTerm * cTerm + hTerm * hTerm + rt * cTerm * hTerm);
+    }
+
+    /**
+     * L* 分量的范围查询半径：CIEDE2000 不超过 deltaE 的颜色 L* 差一定不超过该值
+     */
+    public static double lightnessRadius(double deltaE) {
+        return deltaE * MAX_LIGHTNESS_WEIGHT;
+    }
+
+    /**
+     * a*、b* 分量的范围查询半径：CIEDE2000 不超过 deltaE 的颜色一定落在该半径内
+     * <p>
+     * 彩度、色相差除以的权重 S_C = 1 + 0.045 * 平均彩度（不小于 S_H），高彩度颜色允许的 a*b* 距离随之放大；
+     * 蓝色区域的旋转项最多再放大 {@link #MAX_ROTATION_FACTOR} 倍。
+     * 平均彩度不超过 1.5 倍目标彩度加半个距离，据此解出距离上限，色差上限较大时覆盖全部 a*b* 范围
+     * </p>
+     *
+     * @param lab    目标颜色 {L*, a*, b*}
+     * @param deltaE CIEDE2000 色差上限
+     */
+    public static double chromaRadius(double[] lab, double deltaE) {
+        double scaledDeltaE = deltaE * MAX_ROTATION_FACTOR;
+        double denominator = 1 - 0.0225 * scaledDeltaE;
+        if (denominator <= 0) {
+            return FULL_CHROMA_RADIUS;
+        }
+        double chroma = Math.hypot(lab[1], lab[2]);
+        return Math.min(scaledDeltaE * (1 + 0.0675 * chroma) / denominator, FULL_CHROMA_RADIUS);
+    }
+
+    /**
+     * 色相角（角度制，0~360）
+     */
+    private static double hueAngle(double b, double aPrime) {
+        if (b == 0 && aPrime == 0) {
+            return 0;
+        }
+        double angle = Math.toDegrees(Math.atan2(b, aPrime));
+        return angle < 0 ? angle + 360 : angle;
     }
 
     /**
@@ -0,0 +1,134 @@
+package com.ye.yepicturebackend.utils;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 颜色距离前 K 名（有界大顶堆，可重复使用）
+ * <p>
+ * 以并列的基本类型数组保存候选图片 id 与距离，堆顶为当前第 K 名（距离最大者）：
+ * - 入堆、出堆均不创建对象，候选不装箱
+ * - 按得分降序取前 K 名时以负得分作为距离
+ * - 调用 {@link #reset()} 后可用于下一次计算，同一实例不可在多个线程间共享
+ * </p>
+ */
+public class ColorTopK {
+
+    private final int capacity;
+
+    private final long[] ids;
+
+    private final double[] distances;
+
+    private int size;
+
+    /**
+     * @param capacity 保留的候选数（K）
+     */
+    public ColorTopK(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity 必须大于 0");
+        }
+        this.capacity = capacity;
+        this.ids = new long[capacity];
+        this.distances = new double[capacity];
+    }
+
+    /**
+     * 清空，准备下一次计算
+     */
+    public void reset() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * 是否已保留 K 个候选
+     */
+    public boolean isFull() {
+        return size == capacity;
+    }
+
+    /**
+     * 当前第 K 名的距离（未满时为 Double.MAX_VALUE），距离不小于该值的候选无需提交
+     */
+    public double worstDistance() {
+        return size == capacity ? distances[0] : Double.MAX_VALUE;
+    }
+
+    /**
+     * 提交候选
+     *
+     * @param id       候选图片 id
+     * @param distance 候选距离
+     * @return 是否进入前 K 名
+     */
+    public boolean offer(long id, double distance) {
+        if (size < capacity) {
+            siftUp(size++, id, distance);
+            return true;
+        }
+        if (distance >= distances[0]) {
+            return false;
+        }
+        siftDown(0, id, distance);
+        return true;
+    }
+
+    /**
+     * 按距离升序取出全部候选 id（取出后为空）
+     *
+     * @return 候选图片 id 列表
+     */
+    public List<Long> drainSorted() {
+        Long[] sortedIds = new Long[size];
+        // 每次将堆顶（最大者）放到末尾
+        for (int i = sortedIds.length - 1; i >= 0; i--) {
+            sortedIds[i] = ids[0];
+            size--;
+            if (size > 0) {
+                siftDown(0, ids[size], distances[size]);
+            }
+        }
+        return Arrays.asList(sortedIds);
+    }
+
+    private void siftUp(int position, long id, double distance) {
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (distances[parent] >= distance) {
+                break;
+            }
+            ids[position] = ids[parent];
+            distances[position] = distances[parent];
+            position = parent;
+        }
+        ids[position] = id;
+        distances[position] = distance;
+    }
+
+    private void siftDown(int position, long id, double distance) {
+        int half = size >>> 1;
+        while (position < half) {
+            int child = 2 * position + 1;
+            if (child + 1 < size && distances[child + 1] > distances[child]) {
+                child++;
+            }
+            if (distance >= distances[child]) {
+                break;
+            }
+            ids[position] = ids[child];
+            distances[position] = distances[child];
+            position = child;
+        }
+        ids[position] = id;
+        distances[position] = distance;
+    }
+}
@@ -0,0 +1,121 @@
+package com.ye.yepicturebackend.utils;
+
+import cn.hutool.core.codec.Base64;
+import cn.hutool.core.util.StrUtil;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.toolkit.support.SFunction;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.ye.yepicturebackend.common.CursorPage;
+import com.ye.yepicturebackend.exception.BusinessException;
+import com.ye.yepicturebackend.exception.ErrorCode;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 游标分页工具类（按 createTime DESC, id DESC 的 keyset 分页）
+ * <p>
+ * 游标编码上一页最后一条记录的 (createTime, id)，下一页只需 WHERE 条件定位起点：
+ * - 不执行 COUNT，不使用 LIMIT offset，翻页耗时与页深无关
+ * - 多取一条判断是否还有下一页
+ * </p>
+ */
+public class CursorUtils {
+
+    /**
+     * 私有构造方法：工具类禁止实例化
+     */
+    private CursorUtils() {
+        throw new AssertionError("工具类不允许实例化");
+    }
+
+    /**
+     * 游标内部分隔符
+     */
+    private static final String SEPARATOR = ":";
+
+    /**
+     * 追加游标条件与 id 排序
+     * 调用方需保证查询已按创建时间降序排序（即 getLambdaQueryWrapper 的默认排序）
+     *
+     * @param queryWrapper 查询条件
+     * @param cursor       上一页返回的游标，首页为空
+     * @param timeColumn   创建时间字段
+     * @param idColumn     主键字段
+     */
+    public static <T> void applyCursor(LambdaQueryWrapper<T> queryWrapper, String cursor,
+                                       SFunction<T, Date> timeColumn, SFunction<T, Long> idColumn) {
+        if (StrUtil.isNotBlank(cursor)) {
+            long[] position = decode(cursor);
+            Date createTime = new Date(position[0]);
+            long id = position[1];
+            queryWrapper.and(qw -> qw
+                    .lt(timeColumn, createTime)
+                    .or(inner -> inner.eq(timeColumn, createTime).lt(idColumn, id)));
+        }
+        queryWrapper.orderByDesc(idColumn);
+    }
+
+    /**
+     * 构造游标查询的分页参数：不统计总数，多取一条用于判断是否还有下一页
+     *
+     * @param size 每页大小
+     * @return Page 分页参数
+     */
+    public static <T> Page<T> newPage(int size) {
+        return new Page<>(1, size + 1, false);
+    }
+
+    /**
+     * 将多取一条的查询结果转换为游标分页结果
+     *
+     * @param records    查询结果（最多 size + 1 条）
+     * @param size       每页大小
+     * @param timeGetter 创建时间取值
+     * @param idGetter   主键取值
+     * @param converter  记录转换（如实体转 VO，整页批量转换）
+     * @return CursorPage 游标分页结果
+     */
+    public static <T, V> CursorPage<V> toCursorPage(List<T> records, int size,
+                                                    Function<T, Date> timeGetter,
+                                                    Function<T, Long> idGetter,
+                                                    Function<List<T>, List<V>> converter) {
+        CursorPage<V> cursorPage = new CursorPage<>();
+        boolean hasMore = records.size() > size;
+        List<T> pageRecords = hasMore ? records.subList(0, size) : records;
+        cursorPage.setHasMore(hasMore);
+        if (hasMore) {
+            T last = pageRecords.get(pageRecords.size() - 1);
+            cursorPage.setNextCursor(encode(timeGetter.apply(last), idGetter.apply(last)));
+        }
+        if (!pageRecords.isEmpty()) {
+            cursorPage.setRecords(converter.apply(pageRecords));
+        }
+        return cursorPage;
+    }
+
+    /**
+     * 编码游标
+     */
+    private static String encode(Date createTime, Long id) {
+        String raw = createTime.getTime() + SEPARATOR + id;
+        return Base64.encodeUrlSafe(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解码游标
+     *
+     * @return [创建时间毫秒数, id]
+     */
+    private static long[] decode(String cursor) {
+        try {
+            String raw = Base64.decodeStr(cursor, StandardCharsets.UTF_8);
+            String[] parts = raw.split(SEPARATOR);
+            return new long[]{Long.parseLong(parts[0]), Long.parseLong(parts[1])};
+        } catch (Exception e) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "游标不合法");
+        }
+    }
+}
@@ -1,13 +1,21 @@
 package com.ye.yepicturebackend.utils;
 
 import cn.hutool.json.JSONUtil;
+import com.ye.yepicturebackend.manager.tag.PictureTagManager;
 import com.ye.yepicturebackend.model.entity.Picture;
+import com.ye.yepicturebackend.model.enums.PictureProjectionEnum;
 import com.ye.yepicturebackend.model.vo.picture.PictureVO;
 import com.ye.yepicturebackend.service.CosUrlService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.BeanUtils;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 
 /**
  * Picture 实体与 VO 的转换器（由 Spring 管理，可注入服务）
@@ -18,6 +26,8 @@ public class PictureVoConverter {
 
     private final CosUrlService cosUrlService;
 
+    private final PictureTagManager pictureTagManager;
+
     /**
      * 将 Picture 实体转换为 PictureVO
      */
@@ -25,18 +35,102 @@ public class PictureVoConverter {
         if (picture == null) {
             return null;
         }
+        return toVo(picture, cosUrlService::generateDefaultSignedUrl, null);
+    }
+
+    /**
+     * 批量将 Picture 实体转换为 PictureVO（整批图片的签名 URL 一次性生成）
+     */
+    public List<PictureVO> toVoList(List<Picture> pictureList) {
+        return toVoList(pictureList, PictureProjectionEnum.FULL);
+    }
+
+    /**
+     * 按字段投影批量转换，仅签名投影需要的访问地址；标签从标签关联表批量读取
+     */
+    public List<PictureVO> toVoList(List<Picture> pictureList, PictureProjectionEnum projection) {
+        return signUrls(toUnsignedVoList(pictureList, projection));
+    }
+
+    /**
+     * 按字段投影批量转换，访问地址字段保存对象键而不签名（用于缓存，读取后调用 {@link #signUrls} 签名）
+     */
+    public List<PictureVO> toUnsignedVoList(List<Picture> pictureList, PictureProjectionEnum projection) {
+        List<Long> taggedIdList = pictureList.stream()
+                .filter(picture -> picture.getTags() != null)
+                .map(Picture::getId)
+                .collect(Collectors.toList());
+        Map<Long, List<String>> tagsMap = taggedIdList.isEmpty()
+                ? Collections.emptyMap()
+                : pictureTagManager.getTagNamesByPictureIds(taggedIdList);
+        return pictureList.stream()
+                .map(picture -> {
+                    PictureVO pictureVO = toVo(picture, Function.identity(), tagsMap.get(picture.getId()));
+                    if (!projection.isSignOrigin()) {
+                        pictureVO.setUrl(null);
+                    }
+                    if (!projection.isSignCompress()) {
+                        pictureVO.setCompressUrl(null);
+                    }
+                    if (!projection.isSignThumbnail()) {
+                        pictureVO.setThumbnailUrl(null);
+                    }
+                    return pictureVO;
+                })
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 将访问地址字段中的对象键替换为签名 URL（整批一次性生成）
+     */
+    public List<PictureVO> signUrls(List<PictureVO> voList) {
+        List<String> keys = new ArrayList<>(voList.size() * 3);
+        for (PictureVO pictureVO : voList) {
+            keys.add(pictureVO.getUrl());
+            keys.add(pictureVO.getCompressUrl());
+            keys.add(pictureVO.getThumbnailUrl());
+        }
+        Map<String, String> urlMap = cosUrlService.generateDefaultSignedUrls(keys);
+        for (PictureVO pictureVO : voList) {
+            pictureVO.setUrl(pictureVO.getUrl() == null ? null : urlMap.get(pictureVO.getUrl()));
+            pictureVO.setCompressUrl(pictureVO.getCompressUrl() == null ? null : urlMap.get(pictureVO.getCompressUrl()));
+            pictureVO.setThumbnailUrl(pictureVO.getThumbnailUrl() == null ? null : urlMap.get(pictureVO.getThumbnailUrl()));
+        }
+        return voList;
+    }
+
+    /**
+     * @param tags 已从标签关联表读取的标签，为 null 时解析 picture.tags（单条转换或尚未回填的历史数据）
+     */
+    private PictureVO toVo(Picture picture, Function<String, String> urlResolver, List<String> tags) {
         PictureVO pictureVO = new PictureVO();
 
-        BeanUtils.copyProperties(picture, pictureVO);
+        pictureVO.setId(picture.getId());
+        pictureVO.setName(picture.getName());
+        pictureVO.setIntroduction(picture.getIntroduction());
+        pictureVO.setCategory(picture.getCategory());
+        pictureVO.setPicSize(picture.getPicSize());
+        pictureVO.setPicWidth(picture.getPicWidth());
+        pictureVO.setPicHeight(picture.getPicHeight());
+        pictureVO.setPicScale(picture.getPicScale());
+        pictureVO.setPicFormat(picture.getPicFormat());
+        pictureVO.setPicColor(picture.getPicColor());
+        pictureVO.setUserId(picture.getUserId());
+        pictureVO.setSpaceId(picture.getSpaceId());
+        pictureVO.setCreateTime(picture.getCreateTime());
+        pictureVO.setEditTime(picture.getEditTime());
+        pictureVO.setUpdateTime(picture.getUpdateTime());
         // 处理 tags
-        if (picture.getTags() != null) {
+        if (tags != null) {
+            pictureVO.setTags(tags);
+        } else if (picture.getTags() != null) {
             pictureVO.setTags(JSONUtil.toList(picture.getTags(), String.class));
         }
 
-        pictureVO.setUrl(cosUrlService.generateDefaultSignedUrl(picture.getOriginKey()));
-        pictureVO.setCompressUrl(cosUrlService.generateDefaultSignedUrl(picture.getCompressKey()));
-        pictureVO.setThumbnailUrl(cosUrlService.generateDefaultSignedUrl(picture.getThumbnailKey()));
+        pictureVO.setUrl(urlResolver.apply(picture.getOriginKey()));
+        pictureVO.setCompressUrl(urlResolver.apply(picture.getCompressKey()));
+        pictureVO.setThumbnailUrl(urlResolver.apply(picture.getThumbnailKey()));
 
         return pictureVO;
     }
-}
\ No newline at end of file
+}
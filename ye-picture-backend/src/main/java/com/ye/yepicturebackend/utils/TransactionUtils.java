@@ -0,0 +1,53 @@
+package com.ye.yepicturebackend.utils;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 事务工具类
+ */
+public class TransactionUtils {
+
+    /**
+     * 私有构造方法：工具类禁止实例化
+     */
+    private TransactionUtils() {
+        throw new AssertionError("工具类不允许实例化");
+    }
+
+    /**
+     * 在当前事务提交后执行（回滚时不执行）；没有活动事务时立即执行
+     *
+     * @param action 待执行的操作
+     */
+    public static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * 在当前事务结束后执行（提交或回滚都执行，晚于所有提交回调）；没有活动事务时立即执行
+     *
+     * @param action 待执行的操作
+     */
+    public static void afterCompletion(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                action.run();
+            }
+        });
+    }
+}
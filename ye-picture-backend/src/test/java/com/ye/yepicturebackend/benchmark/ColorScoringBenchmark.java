@@ -0,0 +1,221 @@
+package com.ye.yepicturebackend.benchmark;
+
+import com.ye.yepicturebackend.utils.ColorSimilarUtils;
+import com.ye.yepicturebackend.utils.ColorTopK;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 色板提取与颜色搜索中两处打分循环的基准
+ * <p>
+ * - assignScalar / assignBatched：k-means 像素分配。前者逐像素逐颜色调用 distanceSquare（原实现），
+ * 后者按颜色批量调用 distanceSquares 再逐像素比较（PaletteExtractor 现实现）。
+ * 像素数取 picture.palette.sample-size 为 32、64 时的上限，颜色数为色板上限 5
+ * - selectSorted / selectTopK：从范围查询读到的候选中取色差最小的 12 张。前者装箱为候选对象后整体排序（原实现），
+ * 后者使用 ColorTopK（PictureColorManager、PicturePaletteManager 现实现）。
+ * 候选数取主色调范围查询的一页与色板范围查询的多页
+ * </p>
+ * 两组实现的结果在 setUp 中先比对一致再计时；main 方法的参数为基准名过滤条件（如 assign），不传时全部运行
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+public class ColorScoringBenchmark {
+
+    /**
+     * 色板最多颜色数（与 PaletteExtractor.MAX_COLORS 一致）
+     */
+    private static final int CENTER_COUNT = 5;
+
+    /**
+     * 颜色搜索返回数量（与 PictureServiceImpl.COLOR_SEARCH_LIMIT 一致）
+     */
+    private static final int LIMIT = 12;
+
+    /**
+     * 颜色搜索允许的最大色差（与 PictureServiceImpl.COLOR_MAX_DELTA_E 一致）
+     */
+    private static final double MAX_DELTA_E = 20;
+
+    /**
+     * 抽样解码后的像素与当前色板颜色
+     */
+    @State(Scope.Thread)
+    public static class PixelState {
+
+        @Param({"1024", "4096"})
+        private int pixelCount;
+
+        private int[] pixels;
+
+        private int[] centers;
+
+        private int[] assignment;
+
+        private int[][] scratch;
+
+        @Setup
+        public void setUp() {
+            Random random = new Random(7);
+            pixels = new int[pixelCount];
+            for (int i = 0; i < pixelCount; i++) {
+                pixels[i] = random.nextInt(0x1000000);
+            }
+            centers = new int[CENTER_COUNT];
+            for (int c = 0; c < CENTER_COUNT; c++) {
+                centers[c] = pixels[random.nextInt(pixelCount)];
+            }
+            assignment = new int[pixelCount];
+            scratch = new int[2][pixelCount];
+            // 计时前确认两种实现的分配结果一致
+            ColorScoringBenchmark benchmark = new ColorScoringBenchmark();
+            int[] scalarCounts = benchmark.assignScalar(this);
+            int[] scalarAssignment = assignment.clone();
+            if (!Arrays.equals(scalarCounts, benchmark.assignBatched(this)) || !Arrays.equals(scalarAssignment, assignment)) {
+                throw new IllegalStateException("像素分配结果不一致");
+            }
+        }
+    }
+
+    /**
+     * 范围查询读到的候选图片及其 CIEDE2000 色差
+     */
+    @State(Scope.Thread)
+    public static class CandidateState {
+
+        @Param({"2000", "20000"})
+        private int candidateCount;
+
+        private long[] candidateIds;
+
+        private double[] candidateDeltaEs;
+
+        private ColorTopK topK;
+
+        @Setup
+        public void setUp() {
+            Random random = new Random(11);
+            candidateIds = new long[candidateCount];
+            candidateDeltaEs = new double[candidateCount];
+            for (int i = 0; i < candidateCount; i++) {
+                candidateIds[i] = 1_000_000L + i;
+                // 范围按色差上限推算，读到的颜色有一部分超出上限
+                candidateDeltaEs[i] = MAX_DELTA_E * 1.5 * random.nextDouble();
+            }
+            topK = new ColorTopK(LIMIT);
+            // 计时前确认两种实现的前 K 名一致
+            ColorScoringBenchmark benchmark = new ColorScoringBenchmark();
+            if (!benchmark.selectSorted(this).equals(benchmark.selectTopK(this))) {
+                throw new IllegalStateException("前 K 名结果不一致");
+            }
+        }
+    }
+
+    /**
+     * 原像素分配：逐像素逐颜色计算距离平方
+     */
+    @Benchmark
+    public int[] assignScalar(PixelState state) {
+        int[] pixels = state.pixels;
+        int[] counts = new int[CENTER_COUNT];
+        for (int i = 0; i < pixels.length; i++) {
+            int nearest = 0;
+            long nearestDistance = Long.MAX_VALUE;
+            for (int c = 0; c < CENTER_COUNT; c++) {
+                long distance = ColorSimilarUtils.distanceSquare(pixels[i], state.centers[c]);
+                if (distance < nearestDistance) {
+                    nearestDistance = distance;
+                    nearest = c;
+                }
+            }
+            state.assignment[i] = nearest;
+            counts[nearest]++;
+        }
+        return counts;
+    }
+
+    /**
+     * 现像素分配（与 PaletteExtractor.assign 相同）：按颜色批量计算全部像素的距离平方
+     */
+    @Benchmark
+    public int[] assignBatched(PixelState state) {
+        int[] pixels = state.pixels;
+        int[] distances = state.scratch[0];
+        int[] nearestDistances = state.scratch[1];
+        Arrays.fill(nearestDistances, 0, pixels.length, Integer.MAX_VALUE);
+        for (int c = 0; c < CENTER_COUNT; c++) {
+            ColorSimilarUtils.distanceSquares(pixels, 0, pixels.length, state.centers[c], distances);
+            for (int i = 0; i < pixels.length; i++) {
+                if (distances[i] < nearestDistances[i]) {
+                    nearestDistances[i] = distances[i];
+                    state.assignment[i] = c;
+                }
+            }
+        }
+        int[] counts = new int[CENTER_COUNT];
+        for (int i = 0; i < pixels.length; i++) {
+            counts[state.assignment[i]]++;
+        }
+        return counts;
+    }
+
+    /**
+     * 原前 K 名：色差不超过上限的候选装箱后整体排序
+     */
+    @Benchmark
+    public List<Long> selectSorted(CandidateState state) {
+        List<double[]> matchedList = new ArrayList<>();
+        for (int i = 0; i < state.candidateCount; i++) {
+            if (state.candidateDeltaEs[i] <= MAX_DELTA_E) {
+                matchedList.add(new double[]{state.candidateIds[i], state.candidateDeltaEs[i]});
+            }
+        }
+        return matchedList.stream()
+                .sorted(Comparator.comparingDouble(candidate -> candidate[1]))
+                .limit(LIMIT)
+                .map(candidate -> (long) candidate[0])
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 现前 K 名：可重复使用的 ColorTopK
+     */
+    @Benchmark
+    public List<Long> selectTopK(CandidateState state) {
+        ColorTopK topK = state.topK;
+        topK.reset();
+        for (int i = 0; i < state.candidateCount; i++) {
+            if (state.candidateDeltaEs[i] <= MAX_DELTA_E) {
+                topK.offer(state.candidateIds[i], state.candidateDeltaEs[i]);
+            }
+        }
+        return topK.drainSorted();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        String include = ColorScoringBenchmark.class.getSimpleName() + (args.length > 0 ? "." + args[0] : "");
+        new Runner(new OptionsBuilder().include(include).build()).run();
+    }
+}
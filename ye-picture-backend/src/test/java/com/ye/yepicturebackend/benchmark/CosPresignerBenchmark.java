@@ -0,0 +1,139 @@
+package com.ye.yepicturebackend.benchmark;
+
+import com.qcloud.cos.COSClient;
+import com.qcloud.cos.http.HttpMethodName;
+import com.qcloud.cos.model.GeneratePresignedUrlRequest;
+import com.ye.yepicturebackend.manager.storage.CosPresigner;
+import com.ye.yepicturebackend.manager.storage.StorageConfig;
+import com.ye.yepicturebackend.manager.upload.CosClientConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 签名 URL 缓存未命中时的 COS 预签名开销（CosUrlServiceImpl -> CosObjectStorage -> CosPresigner）
+ * <p>
+ * - keyCount=2：图片详情，一张图片的缩略图与压缩图
+ * - keyCount=40：列表页，分页上限 20 张图片各两个 key
+ * - sdkPresign：原实现，每个 key 创建一次请求对象并由 SDK 计算 SignKey 与签名
+ * - nativePresign / nativePresignAll：同一签名窗口内复用 SignKey 与线程内已初始化的 Mac，逐个 / 整页签名
+ * - nativePresignNewWindow：每次调用换一个过期时刻，包含窗口切换时重算 SignKey 与重新初始化 Mac 的开销
+ * 签名为纯本地计算，不访问 COS；setUp 中确认本地签名自检通过后再计时。
+ * main 方法的参数为并发线程数（默认 1），多线程时可观察按线程复用的 Mac 是否互不干扰
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 4, time = 1)
+@Measurement(iterations = 6, time = 1)
+@Fork(2)
+public class CosPresignerBenchmark {
+
+    @Param({"2", "40"})
+    private int keyCount;
+
+    private COSClient cosClient;
+
+    private CosClientConfig cosClientConfig;
+
+    private CosPresigner cosPresigner;
+
+    private List<String> keys;
+
+    private Date expiration;
+
+    private long expirationMillis;
+
+    @Setup
+    public void setUp() {
+        cosClientConfig = new CosClientConfig();
+        cosClientConfig.setSecretId("AKIDbenchmarkSecretId000000000000000");
+        cosClientConfig.setSecretKey("benchmarkSecretKey000000000000000");
+        cosClientConfig.setRegion("ap-shanghai");
+        cosClientConfig.setBucket("ye-picture-1250000000");
+        cosClient = cosClientConfig.cosClient();
+        cosPresigner = new CosPresigner();
+        ReflectionTestUtils.setField(cosPresigner, "cosClientConfig", cosClientConfig);
+        ReflectionTestUtils.setField(cosPresigner, "cosClient", cosClient);
+        ReflectionTestUtils.setField(cosPresigner, "storageConfig", new StorageConfig());
+        cosPresigner.init();
+        if (!Boolean.TRUE.equals(ReflectionTestUtils.getField(cosPresigner, "nativeEnabled"))) {
+            throw new IllegalStateException("本地预签名自检未通过，基准结果无意义");
+        }
+        keys = new ArrayList<>(keyCount);
+        for (int i = 0; i < keyCount / 2; i++) {
+            keys.add(String.format("public/1001/2024-06-01_pic%05d_thumbnail.jpg", i));
+            keys.add(String.format("public/1001/2024-06-01_pic%05d.webp", i));
+        }
+        expirationMillis = System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1);
+        expiration = new Date(expirationMillis);
+    }
+
+    /**
+     * 原实现：每个 key 调用一次 COSClient.generatePresignedUrl
+     */
+    @Benchmark
+    public void sdkPresign(Blackhole blackhole) {
+        for (String key : keys) {
+            GeneratePresignedUrlRequest req = new GeneratePresignedUrlRequest(
+                    cosClientConfig.getBucket(), key, HttpMethodName.GET);
+            req.setExpiration(expiration);
+            blackhole.consume(cosClient.generatePresignedUrl(req).toString());
+        }
+    }
+
+    /**
+     * 本地签名：逐个调用（签名窗口不变）
+     */
+    @Benchmark
+    public void nativePresign(Blackhole blackhole) {
+        for (String key : keys) {
+            blackhole.consume(cosPresigner.presign(key, expiration));
+        }
+    }
+
+    /**
+     * 本地签名：整页批量（签名窗口不变）
+     */
+    @Benchmark
+    public Map<String, String> nativePresignAll() {
+        return cosPresigner.presignAll(keys, expiration);
+    }
+
+    /**
+     * 本地签名：每次调用都切换签名密钥（最坏情况，实际每个窗口只切换一次）
+     */
+    @Benchmark
+    public Map<String, String> nativePresignNewWindow() {
+        expirationMillis += TimeUnit.SECONDS.toMillis(1);
+        return cosPresigner.presignAll(keys, new Date(expirationMillis));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 1;
+        new Runner(new OptionsBuilder()
+                .include(CosPresignerBenchmark.class.getSimpleName())
+                .threads(threads)
+                .build()).run();
+    }
+}
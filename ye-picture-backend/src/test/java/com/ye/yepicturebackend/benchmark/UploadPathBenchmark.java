@@ -0,0 +1,144 @@
+package com.ye.yepicturebackend.benchmark;
+
+import cn.hutool.crypto.digest.DigestUtil;
+import com.ye.yepicturebackend.manager.upload.LimitedInputStream;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 原图上传前半段（读取输入源 → 计算 SHA-256 → PUT 到对象存储）的两条路径，对象存储以丢弃数据的输出流代替
+ * <p>
+ * - memoryBuffer：picture.upload.streaming=true（默认），与 PictureUploadTemplate.uploadByMemory 相同：
+ * 在 3M 上限内经 LimitedInputStream 读入内存 → 对字节数组计算哈希 → 按实际长度 PUT
+ * - tempFile：picture.upload.streaming=false，与 uploadByTempFile 相同：
+ * 写入临时文件 → 读文件计算哈希 → 再读文件 PUT
+ * - knownLength：multipart 上传与带 Content-Length 的响应可按长度一次分配缓冲区；
+ * 为 false 时对应分块传输的 URL 响应，缓冲区从 64K 开始扩容
+ * 两条路径先算出内容哈希再上传，命中已存储内容时都会跳过 PUT，这里只测未命中的情况。
+ * 临时文件写入量见 diskBytesWritten 辅助计数；main 方法启用 GC 分析器，可比较内存缓冲带来的堆分配
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(2)
+public class UploadPathBenchmark {
+
+    /**
+     * 图片大小上限（与 PictureUploadTemplate.MAX_FILE_SIZE 一致）
+     */
+    private static final long MAX_FILE_SIZE = 3 * 1024 * 1024L;
+
+    /**
+     * 上传数据大小（字节）：常见缩放后的图片与大小上限
+     */
+    @Param({"262144", "3145728"})
+    private int payloadSize;
+
+    @Param({"true", "false"})
+    private boolean knownLength;
+
+    private byte[] payload;
+
+    /**
+     * 模拟对象存储：读取并丢弃全部数据
+     */
+    private final OutputStream objectStore = OutputStream.nullOutputStream();
+
+    /**
+     * 磁盘写入计数（每轮迭代清零）
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class DiskCounters {
+
+        public long diskBytesWritten;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            diskBytesWritten = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        payload = new byte[payloadSize];
+        new Random(42).nextBytes(payload);
+        // 计时前确认两条路径得到相同的内容哈希
+        if (!memoryBuffer(new DiskCounters()).equals(tempFile(new DiskCounters()))) {
+            throw new IllegalStateException("两条路径的内容哈希不一致");
+        }
+    }
+
+    /**
+     * 内存缓冲路径：readLimited → DigestUtil.sha256Hex(byte[]) → putPictureObject(ByteArrayInputStream, length)
+     */
+    @Benchmark
+    public String memoryBuffer(DiskCounters counters) throws IOException {
+        byte[] data;
+        try (InputStream inputStream = new LimitedInputStream(new ByteArrayInputStream(payload), MAX_FILE_SIZE)) {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream(knownLength ? payloadSize : 64 * 1024);
+            inputStream.transferTo(outputStream);
+            data = outputStream.toByteArray();
+        }
+        String fileHash = DigestUtil.sha256Hex(data);
+        new ByteArrayInputStream(data, 0, data.length).transferTo(objectStore);
+        return fileHash;
+    }
+
+    /**
+     * 临时文件路径：processFile → DigestUtil.sha256Hex(File) → putPictureObject(File)
+     */
+    @Benchmark
+    public String tempFile(DiskCounters counters) throws IOException {
+        File tempFile = File.createTempFile("origin_pic_", ".jpg");
+        try {
+            try (InputStream inputStream = new ByteArrayInputStream(payload)) {
+                Files.copy(inputStream, tempFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            counters.diskBytesWritten += tempFile.length();
+            String fileHash = DigestUtil.sha256Hex(tempFile);
+            try (InputStream fileInputStream = Files.newInputStream(tempFile.toPath())) {
+                fileInputStream.transferTo(objectStore);
+            }
+            return fileHash;
+        } finally {
+            Files.deleteIfExists(tempFile.toPath());
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(UploadPathBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,209 @@
+package com.ye.yepicturebackend.benchmark;
+
+import cn.hutool.json.JSONUtil;
+import com.ye.yepicturebackend.model.entity.Picture;
+import com.ye.yepicturebackend.model.entity.Space;
+import com.ye.yepicturebackend.model.entity.User;
+import com.ye.yepicturebackend.model.vo.picture.PictureVO;
+import com.ye.yepicturebackend.model.vo.space.SpaceVO;
+import com.ye.yepicturebackend.model.vo.user.UserVO;
+import com.ye.yepicturebackend.service.CosUrlService;
+import com.ye.yepicturebackend.service.impl.UserServiceImpl;
+import com.ye.yepicturebackend.utils.PictureVoConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.beans.BeanUtils;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 列表接口逐行执行的实体 → VO 转换：BeanUtils.copyProperties（原实现） vs 逐字段显式复制（现实现）
+ * <p>
+ * - Picture → PictureVO（PictureVoConverter.toVo）、User → UserVO（UserServiceImpl.getUserVO）、Space → SpaceVO（SpaceVO.objToVo）
+ * - tagCount=0 时图片没有 tags，只比较属性复制本身；tagCount=5 时两种实现都要解析 picture.tags 的 JSON，
+ * 可看出单条转换中标签解析与属性复制各占多少
+ * - 访问地址签名不在测量范围内（以原样返回对象键的 CosUrlService 代替），签名开销见 CosPresignerBenchmark
+ * setUp 中先确认两种实现得到相同的 VO 再计时。单次转换只有几百纳秒，迭代时间取短、多 fork 几次以减小 JIT 差异；
+ * main 方法启用 GC 分析器，gc.alloc.rate.norm 即每次转换的分配字节数
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 8, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(3)
+public class VoConversionBenchmark {
+
+    @Param({"0", "5"})
+    private int tagCount;
+
+    private Picture picture;
+
+    private User user;
+
+    private Space space;
+
+    private PictureVoConverter pictureVoConverter;
+
+    private UserServiceImpl userService;
+
+    @Setup
+    public void setUp() {
+        Date now = new Date();
+        picture = new Picture();
+        picture.setId(1790000000000000001L);
+        picture.setName("日落");
+        picture.setIntroduction("海边的日落");
+        picture.setCategory("风景");
+        if (tagCount > 0) {
+            String[] tags = {"海边", "日落", "风景", "旅行", "天空"};
+            picture.setTags(JSONUtil.toJsonStr(Arrays.copyOf(tags, tagCount)));
+        }
+        picture.setOriginKey("public/1001/2024-06-01_abcd1234.jpg");
+        picture.setCompressKey("public/1001/2024-06-01_abcd1234.webp");
+        picture.setThumbnailKey("public/1001/2024-06-01_abcd1234_thumbnail.jpg");
+        picture.setPicSize(524288L);
+        picture.setPicWidth(1920);
+        picture.setPicHeight(1080);
+        picture.setPicScale(1.78);
+        picture.setPicFormat("jpg");
+        picture.setPicColor("0xFF8800");
+        picture.setUserId(1001L);
+        picture.setCreateTime(now);
+        picture.setEditTime(now);
+        picture.setUpdateTime(now);
+
+        user = new User();
+        user.setId(1001L);
+        user.setUserAccount("ye");
+        user.setUserPassword("0123456789abcdef0123456789abcdef");
+        user.setUserName("ye");
+        user.setUserAvatar("https://example.com/avatar.png");
+        user.setUserProfile("profile");
+        user.setUserEmail("ye@example.com");
+        user.setUserRole("user");
+        user.setCreateTime(now);
+        user.setEditTime(now);
+        user.setUpdateTime(now);
+
+        space = new Space();
+        space.setId(2001L);
+        space.setSpaceName("我的空间");
+        space.setSpaceLevel(0);
+        space.setSpaceType(0);
+        space.setMaxSize(100L * 1024 * 1024);
+        space.setMaxCount(100L);
+        space.setTotalSize(1024L);
+        space.setTotalCount(1L);
+        space.setUserId(1001L);
+        space.setCreateTime(now);
+        space.setEditTime(now);
+        space.setUpdateTime(now);
+
+        pictureVoConverter = new PictureVoConverter(new KeyEchoUrlService(), null);
+        userService = new UserServiceImpl();
+
+        // 计时前确认两种实现的转换结果一致
+        if (!pictureBeanUtils().equals(pictureExplicit())
+                || !userBeanUtils().equals(userExplicit())
+                || !spaceBeanUtils().equals(spaceExplicit())) {
+            throw new IllegalStateException("两种转换结果不一致");
+        }
+    }
+
+    /**
+     * 原实现：BeanUtils.copyProperties 后补充标签与访问地址
+     */
+    @Benchmark
+    public PictureVO pictureBeanUtils() {
+        PictureVO pictureVO = new PictureVO();
+        BeanUtils.copyProperties(picture, pictureVO);
+        if (picture.getTags() != null) {
+            pictureVO.setTags(JSONUtil.toList(picture.getTags(), String.class));
+        }
+        pictureVO.setUrl(picture.getOriginKey());
+        pictureVO.setCompressUrl(picture.getCompressKey());
+        pictureVO.setThumbnailUrl(picture.getThumbnailKey());
+        return pictureVO;
+    }
+
+    @Benchmark
+    public PictureVO pictureExplicit() {
+        return pictureVoConverter.toVo(picture);
+    }
+
+    @Benchmark
+    public UserVO userBeanUtils() {
+        UserVO userVO = new UserVO();
+        BeanUtils.copyProperties(user, userVO);
+        return userVO;
+    }
+
+    @Benchmark
+    public UserVO userExplicit() {
+        return userService.getUserVO(user);
+    }
+
+    @Benchmark
+    public SpaceVO spaceBeanUtils() {
+        SpaceVO spaceVO = new SpaceVO();
+        BeanUtils.copyProperties(space, spaceVO);
+        return spaceVO;
+    }
+
+    @Benchmark
+    public SpaceVO spaceExplicit() {
+        return SpaceVO.objToVo(space);
+    }
+
+    /**
+     * 原样返回对象键，排除签名开销
+     */
+    private static class KeyEchoUrlService implements CosUrlService {
+
+        @Override
+        public String generateDefaultSignedUrl(String key) {
+            return key;
+        }
+
+        @Override
+        public String generateSignedUrl(String key, long expireMillis) {
+            return key;
+        }
+
+        @Override
+        public Map<String, String> generateDefaultSignedUrls(Collection<String> keys) {
+            Map<String, String> result = new LinkedHashMap<>();
+            keys.forEach(key -> result.put(key, key));
+            return result;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(VoConversionBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
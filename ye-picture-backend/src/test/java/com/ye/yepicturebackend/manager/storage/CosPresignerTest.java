@@ -0,0 +1,52 @@
+package com.ye.yepicturebackend.manager.storage;
+
+import com.ye.yepicturebackend.manager.upload.CosClientConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 本地预签名与 SDK 预签名的一致性测试（签名为纯本地计算，不访问 COS）
+ */
+class CosPresignerTest {
+
+    private CosPresigner cosPresigner;
+
+    @BeforeEach
+    void setUp() {
+        CosClientConfig cosClientConfig = new CosClientConfig();
+        cosClientConfig.setSecretId("AKIDtestSecretId0000000000000000000");
+        cosClientConfig.setSecretKey("testSecretKey00000000000000000000");
+        cosClientConfig.setRegion("ap-shanghai");
+        cosClientConfig.setBucket("ye-picture-1250000000");
+        cosPresigner = new CosPresigner();
+        ReflectionTestUtils.setField(cosPresigner, "cosClientConfig", cosClientConfig);
+        ReflectionTestUtils.setField(cosPresigner, "cosClient", cosClientConfig.cosClient());
+        ReflectionTestUtils.setField(cosPresigner, "storageConfig", new StorageConfig());
+        cosPresigner.init();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "public/1/2024-06-01_abcd1234.jpg",
+            "space/2/风景 照片/2024-06-01_日落.png",
+            "public/3/a b+c=d&e.webp",
+            "public/4/(1)~!'*;,$@.jpg",
+            "public/5/emoji_😀.jpg"
+    })
+    void nativeSignatureMatchesSdk(String key) {
+        String sdkUrl = cosPresigner.presignBySdk(key, new Date(System.currentTimeMillis() + 3_600_000L));
+        assertEquals(sdkUrl, cosPresigner.signLike(key, sdkUrl));
+    }
+
+    @Test
+    void selfCheckEnablesNativeSigning() {
+        assertEquals(Boolean.TRUE, ReflectionTestUtils.getField(cosPresigner, "nativeEnabled"));
+    }
+}
@@ -0,0 +1,134 @@
+package com.ye.yepicturebackend.service.impl;
+
+import cn.hutool.core.bean.BeanUtil;
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.metadata.TableFieldInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.ye.yepicturebackend.common.CursorPage;
+import com.ye.yepicturebackend.model.entity.Picture;
+import com.ye.yepicturebackend.model.enums.PictureProjectionEnum;
+import com.ye.yepicturebackend.utils.CursorUtils;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 图片游标分页测试：各字段投影查询出的记录都能生成下一页游标并逐页翻完（不访问数据库）
+ */
+class PictureCursorPageTest {
+
+    private static final int PAGE_SIZE = 2;
+
+    private static TableInfo pictureTableInfo;
+
+    @BeforeAll
+    static void initTableInfo() {
+        // 与 application.yml 一致：列名即属性名
+        MybatisConfiguration configuration = new MybatisConfiguration();
+        configuration.setMapUnderscoreToCamelCase(false);
+        pictureTableInfo = TableInfoHelper.initTableInfo(new MapperBuilderAssistant(configuration, ""), Picture.class);
+    }
+
+    @ParameterizedTest
+    @EnumSource(PictureProjectionEnum.class)
+    void pagesPastFirstPage(PictureProjectionEnum projection) {
+        // 1. 按 (createTime, id) 倒序准备数据，含创建时间相同的记录
+        long now = System.currentTimeMillis();
+        List<Picture> rows = new ArrayList<>();
+        rows.add(newPicture(7L, now));
+        rows.add(newPicture(6L, now - 1000));
+        rows.add(newPicture(5L, now - 1000));
+        rows.add(newPicture(4L, now - 2000));
+        rows.add(newPicture(3L, now - 3000));
+        Set<String> columns = selectedColumns(projection);
+        List<Picture> projectedRows = rows.stream()
+                .map(row -> project(row, columns))
+                .collect(Collectors.toList());
+
+        // 2. 逐页翻页，每页多取一条
+        List<Long> pagedIds = new ArrayList<>();
+        int offset = 0;
+        CursorPage<Picture> cursorPage;
+        do {
+            List<Picture> records = projectedRows.subList(offset,
+                    Math.min(offset + PAGE_SIZE + 1, projectedRows.size()));
+            cursorPage = CursorUtils.toCursorPage(records, PAGE_SIZE,
+                    Picture::getCreateTime, Picture::getId, pictureList -> pictureList);
+            cursorPage.getRecords().forEach(picture -> pagedIds.add(picture.getId()));
+            offset += PAGE_SIZE;
+            if (cursorPage.isHasMore()) {
+                // 3. 下一页游标定位到本页最后一条记录
+                assertNotNull(cursorPage.getNextCursor());
+                Picture last = rows.get(offset - 1);
+                LambdaQueryWrapper<Picture> nextWrapper = new LambdaQueryWrapper<>();
+                CursorUtils.applyCursor(nextWrapper, cursorPage.getNextCursor(),
+                        Picture::getCreateTime, Picture::getId);
+                nextWrapper.getSqlSegment();
+                assertTrue(nextWrapper.getParamNameValuePairs().values()
+                        .containsAll(Arrays.asList(last.getCreateTime(), last.getId())));
+            }
+        } while (cursorPage.isHasMore());
+
+        assertEquals(Arrays.asList(7L, 6L, 5L, 4L, 3L), pagedIds);
+    }
+
+    /**
+     * 投影实际查询的列，完整字段为全部列
+     */
+    private static Set<String> selectedColumns(PictureProjectionEnum projection) {
+        LambdaQueryWrapper<Picture> queryWrapper = new LambdaQueryWrapper<>();
+        PictureServiceImpl.selectProjection(queryWrapper, projection);
+        String sqlSelect = queryWrapper.getSqlSelect();
+        if (sqlSelect == null) {
+            Set<String> allColumns = pictureTableInfo.getFieldList().stream()
+                    .map(TableFieldInfo::getColumn)
+                    .collect(Collectors.toSet());
+            allColumns.add(pictureTableInfo.getKeyColumn());
+            return allColumns;
+        }
+        return Arrays.stream(sqlSelect.split(","))
+                .map(String::trim)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * 模拟投影查询：只保留查询到的列
+     */
+    private static Picture project(Picture row, Set<String> columns) {
+        Picture projected = new Picture();
+        for (String column : columns) {
+            BeanUtil.setFieldValue(projected, column, BeanUtil.getFieldValue(row, column));
+        }
+        return projected;
+    }
+
+    private static Picture newPicture(long id, long createTimeMillis) {
+        Picture picture = new Picture();
+        picture.setId(id);
+        picture.setName("picture-" + id);
+        picture.setThumbnailKey("public/1/" + id + "_thumbnail.jpg");
+        picture.setCompressKey("public/1/" + id + ".webp");
+        picture.setOriginKey("public/1/" + id + ".jpg");
+        picture.setPicWidth(800);
+        picture.setPicHeight(600);
+        picture.setPicScale(1.33);
+        picture.setPicColor("0x808080");
+        picture.setUserId(1L);
+        picture.setCreateTime(new Date(createTimeMillis));
+        return picture;
+    }
+}
@@ -0,0 +1,30 @@
+package com.ye.yepicturebackend.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * 全文检索短语转换测试：搜索词整体作为布尔模式短语，运算符不生效
+ */
+class PictureFulltextPhraseTest {
+
+    @Test
+    void wrapsKeywordAsPhrase() {
+        assertEquals("\"海边日落\"", PictureServiceImpl.toFulltextPhrase("海边日落"));
+        assertEquals("\"+cat -dog*\"", PictureServiceImpl.toFulltextPhrase("+cat -dog*"));
+    }
+
+    @Test
+    void replacesDoubleQuotes() {
+        assertEquals("\"海边  日落\"", PictureServiceImpl.toFulltextPhrase("海边\"\"日落"));
+        assertEquals("\"日落\"", PictureServiceImpl.toFulltextPhrase("\"日落\""));
+    }
+
+    @Test
+    void shortKeywordFallsBackToLike() {
+        assertNull(PictureServiceImpl.toFulltextPhrase("海"));
+        assertNull(PictureServiceImpl.toFulltextPhrase("\"海\""));
+    }
+}
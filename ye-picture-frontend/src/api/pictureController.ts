@@ -201,7 +201,7 @@ export async function searchPictureByPictureUsingPost(
   body: API.SearchPictureRequest,
   options?: { [key: string]: any }
 ) {
-  return request<API.BaseResponseListImageSearchResult_>('/api/picture/search/picture', {
+  return request<API.BaseResponseListPictureVO_>('/api/picture/search/picture', {
     method: 'POST',
     headers: {
       'Content-Type': 'application/json',
@@ -28,12 +28,6 @@ declare namespace API {
     message?: string
   }
 
-  type BaseResponseListImageSearchResult_ = {
-    code?: number
-    data?: ImageSearchResult[]
-    message?: string
-  }
-
   type BaseResponseListPictureVO_ = {
     code?: number
     data?: PictureVO[]
@@ -257,11 +251,6 @@ declare namespace API {
     id?: number
   }
 
-  type ImageSearchResult = {
-    fromUrl?: string
-    thumbUrl?: string
-  }
-
   type listNoticesUsingGETParams = {
     /** page */
     page?: number